@@ -0,0 +1,91 @@
+package cx.twinkle.rediscache.benchmark;
+
+import cx.twinkle.rediscache.annotation.Cacheable;
+import cx.twinkle.rediscache.aspect.CacheInfoOperator;
+import cx.twinkle.rediscache.aspect.RedisCacheAspect;
+import cx.twinkle.rediscache.cache.RedisCacheService;
+import cx.twinkle.rediscache.cache.SerializeServiceImpl;
+import cx.twinkle.rediscache.cache.WriteBehindQueue;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * RedisCacheAspect 端到端的耗时：缓存命中、缓存未命中，以及不经过切面直接调用的耗时作为对比
+ * <p>
+ * 使用内存中的 RedisCacheService 代替 Redis，写入不经过后台线程（写入队列没有启动时同步写入），结果更稳定
+ *
+ * @author twinkle
+ * @version 2026/10/18 23:00
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AspectBenchmark {
+    private static final Long USER_ID = 10086L;
+
+    private UserService target;
+    /**
+     * 数据已经写入缓存，每次调用都命中
+     */
+    private UserService hitProxy;
+    /**
+     * 缓存丢弃所有写入的数据，每次调用都未命中
+     */
+    private UserService missProxy;
+
+    @Setup
+    public void setup() {
+        target = new UserService();
+        SerializeServiceImpl serializeService = new SerializeServiceImpl();
+        hitProxy = this.createProxy(new InMemoryRedisCacheService(serializeService, false));
+        missProxy = this.createProxy(new InMemoryRedisCacheService(serializeService, true));
+        // 预先写入缓存
+        hitProxy.findUser(USER_ID);
+    }
+
+    private UserService createProxy(RedisCacheService cacheService) {
+        RedisCacheAspect aspect = new RedisCacheAspect(new CacheInfoOperator(new DefaultListableBeanFactory()), cacheService);
+        aspect.setWriteBehindQueue(new WriteBehindQueue(cacheService));
+        AspectJProxyFactory proxyFactory = new AspectJProxyFactory(target);
+        proxyFactory.setProxyTargetClass(true);
+        proxyFactory.addAspect(aspect);
+        return proxyFactory.getProxy();
+    }
+
+    @Benchmark
+    public User direct() {
+        return target.findUser(USER_ID);
+    }
+
+    @Benchmark
+    public User hit() {
+        return hitProxy.findUser(USER_ID);
+    }
+
+    @Benchmark
+    public User miss() {
+        return missProxy.findUser(USER_ID);
+    }
+
+    public static class UserService {
+        @Cacheable(cache = "user", expire = "10M")
+        public User findUser(Long id) {
+            return new User(id, "twinkle", 5);
+        }
+    }
+}
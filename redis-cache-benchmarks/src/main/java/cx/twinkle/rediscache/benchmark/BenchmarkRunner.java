@@ -0,0 +1,48 @@
+package cx.twinkle.rediscache.benchmark;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+
+/**
+ * 基准测试的入口，支持 JMH 所有的命令行参数
+ * <p>
+ * 没有指定结果格式时，结果默认以 JSON 格式写入 jmh-result.json，方便对比不同提交之间的结果，例如：
+ * <pre>
+ *     mvn -pl redis-cache-core,redis-cache-benchmarks -am package
+ *     java -jar redis-cache-benchmarks/target/benchmarks.jar                    # 运行所有的基准测试
+ *     java -jar redis-cache-benchmarks/target/benchmarks.jar KeyGeneration -rff key.json
+ * </pre>
+ *
+ * @author twinkle
+ * @version 2026/10/18 23:00
+ */
+public class BenchmarkRunner {
+    /**
+     * 默认的结果文件
+     */
+    private static final String DEFAULT_RESULT_FILE = "jmh-result.json";
+
+    public static void main(String[] args) throws CommandLineOptionException, RunnerException, IOException {
+        CommandLineOptions commandLineOptions = new CommandLineOptions(args);
+        if (commandLineOptions.shouldHelp() || commandLineOptions.shouldList()) {
+            // 帮助、列表等命令直接交给 JMH 处理
+            org.openjdk.jmh.Main.main(args);
+            return;
+        }
+        ChainedOptionsBuilder builder = new OptionsBuilder().parent(commandLineOptions);
+        if (!commandLineOptions.getResultFormat().hasValue()) {
+            builder.resultFormat(ResultFormatType.JSON);
+        }
+        if (!commandLineOptions.getResult().hasValue()) {
+            builder.result(DEFAULT_RESULT_FILE);
+        }
+        new Runner(builder.build()).run();
+    }
+}
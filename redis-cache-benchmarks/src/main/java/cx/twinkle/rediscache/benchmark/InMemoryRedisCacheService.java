@@ -0,0 +1,80 @@
+package cx.twinkle.rediscache.benchmark;
+
+import cx.twinkle.rediscache.cache.RedisCacheService;
+import cx.twinkle.rediscache.cache.SerializeService;
+import cx.twinkle.rediscache.dto.CacheEntry;
+import cx.twinkle.rediscache.dto.MethodCacheInfo;
+
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * 用于基准测试的 RedisCacheService：数据以序列化后的二进制保存在内存中，读写时和真实的实现一样经过序列化、反序列化，
+ * 只是省去了网络往返，不需要 Redis 服务
+ *
+ * @author twinkle
+ * @version 2026/10/18 23:00
+ */
+public class InMemoryRedisCacheService implements RedisCacheService {
+    private final ConcurrentMap<String, byte[]> store = new ConcurrentHashMap<>();
+    private final SerializeService serializeService;
+    /**
+     * 是否丢弃所有写入的数据，用于测试缓存未命中的场景
+     */
+    private final boolean discardWrites;
+
+    public InMemoryRedisCacheService(SerializeService serializeService, boolean discardWrites) {
+        this.serializeService = serializeService;
+        this.discardWrites = discardWrites;
+    }
+
+    @Override
+    public Object getFromRedis(String key) {
+        return serializeService.deserializeFromBytes(store.get(key));
+    }
+
+    @Override
+    public Object getFromRedis(MethodCacheInfo cacheInfo) {
+        return serializeService.deserializeFromBytes(store.get(cacheInfo.getCacheKey()), cacheInfo.getCacheName());
+    }
+
+    @Override
+    public CacheEntry getEntry(MethodCacheInfo cacheInfo) {
+        return serializeService.deserializeEntry(store.get(cacheInfo.getCacheKey()), cacheInfo.getCacheName());
+    }
+
+    @Override
+    public void insert2Redis(String key, Object value, Duration duration, String cacheName) {
+        this.put(key, serializeService.serializeToBytes(value, cacheName, null));
+    }
+
+    @Override
+    public void insertEntry(MethodCacheInfo cacheInfo, CacheEntry entry) {
+        this.put(cacheInfo.getCacheKey(), serializeService.serializeEntry(entry, cacheInfo.getCacheName(), cacheInfo.getCodec()));
+    }
+
+    private void put(String key, byte[] bytes) {
+        if (!discardWrites && bytes.length > 0) {
+            store.put(key, bytes);
+        }
+    }
+
+    @Override
+    public long deleteByKey(String... keys) {
+        long deleted = 0L;
+        for (String key : keys) {
+            if (store.remove(key) != null) {
+                deleted++;
+            }
+        }
+        return deleted;
+    }
+
+    @Override
+    public long deleteByCacheName(String cacheName) {
+        long deleted = store.size();
+        store.clear();
+        return deleted;
+    }
+}
@@ -0,0 +1,81 @@
+package cx.twinkle.rediscache.benchmark;
+
+import cx.twinkle.rediscache.aspect.CacheInfoOperator;
+import cx.twinkle.rediscache.key.HashKeyGenerator;
+import cx.twinkle.rediscache.key.LegacyKeyGenerator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 缓存key生成的耗时：v1_0 与 v2_0 两种格式，以及 CacheInfoOperator.generateCacheKey 的整体耗时
+ *
+ * @author twinkle
+ * @version 2026/10/18 23:00
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class KeyGenerationBenchmark {
+    private static final String CACHE_NAME = "user";
+    private static final String METHOD_NAME = "findUser";
+
+    /**
+     * 参数的类型：primitive 为两个数字，string 为两个字符串，object 为一个对象和一个集合
+     */
+    @Param({"primitive", "string", "object"})
+    private String params;
+
+    private Object[] args;
+    private HashKeyGenerator hashKeyGenerator;
+    private LegacyKeyGenerator legacyKeyGenerator;
+    private CacheInfoOperator operator;
+
+    @Setup
+    public void setup() {
+        switch (params) {
+            case "primitive":
+                args = new Object[]{10086L, 42};
+                break;
+            case "string":
+                args = new Object[]{"twinkle", "zh_CN"};
+                break;
+            default:
+                args = new Object[]{new User(10086L, "twinkle", 5), Arrays.asList(1L, 2L, 3L, 4L, 5L)};
+        }
+        hashKeyGenerator = new HashKeyGenerator();
+        legacyKeyGenerator = new LegacyKeyGenerator();
+        operator = new CacheInfoOperator(new DefaultListableBeanFactory());
+        operator.setKeyGenerator(hashKeyGenerator);
+    }
+
+    @Benchmark
+    public String hashKey() {
+        return hashKeyGenerator.generate(CACHE_NAME, METHOD_NAME, args);
+    }
+
+    @Benchmark
+    public String legacyKey() {
+        return legacyKeyGenerator.generate(CACHE_NAME, METHOD_NAME, args);
+    }
+
+    @Benchmark
+    public String operatorGenerateCacheKey() {
+        return operator.generateCacheKey(CACHE_NAME, METHOD_NAME, args);
+    }
+}
@@ -0,0 +1,83 @@
+package cx.twinkle.rediscache.benchmark;
+
+import cx.twinkle.rediscache.cache.CompressionConfig;
+import cx.twinkle.rediscache.cache.SerializeServiceImpl;
+import cx.twinkle.rediscache.dto.CacheEntry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * SerializeServiceImpl 序列化、反序列化的耗时，按照序列化方式、数据大小、是否压缩区分
+ *
+ * @author twinkle
+ * @version 2026/10/18 23:00
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SerializationBenchmark {
+    private static final String CACHE_NAME = "user";
+
+    @Param({"jackson", "kryo", "jdk"})
+    private String codec;
+    /**
+     * 数据大小：small 约 100 字节，large 约 10KB
+     */
+    @Param({"small", "large"})
+    private String size;
+    /**
+     * 压缩方式：none 表示不压缩
+     */
+    @Param({"none", "lz4"})
+    private String compression;
+
+    private SerializeServiceImpl serializeService;
+    private User value;
+    private CacheEntry entry;
+    private byte[] serialized;
+
+    @Setup
+    public void setup() {
+        serializeService = new SerializeServiceImpl();
+        CompressionConfig compressionConfig = new CompressionConfig();
+        compressionConfig.setEnabled(!"none".equals(compression));
+        compressionConfig.setAlgorithm(compression);
+        compressionConfig.setThreshold(1024);
+        serializeService.setDefaultCompression(compressionConfig);
+        value = new User(10086L, "twinkle", "small".equals(size) ? 2 : 400);
+        entry = new CacheEntry(value, System.currentTimeMillis(), 25L);
+        serialized = serializeService.serializeToBytes(value, CACHE_NAME, codec);
+    }
+
+    @Benchmark
+    public byte[] serialize() {
+        return serializeService.serializeToBytes(value, CACHE_NAME, codec);
+    }
+
+    @Benchmark
+    public Object deserialize() {
+        return serializeService.deserializeFromBytes(serialized, CACHE_NAME);
+    }
+
+    /**
+     * 连同元数据（写入时间、执行耗时）一起序列化，提前刷新、过期数据功能开启时使用
+     */
+    @Benchmark
+    public byte[] serializeEntry() {
+        return serializeService.serializeEntry(entry, CACHE_NAME, codec);
+    }
+}
@@ -0,0 +1,92 @@
+package cx.twinkle.rediscache.benchmark;
+
+import cx.twinkle.rediscache.cache.SpelParser;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.expression.Expression;
+import org.springframework.expression.ParserContext;
+import org.springframework.expression.spel.SpelCompilerMode;
+import org.springframework.expression.spel.standard.SpelExpressionParser;
+
+import java.lang.reflect.Method;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * SPEL 表达式的执行耗时：缓存解析结果并编译（MIXED）、只缓存解析结果（解释执行）、每次都重新解析
+ *
+ * @author twinkle
+ * @version 2026/10/18 23:00
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SpelBenchmark {
+    private static final String KEY_EXPRESSION = "user::#{#p0.id}::#{#p1}";
+
+    private SpelParser compiledParser;
+    private SpelParser interpretedParser;
+    private Expression compiledExpression;
+    private Expression interpretedExpression;
+    private SpelExpressionParser rawParser;
+    private Method method;
+    private Object[] args;
+
+    @Setup
+    public void setup() throws NoSuchMethodException {
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        compiledParser = new SpelParser(beanFactory);
+        interpretedParser = new SpelParser(beanFactory, SpelCompilerMode.OFF);
+        method = SpelBenchmark.class.getDeclaredMethod("findUser", User.class, String.class);
+        compiledExpression = compiledParser.getExpression(method, KEY_EXPRESSION);
+        interpretedExpression = interpretedParser.getExpression(method, KEY_EXPRESSION);
+        rawParser = new SpelExpressionParser();
+        args = new Object[]{new User(10086L, "twinkle", 2), "zh_CN"};
+    }
+
+    @Benchmark
+    public String compiled() {
+        return compiledParser.getValue(compiledExpression, method, String.class, args);
+    }
+
+    @Benchmark
+    public String interpreted() {
+        return interpretedParser.getValue(interpretedExpression, method, String.class, args);
+    }
+
+    /**
+     * 通过 SpelParser.parse 执行，包含按照 方法 + 表达式 查找缓存的耗时
+     */
+    @Benchmark
+    public String cachedLookup() {
+        return compiledParser.parse(KEY_EXPRESSION, method, String.class, args);
+    }
+
+    /**
+     * 每次都重新解析表达式，作为对比
+     */
+    @Benchmark
+    public Expression parseEveryTime() {
+        return rawParser.parseExpression(KEY_EXPRESSION, ParserContext.TEMPLATE_EXPRESSION);
+    }
+
+    /**
+     * 表达式所在的方法，只用于提供参数名
+     */
+    @SuppressWarnings("unused")
+    private List<User> findUser(User user, String locale) {
+        return null;
+    }
+}
@@ -0,0 +1,69 @@
+package cx.twinkle.rediscache.benchmark;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 基准测试中使用的缓存数据
+ *
+ * @author twinkle
+ * @version 2026/10/18 23:00
+ */
+public class User implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private Long id;
+    private String name;
+    private String email;
+    private List<String> tags = new ArrayList<>();
+
+    public User() {
+    }
+
+    public User(Long id, String name, int tagCount) {
+        this.id = id;
+        this.name = name;
+        this.email = name + "@example.com";
+        for (int i = 0; i < tagCount; i++) {
+            tags.add("tag-" + i + "-" + name);
+        }
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public String getEmail() {
+        return email;
+    }
+
+    public void setEmail(String email) {
+        this.email = email;
+    }
+
+    public List<String> getTags() {
+        return tags;
+    }
+
+    public void setTags(List<String> tags) {
+        this.tags = tags;
+    }
+
+    @Override
+    public String toString() {
+        return "User{id=" + id + ", name='" + name + "'}";
+    }
+}
@@ -11,7 +11,9 @@ import java.lang.annotation.*;
 @Retention(RetentionPolicy.RUNTIME)
 public @interface CacheEvict {
     /**
-     * 需要过期的Key，支持 SPEL表达式
+     * 需要过期的Key，支持 SPEL表达式；需要与 @Cacheable 生成的完整 key 一致。
+     * 默认的 v1_0 格式为：缓存名::方法名-v1_0-参数1_参数2_；使用 v2_0 格式时，参数部分为128位哈希，
+     * 无法在 SPEL 中拼接，此时 @Cacheable 需要显式指定 key，或者使用 allEntries 删除整个缓存
      */
     String key() default "";
 
@@ -11,7 +11,7 @@ import java.lang.annotation.*;
 @Retention(RetentionPolicy.RUNTIME)
 public @interface CachePut {
     /**
-     * 缓存key
+     * 缓存key，支持 SPEL 模板表达式，如：user::#{#p0.id}；不包含 #{} 时按照普通字符串处理
      * <p>
      * 当未指定缓存 key 时，使用统一规则生成key
      */
@@ -26,4 +26,9 @@ public @interface CachePut {
      * 缓存名称
      */
     String cache() default "";
+
+    /**
+     * 序列化方式的名称，如：jdk、jackson、kryo；默认自动选择
+     */
+    String codec() default "";
 }
@@ -11,7 +11,7 @@ import java.lang.annotation.*;
 @Retention(RetentionPolicy.RUNTIME)
 public @interface Cacheable {
     /**
-     * 缓存key
+     * 缓存key，支持 SPEL 模板表达式，如：user::#{#p0.id}；不包含 #{} 时按照普通字符串处理
      * <p>
      * 当未指定缓存 key 时，使用统一规则生成key
      */
@@ -26,4 +26,32 @@ public @interface Cacheable {
      * 缓存名称
      */
     String cache() default "";
+
+    /**
+     * 序列化方式的名称，如：jdk、jackson、kryo；默认自动选择
+     */
+    String codec() default "";
+
+    /**
+     * 布隆过滤器中的 key，支持 SPEL 模板表达式，如：#{#p0}；缓存开启了布隆过滤器时，
+     * 该 key 不在布隆过滤器中则直接返回 null，不读取缓存、不执行方法
+     */
+    String bloomKey() default "";
+
+    /**
+     * 批量模式，用于参数中带有集合的方法，如：findByIds(List<Long> ids)
+     * <p>
+     * 集合中的每个元素单独缓存：缓存key 按照把集合参数替换为单个元素后的参数生成（key 表达式中 #p0 等表示单个元素），
+     * 通过一次 MGET 读取所有元素，只使用未命中的元素调用方法，合并结果后通过 pipeline 写入新的元素。
+     * <p>
+     * 使用第一个集合类型的参数；方法的返回类型需要是 Map（key 为集合中的元素），
+     * 或者 List 等集合（需要同时指定 bulkId）。批量模式不支持异步返回类型、布隆过滤器、过期数据、提前刷新
+     */
+    boolean bulk() default false;
+
+    /**
+     * 批量模式下，返回类型为集合时，从结果的单个元素中取出对应集合参数元素的 SPEL 表达式，如：#{#result.id}；
+     * 只能包含一个 #{}，结果的类型需要与集合参数中元素的类型一致
+     */
+    String bulkId() default "";
 }
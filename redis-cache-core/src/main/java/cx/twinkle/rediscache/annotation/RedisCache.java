@@ -31,4 +31,11 @@ public @interface RedisCache {
      * @apiNote 匹配实现参考：{@link cx.twinkle.rediscache.utils.DurationUtils#parseDuration(String str)}
      */
     String expire() default "";
+
+    /**
+     * 序列化方式的名称，如：jdk、jackson、kryo；默认自动选择
+     * <p>
+     * 当 标注 @Cacheable 注解的方法所属的类上标注了 @RedisCache，并且 @Cacheable 也指定了 codec 属性时，优先解析 codec 属性
+     */
+    String codec() default "";
 }
@@ -0,0 +1,134 @@
+package cx.twinkle.rediscache.aspect;
+
+import org.springframework.util.ClassUtils;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.function.Supplier;
+
+/**
+ * 异步返回类型的适配：CompletableFuture、CompletionStage，以及 classpath 中存在 Reactor 时的 Mono、Flux
+ * <p>
+ * 缓存中保存的是异步结果完成后的值（Flux 为所有元素组成的 List），而不是 Future、Mono 对象本身；
+ * 切面内部统一使用 CompletableFuture 处理，返回前再转换为方法的返回类型
+ *
+ * @author twinkle
+ * @version 2026/10/18 23:30
+ */
+abstract class AsyncResultAdapter {
+    private static final boolean REACTOR_PRESENT = ClassUtils.isPresent("reactor.core.publisher.Mono",
+            AsyncResultAdapter.class.getClassLoader());
+
+    private static final AsyncResultAdapter FUTURE = new FutureAdapter();
+
+    /**
+     * 获取返回类型对应的适配器
+     *
+     * @param returnType 方法的返回类型
+     * @return 适配器；不是异步返回类型时返回 null
+     */
+    static AsyncResultAdapter of(Class<?> returnType) {
+        if (returnType == CompletableFuture.class || returnType == CompletionStage.class) {
+            return FUTURE;
+        }
+        return REACTOR_PRESENT ? ReactorResultAdapters.of(returnType) : null;
+    }
+
+    /**
+     * 是否有多个值（如 Flux），多个值以 List 的形式缓存
+     */
+    boolean isMultiValue() {
+        return false;
+    }
+
+    /**
+     * 将方法返回的异步结果转换为 CompletableFuture，完成时的值就是需要缓存的值
+     *
+     * @param result 方法返回的异步结果，可能为 null
+     * @return 需要缓存的值
+     */
+    abstract CompletableFuture<Object> toFuture(Object result);
+
+    /**
+     * 将 CompletableFuture 转换为方法的返回类型
+     *
+     * @param supplier 提供结果；Reactor 类型在订阅时才会调用，保持延迟执行的语义
+     * @return 方法的返回类型的对象
+     */
+    abstract Object fromFuture(Supplier<CompletableFuture<Object>> supplier);
+
+    private static class FutureAdapter extends AsyncResultAdapter {
+        @Override
+        CompletableFuture<Object> toFuture(Object result) {
+            if (result == null) {
+                return CompletableFuture.completedFuture(null);
+            }
+            @SuppressWarnings("unchecked")
+            CompletionStage<Object> stage = (CompletionStage<Object>) result;
+            return stage.toCompletableFuture();
+        }
+
+        @Override
+        Object fromFuture(Supplier<CompletableFuture<Object>> supplier) {
+            return supplier.get();
+        }
+    }
+
+    /**
+     * 单独的类，只有在 classpath 中存在 Reactor 时才会加载
+     */
+    private static class ReactorResultAdapters {
+        private static final AsyncResultAdapter MONO = new MonoAdapter();
+        private static final AsyncResultAdapter FLUX = new FluxAdapter();
+
+        static AsyncResultAdapter of(Class<?> returnType) {
+            if (returnType == Mono.class) {
+                return MONO;
+            }
+            return returnType == Flux.class ? FLUX : null;
+        }
+    }
+
+    private static class MonoAdapter extends AsyncResultAdapter {
+        @Override
+        CompletableFuture<Object> toFuture(Object result) {
+            if (result == null) {
+                return CompletableFuture.completedFuture(null);
+            }
+            @SuppressWarnings("unchecked")
+            Mono<Object> mono = (Mono<Object>) result;
+            return mono.toFuture();
+        }
+
+        @Override
+        Object fromFuture(Supplier<CompletableFuture<Object>> supplier) {
+            return Mono.defer(() -> Mono.fromFuture(supplier.get()));
+        }
+    }
+
+    private static class FluxAdapter extends AsyncResultAdapter {
+        @Override
+        boolean isMultiValue() {
+            return true;
+        }
+
+        @Override
+        CompletableFuture<Object> toFuture(Object result) {
+            if (result == null) {
+                return CompletableFuture.completedFuture(null);
+            }
+            @SuppressWarnings("unchecked")
+            Flux<Object> flux = (Flux<Object>) result;
+            return flux.collectList().<Object>map(list -> list).toFuture();
+        }
+
+        @Override
+        Object fromFuture(Supplier<CompletableFuture<Object>> supplier) {
+            return Flux.defer(() -> Mono.fromFuture(supplier.get())
+                    .flatMapIterable(value -> (List<?>) value));
+        }
+    }
+}
@@ -4,12 +4,16 @@ import cx.twinkle.rediscache.annotation.CacheEvict;
 import cx.twinkle.rediscache.annotation.CachePut;
 import cx.twinkle.rediscache.annotation.Cacheable;
 import cx.twinkle.rediscache.annotation.RedisCache;
+import cx.twinkle.rediscache.cache.CacheGenerationManager;
 import cx.twinkle.rediscache.cache.SpelParser;
 import cx.twinkle.rediscache.dto.MethodCacheInfo;
+import cx.twinkle.rediscache.key.KeyGenerator;
+import cx.twinkle.rediscache.key.LegacyKeyGenerator;
 import cx.twinkle.rediscache.utils.DurationUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.BeanFactory;
+import org.springframework.expression.Expression;
 import org.springframework.util.CollectionUtils;
 import org.springframework.util.DigestUtils;
 import org.springframework.util.StringUtils;
@@ -18,10 +22,12 @@ import java.lang.annotation.Annotation;
 import java.lang.reflect.Method;
 import java.time.Duration;
 import java.util.*;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.function.Function;
 
 /**
@@ -32,74 +38,252 @@ public class CacheInfoOperator {
     private static final Logger log = LoggerFactory.getLogger(CacheInfoOperator.class);
 
     private SpelParser spelParser;
-    private Integer maxParamNum = 5;
+    /**
+     * 注解中没有指定 key 时使用的缓存key生成策略
+     */
+    private KeyGenerator keyGenerator = new LegacyKeyGenerator();
+    /**
+     * 按缓存名称指定的序列化方式，注解中没有指定序列化方式时使用
+     */
+    private Map<String, String> cacheCodecs = Collections.emptyMap();
+    /**
+     * 缓存代数管理，为空时表示没有缓存开启代数模式
+     */
+    private CacheGenerationManager generationManager;
+    /**
+     * 每个方法预先解析好的缓存元数据，分别对应 @Cacheable、@CachePut、@CacheEvict
+     */
+    private final Map<Method, MethodCacheDescriptor> readDescriptors = new ConcurrentHashMap<>();
+    private final Map<Method, MethodCacheDescriptor> putDescriptors = new ConcurrentHashMap<>();
+    private final Map<Method, MethodCacheDescriptor> evictDescriptors = new ConcurrentHashMap<>();
 
     public CacheInfoOperator(BeanFactory beanFactory) {
         this.spelParser = new SpelParser(beanFactory);
     }
 
     /**
-     * 根据 缓存名、方法名，参数，生成 缓存的 key
-     * <p>
-     * Key 的格式为：缓存名::方法名-参数toString()
-     * 如果参数个数大于5，或者参数包含集合对象，则使用MD5算法对 参数的toString() 进行处理
+     * 根据 缓存名、方法名，参数，生成 缓存的 key，具体的格式由 KeyGenerator 决定
      *
      * @param cacheName  缓存名
      * @param methodName 方法名
      * @param params     方法的参数，本身是一个 可变参数
-     * @return 缓存的key
+     * @return 缓存的key；缓存开启了代数模式时，key 的末尾会带上当前的代数
      * @apiNote 为什么不适用 Hash 结构存储同一个缓存名下面的 key-value对？
      * ------>  因为 Hash 结构的数据不支持 自动过期。所以就采用了 :: 分级
      */
     public String generateCacheKey(String cacheName, String methodName, Object... params) {
-        StringBuilder keyBuilder = new StringBuilder(cacheName).append("::").append(methodName).append("-v1_0");
-        if (params == null || params.length <= 0) {
-            log.debug("获取缓存key，方法 {} 的参数体为空！", methodName);
-            return keyBuilder.toString();
+        return this.withGeneration(cacheName, keyGenerator.generate(cacheName, methodName, params));
+    }
+
+    /**
+     * 缓存开启了代数模式时，在 key 的末尾加上当前的代数：key::G代数
+     *
+     * @param cacheName 缓存名称
+     * @param cacheKey  缓存key
+     * @return 处理后的缓存key
+     */
+    String withGeneration(String cacheName, String cacheKey) {
+        if (generationManager == null || !generationManager.isEnabled(cacheName)) {
+            return cacheKey;
+        }
+        return cacheKey + "::G" + generationManager.getGeneration(cacheName);
+    }
+
+    MethodCacheInfo getCacheInfoWhenRead(Method method, Object... params) {
+        return this.buildCacheInfo(this.getReadDescriptor(method), method, params);
+    }
+
+    private MethodCacheDescriptor getReadDescriptor(Method method) {
+        return this.getDescriptor(readDescriptors, method, m -> {
+            MethodCacheDescriptor descriptor = this.describe(m, Cacheable.class,
+                    Cacheable::cache, Cacheable::key, Cacheable::expire, Cacheable::codec);
+            Cacheable cacheable = m.getAnnotation(Cacheable.class);
+            String bloomKey = cacheable.bloomKey();
+            if (!StringUtils.isEmpty(bloomKey)) {
+                descriptor.setBloomKey(spelParser.getExpression(m, bloomKey));
+            }
+            if (cacheable.bulk()) {
+                this.describeBulk(m, cacheable, descriptor);
+            }
+            return descriptor;
+        });
+    }
+
+    /**
+     * 解析批量模式：使用第一个集合类型的参数，并检查返回类型；不满足条件时按照普通模式处理
+     */
+    private void describeBulk(Method method, Cacheable cacheable, MethodCacheDescriptor descriptor) {
+        String methodName = method.getName();
+        Class<?>[] parameterTypes = method.getParameterTypes();
+        int bulkIndex = -1;
+        for (int i = 0; i < parameterTypes.length; i++) {
+            if (Collection.class.isAssignableFrom(parameterTypes[i])) {
+                bulkIndex = i;
+                break;
+            }
         }
-        keyBuilder.append("-");
-        if (this.paramsTooLong(params, this.maxParamNum)) {
-            log.info("获取缓存key，方法 {} 的参数个数大于【{}】个 或存在集合，采用MD5摘要~", methodName, this.maxParamNum);
-            String paramMd5 = DigestUtils.md5DigestAsHex(Arrays.toString(params).getBytes());
-            keyBuilder.append(paramMd5);
-            return keyBuilder.toString();
+        Class<?> returnType = method.getReturnType();
+        boolean mapResult = Map.class.isAssignableFrom(returnType);
+        if (bulkIndex < 0 || (!mapResult && !Collection.class.isAssignableFrom(returnType))) {
+            log.warn("方法 {} 开启了批量模式，但是没有集合类型的参数，或者返回类型不是 Map、集合！按照普通模式处理！", methodName);
+            return;
         }
-        for (Object param : params) {
-            String paramStr = String.valueOf(param);
-            keyBuilder.append(paramStr.replace(":", "-")).append("_");
+        if (!mapResult) {
+            if (StringUtils.isEmpty(cacheable.bulkId())) {
+                log.warn("方法 {} 开启了批量模式，返回类型为集合时需要指定 bulkId！按照普通模式处理！", methodName);
+                return;
+            }
+            descriptor.setBulkId(spelParser.getExpression(method, cacheable.bulkId()));
         }
-        return keyBuilder.toString();
+        log.debug("方法 {} 开启了批量模式，集合参数的下标：{}", methodName, bulkIndex);
+        descriptor.setBulkIndex(bulkIndex);
+    }
+
+    /**
+     * 批量模式下集合参数的下标
+     *
+     * @param method 方法对象
+     * @return 集合参数的下标；不是批量模式时返回 -1
+     */
+    int getBulkIndex(Method method) {
+        return this.getReadDescriptor(method).getBulkIndex();
     }
 
     /**
-     * 如果方法参数个数大于 指定个数，或者 参数类型是 集合、数组，则对参数进行MD5摘要
+     * 批量模式下，为集合参数中的每个元素生成缓存信息：缓存key 按照把集合参数替换为单个元素后的参数生成
      *
-     * @param params      参数数组
-     * @param maxParamNum 最大参数个数，默认为 5
-     * @return 是否对参数MD5摘要
+     * @param method   方法对象
+     * @param params   方法的参数
+     * @param elements 集合参数中的元素
+     * @return 与 elements 一一对应的缓存信息
      */
-    private boolean paramsTooLong(Object[] params, Integer maxParamNum) {
-        if (params.length > maxParamNum) {
-            return true;
+    List<MethodCacheInfo> getBulkCacheInfo(Method method, Object[] params, List<Object> elements) {
+        MethodCacheDescriptor descriptor = this.getReadDescriptor(method);
+        int bulkIndex = descriptor.getBulkIndex();
+        Object[] elementParams = params.clone();
+        List<MethodCacheInfo> cacheInfos = new ArrayList<>(elements.size());
+        for (Object element : elements) {
+            elementParams[bulkIndex] = element;
+            cacheInfos.add(this.buildCacheInfo(descriptor, method, elementParams));
         }
-        for (Object param : params) {
-            if (param instanceof Iterable || param instanceof Map || param.getClass().isArray()) {
-                return true;
+        return cacheInfos;
+    }
+
+    /**
+     * 批量模式下，将方法的结果转换为 集合参数中的元素 -> 结果中的元素
+     *
+     * @param method 方法对象
+     * @param params 调用方法时使用的参数
+     * @param result 方法的结果，Map 或者 集合
+     * @return 集合参数中的元素 -> 结果中的元素
+     */
+    @SuppressWarnings("unchecked")
+    Map<Object, Object> getBulkResults(Method method, Object[] params, Object result) {
+        if (result == null) {
+            return Collections.emptyMap();
+        }
+        if (result instanceof Map) {
+            return (Map<Object, Object>) result;
+        }
+        Expression bulkId = this.getReadDescriptor(method).getBulkId();
+        Map<Object, Object> results = new HashMap<>();
+        for (Object element : (Collection<?>) result) {
+            if (element != null) {
+                results.put(spelParser.getResultValue(bulkId, method, Object.class, element, params), element);
             }
         }
-        return false;
+        return results;
     }
 
-    MethodCacheInfo getCacheInfoWhenRead(Method method, Object... params) {
-        return this.getCacheInfo(method, Cacheable.class, Cacheable::cache, Cacheable::key, Cacheable::expire, params);
+    /**
+     * 解析 @Cacheable 中指定的布隆过滤器 key
+     *
+     * @param method 方法对象
+     * @param params 方法的参数
+     * @return 布隆过滤器 key；没有指定时返回 null
+     */
+    String getBloomKey(Method method, Object... params) {
+        Expression bloomKey = this.getReadDescriptor(method).getBloomKey();
+        return bloomKey == null ? null : spelParser.getValue(bloomKey, method, String.class, params);
     }
 
     MethodCacheInfo getCacheInfoWhenPut(Method method, Object... params) {
-        return this.getCacheInfo(method, CachePut.class, CachePut::cache, CachePut::key, CachePut::expire, params);
+        return this.buildCacheInfo(this.getPutDescriptor(method), method, params);
     }
 
-    private <T extends Annotation> MethodCacheInfo getCacheInfo(Method method, Class<T> cls, Function<T, String> f1,
-                                                                Function<T, String> f2, Function<T, String> f3, Object... params) {
+    private MethodCacheDescriptor getPutDescriptor(Method method) {
+        return this.getDescriptor(putDescriptors, method, m -> this.describe(m, CachePut.class,
+                CachePut::cache, CachePut::key, CachePut::expire, CachePut::codec));
+    }
+
+    /**
+     * 每次调用时只需要根据参数生成缓存key，其余的信息都来自预先解析好的元数据
+     * <p>
+     * 注解中指定的 key 支持 SPEL 模板表达式，如：user::#{#p0.id}；不包含 #{} 时按照普通字符串处理
+     */
+    private MethodCacheInfo buildCacheInfo(MethodCacheDescriptor descriptor, Method method, Object... params) {
+        String methodName = descriptor.getMethodName(), cacheName = descriptor.getCacheName();
+        Expression compiledKey = descriptor.getCompiledKey();
+        String cacheKey;
+        if (compiledKey == null) {
+            cacheKey = this.generateCacheKey(cacheName, methodName, params);
+        } else if (SpelParser.isLiteral(compiledKey)) {
+            cacheKey = this.withGeneration(cacheName, descriptor.getKeyExpression());
+        } else {
+            String key = spelParser.getValue(compiledKey, method, String.class, params);
+            if (StringUtils.isEmpty(key)) {
+                log.warn("方法 {} 的缓存Key表达式解析结果为空！使用默认缓存Key生成策略！SPEL = {}", methodName,
+                        descriptor.getKeyExpression());
+                cacheKey = this.generateCacheKey(cacheName, methodName, params);
+            } else {
+                cacheKey = this.withGeneration(cacheName, key);
+            }
+        }
+        return new MethodCacheInfo(methodName, cacheName, cacheKey, descriptor.getExpireTime(), descriptor.getCodec());
+    }
+
+    MethodCacheInfo getCacheInfoWhenEvict(Method method) {
+        MethodCacheDescriptor descriptor = this.getEvictDescriptor(method);
+        return new MethodCacheInfo(descriptor.getMethodName(), descriptor.getCacheName(), descriptor.getKeyExpression());
+    }
+
+    boolean isEvictAllEntries(Method method) {
+        return this.getEvictDescriptor(method).isAllEntries();
+    }
+
+    /**
+     * 预先解析方法上的缓存注解，启动时调用，避免第一次调用时才解析
+     *
+     * @param method 标注了缓存注解的方法
+     */
+    public void preload(Method method) {
+        if (method.isAnnotationPresent(Cacheable.class)) {
+            this.getReadDescriptor(method);
+        }
+        if (method.isAnnotationPresent(CachePut.class)) {
+            this.getPutDescriptor(method);
+        }
+        if (method.isAnnotationPresent(CacheEvict.class)) {
+            this.getEvictDescriptor(method);
+        }
+    }
+
+    private MethodCacheDescriptor getEvictDescriptor(Method method) {
+        return this.getDescriptor(evictDescriptors, method, this::describeEvict);
+    }
+
+    /**
+     * 先 get 再 computeIfAbsent，避免 JDK8 中 computeIfAbsent 在命中时也加锁
+     */
+    private MethodCacheDescriptor getDescriptor(Map<Method, MethodCacheDescriptor> descriptors, Method method,
+                                                Function<Method, MethodCacheDescriptor> describer) {
+        MethodCacheDescriptor descriptor = descriptors.get(method);
+        return descriptor != null ? descriptor : descriptors.computeIfAbsent(method, describer);
+    }
+
+    private <T extends Annotation> MethodCacheDescriptor describe(Method method, Class<T> cls, Function<T, String> f1,
+                                                                  Function<T, String> f2, Function<T, String> f3,
+                                                                  Function<T, String> f4) {
         String methodName = method.getName();
         String cacheName = this.getValue(method, cls, f1, RedisCache::cache);
         if (!StringUtils.isEmpty(cacheName)) {
@@ -113,7 +297,7 @@ public class CacheInfoOperator {
             log.debug("从方法 {} 上解析到需要使用缓存Key：{}", methodName, cacheKey);
         } else {
             log.debug("从方法 {} 中解析未解析到 缓存Key！使用默认缓存Key生成策略！", methodName);
-            cacheKey = this.generateCacheKey(cacheName, methodName, params);
+            cacheKey = null;
         }
         Duration expire = Duration.ZERO;
         String expireTime = this.getValue(method, cls, f3, RedisCache::expire);
@@ -121,10 +305,15 @@ public class CacheInfoOperator {
             log.debug("从方法 {} 上解析到该缓存的过期时间：{}", methodName, expireTime);
             expire = DurationUtils.parseDuration(expireTime);
         }
-        return new MethodCacheInfo(methodName, cacheName, cacheKey, expire);
+        String codec = this.getValue(method, cls, f4, RedisCache::codec);
+        if (StringUtils.isEmpty(codec)) {
+            codec = cacheCodecs.get(cacheName);
+        }
+        Expression compiledKey = cacheKey == null ? null : spelParser.getExpression(method, cacheKey);
+        return new MethodCacheDescriptor(methodName, cacheName, cacheKey, compiledKey, expire, codec, false);
     }
 
-    MethodCacheInfo getCacheInfoWhenEvict(Method method) {
+    private MethodCacheDescriptor describeEvict(Method method) {
         String methodName = method.getName();
         String cacheName = this.getValue(method, CacheEvict.class, CacheEvict::cache, RedisCache::cache);
         if (StringUtils.isEmpty(cacheName)) {
@@ -140,7 +329,8 @@ public class CacheInfoOperator {
         } else {
             log.debug("从方法 {} 上解析到需要使用缓存Key：{}", methodName, cacheKey);
         }
-        return new MethodCacheInfo(methodName, cacheName, cacheKey);
+        Boolean allEntries = this.getValue(method, CacheEvict.class, CacheEvict::allEntries, null);
+        return new MethodCacheDescriptor(methodName, cacheName, cacheKey, null, null, null, Boolean.TRUE.equals(allEntries));
     }
 
     List<String> parseEvictCacheKey(MethodCacheInfo cacheInfo, Method method, Object[] args) {
@@ -155,6 +345,12 @@ public class CacheInfoOperator {
                 log.warn("方法 {} 对应的缓存注解解析SPEL表达式得到的数据为空！SPEL = {}", methodName, spel);
             } else {
                 log.info("从SPEL表达式【{}】中解析到KeyList = {}", spel, keyList);
+                String cacheName = cacheInfo.getCacheName();
+                if (generationManager != null && generationManager.isEnabled(cacheName)) {
+                    List<String> generationKeyList = new ArrayList<>(keyList.size());
+                    keyList.forEach(key -> generationKeyList.add(this.withGeneration(cacheName, key)));
+                    return generationKeyList;
+                }
                 return keyList;
             }
         }
@@ -202,24 +398,53 @@ public class CacheInfoOperator {
     }
 
     /**
-     * 仅用于这里的线程池
+     * 线程池队列的容量
+     */
+    private static final int EXECUTOR_QUEUE_CAPACITY = 1024;
+    /**
+     * 因为队列已满被拒绝的任务数
      */
-    private static ExecutorService executor;
+    private static final LongAdder rejectedCount = new LongAdder();
 
-    static {
-        executor = new ThreadPoolExecutor(
-                8,
-                15,
-                5L,
-                TimeUnit.MINUTES,
-                new LinkedBlockingDeque<>(),
-                new ThreadPoolExecutor.DiscardPolicy());
-    }
+    /**
+     * 仅用于这里的线程池：后台刷新缓存、没有开启异步写入队列时写入缓存。
+     * 队列是有界的，队列已满时拒绝新任务，防止 Redis 变慢时任务无限堆积
+     */
+    private static final ThreadPoolExecutor executor = new ThreadPoolExecutor(
+            8,
+            15,
+            5L,
+            TimeUnit.MINUTES,
+            new ArrayBlockingQueue<>(EXECUTOR_QUEUE_CAPACITY),
+            (task, pool) -> {
+                rejectedCount.increment();
+                throw new RejectedExecutionException("缓存线程池队列已满！");
+            });
 
-    void execute(Runnable task) {
+    /**
+     * 异步执行任务，用于写入、刷新缓存
+     *
+     * @param task 需要执行的任务
+     * @throws RejectedExecutionException 线程池队列已满时抛出
+     */
+    public void execute(Runnable task) {
         executor.execute(task);
     }
 
+    /**
+     * 线程池队列中等待执行的任务数
+     */
+    public int getExecutorQueueSize() {
+        return executor.getQueue().size();
+    }
+
+    /**
+     * 因为队列已满被拒绝的任务数
+     */
+    public long getRejectedCount() {
+        return rejectedCount.sum();
+    }
+
     /**
      * 剥离出的公共方法，主要用于日志打印
      *
@@ -238,11 +463,27 @@ public class CacheInfoOperator {
                 + "}";
     }
 
-    public Integer getMaxParamNum() {
-        return maxParamNum;
+    public KeyGenerator getKeyGenerator() {
+        return keyGenerator;
+    }
+
+    public void setKeyGenerator(KeyGenerator keyGenerator) {
+        this.keyGenerator = keyGenerator;
+    }
+
+    public Map<String, String> getCacheCodecs() {
+        return cacheCodecs;
+    }
+
+    public void setCacheCodecs(Map<String, String> cacheCodecs) {
+        this.cacheCodecs = cacheCodecs;
+    }
+
+    public CacheGenerationManager getGenerationManager() {
+        return generationManager;
     }
 
-    public void setMaxParamNum(Integer maxParamNum) {
-        this.maxParamNum = maxParamNum;
+    public void setGenerationManager(CacheGenerationManager generationManager) {
+        this.generationManager = generationManager;
     }
 }
@@ -0,0 +1,67 @@
+package cx.twinkle.rediscache.aspect;
+
+import cx.twinkle.rediscache.annotation.CacheEvict;
+import cx.twinkle.rediscache.annotation.CachePut;
+import cx.twinkle.rediscache.annotation.Cacheable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.core.MethodIntrospector;
+import org.springframework.util.ClassUtils;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+
+/**
+ * 启动时扫描容器中所有的 Bean，预先解析标注了缓存注解的方法，第一次调用时就不需要再解析注解
+ *
+ * @author twinkle
+ * @version 2026/10/18 18:40
+ */
+public class CacheMetadataPreloader implements SmartInitializingSingleton {
+    private static final Logger log = LoggerFactory.getLogger(CacheMetadataPreloader.class);
+
+    private ConfigurableListableBeanFactory beanFactory;
+    private CacheInfoOperator operator;
+
+    public CacheMetadataPreloader(ConfigurableListableBeanFactory beanFactory, CacheInfoOperator operator) {
+        this.beanFactory = beanFactory;
+        this.operator = operator;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        long start = System.currentTimeMillis();
+        int count = 0;
+        for (String beanName : beanFactory.getBeanDefinitionNames()) {
+            Class<?> beanType;
+            try {
+                beanType = beanFactory.getType(beanName, false);
+            } catch (Exception e) {
+                log.debug("无法获取 Bean {} 的类型，跳过缓存元数据预加载！", beanName, e);
+                continue;
+            }
+            if (beanType == null) {
+                continue;
+            }
+            Map<Method, Boolean> methods = MethodIntrospector.selectMethods(ClassUtils.getUserClass(beanType),
+                    (MethodIntrospector.MetadataLookup<Boolean>) method -> isCacheMethod(method) ? Boolean.TRUE : null);
+            for (Method method : methods.keySet()) {
+                try {
+                    operator.preload(method);
+                    count++;
+                } catch (Exception e) {
+                    log.warn("预加载方法 {} 的缓存元数据失败！将在第一次调用时重新解析。", method, e);
+                }
+            }
+        }
+        log.info("共预加载 {} 个方法的缓存元数据，耗时 {} ms！", count, System.currentTimeMillis() - start);
+    }
+
+    private static boolean isCacheMethod(Method method) {
+        return method.isAnnotationPresent(Cacheable.class)
+                || method.isAnnotationPresent(CachePut.class)
+                || method.isAnnotationPresent(CacheEvict.class);
+    }
+}
@@ -0,0 +1,117 @@
+package cx.twinkle.rediscache.aspect;
+
+import org.springframework.expression.Expression;
+
+import java.time.Duration;
+
+/**
+ * 方法的缓存元数据，每个方法只解析一次注解，之后每次调用只需要根据参数生成缓存key
+ *
+ * @author twinkle
+ * @version 2026/10/18 18:20
+ */
+class MethodCacheDescriptor {
+    /**
+     * 缓存对应方法的名称
+     */
+    private final String methodName;
+    /**
+     * 解析后的缓存名称，注解中没有指定时为 方法签名的MD5摘要
+     */
+    private final String cacheName;
+    /**
+     * 注解中指定的缓存key；为空时使用默认的缓存key生成策略
+     */
+    private final String keyExpression;
+    /**
+     * 解析后的缓存key表达式，仅用于 @Cacheable、@CachePut
+     */
+    private final Expression compiledKey;
+    /**
+     * 解析后的布隆过滤器 key 表达式，仅用于 @Cacheable
+     */
+    private Expression bloomKey;
+    /**
+     * 批量模式下集合参数的下标，不是批量模式时为 -1，仅用于 @Cacheable
+     */
+    private int bulkIndex = -1;
+    /**
+     * 批量模式下，从结果元素中取出集合参数元素的表达式；返回类型为 Map 时为空
+     */
+    private Expression bulkId;
+    /**
+     * 过期时间
+     */
+    private final Duration expireTime;
+    /**
+     * 序列化方式的名称
+     */
+    private final String codec;
+    /**
+     * 是否使当前缓存下所有key失效，仅用于 @CacheEvict
+     */
+    private final boolean allEntries;
+
+    MethodCacheDescriptor(String methodName, String cacheName, String keyExpression, Expression compiledKey,
+                          Duration expireTime, String codec, boolean allEntries) {
+        this.methodName = methodName;
+        this.cacheName = cacheName;
+        this.keyExpression = keyExpression;
+        this.compiledKey = compiledKey;
+        this.expireTime = expireTime;
+        this.codec = codec;
+        this.allEntries = allEntries;
+    }
+
+    String getMethodName() {
+        return methodName;
+    }
+
+    String getCacheName() {
+        return cacheName;
+    }
+
+    String getKeyExpression() {
+        return keyExpression;
+    }
+
+    Expression getCompiledKey() {
+        return compiledKey;
+    }
+
+    Expression getBloomKey() {
+        return bloomKey;
+    }
+
+    void setBloomKey(Expression bloomKey) {
+        this.bloomKey = bloomKey;
+    }
+
+    int getBulkIndex() {
+        return bulkIndex;
+    }
+
+    void setBulkIndex(int bulkIndex) {
+        this.bulkIndex = bulkIndex;
+    }
+
+    Expression getBulkId() {
+        return bulkId;
+    }
+
+    void setBulkId(Expression bulkId) {
+        this.bulkId = bulkId;
+    }
+
+    Duration getExpireTime() {
+        return expireTime;
+    }
+
+    String getCodec() {
+        return codec;
+    }
+
+    boolean isAllEntries() {
+        return allEntries;
+    }
+}
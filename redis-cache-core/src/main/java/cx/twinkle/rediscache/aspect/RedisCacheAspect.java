@@ -1,9 +1,20 @@
 package cx.twinkle.rediscache.aspect;
 
-import cx.twinkle.rediscache.annotation.CacheEvict;
+import cx.twinkle.rediscache.bloom.BloomFilterManager;
+import cx.twinkle.rediscache.cache.NegativeCachePolicy;
 import cx.twinkle.rediscache.cache.RedisCacheService;
 import cx.twinkle.rediscache.cache.RedisCacheServiceImpl;
+import cx.twinkle.rediscache.cache.RedisCircuitBreaker;
+import cx.twinkle.rediscache.cache.RefreshAheadPolicy;
+import cx.twinkle.rediscache.cache.SingleFlight;
+import cx.twinkle.rediscache.cache.StaleConfig;
+import cx.twinkle.rediscache.cache.StalePolicy;
+import cx.twinkle.rediscache.cache.WriteBehindQueue;
+import cx.twinkle.rediscache.dto.CacheEntry;
+import cx.twinkle.rediscache.dto.CacheWrite;
 import cx.twinkle.rediscache.dto.MethodCacheInfo;
+import cx.twinkle.rediscache.key.LegacyKeyGenerator;
+import cx.twinkle.rediscache.metrics.CacheMetrics;
 import org.aspectj.lang.JoinPoint;
 import org.aspectj.lang.ProceedingJoinPoint;
 import org.aspectj.lang.annotation.Around;
@@ -13,11 +24,29 @@ import org.aspectj.lang.reflect.MethodSignature;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.BeanFactory;
+import org.springframework.core.CollectionFactory;
+import org.springframework.core.ResolvableType;
 import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.util.ClassUtils;
 import org.springframework.util.CollectionUtils;
 
 import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Function;
+import java.util.function.Supplier;
 
 /**
  * AOP核心类，提供方法拦截
@@ -31,11 +60,60 @@ public class RedisCacheAspect {
 
     private CacheInfoOperator operator;
     private RedisCacheService cacheService;
+    /**
+     * 缓存击穿保护，为空时表示不开启
+     */
+    private SingleFlight singleFlight;
+    /**
+     * 提前刷新策略，为空时表示不开启
+     */
+    private RefreshAheadPolicy refreshAheadPolicy;
+    /**
+     * 过期数据的使用策略，为空时表示不开启
+     */
+    private StalePolicy stalePolicy;
+    /**
+     * 负缓存策略，为空时表示不开启
+     */
+    private NegativeCachePolicy negativeCachePolicy;
+    /**
+     * 布隆过滤器，为空时表示不开启
+     */
+    private BloomFilterManager bloomFilterManager;
+    /**
+     * 异步写入队列，为空时表示不开启，通过线程池逐条写入
+     */
+    private WriteBehindQueue writeBehindQueue;
+    /**
+     * 监控指标，默认不记录
+     */
+    private CacheMetrics cacheMetrics = CacheMetrics.NOOP;
+    /**
+     * 读取缓存的熔断器，为空时表示不开启：读取缓存失败时异常抛给调用方，并且不限制读取的耗时
+     */
+    private RedisCircuitBreaker circuitBreaker;
+    /**
+     * 异步返回类型（CompletableFuture、Mono、Flux）读取缓存时使用的线程池，默认使用缓存线程池，避免阻塞调用方的线程
+     */
+    private Executor asyncExecutor;
+    /**
+     * 正在后台刷新的 key，同一个 key 同时只会有一个刷新任务
+     */
+    private final Set<String> refreshingKeys = ConcurrentHashMap.newKeySet();
 
     public RedisCacheAspect(Integer maxParamNum, BeanFactory beanFactory, StringRedisTemplate stringRedisTemplate) {
+        LegacyKeyGenerator keyGenerator = new LegacyKeyGenerator();
+        keyGenerator.setMaxParamNum(maxParamNum);
         this.operator = new CacheInfoOperator(beanFactory);
-        this.operator.setMaxParamNum(maxParamNum);
+        this.operator.setKeyGenerator(keyGenerator);
         this.cacheService = new RedisCacheServiceImpl(stringRedisTemplate);
+        this.asyncExecutor = this.operator::execute;
+    }
+
+    public RedisCacheAspect(CacheInfoOperator operator, RedisCacheService cacheService) {
+        this.operator = operator;
+        this.cacheService = cacheService;
+        this.asyncExecutor = this.operator::execute;
     }
 
     /**
@@ -46,10 +124,12 @@ public class RedisCacheAspect {
         Method method = ((MethodSignature) joinPoint.getSignature()).getMethod();
         MethodCacheInfo cacheInfo = operator.getCacheInfoWhenEvict(method);
         String cacheName = cacheInfo.getCacheName();
-        Boolean allEntries = operator.getValue(method, CacheEvict.class, CacheEvict::allEntries, null);
-        if (allEntries) {
-            cacheService.deleteByCacheName(cacheName);
-            log.info("缓存 {} 下所有的 key 都删除完毕！", cacheName);
+        if (operator.isEvictAllEntries(method)) {
+            if (writeBehindQueue != null) {
+                writeBehindQueue.cancelCache(cacheName);
+            }
+            long deleted = cacheService.deleteByCacheName(cacheName);
+            log.info("缓存 {} 下所有的 key 都删除完毕！共删除 {} 个。", cacheName, deleted);
             return;
         }
         List<String> keyList = operator.parseEvictCacheKey(cacheInfo, method, joinPoint.getArgs());
@@ -58,6 +138,9 @@ public class RedisCacheAspect {
             return;
         }
         String[] keys = keyList.toArray(new String[0]);
+        if (writeBehindQueue != null) {
+            writeBehindQueue.cancel(keys);
+        }
         cacheService.deleteByKey(keys);
         log.info("KEY = {} 对应的缓存删除成功！", keyList);
     }
@@ -69,47 +152,690 @@ public class RedisCacheAspect {
     public Object cacheable(ProceedingJoinPoint pjp) throws Throwable {
         Object[] params = pjp.getArgs();
         Method targetMethod = ((MethodSignature) pjp.getSignature()).getMethod();
+        int bulkIndex = operator.getBulkIndex(targetMethod);
+        if (bulkIndex >= 0) {
+            return this.cacheableBulk(pjp, targetMethod, bulkIndex, params);
+        }
         MethodCacheInfo cacheInfo = operator.getCacheInfoWhenRead(targetMethod, params);
         String cacheKey = cacheInfo.getCacheKey(),
                 methodName = cacheInfo.getMethodName(),
                 cacheName = cacheInfo.getCacheName();
-        Object result = cacheService.getFromRedis(cacheKey);
-        if (result != null) {
+        AsyncResultAdapter asyncAdapter = AsyncResultAdapter.of(targetMethod.getReturnType());
+        String bloomKey = null;
+        if (this.isBloomFilterEnabled(cacheName) && !targetMethod.getReturnType().isPrimitive()) {
+            bloomKey = operator.getBloomKey(targetMethod, params);
+            if (bloomKey != null && !bloomFilterManager.mightContain(cacheName, bloomKey)) {
+                log.info("方法 {} 的布隆过滤器中不存在 key = {}，直接返回 null！", methodName, bloomKey);
+                return asyncAdapter == null ? null : asyncAdapter.fromFuture(() -> CompletableFuture.completedFuture(null));
+            }
+        }
+        if (asyncAdapter != null) {
+            return this.cacheableAsync(pjp, cacheInfo, asyncAdapter, bloomKey, params);
+        }
+        CacheEntry entry;
+        if (circuitBreaker == null) {
+            entry = this.readEntry(cacheInfo);
+        } else if (!circuitBreaker.tryAcquire()) {
+            return this.bypass(pjp, cacheInfo, null);
+        } else {
+            try {
+                entry = circuitBreaker.call(() -> this.readEntry(cacheInfo));
+            } catch (RuntimeException e) {
+                return this.bypass(pjp, cacheInfo, e);
+            }
+        }
+        if (entry != null && this.isUsable(entry, targetMethod, null)) {
+            cacheMetrics.recordHit(cacheName);
+            if (this.isStaleEnabled(cacheName) && stalePolicy.isStale(entry, cacheInfo.getExpireTime())) {
+                return this.serveStale(pjp, cacheInfo, entry, params);
+            }
             log.info("方法 {} 通过Redis缓存获取到结果：\n{}", methodName,
                     operator.buildLogInfo(methodName, cacheName, cacheKey, params));
-            return result;
+            this.refreshIfNecessary(pjp, cacheInfo, entry, params);
+            return entry.getValue();
         }
         // 如果没有读取到缓存，则执行方法，并且将结果集写入Redis
-        Object resultAfterRun = pjp.proceed();
-        if (operator.isNullResult(resultAfterRun)) {
-            return resultAfterRun;
+        cacheMetrics.recordMiss(cacheName);
+        if (singleFlight != null) {
+            CacheEntry loaded = (CacheEntry) singleFlight.execute(cacheKey, () -> this.load(pjp),
+                    () -> cacheService.getEntry(cacheInfo), value -> this.writeResult(cacheInfo, (CacheEntry) value, params,
+                            singleFlight.getConfig().isDistributed()));
+            this.addToBloomFilter(cacheName, bloomKey, loaded);
+            return loaded.getValue();
+        }
+        CacheEntry loaded = this.load(pjp);
+        this.addToBloomFilter(cacheName, bloomKey, loaded);
+        if (operator.isNullResult(loaded.getValue()) && !this.isNegativeCacheEnabled(cacheName)) {
+            return loaded.getValue();
         }
         // 异步写入Redis
-        operator.execute(() -> {
-            cacheService.insert2Redis(cacheKey, resultAfterRun, cacheInfo.getExpireTime(), cacheName);
-            log.info("方法 {} 结果集已写入Redis：\n{}", methodName,
-                    operator.buildLogInfo(methodName, cacheName, cacheKey, params));
+        this.writeAsync(cacheInfo, loaded, params);
+        return loaded.getValue();
+    }
+
+    /**
+     * 异步返回类型：在线程池中读取缓存，命中时直接返回缓存的值；
+     * 未命中时执行方法，等异步结果完成后再写入缓存，写入的是完成后的值而不是 Future、Mono 对象本身。
+     * 开启了熔断器时，在订阅时才判断是否读取 Redis，读取失败或者超过延迟预算时直接执行方法
+     */
+    private Object cacheableAsync(ProceedingJoinPoint pjp, MethodCacheInfo cacheInfo, AsyncResultAdapter adapter,
+                                  String bloomKey, Object[] params) {
+        return adapter.fromFuture(() -> {
+            if (circuitBreaker == null) {
+                return this.readEntryAsync(cacheInfo).thenCompose(entry ->
+                        this.resolveAsync(pjp, cacheInfo, adapter, entry, bloomKey, params));
+            }
+            if (!circuitBreaker.tryAcquire()) {
+                return this.bypassAsync(pjp, cacheInfo, adapter, null);
+            }
+            return circuitBreaker.callAsync(() -> this.readEntryAsync(cacheInfo))
+                    .handle((entry, error) -> error == null ? this.resolveAsync(pjp, cacheInfo, adapter, entry, bloomKey, params)
+                            : this.bypassAsync(pjp, cacheInfo, adapter, error))
+                    .thenCompose(Function.identity());
+        });
+    }
+
+    /**
+     * 异步返回类型读取到缓存数据之后：命中时返回缓存的值，未命中时执行方法并写入缓存
+     */
+    private CompletableFuture<Object> resolveAsync(ProceedingJoinPoint pjp, MethodCacheInfo cacheInfo,
+                                                   AsyncResultAdapter adapter, CacheEntry entry, String bloomKey,
+                                                   Object[] params) {
+        Method targetMethod = ((MethodSignature) pjp.getSignature()).getMethod();
+        String methodName = cacheInfo.getMethodName(),
+                cacheName = cacheInfo.getCacheName();
+        if (entry != null && this.isUsable(entry, targetMethod, adapter)) {
+            cacheMetrics.recordHit(cacheName);
+            if (this.isStaleEnabled(cacheName) && stalePolicy.isStale(entry, cacheInfo.getExpireTime())) {
+                return this.serveStaleAsync(pjp, cacheInfo, adapter, entry, params);
+            }
+            log.info("方法 {} 通过Redis缓存获取到结果：\n{}", methodName,
+                    operator.buildLogInfo(methodName, cacheName, cacheInfo.getCacheKey(), params));
+            this.refreshIfNecessary(pjp, cacheInfo, entry, params);
+            return CompletableFuture.completedFuture(entry.getValue());
+        }
+        cacheMetrics.recordMiss(cacheName);
+        return this.loadAsync(pjp, adapter).thenApply(loaded -> {
+            this.addToBloomFilter(cacheName, bloomKey, loaded);
+            this.writeAsync(cacheInfo, loaded, params);
+            return loaded.getValue();
+        });
+    }
+
+    /**
+     * 熔断器打开，或者读取缓存失败、超过延迟预算时，不使用缓存，直接执行方法；结果也不写入 Redis
+     *
+     * @param error 读取缓存时的异常，熔断器打开时为空
+     */
+    private Object bypass(ProceedingJoinPoint pjp, MethodCacheInfo cacheInfo, Throwable error) throws Throwable {
+        this.logBypass(cacheInfo, error);
+        return pjp.proceed();
+    }
+
+    /**
+     * 异步返回类型不使用缓存，处理方式与 bypass 相同
+     */
+    private CompletableFuture<Object> bypassAsync(ProceedingJoinPoint pjp, MethodCacheInfo cacheInfo,
+                                                  AsyncResultAdapter adapter, Throwable error) {
+        this.logBypass(cacheInfo, error);
+        return this.loadAsync(pjp, adapter).thenApply(CacheEntry::getValue);
+    }
+
+    private void logBypass(MethodCacheInfo cacheInfo, Throwable error) {
+        if (error == null) {
+            log.debug("熔断器已打开，方法 {} 不读取缓存，直接执行！cacheKey = {}", cacheInfo.getMethodName(), cacheInfo.getCacheKey());
+        } else {
+            Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+            log.warn("方法 {} 读取缓存失败，直接执行！cacheKey = {}，原因：{}", cacheInfo.getMethodName(),
+                    cacheInfo.getCacheKey(), cause.toString());
+        }
+    }
+
+    /**
+     * 批量模式：集合参数中的每个元素单独缓存，通过一次 MGET 读取，只使用未命中的元素调用方法，
+     * 合并结果后批量写入新的元素；已经软过期的元素按照未命中处理
+     */
+    private Object cacheableBulk(ProceedingJoinPoint pjp, Method method, int bulkIndex, Object[] params)
+            throws Throwable {
+        Collection<?> elements = (Collection<?>) params[bulkIndex];
+        if (CollectionUtils.isEmpty(elements)) {
+            return pjp.proceed();
+        }
+        List<Object> keys = new ArrayList<>(new LinkedHashSet<>(elements));
+        List<MethodCacheInfo> cacheInfos = operator.getBulkCacheInfo(method, params, keys);
+        List<CacheEntry> entries;
+        if (circuitBreaker == null) {
+            entries = cacheService.getEntries(cacheInfos);
+        } else if (!circuitBreaker.tryAcquire()) {
+            return this.bypass(pjp, cacheInfos.get(0), null);
+        } else {
+            try {
+                entries = circuitBreaker.call(() -> cacheService.getEntries(cacheInfos));
+            } catch (RuntimeException e) {
+                return this.bypass(pjp, cacheInfos.get(0), e);
+            }
+        }
+        String cacheName = cacheInfos.get(0).getCacheName();
+        boolean staleEnabled = this.isStaleEnabled(cacheName);
+        Map<Object, Object> cached = new HashMap<>();
+        List<Object> missKeys = new ArrayList<>();
+        List<MethodCacheInfo> missInfos = new ArrayList<>();
+        for (int i = 0; i < keys.size(); i++) {
+            CacheEntry entry = entries.get(i);
+            MethodCacheInfo cacheInfo = cacheInfos.get(i);
+            if (entry == null || (staleEnabled && stalePolicy.isStale(entry, cacheInfo.getExpireTime()))) {
+                cacheMetrics.recordMiss(cacheName);
+                missKeys.add(keys.get(i));
+                missInfos.add(cacheInfo);
+                continue;
+            }
+            cacheMetrics.recordHit(cacheName);
+            if (!entry.isNegative()) {
+                cached.put(keys.get(i), entry.getValue());
+            }
+        }
+        log.info("方法 {} 批量读取缓存：共 {} 个，命中 {} 个！", method.getName(), keys.size(), keys.size() - missKeys.size());
+        Map<Object, Object> loaded = Collections.emptyMap();
+        if (!missKeys.isEmpty()) {
+            Object[] missParams = params.clone();
+            Collection<Object> missElements = CollectionFactory.createCollection(method.getParameterTypes()[bulkIndex],
+                    missKeys.size());
+            missElements.addAll(missKeys);
+            missParams[bulkIndex] = missElements;
+            long start = System.currentTimeMillis();
+            Object result = pjp.proceed(missParams);
+            long now = System.currentTimeMillis();
+            loaded = operator.getBulkResults(method, missParams, result);
+            this.writeBulk(cacheName, missKeys, missInfos, loaded, now, now - start);
+        }
+        return this.mergeBulkResults(method.getReturnType(), keys, cached, loaded);
+    }
+
+    /**
+     * 按照集合参数中元素的顺序合并缓存中的结果、方法执行的结果，不存在的元素不会出现在结果中
+     */
+    private Object mergeBulkResults(Class<?> returnType, List<Object> keys, Map<Object, Object> cached,
+                                    Map<Object, Object> loaded) {
+        if (Map.class.isAssignableFrom(returnType)) {
+            Map<Object, Object> results = CollectionFactory.createMap(returnType, keys.size());
+            for (Object key : keys) {
+                Object value = cached.containsKey(key) ? cached.get(key) : loaded.get(key);
+                if (value != null) {
+                    results.put(key, value);
+                }
+            }
+            return results;
+        }
+        Collection<Object> results = CollectionFactory.createCollection(returnType, keys.size());
+        for (Object key : keys) {
+            Object value = cached.containsKey(key) ? cached.get(key) : loaded.get(key);
+            if (value != null) {
+                results.add(value);
+            }
+        }
+        return results;
+    }
+
+    /**
+     * 批量写入方法执行得到的元素；开启了负缓存时，方法结果中不存在的元素写入负缓存
+     */
+    private void writeBulk(String cacheName, List<Object> keys, List<MethodCacheInfo> cacheInfos,
+                           Map<Object, Object> loaded, long writeTime, long computeMillis) {
+        boolean negativeEnabled = this.isNegativeCacheEnabled(cacheName);
+        List<CacheWrite> writes = new ArrayList<>(keys.size());
+        for (int i = 0; i < keys.size(); i++) {
+            Object value = loaded.get(keys.get(i));
+            if (value != null) {
+                writes.add(this.toWrite(cacheInfos.get(i), new CacheEntry(value, writeTime, computeMillis)));
+            } else if (negativeEnabled) {
+                writes.add(new CacheWrite(negativeCachePolicy.withNegativeTtl(cacheInfos.get(i)), CacheEntry.negative(null)));
+            }
+        }
+        if (writes.isEmpty()) {
+            return;
+        }
+        if (writeBehindQueue != null) {
+            writes.forEach(writeBehindQueue::offer);
+            return;
+        }
+        try {
+            operator.execute(() -> {
+                try {
+                    cacheService.insertEntries(writes);
+                    log.info("缓存 {} 批量写入Redis完毕！共 {} 个。", cacheName, writes.size());
+                } catch (Exception e) {
+                    cacheMetrics.recordError(cacheName, CacheMetrics.OP_SET);
+                    log.error("缓存 {} 批量写入Redis失败！", cacheName, e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            cacheMetrics.recordError(cacheName, "rejected");
+            log.warn("缓存线程池队列已满！缓存 {} 的 {} 个结果不写入Redis！", cacheName, writes.size());
+        }
+    }
+
+    /**
+     * 读取缓存数据；需要元数据时读取带有元数据的缓存数据
+     */
+    private CacheEntry readEntry(MethodCacheInfo cacheInfo) {
+        return this.isEntryRequired(cacheInfo.getCacheName()) ? cacheService.getEntry(cacheInfo) : this.getFromRedis(cacheInfo);
+    }
+
+    /**
+     * 异步读取缓存数据：默认在线程池中读取，支持非阻塞连接的 RedisCacheService 等待 Redis 响应时不占用线程；
+     * 线程池队列已满时在当前线程读取，避免大量请求绕过缓存直接执行方法
+     */
+    private CompletableFuture<CacheEntry> readEntryAsync(MethodCacheInfo cacheInfo) {
+        try {
+            if (this.isEntryRequired(cacheInfo.getCacheName())) {
+                return cacheService.getEntryAsync(cacheInfo, asyncExecutor);
+            }
+            return cacheService.getFromRedisAsync(cacheInfo, asyncExecutor)
+                    .thenApply(result -> result == null ? null : CacheEntry.of(result));
+        } catch (RejectedExecutionException e) {
+            cacheMetrics.recordError(cacheInfo.getCacheName(), "rejected");
+            log.warn("缓存线程池队列已满！在当前线程读取缓存，cacheKey = {}", cacheInfo.getCacheKey());
+        }
+        return supplyInline(() -> this.readEntry(cacheInfo));
+    }
+
+    private static <T> CompletableFuture<T> supplyInline(Supplier<T> supplier) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        try {
+            future.complete(supplier.get());
+        } catch (Exception e) {
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+
+    /**
+     * 开启了提前刷新、过期数据、负缓存时需要读取元数据
+     */
+    private boolean isEntryRequired(String cacheName) {
+        return this.isMetadataEnabled(cacheName) || this.isNegativeCacheEnabled(cacheName);
+    }
+
+    /**
+     * 负缓存的占位数据需要与方法的返回类型兼容，不兼容时按照未命中处理；
+     * 异步返回类型比较的是异步结果的类型，Flux 的结果以 List 的形式缓存
+     */
+    private boolean isUsable(CacheEntry entry, Method method, AsyncResultAdapter adapter) {
+        if (!entry.isNegative() || entry.getValue() == null) {
+            return true;
+        }
+        Class<?> valueType = method.getReturnType();
+        if (adapter != null) {
+            valueType = adapter.isMultiValue() ? List.class
+                    : ResolvableType.forMethodReturnType(method).getGeneric(0).toClass();
+        }
+        return ClassUtils.isAssignableValue(valueType, entry.getValue());
+    }
+
+    /**
+     * 方法执行得到非空结果时，将 key 添加到布隆过滤器中
+     */
+    private void addToBloomFilter(String cacheName, String bloomKey, CacheEntry loaded) {
+        if (bloomKey != null && !operator.isNullResult(loaded.getValue())) {
+            bloomFilterManager.put(cacheName, bloomKey);
+        }
+    }
+
+    private CacheEntry getFromRedis(MethodCacheInfo cacheInfo) {
+        Object result = cacheService.getFromRedis(cacheInfo);
+        return result == null ? null : CacheEntry.of(result);
+    }
+
+    /**
+     * 执行方法，并记录执行耗时
+     */
+    private CacheEntry load(ProceedingJoinPoint pjp) throws Throwable {
+        long start = System.currentTimeMillis();
+        Object result = pjp.proceed();
+        long now = System.currentTimeMillis();
+        return new CacheEntry(result, now, now - start);
+    }
+
+    /**
+     * 执行返回异步结果的方法，异步结果完成时记录执行耗时；方法直接抛出的异常也通过 CompletableFuture 返回
+     */
+    private CompletableFuture<CacheEntry> loadAsync(ProceedingJoinPoint pjp, AsyncResultAdapter adapter) {
+        long start = System.currentTimeMillis();
+        CompletableFuture<Object> result;
+        try {
+            result = adapter.toFuture(pjp.proceed());
+        } catch (Throwable e) {
+            CompletableFuture<CacheEntry> failed = new CompletableFuture<>();
+            failed.completeExceptionally(e);
+            return failed;
+        }
+        return result.thenApply(value -> {
+            long now = System.currentTimeMillis();
+            return new CacheEntry(value, now, now - start);
+        });
+    }
+
+    /**
+     * 执行方法并等待结果完成，只在后台线程中使用；异步返回类型会等待异步结果完成
+     */
+    private CacheEntry loadAndWait(ProceedingJoinPoint pjp) throws Throwable {
+        AsyncResultAdapter adapter = AsyncResultAdapter.of(((MethodSignature) pjp.getSignature()).getReturnType());
+        if (adapter == null) {
+            return this.load(pjp);
+        }
+        try {
+            return this.loadAsync(pjp, adapter).get();
+        } catch (ExecutionException e) {
+            throw e.getCause();
+        }
+    }
+
+    private boolean isRefreshAhead(String cacheName) {
+        return refreshAheadPolicy != null && refreshAheadPolicy.isEnabled(cacheName);
+    }
+
+    private boolean isStaleEnabled(String cacheName) {
+        return stalePolicy != null && stalePolicy.isEnabled(cacheName);
+    }
+
+    private boolean isNegativeCacheEnabled(String cacheName) {
+        return negativeCachePolicy != null && negativeCachePolicy.isEnabled(cacheName);
+    }
+
+    private boolean isBloomFilterEnabled(String cacheName) {
+        return bloomFilterManager != null && bloomFilterManager.isEnabled(cacheName);
+    }
+
+    /**
+     * 提前刷新、过期数据 都需要在缓存数据中记录元数据
+     */
+    private boolean isMetadataEnabled(String cacheName) {
+        return this.isRefreshAhead(cacheName) || this.isStaleEnabled(cacheName);
+    }
+
+    /**
+     * 读取到软过期的数据：stale-while-revalidate 时直接返回过期数据并在后台刷新；
+     * 否则同步执行方法，执行失败时按照 stale-if-error 的配置返回过期数据
+     */
+    private Object serveStale(ProceedingJoinPoint pjp, MethodCacheInfo cacheInfo, CacheEntry stale, Object[] params)
+            throws Throwable {
+        StaleConfig config = stalePolicy.getConfig(cacheInfo.getCacheName());
+        if (config.isStaleWhileRevalidate()) {
+            log.info("方法 {} 的缓存已过期，先返回过期数据，并在后台刷新！cacheKey = {}", cacheInfo.getMethodName(),
+                    cacheInfo.getCacheKey());
+            this.refreshInBackground(pjp, cacheInfo, params);
+            return stale.getValue();
+        }
+        CacheEntry loaded;
+        try {
+            loaded = this.load(pjp);
+        } catch (Throwable e) {
+            if (!config.isStaleIfError()) {
+                throw e;
+            }
+            log.warn("方法 {} 执行失败，返回过期的缓存数据！cacheKey = {}", cacheInfo.getMethodName(), cacheInfo.getCacheKey(), e);
+            return stale.getValue();
+        }
+        this.writeAsync(cacheInfo, loaded, params);
+        return loaded.getValue();
+    }
+
+    /**
+     * 异步返回类型读取到软过期的数据，处理方式与 serveStale 相同
+     */
+    private CompletableFuture<Object> serveStaleAsync(ProceedingJoinPoint pjp, MethodCacheInfo cacheInfo,
+                                                      AsyncResultAdapter adapter, CacheEntry stale, Object[] params) {
+        StaleConfig config = stalePolicy.getConfig(cacheInfo.getCacheName());
+        if (config.isStaleWhileRevalidate()) {
+            log.info("方法 {} 的缓存已过期，先返回过期数据，并在后台刷新！cacheKey = {}", cacheInfo.getMethodName(),
+                    cacheInfo.getCacheKey());
+            this.refreshInBackground(pjp, cacheInfo, params);
+            return CompletableFuture.completedFuture(stale.getValue());
+        }
+        CompletableFuture<Object> result = new CompletableFuture<>();
+        this.loadAsync(pjp, adapter).whenComplete((loaded, e) -> {
+            if (e == null) {
+                this.writeAsync(cacheInfo, loaded, params);
+                result.complete(loaded.getValue());
+                return;
+            }
+            Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+            if (!config.isStaleIfError()) {
+                result.completeExceptionally(cause);
+                return;
+            }
+            log.warn("方法 {} 执行失败，返回过期的缓存数据！cacheKey = {}", cacheInfo.getMethodName(), cacheInfo.getCacheKey(), cause);
+            result.complete(stale.getValue());
         });
-        return resultAfterRun;
+        return result;
+    }
+
+    /**
+     * 缓存即将过期时，在后台提前刷新
+     */
+    private void refreshIfNecessary(ProceedingJoinPoint pjp, MethodCacheInfo cacheInfo, CacheEntry entry, Object[] params) {
+        if (this.isRefreshAhead(cacheInfo.getCacheName())
+                && refreshAheadPolicy.shouldRefresh(entry, cacheInfo.getExpireTime(), cacheInfo.getCacheName())) {
+            log.debug("缓存 key = {} 即将过期，在后台提前刷新！", cacheInfo.getCacheKey());
+            this.refreshInBackground(pjp, cacheInfo, params);
+        }
+    }
+
+    /**
+     * 在后台重新执行方法并写入缓存；同一个 key 同时只有一个刷新任务
+     */
+    private void refreshInBackground(ProceedingJoinPoint pjp, MethodCacheInfo cacheInfo, Object[] params) {
+        String cacheKey = cacheInfo.getCacheKey();
+        if (!refreshingKeys.add(cacheKey)) {
+            return;
+        }
+        try {
+            operator.execute(() -> {
+                try {
+                    this.writeResult(cacheInfo, this.loadAndWait(pjp), params);
+                } catch (Throwable e) {
+                    cacheMetrics.recordError(cacheInfo.getCacheName(), "refresh");
+                    log.error("方法 {} 在后台刷新缓存失败！cacheKey = {}", cacheInfo.getMethodName(), cacheKey, e);
+                } finally {
+                    refreshingKeys.remove(cacheKey);
+                }
+            });
+        } catch (Exception e) {
+            refreshingKeys.remove(cacheKey);
+            log.warn("提交后台刷新任务失败！cacheKey = {}", cacheKey, e);
+        }
+    }
+
+    /**
+     * 异步写入缓存：开启了异步写入队列时直接放入队列，否则提交到线程池
+     */
+    private void writeAsync(MethodCacheInfo cacheInfo, CacheEntry entry, Object[] params) {
+        if (writeBehindQueue != null) {
+            this.writeResult(cacheInfo, entry, params);
+            return;
+        }
+        try {
+            operator.execute(() -> this.writeResult(cacheInfo, entry, params));
+        } catch (RejectedExecutionException e) {
+            cacheMetrics.recordError(cacheInfo.getCacheName(), "rejected");
+            log.warn("缓存线程池队列已满！方法 {} 的结果集不写入Redis，cacheKey = {}", cacheInfo.getMethodName(),
+                    cacheInfo.getCacheKey());
+        }
+    }
+
+    private void writeResult(MethodCacheInfo cacheInfo, CacheEntry entry, Object[] params) {
+        this.writeResult(cacheInfo, entry, params, false);
+    }
+
+    /**
+     * 写入方法的执行结果
+     *
+     * @param direct 是否跳过异步写入队列，直接写入 Redis；分布式 single-flight 释放租约之前，结果必须已经在 Redis 中
+     * @return 是否写入了缓存；结果为空并且没有开启负缓存、或者写入失败时返回 false
+     */
+    private boolean writeResult(MethodCacheInfo cacheInfo, CacheEntry entry, Object[] params, boolean direct) {
+        String methodName = cacheInfo.getMethodName();
+        if (operator.isNullResult(entry.getValue())) {
+            return this.isNegativeCacheEnabled(cacheInfo.getCacheName()) && this.writeNegative(cacheInfo, entry.getValue(), direct);
+        }
+        try {
+            CacheWrite write = this.toWrite(cacheInfo, entry);
+            this.write(write.getCacheInfo(), write.getEntry(), direct);
+        } catch (Exception e) {
+            cacheMetrics.recordError(cacheInfo.getCacheName(), CacheMetrics.OP_SET);
+            log.error("方法 {} 结果集写入Redis失败！cacheKey = {}", methodName, cacheInfo.getCacheKey(), e);
+            return false;
+        }
+        log.info(writeBehindQueue == null || direct ? "方法 {} 结果集已写入Redis：\n{}" : "方法 {} 结果集已放入写入队列：\n{}", methodName,
+                operator.buildLogInfo(methodName, cacheInfo.getCacheName(), cacheInfo.getCacheKey(), params));
+        return true;
+    }
+
+    /**
+     * 按照缓存开启的功能确定写入的内容：过期数据需要使用更长的过期时间，过期数据、提前刷新 需要写入元数据
+     */
+    private CacheWrite toWrite(MethodCacheInfo cacheInfo, CacheEntry entry) {
+        if (this.isStaleEnabled(cacheInfo.getCacheName())) {
+            return new CacheWrite(stalePolicy.withHardTtl(cacheInfo), entry);
+        }
+        if (this.isRefreshAhead(cacheInfo.getCacheName())) {
+            return new CacheWrite(cacheInfo, entry);
+        }
+        return new CacheWrite(cacheInfo, CacheEntry.of(entry.getValue()));
+    }
+
+    /**
+     * 写入缓存数据；开启了异步写入队列时放入队列，由后台线程批量写入
+     *
+     * @param direct 是否跳过异步写入队列直接写入；队列中同一个 key 的旧数据先被删除，避免之后覆盖本次写入
+     */
+    private void write(MethodCacheInfo cacheInfo, CacheEntry entry, boolean direct) {
+        if (writeBehindQueue != null && !direct) {
+            writeBehindQueue.offer(new CacheWrite(cacheInfo, entry));
+            return;
+        }
+        if (writeBehindQueue != null) {
+            writeBehindQueue.cancel(cacheInfo.getCacheKey());
+        }
+        cacheService.insertEntry(cacheInfo, entry);
+    }
+
+    /**
+     * 写入负缓存的占位数据，使用单独的过期时间
+     */
+    private boolean writeNegative(MethodCacheInfo cacheInfo, Object emptyValue, boolean direct) {
+        try {
+            this.write(negativeCachePolicy.withNegativeTtl(cacheInfo), CacheEntry.negative(emptyValue), direct);
+            log.info("方法 {} 的结果为空，已写入负缓存！cacheKey = {}", cacheInfo.getMethodName(), cacheInfo.getCacheKey());
+            return true;
+        } catch (Exception e) {
+            cacheMetrics.recordError(cacheInfo.getCacheName(), CacheMetrics.OP_SET);
+            log.error("方法 {} 负缓存写入Redis失败！cacheKey = {}", cacheInfo.getMethodName(), cacheInfo.getCacheKey(), e);
+            return false;
+        }
     }
 
     @Around("@annotation(cx.twinkle.rediscache.annotation.CachePut)")
     public Object cachePut(ProceedingJoinPoint pjp) throws Throwable {
-        Object result = pjp.proceed();
-        if (operator.isNullResult(result)) {
+        AsyncResultAdapter asyncAdapter = AsyncResultAdapter.of(((MethodSignature) pjp.getSignature()).getReturnType());
+        if (asyncAdapter != null) {
+            return this.cachePutAsync(pjp, asyncAdapter);
+        }
+        CacheEntry entry = this.load(pjp);
+        if (operator.isNullResult(entry.getValue())) {
             return null;
         }
         Object[] params = pjp.getArgs();
         Method targetMethod = ((MethodSignature) pjp.getSignature()).getMethod();
         MethodCacheInfo cacheInfo = operator.getCacheInfoWhenPut(targetMethod, params);
-        String cacheKey = cacheInfo.getCacheKey(),
-                methodName = cacheInfo.getMethodName(),
-                cacheName = cacheInfo.getCacheName();
-        operator.execute(() -> {
-            cacheService.insert2Redis(cacheKey, result, cacheInfo.getExpireTime(), cacheName);
-            log.info("方法 {} 结果集已写入Redis：\n{}", methodName,
-                    operator.buildLogInfo(methodName, cacheName, cacheKey, params));
-        });
-        return result;
+        this.writeAsync(cacheInfo, entry, params);
+        return entry.getValue();
+    }
+
+    /**
+     * 异步返回类型：异步结果完成后再写入缓存
+     */
+    private Object cachePutAsync(ProceedingJoinPoint pjp, AsyncResultAdapter adapter) {
+        Object[] params = pjp.getArgs();
+        Method targetMethod = ((MethodSignature) pjp.getSignature()).getMethod();
+        MethodCacheInfo cacheInfo = operator.getCacheInfoWhenPut(targetMethod, params);
+        return adapter.fromFuture(() -> this.loadAsync(pjp, adapter).thenApply(entry -> {
+            if (!operator.isNullResult(entry.getValue())) {
+                this.writeAsync(cacheInfo, entry, params);
+            }
+            return entry.getValue();
+        }));
+    }
+
+    public SingleFlight getSingleFlight() {
+        return singleFlight;
+    }
+
+    public void setSingleFlight(SingleFlight singleFlight) {
+        this.singleFlight = singleFlight;
+    }
+
+    public RefreshAheadPolicy getRefreshAheadPolicy() {
+        return refreshAheadPolicy;
+    }
+
+    public void setRefreshAheadPolicy(RefreshAheadPolicy refreshAheadPolicy) {
+        this.refreshAheadPolicy = refreshAheadPolicy;
+    }
+
+    public StalePolicy getStalePolicy() {
+        return stalePolicy;
+    }
+
+    public void setStalePolicy(StalePolicy stalePolicy) {
+        this.stalePolicy = stalePolicy;
+    }
+
+    public NegativeCachePolicy getNegativeCachePolicy() {
+        return negativeCachePolicy;
+    }
+
+    public void setNegativeCachePolicy(NegativeCachePolicy negativeCachePolicy) {
+        this.negativeCachePolicy = negativeCachePolicy;
+    }
+
+    public BloomFilterManager getBloomFilterManager() {
+        return bloomFilterManager;
+    }
+
+    public void setBloomFilterManager(BloomFilterManager bloomFilterManager) {
+        this.bloomFilterManager = bloomFilterManager;
+    }
+
+    public WriteBehindQueue getWriteBehindQueue() {
+        return writeBehindQueue;
+    }
+
+    public void setWriteBehindQueue(WriteBehindQueue writeBehindQueue) {
+        this.writeBehindQueue = writeBehindQueue;
+    }
+
+    public CacheMetrics getCacheMetrics() {
+        return cacheMetrics;
+    }
+
+    public void setCacheMetrics(CacheMetrics cacheMetrics) {
+        this.cacheMetrics = cacheMetrics;
+    }
+
+    public RedisCircuitBreaker getCircuitBreaker() {
+        return circuitBreaker;
+    }
+
+    public void setCircuitBreaker(RedisCircuitBreaker circuitBreaker) {
+        this.circuitBreaker = circuitBreaker;
+    }
+
+    public Executor getAsyncExecutor() {
+        return asyncExecutor;
+    }
+
+    public void setAsyncExecutor(Executor asyncExecutor) {
+        this.asyncExecutor = asyncExecutor;
     }
 }
@@ -0,0 +1,65 @@
+package cx.twinkle.rediscache.bloom;
+
+import cx.twinkle.rediscache.utils.MurmurHash3;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 根据 预计元素个数、误判率 计算位数组的大小、哈希函数的个数，并计算 key 对应的位置
+ * <p>
+ * 只计算一次 128位 哈希，之后通过 h1 + i * h2 得到 k 个位置
+ *
+ * @author twinkle
+ * @version 2026/10/18 21:30
+ */
+public abstract class AbstractBloomFilter implements BloomFilter {
+    /**
+     * 位数组的最大长度，与 Redis 位图的最大长度一致
+     */
+    static final long MAX_BITS = 1L << 32;
+
+    private static final long SEED = 0x9747b28cL;
+
+    /**
+     * 位数组的长度
+     */
+    protected final long numBits;
+    /**
+     * 哈希函数的个数
+     */
+    protected final int numHashes;
+
+    protected AbstractBloomFilter(long expectedInsertions, double falsePositiveProbability) {
+        long n = Math.max(1L, expectedInsertions);
+        double p = Math.min(Math.max(falsePositiveProbability, Double.MIN_VALUE), 0.5D);
+        long bits = (long) Math.ceil(-n * Math.log(p) / (Math.log(2) * Math.log(2)));
+        this.numBits = Math.min(Math.max(64L, bits), MAX_BITS);
+        this.numHashes = Math.max(1, (int) Math.round((double) numBits / n * Math.log(2)));
+    }
+
+    /**
+     * 计算 key 在位数组中对应的位置
+     *
+     * @param key key
+     * @return 长度为 numHashes 的位置数组
+     */
+    protected long[] positions(String key) {
+        byte[] bytes = key.getBytes(StandardCharsets.UTF_8);
+        long[] hash = MurmurHash3.hash128(bytes, 0, bytes.length, SEED);
+        long[] positions = new long[numHashes];
+        long combined = hash[0];
+        for (int i = 0; i < numHashes; i++) {
+            positions[i] = (combined & Long.MAX_VALUE) % numBits;
+            combined += hash[1];
+        }
+        return positions;
+    }
+
+    public long getNumBits() {
+        return numBits;
+    }
+
+    public int getNumHashes() {
+        return numHashes;
+    }
+}
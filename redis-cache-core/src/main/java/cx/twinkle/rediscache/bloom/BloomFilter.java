@@ -0,0 +1,49 @@
+package cx.twinkle.rediscache.bloom;
+
+import java.util.Collection;
+
+/**
+ * 布隆过滤器，用于在读取缓存之前过滤掉一定不存在的 key，防止缓存穿透
+ * <p>
+ * 判断不存在时一定不存在；判断存在时有一定的误判率
+ *
+ * @author twinkle
+ * @version 2026/10/18 21:30
+ */
+public interface BloomFilter {
+    /**
+     * 判断 key 是否可能存在
+     *
+     * @param key 需要判断的 key
+     * @return 返回 false 时一定不存在
+     */
+    boolean mightContain(String key);
+
+    /**
+     * 添加一个 key
+     *
+     * @param key 需要添加的 key
+     */
+    void put(String key);
+
+    /**
+     * 批量添加 key，用于启动时预加载
+     *
+     * @param keys 需要添加的 key
+     */
+    default void putAll(Collection<String> keys) {
+        keys.forEach(this::put);
+    }
+
+    /**
+     * 是否已经预热；预热之前布隆过滤器中可能缺少已经存在的 key，判断不存在并不可靠
+     *
+     * @return 是否已经预热
+     */
+    boolean isWarmed();
+
+    /**
+     * 标记为已经预热，之后判断不存在的 key 会被拦截
+     */
+    void markWarmed();
+}
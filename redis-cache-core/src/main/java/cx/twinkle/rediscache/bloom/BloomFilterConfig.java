@@ -0,0 +1,72 @@
+package cx.twinkle.rediscache.bloom;
+
+/**
+ * 布隆过滤器的配置
+ *
+ * @author twinkle
+ * @version 2026/10/18 21:30
+ */
+public class BloomFilterConfig {
+    /**
+     * 只保存在本地内存中
+     */
+    public static final String MODE_LOCAL = "local";
+    /**
+     * 只保存在 Redis 位图中
+     */
+    public static final String MODE_REDIS = "redis";
+    /**
+     * 本地 + Redis 两级
+     */
+    public static final String MODE_BOTH = "both";
+
+    /**
+     * 是否开启，默认关闭；开启后还需要在 @Cacheable 中指定 bloomKey
+     */
+    private boolean enabled = false;
+    /**
+     * 保存方式：local、redis、both，默认 redis，所有节点共用 Redis 中的位图。
+     * local 模式下每个节点只知道自己预加载、添加的 key，其他节点新增的 key 会被误判为不存在，只适用于单个节点
+     */
+    private String mode = MODE_REDIS;
+    /**
+     * 预计的元素个数
+     */
+    private long expectedInsertions = 1_000_000L;
+    /**
+     * 期望的误判率
+     */
+    private double falsePositiveProbability = 0.01D;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public String getMode() {
+        return mode;
+    }
+
+    public void setMode(String mode) {
+        this.mode = mode;
+    }
+
+    public long getExpectedInsertions() {
+        return expectedInsertions;
+    }
+
+    public void setExpectedInsertions(long expectedInsertions) {
+        this.expectedInsertions = expectedInsertions;
+    }
+
+    public double getFalsePositiveProbability() {
+        return falsePositiveProbability;
+    }
+
+    public void setFalsePositiveProbability(double falsePositiveProbability) {
+        this.falsePositiveProbability = falsePositiveProbability;
+    }
+}
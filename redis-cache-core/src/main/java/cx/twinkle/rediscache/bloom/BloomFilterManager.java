@@ -0,0 +1,172 @@
+package cx.twinkle.rediscache.bloom;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.core.RedisTemplate;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * 管理每个缓存的布隆过滤器
+ * <p>
+ * 布隆过滤器需要包含所有存在的 key，应用需要在启动时通过 putAll 预加载，新增数据时通过 put 添加；
+ * 方法执行得到非空结果时也会自动添加。预热（putAll 或者 markWarmed）之前，以及读写布隆过滤器失败时，
+ * 都按照 key 存在处理，不会因为布隆过滤器为空而拦截存在的 key
+ *
+ * @author twinkle
+ * @version 2026/10/18 21:30
+ */
+public class BloomFilterManager {
+    private static final Logger log = LoggerFactory.getLogger(BloomFilterManager.class);
+
+    private RedisTemplate<byte[], byte[]> binaryTemplate;
+    /**
+     * 默认的布隆过滤器配置
+     */
+    private BloomFilterConfig defaultConfig = new BloomFilterConfig();
+    /**
+     * 按缓存名称单独指定的布隆过滤器配置
+     */
+    private Map<String, BloomFilterConfig> cacheConfigs = Collections.emptyMap();
+    /**
+     * 每个缓存名称对应的布隆过滤器；未开启布隆过滤器的缓存名称不会出现在这里
+     */
+    private final ConcurrentMap<String, BloomFilter> filters = new ConcurrentHashMap<>();
+
+    public BloomFilterManager(RedisTemplate<byte[], byte[]> binaryTemplate) {
+        this.binaryTemplate = binaryTemplate;
+    }
+
+    /**
+     * 判断该缓存是否开启了布隆过滤器
+     *
+     * @param cacheName 缓存名称
+     * @return true OR false
+     */
+    public boolean isEnabled(String cacheName) {
+        return this.getConfig(cacheName).isEnabled();
+    }
+
+    /**
+     * 判断 key 是否可能存在；没有开启布隆过滤器、布隆过滤器还没有预热时返回 true
+     *
+     * @param cacheName 缓存名称
+     * @param key       需要判断的 key
+     * @return 返回 false 时一定不存在
+     */
+    public boolean mightContain(String cacheName, String key) {
+        BloomFilter filter = this.getFilter(cacheName);
+        if (filter == null) {
+            return true;
+        }
+        try {
+            return !filter.isWarmed() || filter.mightContain(key);
+        } catch (Exception e) {
+            log.warn("读取缓存 {} 的布隆过滤器失败！按照 key 存在处理。key = {}", cacheName, key, e);
+            return true;
+        }
+    }
+
+    /**
+     * 添加一个 key
+     *
+     * @param cacheName 缓存名称
+     * @param key       需要添加的 key
+     */
+    public void put(String cacheName, String key) {
+        BloomFilter filter = this.getFilter(cacheName);
+        if (filter == null) {
+            return;
+        }
+        try {
+            filter.put(key);
+        } catch (Exception e) {
+            log.warn("写入缓存 {} 的布隆过滤器失败！key = {}", cacheName, key, e);
+        }
+    }
+
+    /**
+     * 批量添加 key，用于预加载；预加载完成后布隆过滤器标记为已经预热，开始拦截不存在的 key
+     *
+     * @param cacheName 缓存名称
+     * @param keys      需要添加的 key
+     */
+    public void putAll(String cacheName, Collection<String> keys) {
+        BloomFilter filter = this.getFilter(cacheName);
+        if (filter == null) {
+            log.warn("缓存 {} 没有开启布隆过滤器！忽略预加载的 {} 个 key。", cacheName, keys.size());
+            return;
+        }
+        long start = System.currentTimeMillis();
+        filter.putAll(keys);
+        filter.markWarmed();
+        log.info("缓存 {} 的布隆过滤器预加载了 {} 个 key，耗时 {} ms！", cacheName, keys.size(), System.currentTimeMillis() - start);
+    }
+
+    /**
+     * 标记布隆过滤器已经预热，用于没有需要预加载的 key（例如全新的缓存），或者 Redis 中的布隆过滤器已经完整的情况
+     *
+     * @param cacheName 缓存名称
+     */
+    public void markWarmed(String cacheName) {
+        BloomFilter filter = this.getFilter(cacheName);
+        if (filter != null) {
+            filter.markWarmed();
+        }
+    }
+
+    /**
+     * 获取缓存名称对应的布隆过滤器，没有开启时返回 null
+     */
+    private BloomFilter getFilter(String cacheName) {
+        BloomFilter filter = filters.get(cacheName);
+        if (filter != null) {
+            return filter;
+        }
+        BloomFilterConfig config = this.getConfig(cacheName);
+        if (!config.isEnabled()) {
+            return null;
+        }
+        return filters.computeIfAbsent(cacheName, k -> this.buildFilter(cacheName, config));
+    }
+
+    private BloomFilter buildFilter(String cacheName, BloomFilterConfig config) {
+        long n = config.getExpectedInsertions();
+        double p = config.getFalsePositiveProbability();
+        String mode = config.getMode();
+        if (BloomFilterConfig.MODE_REDIS.equalsIgnoreCase(mode)) {
+            return new RedisBloomFilter(binaryTemplate, cacheName, n, p);
+        }
+        if (BloomFilterConfig.MODE_BOTH.equalsIgnoreCase(mode)) {
+            return new LayeredBloomFilter(new LocalBloomFilter(n, p), new RedisBloomFilter(binaryTemplate, cacheName, n, p));
+        }
+        log.warn("缓存 {} 的布隆过滤器只保存在本地内存中！其他节点新增的 key 会被误判为不存在，多个节点时应当使用 redis 或者 both 模式。",
+                cacheName);
+        return new LocalBloomFilter(n, p);
+    }
+
+    private BloomFilterConfig getConfig(String cacheName) {
+        BloomFilterConfig config = cacheName == null ? null : cacheConfigs.get(cacheName);
+        return config == null ? defaultConfig : config;
+    }
+
+    public BloomFilterConfig getDefaultConfig() {
+        return defaultConfig;
+    }
+
+    public void setDefaultConfig(BloomFilterConfig defaultConfig) {
+        this.defaultConfig = defaultConfig;
+    }
+
+    public Map<String, BloomFilterConfig> getCacheConfigs() {
+        return cacheConfigs;
+    }
+
+    public void setCacheConfigs(Map<String, BloomFilterConfig> cacheConfigs) {
+        this.cacheConfigs = cacheConfigs;
+    }
+}
@@ -0,0 +1,58 @@
+package cx.twinkle.rediscache.bloom;
+
+import java.util.Collection;
+
+/**
+ * 本地 + Redis 两级布隆过滤器：本地判断存在时直接返回；本地判断不存在时再查询 Redis（其他节点可能添加过），
+ * Redis 中存在时同步到本地
+ *
+ * @author twinkle
+ * @version 2026/10/18 21:30
+ */
+public class LayeredBloomFilter implements BloomFilter {
+    private final BloomFilter local;
+    private final BloomFilter remote;
+
+    public LayeredBloomFilter(BloomFilter local, BloomFilter remote) {
+        this.local = local;
+        this.remote = remote;
+    }
+
+    @Override
+    public boolean mightContain(String key) {
+        if (local.mightContain(key)) {
+            return true;
+        }
+        if (remote.mightContain(key)) {
+            local.put(key);
+            return true;
+        }
+        return false;
+    }
+
+    @Override
+    public void put(String key) {
+        remote.put(key);
+        local.put(key);
+    }
+
+    @Override
+    public void putAll(Collection<String> keys) {
+        remote.putAll(keys);
+        local.putAll(keys);
+    }
+
+    /**
+     * 本地判断不存在时还会查询 Redis，只要 Redis 中的布隆过滤器已经预热即可
+     */
+    @Override
+    public boolean isWarmed() {
+        return remote.isWarmed();
+    }
+
+    @Override
+    public void markWarmed() {
+        remote.markWarmed();
+        local.markWarmed();
+    }
+}
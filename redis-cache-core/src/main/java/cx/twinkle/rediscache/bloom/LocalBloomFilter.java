@@ -0,0 +1,57 @@
+package cx.twinkle.rediscache.bloom;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 保存在本地内存中的布隆过滤器，线程安全
+ *
+ * @author twinkle
+ * @version 2026/10/18 21:30
+ */
+public class LocalBloomFilter extends AbstractBloomFilter {
+    private final AtomicLongArray bits;
+    /**
+     * 本地内存中的数据在每次启动后都是空的，需要重新预热
+     */
+    private volatile boolean warmed;
+
+    public LocalBloomFilter(long expectedInsertions, double falsePositiveProbability) {
+        super(expectedInsertions, falsePositiveProbability);
+        this.bits = new AtomicLongArray((int) ((numBits + 63) >>> 6));
+    }
+
+    @Override
+    public boolean isWarmed() {
+        return warmed;
+    }
+
+    @Override
+    public void markWarmed() {
+        warmed = true;
+    }
+
+    @Override
+    public boolean mightContain(String key) {
+        for (long position : this.positions(key)) {
+            if ((bits.get((int) (position >>> 6)) & (1L << position)) == 0L) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public void put(String key) {
+        for (long position : this.positions(key)) {
+            int index = (int) (position >>> 6);
+            long mask = 1L << position;
+            long old;
+            do {
+                old = bits.get(index);
+                if ((old & mask) != 0L) {
+                    break;
+                }
+            } while (!bits.compareAndSet(index, old, old | mask));
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package cx.twinkle.rediscache.bloom;
+
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 保存在 Redis 位图中的布隆过滤器，所有节点共享；每次判断、添加只需要一次网络往返（管道）
+ *
+ * @author twinkle
+ * @version 2026/10/18 21:30
+ */
+public class RedisBloomFilter extends AbstractBloomFilter {
+    /**
+     * 布隆过滤器位图的 key 前缀
+     */
+    public static final String BLOOM_FILTER_KEY_PREFIX = "C7264226X_BLOOM_FILTER_OF_";
+    /**
+     * 预热标记的 key 后缀；预热标记与位图一样保存在 Redis 中，所有节点、重启之后都可以看到
+     */
+    private static final String WARMED_KEY_SUFFIX = "_WARMED";
+    /**
+     * 没有预热时，再次检查预热标记的间隔
+     */
+    private static final long WARMED_CHECK_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(1L);
+    /**
+     * 批量添加时，每个管道中 key 的个数
+     */
+    private static final int PUT_BATCH_SIZE = 500;
+
+    private RedisTemplate<byte[], byte[]> binaryTemplate;
+    private final byte[] rawKey;
+    private final byte[] rawWarmedKey;
+    private volatile boolean warmed;
+    private volatile long nextWarmedCheck;
+
+    public RedisBloomFilter(RedisTemplate<byte[], byte[]> binaryTemplate, String cacheName, long expectedInsertions,
+                            double falsePositiveProbability) {
+        super(expectedInsertions, falsePositiveProbability);
+        this.binaryTemplate = binaryTemplate;
+        this.rawKey = (BLOOM_FILTER_KEY_PREFIX + cacheName).getBytes(StandardCharsets.UTF_8);
+        this.rawWarmedKey = (BLOOM_FILTER_KEY_PREFIX + cacheName + WARMED_KEY_SUFFIX).getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * 检查 Redis 中的预热标记；预热之后不会再撤销，没有预热时每隔一段时间才检查一次
+     */
+    @Override
+    public boolean isWarmed() {
+        if (warmed) {
+            return true;
+        }
+        long now = System.nanoTime();
+        if (now - nextWarmedCheck < 0) {
+            return false;
+        }
+        nextWarmedCheck = now + WARMED_CHECK_INTERVAL_NANOS;
+        warmed = Boolean.TRUE.equals(binaryTemplate.hasKey(rawWarmedKey));
+        return warmed;
+    }
+
+    @Override
+    public void markWarmed() {
+        binaryTemplate.opsForValue().set(rawWarmedKey, new byte[]{1});
+        warmed = true;
+    }
+
+    @Override
+    public boolean mightContain(String key) {
+        long[] positions = this.positions(key);
+        List<Object> results = binaryTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            for (long position : positions) {
+                connection.getBit(rawKey, position);
+            }
+            return null;
+        });
+        for (Object result : results) {
+            if (!Boolean.TRUE.equals(result)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public void put(String key) {
+        long[] positions = this.positions(key);
+        binaryTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            for (long position : positions) {
+                connection.setBit(rawKey, position, true);
+            }
+            return null;
+        });
+    }
+
+    @Override
+    public void putAll(Collection<String> keys) {
+        Iterator<String> iterator = keys.iterator();
+        while (iterator.hasNext()) {
+            binaryTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                for (int i = 0; i < PUT_BATCH_SIZE && iterator.hasNext(); i++) {
+                    for (long position : this.positions(iterator.next())) {
+                        connection.setBit(rawKey, position, true);
+                    }
+                }
+                return null;
+            });
+        }
+    }
+}
@@ -0,0 +1,169 @@
+package cx.twinkle.rediscache.cache;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * 缓存代数管理
+ * <p>
+ * 开启了代数模式的缓存，缓存key中会带上当前的代数；使整个缓存失效时，只需要将代数加一（一次 INCR），
+ * 旧代数下的缓存不会再被读取，等待自然过期即可。所以写入这些缓存时，不需要再记录 KeySet、CacheNameHash
+ * <p>
+ * 代数缓存在本地，通过 Redis 的发布/订阅 在所有实例间同步，并且定期从 Redis 重新读取，防止丢失消息
+ *
+ * @author twinkle
+ * @version 2026/10/18 17:10
+ */
+public class CacheGenerationManager implements MessageListener {
+    private static final Logger log = LoggerFactory.getLogger(CacheGenerationManager.class);
+
+    /**
+     * 记录每个缓存的代数
+     */
+    private static final String GENERATION_KEY_PREFIX = "C7264226X_CACHE_GENERATION_OF_";
+    /**
+     * 代数变化消息的频道
+     */
+    public static final String GENERATION_CHANNEL = "C7264226X_CACHE_GENERATION_CHANNEL";
+
+    private StringRedisTemplate redisTemplate;
+    /**
+     * 开启了代数模式的缓存名称
+     */
+    private Set<String> cacheNames = Collections.emptySet();
+    /**
+     * 代数模式下，没有设置过期时间的缓存使用的过期时间，保证旧代数的缓存最终会过期
+     */
+    private Duration defaultExpire = Duration.ofDays(1L);
+    /**
+     * 本地代数的有效期，超过有效期后从 Redis 重新读取
+     */
+    private long refreshIntervalMillis = 30_000L;
+
+    private final ConcurrentMap<String, LocalGeneration> generations = new ConcurrentHashMap<>();
+
+    public CacheGenerationManager(StringRedisTemplate redisTemplate) {
+        this.redisTemplate = redisTemplate;
+    }
+
+    /**
+     * 判断该缓存是否开启了代数模式
+     *
+     * @param cacheName 缓存名称
+     * @return true OR false
+     */
+    public boolean isEnabled(String cacheName) {
+        return cacheName != null && cacheNames.contains(cacheName);
+    }
+
+    /**
+     * 获取缓存当前的代数
+     *
+     * @param cacheName 缓存名称
+     * @return 当前的代数，从未失效过的缓存为 0
+     */
+    public long getGeneration(String cacheName) {
+        LocalGeneration local = generations.get(cacheName);
+        long now = System.currentTimeMillis();
+        if (local != null && now - local.loadTime < refreshIntervalMillis) {
+            return local.generation;
+        }
+        long generation;
+        try {
+            String value = redisTemplate.opsForValue().get(GENERATION_KEY_PREFIX + cacheName);
+            generation = value == null ? 0L : Long.parseLong(value);
+        } catch (Exception e) {
+            log.warn("读取缓存 {} 的代数失败！继续使用本地代数。", cacheName, e);
+            return local == null ? 0L : local.generation;
+        }
+        return this.update(cacheName, generation, now);
+    }
+
+    /**
+     * 使该缓存下所有的缓存失效：代数加一，并且通知其他实例
+     *
+     * @param cacheName 缓存名称
+     * @return 新的代数
+     */
+    public long nextGeneration(String cacheName) {
+        Long generation = redisTemplate.opsForValue().increment(GENERATION_KEY_PREFIX + cacheName);
+        long next = generation == null ? 0L : generation;
+        this.update(cacheName, next, System.currentTimeMillis());
+        try {
+            redisTemplate.convertAndSend(GENERATION_CHANNEL, cacheName + "\n" + next);
+        } catch (Exception e) {
+            log.error("缓存代数变化消息发送失败！cacheName = {}，generation = {}", cacheName, next, e);
+        }
+        log.info("缓存 {} 的代数更新为 {}，旧代数下的缓存全部失效！", cacheName, next);
+        return next;
+    }
+
+    /**
+     * 代数只增不减，防止乱序的消息把代数改小
+     */
+    private long update(String cacheName, long generation, long loadTime) {
+        return generations.merge(cacheName, new LocalGeneration(generation, loadTime),
+                (old, now) -> old.generation > now.generation ? new LocalGeneration(old.generation, loadTime) : now).generation;
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String body = new String(message.getBody(), StandardCharsets.UTF_8);
+        int index = body.lastIndexOf('\n');
+        if (index <= 0) {
+            return;
+        }
+        String cacheName = body.substring(0, index);
+        try {
+            long generation = Long.parseLong(body.substring(index + 1));
+            this.update(cacheName, generation, System.currentTimeMillis());
+            log.debug("收到缓存代数变化消息！cacheName = {}，generation = {}", cacheName, generation);
+        } catch (NumberFormatException e) {
+            log.warn("缓存代数变化消息格式不正确！message = {}", body);
+        }
+    }
+
+    public Set<String> getCacheNames() {
+        return cacheNames;
+    }
+
+    public void setCacheNames(Set<String> cacheNames) {
+        this.cacheNames = cacheNames;
+    }
+
+    public Duration getDefaultExpire() {
+        return defaultExpire;
+    }
+
+    public void setDefaultExpire(Duration defaultExpire) {
+        this.defaultExpire = defaultExpire;
+    }
+
+    public long getRefreshIntervalMillis() {
+        return refreshIntervalMillis;
+    }
+
+    public void setRefreshIntervalMillis(long refreshIntervalMillis) {
+        this.refreshIntervalMillis = refreshIntervalMillis;
+    }
+
+    private static class LocalGeneration {
+        private final long generation;
+        private final long loadTime;
+
+        private LocalGeneration(long generation, long loadTime) {
+            this.generation = generation;
+            this.loadTime = loadTime;
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package cx.twinkle.rediscache.cache;
+
+import org.springframework.data.redis.connection.ClusterSlotHashUtil;
+import org.springframework.util.Assert;
+
+import java.util.Arrays;
+
+/**
+ * 缓存数据、索引（KeySet、CacheNameHash）在 Redis 中的 key 布局
+ * <p>
+ * 单机模式下只有一个分片，所有的 key 保持原样；Cluster 模式下每个缓存 key 按照 CRC16 分配到一个分片，
+ * 缓存数据、以及记录它的 KeySet、CacheNameHash 都加上该分片的 hash tag 作为前缀，位于同一个 slot，
+ * 写入脚本、删除脚本只访问同一个 slot 中的 key；每个分片的 hash tag 预先计算好，使各个分片均匀分布在所有的 slot 上
+ *
+ * @author twinkle
+ * @version 2026/10/18 23:55
+ */
+public class CacheKeyLayout {
+    /**
+     * Redis Cluster 的 slot 个数
+     */
+    public static final int SLOT_COUNT = 16384;
+
+    /**
+     * 单机模式的布局，key 保持原样
+     */
+    public static final CacheKeyLayout STANDALONE = new CacheKeyLayout(new String[]{""}, new int[]{0}, false);
+
+    /**
+     * 每个分片的 hash tag，包含花括号
+     */
+    private final String[] tags;
+    /**
+     * 每个分片所在的 slot
+     */
+    private final int[] slots;
+    private final boolean cluster;
+
+    private CacheKeyLayout(String[] tags, int[] slots, boolean cluster) {
+        this.tags = tags;
+        this.slots = slots;
+        this.cluster = cluster;
+    }
+
+    /**
+     * 创建 Cluster 模式的布局
+     *
+     * @param buckets 分片的个数，取值范围 1 ~ 16384
+     * @return Cluster 模式的布局
+     */
+    public static CacheKeyLayout cluster(int buckets) {
+        Assert.isTrue(buckets > 0 && buckets <= SLOT_COUNT, "分片的个数必须在 1 ~ " + SLOT_COUNT + " 之间！");
+        // 第 i 个分片的目标 slot 为 i * SLOT_COUNT / buckets，依次尝试 36 进制的短字符串，找到每个目标 slot 的 hash tag
+        int[] bucketOfSlot = new int[SLOT_COUNT];
+        Arrays.fill(bucketOfSlot, -1);
+        int[] slots = new int[buckets];
+        for (int bucket = 0; bucket < buckets; bucket++) {
+            slots[bucket] = (int) ((long) bucket * SLOT_COUNT / buckets);
+            bucketOfSlot[slots[bucket]] = bucket;
+        }
+        String[] tags = new String[buckets];
+        int remaining = buckets;
+        for (int i = 0; remaining > 0; i++) {
+            String candidate = Integer.toString(i, Character.MAX_RADIX);
+            int bucket = bucketOfSlot[ClusterSlotHashUtil.calculateSlot(candidate)];
+            if (bucket >= 0 && tags[bucket] == null) {
+                tags[bucket] = "{" + candidate + "}";
+                remaining--;
+            }
+        }
+        return new CacheKeyLayout(tags, slots, true);
+    }
+
+    public boolean isCluster() {
+        return cluster;
+    }
+
+    /**
+     * 分片的个数，单机模式下为 1
+     */
+    public int getBuckets() {
+        return tags.length;
+    }
+
+    /**
+     * 缓存 key 所属的分片
+     */
+    public int bucketOf(String cacheKey) {
+        return cluster ? ClusterSlotHashUtil.calculateSlot(cacheKey) % tags.length : 0;
+    }
+
+    /**
+     * 分片所在的 slot；单机模式下为 0
+     */
+    public int slotOf(int bucket) {
+        return slots[bucket];
+    }
+
+    /**
+     * 给 key 加上分片的 hash tag
+     *
+     * @param key    原始的 key，例如 KeySet、CacheNameHash 的 key
+     * @param bucket 分片
+     * @return 位于分片所在 slot 的 key；单机模式下返回原始的 key
+     */
+    public String withTag(String key, int bucket) {
+        return tags[bucket] + key;
+    }
+
+    /**
+     * 缓存数据在 Redis 中实际的 key
+     */
+    public String dataKey(String cacheKey) {
+        return cluster ? this.withTag(cacheKey, this.bucketOf(cacheKey)) : cacheKey;
+    }
+}
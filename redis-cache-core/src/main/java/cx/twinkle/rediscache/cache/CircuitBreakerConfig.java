@@ -0,0 +1,122 @@
+package cx.twinkle.rediscache.cache;
+
+import java.time.Duration;
+
+/**
+ * 读取缓存的延迟预算、熔断器的配置
+ *
+ * @author twinkle
+ * @version 2026/10/19 01:10
+ */
+public class CircuitBreakerConfig {
+    /**
+     * 是否开启，默认关闭；开启后读取缓存失败或者超过延迟预算时直接执行方法，不再向调用方抛出 Redis 的异常
+     */
+    private boolean enabled = false;
+    /**
+     * 每次读取缓存的延迟预算，为 0 时不限制。异步读取超过预算后不再等待 Redis，直接执行方法；
+     * 同步读取在当前线程中执行，由 Redis 客户端的命令超时（spring.redis.timeout）限制，应当将其设置为不大于该值，
+     * 超过预算的同步读取仍然返回结果，但是按照失败统计
+     */
+    private Duration readTimeout = Duration.ofMillis(100L);
+    /**
+     * 失败率阈值（百分比），超过延迟预算也算作失败；达到阈值时熔断器打开
+     */
+    private double failureRateThreshold = 50.0;
+    /**
+     * 耗时达到该值的读取算作慢调用
+     */
+    private Duration slowCallDuration = Duration.ofMillis(50L);
+    /**
+     * 慢调用率阈值（百分比），达到阈值时熔断器打开
+     */
+    private double slowCallRateThreshold = 80.0;
+    /**
+     * 统计失败率、慢调用率的滑动窗口大小，即最近多少次读取
+     */
+    private int windowSize = 100;
+    /**
+     * 窗口中至少有多少次读取，才计算失败率、慢调用率
+     */
+    private int minimumCalls = 20;
+    /**
+     * 熔断器打开后保持的时间，之后进入半开状态，放行少量读取探测 Redis 是否恢复
+     */
+    private Duration openDuration = Duration.ofSeconds(10L);
+    /**
+     * 半开状态下放行的读取次数；这些读取的失败率、慢调用率都低于阈值时熔断器关闭，否则重新打开
+     */
+    private int halfOpenCalls = 10;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public Duration getReadTimeout() {
+        return readTimeout;
+    }
+
+    public void setReadTimeout(Duration readTimeout) {
+        this.readTimeout = readTimeout;
+    }
+
+    public double getFailureRateThreshold() {
+        return failureRateThreshold;
+    }
+
+    public void setFailureRateThreshold(double failureRateThreshold) {
+        this.failureRateThreshold = failureRateThreshold;
+    }
+
+    public Duration getSlowCallDuration() {
+        return slowCallDuration;
+    }
+
+    public void setSlowCallDuration(Duration slowCallDuration) {
+        this.slowCallDuration = slowCallDuration;
+    }
+
+    public double getSlowCallRateThreshold() {
+        return slowCallRateThreshold;
+    }
+
+    public void setSlowCallRateThreshold(double slowCallRateThreshold) {
+        this.slowCallRateThreshold = slowCallRateThreshold;
+    }
+
+    public int getWindowSize() {
+        return windowSize;
+    }
+
+    public void setWindowSize(int windowSize) {
+        this.windowSize = windowSize;
+    }
+
+    public int getMinimumCalls() {
+        return minimumCalls;
+    }
+
+    public void setMinimumCalls(int minimumCalls) {
+        this.minimumCalls = minimumCalls;
+    }
+
+    public Duration getOpenDuration() {
+        return openDuration;
+    }
+
+    public void setOpenDuration(Duration openDuration) {
+        this.openDuration = openDuration;
+    }
+
+    public int getHalfOpenCalls() {
+        return halfOpenCalls;
+    }
+
+    public void setHalfOpenCalls(int halfOpenCalls) {
+        this.halfOpenCalls = halfOpenCalls;
+    }
+}
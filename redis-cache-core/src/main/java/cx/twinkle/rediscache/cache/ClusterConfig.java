@@ -0,0 +1,36 @@
+package cx.twinkle.rediscache.cache;
+
+/**
+ * Redis Cluster 模式的配置
+ *
+ * @author twinkle
+ * @version 2026/10/18 23:55
+ */
+public class ClusterConfig {
+    /**
+     * 是否开启 Cluster 模式，默认关闭；开启后缓存数据、KeySet、CacheNameHash 的 key 都会加上 hash tag，
+     * 与关闭时的 key 不同，切换时已有的缓存全部失效
+     */
+    private boolean enabled = false;
+    /**
+     * 索引分片的个数；每个缓存 key 按照 CRC16 分配到一个分片，同一个分片的缓存数据、KeySet、CacheNameHash 位于同一个 slot，
+     * 各个分片均匀分布在所有的 slot 上；取值范围 1 ~ 16384
+     */
+    private int indexBuckets = 256;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public int getIndexBuckets() {
+        return indexBuckets;
+    }
+
+    public void setIndexBuckets(int indexBuckets) {
+        this.indexBuckets = indexBuckets;
+    }
+}
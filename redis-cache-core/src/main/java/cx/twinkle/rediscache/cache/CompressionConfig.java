@@ -0,0 +1,46 @@
+package cx.twinkle.rediscache.cache;
+
+/**
+ * 缓存数据压缩的配置
+ *
+ * @author twinkle
+ * @version 2026/10/18 16:02
+ */
+public class CompressionConfig {
+    /**
+     * 是否开启压缩，默认关闭
+     */
+    private boolean enabled = false;
+    /**
+     * 序列化后的数据大于等于该字节数时才压缩，默认 4KB
+     */
+    private int threshold = 4096;
+    /**
+     * 压缩方式，如：lz4、deflate；指定的压缩方式不存在时（如：没有引入 lz4-java），使用 deflate
+     */
+    private String algorithm = "lz4";
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public int getThreshold() {
+        return threshold;
+    }
+
+    public void setThreshold(int threshold) {
+        this.threshold = threshold;
+    }
+
+    public String getAlgorithm() {
+        return algorithm;
+    }
+
+    public void setAlgorithm(String algorithm) {
+        this.algorithm = algorithm;
+    }
+}
@@ -0,0 +1,104 @@
+package cx.twinkle.rediscache.cache;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 单个缓存的压缩统计数据，用于调整压缩阈值、压缩方式
+ *
+ * @author twinkle
+ * @version 2026/10/18 16:08
+ */
+public class CompressionStatistics {
+    /**
+     * 压缩的次数
+     */
+    private final LongAdder compressCount = new LongAdder();
+    /**
+     * 因为小于阈值、或者压缩后没有变小，而没有压缩的次数
+     */
+    private final LongAdder skipCount = new LongAdder();
+    /**
+     * 压缩前的总字节数
+     */
+    private final LongAdder rawBytes = new LongAdder();
+    /**
+     * 压缩后的总字节数
+     */
+    private final LongAdder compressedBytes = new LongAdder();
+    /**
+     * 压缩总耗时，单位：纳秒
+     */
+    private final LongAdder compressNanos = new LongAdder();
+    /**
+     * 解压的次数
+     */
+    private final LongAdder decompressCount = new LongAdder();
+    /**
+     * 解压总耗时，单位：纳秒
+     */
+    private final LongAdder decompressNanos = new LongAdder();
+
+    void recordCompress(int rawLength, int compressedLength, long nanos) {
+        compressCount.increment();
+        rawBytes.add(rawLength);
+        compressedBytes.add(compressedLength);
+        compressNanos.add(nanos);
+    }
+
+    void recordSkip() {
+        skipCount.increment();
+    }
+
+    void recordDecompress(long nanos) {
+        decompressCount.increment();
+        decompressNanos.add(nanos);
+    }
+
+    public long getCompressCount() {
+        return compressCount.sum();
+    }
+
+    public long getSkipCount() {
+        return skipCount.sum();
+    }
+
+    public long getRawBytes() {
+        return rawBytes.sum();
+    }
+
+    public long getCompressedBytes() {
+        return compressedBytes.sum();
+    }
+
+    public long getCompressNanos() {
+        return compressNanos.sum();
+    }
+
+    public long getDecompressCount() {
+        return decompressCount.sum();
+    }
+
+    public long getDecompressNanos() {
+        return decompressNanos.sum();
+    }
+
+    /**
+     * 压缩率：压缩后的总字节数 / 压缩前的总字节数；没有压缩过时返回 1
+     */
+    public double getCompressionRatio() {
+        long raw = this.getRawBytes();
+        return raw == 0 ? 1D : (double) this.getCompressedBytes() / raw;
+    }
+
+    @Override
+    public String toString() {
+        long count = this.getCompressCount(), decompress = this.getDecompressCount();
+        return "{压缩次数：" + count
+                + "，跳过次数：" + this.getSkipCount()
+                + "，压缩率：" + String.format("%.3f", this.getCompressionRatio())
+                + "，平均压缩耗时(μs)：" + (count == 0 ? 0 : this.getCompressNanos() / count / 1000)
+                + "，解压次数：" + decompress
+                + "，平均解压耗时(μs)：" + (decompress == 0 ? 0 : this.getDecompressNanos() / decompress / 1000)
+                + "}";
+    }
+}
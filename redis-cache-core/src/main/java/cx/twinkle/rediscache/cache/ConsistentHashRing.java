@@ -0,0 +1,69 @@
+package cx.twinkle.rediscache.cache;
+
+import cx.twinkle.rediscache.utils.MurmurHash3;
+import org.springframework.util.Assert;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * 带虚拟节点的一致性哈希环
+ * <p>
+ * 每个节点按照名称在环上放置 virtualNodes 个虚拟节点，key 路由到顺时针方向的第一个虚拟节点；
+ * 虚拟节点的位置只与节点名称有关，增加、移除一个节点时，只有落在该节点虚拟节点上的 key（约 1/N）需要重新映射
+ *
+ * @author twinkle
+ * @version 2026/10/19 00:10
+ */
+public class ConsistentHashRing<T> {
+    private static final long SEED = 0x9747b28cL;
+
+    private final TreeMap<Long, T> ring = new TreeMap<>();
+    private final Map<String, T> nodes;
+
+    /**
+     * @param nodes        节点名称 -> 节点；名称决定虚拟节点的位置，应当在节点的整个生命周期内保持不变，例如 host:port
+     * @param virtualNodes 每个节点的虚拟节点个数
+     */
+    public ConsistentHashRing(Map<String, T> nodes, int virtualNodes) {
+        Assert.notEmpty(nodes, "一致性哈希环至少需要一个节点！");
+        Assert.isTrue(virtualNodes > 0, "虚拟节点的个数必须大于 0！");
+        this.nodes = Collections.unmodifiableMap(new LinkedHashMap<>(nodes));
+        nodes.forEach((name, node) -> {
+            for (int i = 0; i < virtualNodes; i++) {
+                ring.put(hash(name + "#" + i), node);
+            }
+        });
+    }
+
+    /**
+     * 获取 key 所在的节点
+     */
+    public T get(String key) {
+        Map.Entry<Long, T> entry = ring.ceilingEntry(hash(key));
+        return (entry == null ? ring.firstEntry() : entry).getValue();
+    }
+
+    /**
+     * 所有的节点
+     */
+    public Collection<T> getNodes() {
+        return nodes.values();
+    }
+
+    /**
+     * 节点名称 -> 节点
+     */
+    public Map<String, T> getNodeMap() {
+        return nodes;
+    }
+
+    private static long hash(String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        return MurmurHash3.hash128(bytes, 0, bytes.length, SEED)[0];
+    }
+}
@@ -0,0 +1,37 @@
+package cx.twinkle.rediscache.cache;
+
+import java.time.Duration;
+
+/**
+ * 缓存组件共用线程池的配置
+ *
+ * @author twinkle
+ * @version 2026/10/19 02:25
+ */
+public class ExecutorConfig {
+    /**
+     * 并行访问 Redis 节点（Cluster 的各个节点、各个分片）以及对冲读取的最大线程数；
+     * 线程池不排队，线程都在忙时由调用方线程执行
+     */
+    private int maxThreads = 64;
+    /**
+     * 空闲线程的存活时间
+     */
+    private Duration keepAlive = Duration.ofSeconds(60L);
+
+    public int getMaxThreads() {
+        return maxThreads;
+    }
+
+    public void setMaxThreads(int maxThreads) {
+        this.maxThreads = maxThreads;
+    }
+
+    public Duration getKeepAlive() {
+        return keepAlive;
+    }
+
+    public void setKeepAlive(Duration keepAlive) {
+        this.keepAlive = keepAlive;
+    }
+}
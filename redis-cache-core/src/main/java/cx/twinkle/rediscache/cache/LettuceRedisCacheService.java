@@ -0,0 +1,215 @@
+package cx.twinkle.rediscache.cache;
+
+import cx.twinkle.rediscache.dto.CacheEntry;
+import cx.twinkle.rediscache.dto.MethodCacheInfo;
+import cx.twinkle.rediscache.metrics.CacheMetrics;
+import io.lettuce.core.KeyValue;
+import io.lettuce.core.LettuceFutures;
+import io.lettuce.core.RedisFuture;
+import io.lettuce.core.cluster.api.async.RedisClusterAsyncCommands;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.connection.lettuce.LettuceExceptionConverter;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.util.Assert;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 基于 Lettuce 非阻塞连接的 RedisCacheService
+ * <p>
+ * 同步的读取、写入、删除与 RedisCacheServiceImpl 相同，通过 RedisTemplate 执行；Lettuce 默认所有线程共享一个原生连接，
+ * 并发的命令不等待响应就写入连接，相当于自动 pipeline。批量操作通过 LettuceSlotBatchExecutor 执行，Cluster 模式下也只需要一个 pipeline。
+ * 异步读取（返回 CompletableFuture、Mono、Flux 的方法）直接在原生连接上发送 GET，等待响应时不占用线程，响应到达后在线程池中反序列化；
+ * 超过连接工厂的命令超时时间仍未响应时，以 QueryTimeoutException 结束。开启副本读取时，异步读取退化为在线程池中同步读取
+ *
+ * @author twinkle
+ * @version 2026/10/19 00:50
+ */
+public class LettuceRedisCacheService extends RedisCacheServiceImpl {
+    private static final Logger log = LoggerFactory.getLogger(LettuceRedisCacheService.class);
+    private static final LettuceExceptionConverter EXCEPTION_CONVERTER = new LettuceExceptionConverter();
+
+    private final LettuceConnectionFactory connectionFactory;
+    /**
+     * 异步读取使用的连接，在第一次异步读取时打开，所有线程共用其中线程安全的原生连接；原生连接被关闭后重新打开
+     */
+    private RedisConnection asyncConnection;
+    private volatile RedisClusterAsyncCommands<byte[], byte[]> asyncCommands;
+    /**
+     * 检查异步读取是否超时；为空时只依赖 Lettuce 自身的命令超时
+     */
+    private ScheduledExecutorService timeoutScheduler;
+
+    public LettuceRedisCacheService(StringRedisTemplate redisTemplate, RedisTemplate<byte[], byte[]> binaryTemplate,
+                                    SerializeService serializeService) {
+        super(redisTemplate, binaryTemplate, serializeService);
+        RedisConnectionFactory factory = binaryTemplate.getRequiredConnectionFactory();
+        Assert.isInstanceOf(LettuceConnectionFactory.class, factory, "LettuceRedisCacheService 只支持 LettuceConnectionFactory！");
+        this.connectionFactory = (LettuceConnectionFactory) factory;
+        this.setBatchExecutor(new LettuceSlotBatchExecutor(binaryTemplate, false));
+    }
+
+    @Override
+    public CompletableFuture<Object> getFromRedisAsync(MethodCacheInfo cacheInfo, Executor executor) {
+        if (this.getReplicaReader() != null) {
+            return super.getFromRedisAsync(cacheInfo, executor);
+        }
+        String cacheName = cacheInfo.getCacheName();
+        return this.getAsync(cacheInfo.getCacheKey(), cacheName)
+                .thenApplyAsync(bytes -> this.deserializeValue(bytes, cacheName), inlineWhenRejected(executor));
+    }
+
+    @Override
+    public CompletableFuture<CacheEntry> getEntryAsync(MethodCacheInfo cacheInfo, Executor executor) {
+        if (this.getReplicaReader() != null) {
+            return super.getEntryAsync(cacheInfo, executor);
+        }
+        String cacheName = cacheInfo.getCacheName();
+        return this.getAsync(cacheInfo.getCacheKey(), cacheName)
+                .thenApplyAsync(bytes -> this.deserializeEntry(bytes, cacheName), inlineWhenRejected(executor));
+    }
+
+    /**
+     * 在原生连接上同时发送每个分片的 MGET，再等待所有的响应；Cluster 模式下由 Lettuce 路由到各个节点，不需要使用线程池并行执行
+     */
+    @Override
+    protected List<byte[]> multiGet(List<String> keys) {
+        List<Map.Entry<Integer, List<Integer>>> groups = this.groupByBucket(keys);
+        RedisClusterAsyncCommands<byte[], byte[]> commands = this.getAsyncCommands();
+        List<RedisFuture<List<KeyValue<byte[], byte[]>>>> futures = new ArrayList<>(groups.size());
+        for (Map.Entry<Integer, List<Integer>> group : groups) {
+            futures.add(commands.mget(this.rawDataKeys(keys, group)));
+        }
+        long timeout = connectionFactory.getTimeout();
+        try {
+            if (!LettuceFutures.awaitAll(timeout <= 0 ? Long.MAX_VALUE : timeout, TimeUnit.MILLISECONDS,
+                    futures.toArray(new RedisFuture[0]))) {
+                throw new QueryTimeoutException("Redis 批量读取超时！timeout = " + timeout + "ms");
+            }
+        } catch (RuntimeException e) {
+            this.resetIfClosed(commands);
+            throw (RuntimeException) translate(e);
+        }
+        byte[][] results = new byte[keys.size()][];
+        for (int i = 0; i < groups.size(); i++) {
+            List<KeyValue<byte[], byte[]>> values = futures.get(i).toCompletableFuture().join();
+            List<Integer> indexes = groups.get(i).getValue();
+            for (int j = 0; j < indexes.size(); j++) {
+                results[indexes.get(j)] = values.get(j).getValueOrElse(null);
+            }
+        }
+        return Arrays.asList(results);
+    }
+
+    /**
+     * 在原生连接上异步执行 GET，并记录 GET 的耗时
+     */
+    private CompletableFuture<byte[]> getAsync(String key, String cacheName) {
+        CacheMetrics cacheMetrics = this.getCacheMetrics();
+        byte[] rawKey = this.rawDataKey(key);
+        long start = System.nanoTime();
+        CompletableFuture<byte[]> result = new CompletableFuture<>();
+        try {
+            RedisClusterAsyncCommands<byte[], byte[]> commands = this.getAsyncCommands();
+            commands.get(rawKey).whenComplete((bytes, error) -> {
+                if (error == null) {
+                    result.complete(bytes);
+                } else {
+                    result.completeExceptionally(translate(error));
+                    this.resetIfClosed(commands);
+                }
+            });
+        } catch (RuntimeException e) {
+            result.completeExceptionally(translate(e));
+        }
+        long timeout = connectionFactory.getTimeout();
+        ScheduledFuture<?> timeoutFuture = timeout <= 0 || timeoutScheduler == null ? null : timeoutScheduler.schedule(() ->
+                result.completeExceptionally(new QueryTimeoutException("Redis 异步读取超时！timeout = " + timeout + "ms")),
+                timeout, TimeUnit.MILLISECONDS);
+        return result.whenComplete((bytes, error) -> {
+            if (timeoutFuture != null) {
+                timeoutFuture.cancel(false);
+            }
+            if (error != null) {
+                cacheMetrics.recordError(cacheName, CacheMetrics.OP_GET);
+            }
+            cacheMetrics.recordRedisLatency(cacheName, CacheMetrics.OP_GET, System.nanoTime() - start);
+        });
+    }
+
+    @SuppressWarnings("unchecked")
+    private RedisClusterAsyncCommands<byte[], byte[]> getAsyncCommands() {
+        RedisClusterAsyncCommands<byte[], byte[]> commands = asyncCommands;
+        if (commands != null) {
+            return commands;
+        }
+        synchronized (this) {
+            if (asyncCommands == null) {
+                asyncConnection = connectionFactory.getConnection();
+                // 单机连接为 RedisAsyncCommands，Cluster 连接为 RedisAdvancedClusterAsyncCommands，都是 RedisClusterAsyncCommands
+                asyncCommands = (RedisClusterAsyncCommands<byte[], byte[]>) asyncConnection.getNativeConnection();
+            }
+            return asyncCommands;
+        }
+    }
+
+    /**
+     * 原生连接被关闭时（例如连接工厂重置了连接），关闭异步读取的连接，下一次读取时重新打开；
+     * 网络断开时 Lettuce 会自动重连，不需要重新打开
+     */
+    private synchronized void resetIfClosed(RedisClusterAsyncCommands<byte[], byte[]> commands) {
+        if (asyncCommands == commands && !commands.isOpen()) {
+            try {
+                asyncConnection.close();
+            } catch (RuntimeException e) {
+                log.debug("关闭 Redis 异步读取的连接失败！", e);
+            }
+            asyncConnection = null;
+            asyncCommands = null;
+        }
+    }
+
+    private static Throwable translate(Throwable error) {
+        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        if (cause instanceof DataAccessException || !(cause instanceof Exception)) {
+            return cause;
+        }
+        DataAccessException translated = EXCEPTION_CONVERTER.convert((Exception) cause);
+        return translated == null ? cause : translated;
+    }
+
+    /**
+     * 线程池队列已满时，在完成 GET 的线程中反序列化，避免读取到的缓存被丢弃
+     */
+    private static Executor inlineWhenRejected(Executor executor) {
+        return task -> {
+            try {
+                executor.execute(task);
+            } catch (RejectedExecutionException e) {
+                task.run();
+            }
+        };
+    }
+
+
+    public void setTimeoutScheduler(ScheduledExecutorService timeoutScheduler) {
+        this.timeoutScheduler = timeoutScheduler;
+    }
+}
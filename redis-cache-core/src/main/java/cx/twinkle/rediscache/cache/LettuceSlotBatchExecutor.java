@@ -0,0 +1,31 @@
+package cx.twinkle.rediscache.cache;
+
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.core.RedisTemplate;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.function.BiFunction;
+import java.util.function.ToIntFunction;
+
+/**
+ * Lettuce 连接的批量执行器
+ * <p>
+ * Lettuce 的 Cluster 连接支持 pipeline：每条命令按照 key 的 slot 路由到所在的节点，不等待响应就发送下一条，
+ * 由客户端处理 MOVED、ASK 重定向；因此单机模式、Cluster 模式都通过一个 pipeline 执行，不需要按照节点分组、使用线程池并行执行
+ *
+ * @author twinkle
+ * @version 2026/10/19 00:50
+ */
+public class LettuceSlotBatchExecutor extends SlotBatchExecutor {
+
+    public LettuceSlotBatchExecutor(RedisTemplate<byte[], byte[]> binaryTemplate, boolean cluster) {
+        super(binaryTemplate, cluster);
+    }
+
+    @Override
+    public <T> List<Object> executePipelined(List<T> items, ToIntFunction<T> slotFunction,
+                                             BiFunction<RedisConnection, T, Object> command) {
+        return items.isEmpty() ? Collections.emptyList() : this.executeInPipeline(items, command);
+    }
+}
@@ -0,0 +1,60 @@
+package cx.twinkle.rediscache.cache;
+
+import java.time.Duration;
+
+/**
+ * 本地近端缓存（L1）的配置
+ *
+ * @author twinkle
+ * @version 2026/10/18 10:12
+ */
+public class NearCacheConfig {
+    /**
+     * 是否开启近端缓存，默认关闭
+     */
+    private boolean enabled = false;
+    /**
+     * 最多缓存的条目数；当 maximumWeight 大于 0 时，该配置不生效
+     */
+    private long maximumSize = 10000L;
+    /**
+     * 最大权重；集合、Map、数组 的权重为其元素个数，其他对象的权重为 1；小于等于 0 表示不按权重限制
+     */
+    private long maximumWeight = 0L;
+    /**
+     * 本地缓存的过期时间，实际过期时间不会超过该缓存在 Redis 中的过期时间
+     */
+    private Duration expire = Duration.ofMinutes(1L);
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public long getMaximumSize() {
+        return maximumSize;
+    }
+
+    public void setMaximumSize(long maximumSize) {
+        this.maximumSize = maximumSize;
+    }
+
+    public long getMaximumWeight() {
+        return maximumWeight;
+    }
+
+    public void setMaximumWeight(long maximumWeight) {
+        this.maximumWeight = maximumWeight;
+    }
+
+    public Duration getExpire() {
+        return expire;
+    }
+
+    public void setExpire(Duration expire) {
+        this.expire = expire;
+    }
+}
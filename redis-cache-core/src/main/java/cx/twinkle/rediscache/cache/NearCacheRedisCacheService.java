@@ -0,0 +1,516 @@
+package cx.twinkle.rediscache.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import cx.twinkle.rediscache.dto.CacheEntry;
+import cx.twinkle.rediscache.dto.CacheWrite;
+import cx.twinkle.rediscache.dto.MethodCacheInfo;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.lang.reflect.Array;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 带有本地近端缓存（L1）的 RedisCacheService
+ * <p>
+ * 读取时优先读取本地缓存，未命中时再读取 Redis；写入、删除时通过 Redis 的发布/订阅 通知所有实例删除本地缓存。
+ * 每次删除本地缓存之前先增加失效版本号，读取 Redis 之前记录版本号，版本号变化时不再写入本地缓存，
+ * 避免读取 Redis 期间收到的失效消息被随后写入的旧数据覆盖
+ *
+ * @author twinkle
+ * @version 2026/10/18 10:20
+ */
+public class NearCacheRedisCacheService implements RedisCacheService, MessageListener {
+    private static final Logger log = LoggerFactory.getLogger(NearCacheRedisCacheService.class);
+
+    /**
+     * 近端缓存失效消息的频道
+     */
+    public static final String NEAR_CACHE_INVALIDATE_CHANNEL = "C7264226X_NEAR_CACHE_INVALIDATE";
+    /**
+     * 失效消息类型：删除指定的 key
+     */
+    private static final String TYPE_KEY = "K";
+    /**
+     * 失效消息类型：删除整个缓存
+     */
+    private static final String TYPE_CACHE = "C";
+    /**
+     * 按 key 的 hash 分段记录失效版本号的段数，必须是 2 的幂
+     */
+    private static final int VERSION_STRIPES = 1024;
+
+    private RedisCacheService delegate;
+    private StringRedisTemplate redisTemplate;
+    /**
+     * 当前实例的ID，用于忽略自己发出的失效消息
+     */
+    private final String instanceId = UUID.randomUUID().toString();
+    /**
+     * 默认的近端缓存配置
+     */
+    private NearCacheConfig defaultConfig = new NearCacheConfig();
+    /**
+     * 按缓存名称单独指定的近端缓存配置
+     */
+    private Map<String, NearCacheConfig> cacheConfigs = Collections.emptyMap();
+    /**
+     * 每个缓存名称对应的本地缓存；未开启近端缓存的缓存名称不会出现在这里
+     */
+    private final ConcurrentMap<String, Cache<String, NearCacheEntry>> nearCaches = new ConcurrentHashMap<>();
+    /**
+     * 删除 key 时增加 key 所在分段的版本号，删除整个缓存时增加全局版本号；不同的 key 共用分段只会多跳过几次写入本地缓存
+     */
+    private final AtomicLongArray keyVersions = new AtomicLongArray(VERSION_STRIPES);
+    private final AtomicLong globalVersion = new AtomicLong();
+
+    public NearCacheRedisCacheService(RedisCacheService delegate, StringRedisTemplate redisTemplate) {
+        this.delegate = delegate;
+        this.redisTemplate = redisTemplate;
+    }
+
+    @Override
+    public Object getFromRedis(String key) {
+        return delegate.getFromRedis(key);
+    }
+
+    @Override
+    public Object getFromRedis(MethodCacheInfo cacheInfo) {
+        if (this.getNearCache(cacheInfo.getCacheName()) == null) {
+            return delegate.getFromRedis(cacheInfo);
+        }
+        CacheEntry entry = this.getEntry(cacheInfo);
+        return entry == null || entry.isNegative() ? null : entry.getValue();
+    }
+
+    @Override
+    public CacheEntry getEntry(MethodCacheInfo cacheInfo) {
+        Cache<String, NearCacheEntry> nearCache = this.getNearCache(cacheInfo.getCacheName());
+        if (nearCache == null) {
+            return delegate.getEntry(cacheInfo);
+        }
+        String key = cacheInfo.getCacheKey();
+        NearCacheEntry nearEntry = nearCache.getIfPresent(key);
+        if (nearEntry != null) {
+            return nearEntry.entry;
+        }
+        long version = this.version(key);
+        CacheEntry entry = delegate.getEntry(cacheInfo);
+        this.fill(nearCache, cacheInfo, entry, version);
+        return entry;
+    }
+
+    @Override
+    public CompletableFuture<Object> getFromRedisAsync(MethodCacheInfo cacheInfo, Executor executor) {
+        if (this.getNearCache(cacheInfo.getCacheName()) == null) {
+            return delegate.getFromRedisAsync(cacheInfo, executor);
+        }
+        return this.getEntryAsync(cacheInfo, executor)
+                .thenApply(entry -> entry == null || entry.isNegative() ? null : entry.getValue());
+    }
+
+    /**
+     * 本地缓存命中时直接返回，未命中时异步读取 Redis
+     */
+    @Override
+    public CompletableFuture<CacheEntry> getEntryAsync(MethodCacheInfo cacheInfo, Executor executor) {
+        Cache<String, NearCacheEntry> nearCache = this.getNearCache(cacheInfo.getCacheName());
+        if (nearCache == null) {
+            return delegate.getEntryAsync(cacheInfo, executor);
+        }
+        String key = cacheInfo.getCacheKey();
+        NearCacheEntry nearEntry = nearCache.getIfPresent(key);
+        if (nearEntry != null) {
+            return CompletableFuture.completedFuture(nearEntry.entry);
+        }
+        long version = this.version(key);
+        return delegate.getEntryAsync(cacheInfo, executor).thenApply(entry -> {
+            this.fill(nearCache, cacheInfo, entry, version);
+            return entry;
+        });
+    }
+
+    /**
+     * 先读取本地缓存，只有本地缓存未命中的 key 才会批量读取 Redis
+     */
+    @Override
+    public List<CacheEntry> getEntries(List<MethodCacheInfo> cacheInfos) {
+        if (cacheInfos.stream().allMatch(info -> this.getNearCache(info.getCacheName()) == null)) {
+            return delegate.getEntries(cacheInfos);
+        }
+        List<CacheEntry> entries = new ArrayList<>(Collections.nCopies(cacheInfos.size(), null));
+        List<MethodCacheInfo> missInfos = new ArrayList<>();
+        List<Integer> missIndexes = new ArrayList<>();
+        List<Long> missVersions = new ArrayList<>();
+        for (int i = 0; i < cacheInfos.size(); i++) {
+            MethodCacheInfo cacheInfo = cacheInfos.get(i);
+            Cache<String, NearCacheEntry> nearCache = this.getNearCache(cacheInfo.getCacheName());
+            NearCacheEntry nearEntry = nearCache == null ? null : nearCache.getIfPresent(cacheInfo.getCacheKey());
+            if (nearEntry != null) {
+                entries.set(i, nearEntry.entry);
+            } else {
+                missInfos.add(cacheInfo);
+                missIndexes.add(i);
+                missVersions.add(this.version(cacheInfo.getCacheKey()));
+            }
+        }
+        if (missInfos.isEmpty()) {
+            return entries;
+        }
+        List<CacheEntry> loaded = delegate.getEntries(missInfos);
+        for (int i = 0; i < missInfos.size(); i++) {
+            CacheEntry entry = loaded.get(i);
+            entries.set(missIndexes.get(i), entry);
+            MethodCacheInfo cacheInfo = missInfos.get(i);
+            Cache<String, NearCacheEntry> nearCache = this.getNearCache(cacheInfo.getCacheName());
+            if (nearCache != null) {
+                this.fill(nearCache, cacheInfo, entry, missVersions.get(i));
+            }
+        }
+        return entries;
+    }
+
+    /**
+     * 将读取 Redis 得到的数据写入本地缓存；读取之前记录的版本号已经变化时不写入。
+     * 写入之后再检查一次：检查与写入之间收到的失效消息，会在写入之后删除本地缓存
+     */
+    private void fill(Cache<String, NearCacheEntry> nearCache, MethodCacheInfo cacheInfo, CacheEntry entry, long version) {
+        String key = cacheInfo.getCacheKey();
+        if (entry == null || this.version(key) != version) {
+            return;
+        }
+        nearCache.put(key, this.newEntry(cacheInfo.getCacheName(), entry, cacheInfo.getExpireTime()));
+        if (this.version(key) != version) {
+            nearCache.invalidate(key);
+        }
+    }
+
+    /**
+     * key 当前的失效版本号，全局版本号与分段版本号都只增不减，二者之和变化说明期间有过失效
+     */
+    private long version(String key) {
+        return globalVersion.get() + keyVersions.get(stripe(key));
+    }
+
+    private static int stripe(String key) {
+        int hash = key.hashCode();
+        return (hash ^ (hash >>> 16)) & (VERSION_STRIPES - 1);
+    }
+
+    @Override
+    public void insert2Redis(String key, Object value, Duration duration, String cacheName) {
+        delegate.insert2Redis(key, value, duration, cacheName);
+        this.afterInsert(key, CacheEntry.of(value), duration, cacheName);
+    }
+
+    @Override
+    public void insert2Redis(MethodCacheInfo cacheInfo, Object value) {
+        delegate.insert2Redis(cacheInfo, value);
+        this.afterInsert(cacheInfo.getCacheKey(), CacheEntry.of(value), cacheInfo.getExpireTime(), cacheInfo.getCacheName());
+    }
+
+    @Override
+    public void insertEntry(MethodCacheInfo cacheInfo, CacheEntry entry) {
+        delegate.insertEntry(cacheInfo, entry);
+        this.afterInsert(cacheInfo.getCacheKey(), entry, cacheInfo.getExpireTime(), cacheInfo.getCacheName());
+    }
+
+    /**
+     * 批量写入后，每个缓存只发送一条失效消息
+     */
+    @Override
+    public void insertEntries(List<CacheWrite> writes) {
+        delegate.insertEntries(writes);
+        Map<String, List<String>> keysOfCache = new HashMap<>();
+        for (CacheWrite write : writes) {
+            MethodCacheInfo cacheInfo = write.getCacheInfo();
+            Cache<String, NearCacheEntry> nearCache = this.getNearCache(cacheInfo.getCacheName());
+            if (nearCache != null) {
+                keyVersions.incrementAndGet(stripe(cacheInfo.getCacheKey()));
+                nearCache.put(cacheInfo.getCacheKey(),
+                        this.newEntry(cacheInfo.getCacheName(), write.getEntry(), cacheInfo.getExpireTime()));
+                keysOfCache.computeIfAbsent(cacheInfo.getCacheName(), k -> new ArrayList<>()).add(cacheInfo.getCacheKey());
+            }
+        }
+        keysOfCache.forEach((cacheName, keys) -> this.publish(TYPE_KEY, cacheName, keys.toArray(new String[0])));
+    }
+
+    private void afterInsert(String key, CacheEntry entry, Duration duration, String cacheName) {
+        Cache<String, NearCacheEntry> nearCache = this.getNearCache(cacheName);
+        if (nearCache == null) {
+            return;
+        }
+        // 正在读取 Redis 的旧数据不能覆盖刚写入的数据
+        keyVersions.incrementAndGet(stripe(key));
+        nearCache.put(key, this.newEntry(cacheName, entry, duration));
+        this.publish(TYPE_KEY, cacheName, key);
+    }
+
+    /**
+     * 删除成功后总是发送失效消息：本地缓存只在读取时创建，没有读取过这些缓存的实例（例如只负责写入、删除的实例）
+     * 本地没有需要删除的数据，但是其他实例的本地缓存中可能有
+     */
+    @Override
+    public long deleteByKey(String... keys) {
+        long deleted = delegate.deleteByKey(keys);
+        this.invalidateKeys(null, keys);
+        this.publish(TYPE_KEY, "", keys);
+        return deleted;
+    }
+
+    @Override
+    public long deleteByCacheName(String cacheName) {
+        long deleted = delegate.deleteByCacheName(cacheName);
+        this.invalidateCache(cacheName);
+        this.publish(TYPE_CACHE, cacheName);
+        return deleted;
+    }
+
+    /**
+     * 接收其他实例发出的失效消息，消息由若干个字段组成：实例ID、消息类型、缓存名称、需要删除的key...
+     */
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String body = new String(message.getBody(), StandardCharsets.UTF_8);
+        List<String> fields = decode(body);
+        if (fields.size() < 3 || instanceId.equals(fields.get(0))) {
+            return;
+        }
+        String type = fields.get(1), cacheName = fields.get(2);
+        if (TYPE_CACHE.equals(type)) {
+            this.invalidateCache(cacheName);
+            log.debug("收到近端缓存失效消息，缓存 {} 下所有的本地缓存已删除！", cacheName);
+            return;
+        }
+        String[] keys = fields.subList(3, fields.size()).toArray(new String[0]);
+        this.invalidateKeys(cacheName.isEmpty() ? null : cacheName, keys);
+        log.debug("收到近端缓存失效消息，本地缓存 KEY = {} 已删除！", (Object) keys);
+    }
+
+    /**
+     * 删除本地缓存中该缓存下所有的数据；本地缓存还没有创建时也增加版本号，正在进行的第一次读取不会写入本地缓存
+     */
+    private void invalidateCache(String cacheName) {
+        globalVersion.incrementAndGet();
+        Cache<String, NearCacheEntry> nearCache = nearCaches.get(cacheName);
+        if (nearCache != null) {
+            nearCache.invalidateAll();
+        }
+    }
+
+    /**
+     * 删除本地缓存中的 key；未指定缓存名称时，从所有的本地缓存中删除
+     */
+    private void invalidateKeys(String cacheName, String... keys) {
+        for (String key : keys) {
+            keyVersions.incrementAndGet(stripe(key));
+        }
+        if (cacheName != null) {
+            Cache<String, NearCacheEntry> nearCache = nearCaches.get(cacheName);
+            if (nearCache != null) {
+                for (String key : keys) {
+                    nearCache.invalidate(key);
+                }
+            }
+            return;
+        }
+        for (Cache<String, NearCacheEntry> nearCache : nearCaches.values()) {
+            for (String key : keys) {
+                nearCache.invalidate(key);
+            }
+        }
+    }
+
+    private void publish(String type, String cacheName, String... keys) {
+        try {
+            redisTemplate.convertAndSend(NEAR_CACHE_INVALIDATE_CHANNEL, encode(instanceId, type, cacheName, keys));
+        } catch (Exception e) {
+            log.error("近端缓存失效消息发送失败！cacheName = {}，keys = {}", cacheName, keys, e);
+        }
+    }
+
+    /**
+     * 编码失效消息：实例ID、消息类型、缓存名称、缓存key
+     */
+    static String encode(String instanceId, String type, String cacheName, String... keys) {
+        StringBuilder messageBuilder = new StringBuilder();
+        appendField(messageBuilder, instanceId);
+        appendField(messageBuilder, type);
+        appendField(messageBuilder, cacheName);
+        for (String key : keys) {
+            appendField(messageBuilder, key);
+        }
+        return messageBuilder.toString();
+    }
+
+    /**
+     * 每个字段编码为 长度:内容，长度为字符个数；key 中可以包含换行等任意字符
+     */
+    private static void appendField(StringBuilder builder, String field) {
+        builder.append(field.length()).append(':').append(field);
+    }
+
+    /**
+     * 解码失效消息；不是以 长度: 开头的消息是旧版本按照换行分隔的格式，滚动升级期间仍然可以解析
+     */
+    static List<String> decode(String body) {
+        int colon = body.indexOf(':');
+        if (colon <= 0 || !isDigits(body, 0, colon)) {
+            return Arrays.asList(body.split("\n"));
+        }
+        List<String> fields = new ArrayList<>();
+        int position = 0;
+        while (position < body.length()) {
+            colon = body.indexOf(':', position);
+            if (colon <= position || !isDigits(body, position, colon)) {
+                log.warn("近端缓存失效消息格式错误，已忽略！message = {}", body);
+                return Collections.emptyList();
+            }
+            int start = colon + 1;
+            int end = start + Integer.parseInt(body.substring(position, colon));
+            if (end > body.length()) {
+                log.warn("近端缓存失效消息格式错误，已忽略！message = {}", body);
+                return Collections.emptyList();
+            }
+            fields.add(body.substring(start, end));
+            position = end;
+        }
+        return fields;
+    }
+
+    private static boolean isDigits(String text, int start, int end) {
+        if (end - start > 9) {
+            return false;
+        }
+        for (int i = start; i < end; i++) {
+            char c = text.charAt(i);
+            if (c < '0' || c > '9') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 获取缓存名称对应的本地缓存，没有开启近端缓存时返回 null
+     */
+    private Cache<String, NearCacheEntry> getNearCache(String cacheName) {
+        Cache<String, NearCacheEntry> nearCache = nearCaches.get(cacheName);
+        if (nearCache != null) {
+            return nearCache;
+        }
+        NearCacheConfig config = this.getConfig(cacheName);
+        if (!config.isEnabled()) {
+            return null;
+        }
+        return nearCaches.computeIfAbsent(cacheName, k -> this.buildNearCache(config));
+    }
+
+    private NearCacheConfig getConfig(String cacheName) {
+        NearCacheConfig config = cacheConfigs.get(cacheName);
+        return config == null ? defaultConfig : config;
+    }
+
+    private Cache<String, NearCacheEntry> buildNearCache(NearCacheConfig config) {
+        Caffeine<Object, Object> builder = Caffeine.newBuilder();
+        if (config.getMaximumWeight() > 0) {
+            builder.maximumWeight(config.getMaximumWeight());
+            return builder.weigher((String key, NearCacheEntry entry) -> weigh(entry.entry.getValue()))
+                    .expireAfter(new NearCacheExpiry())
+                    .build();
+        }
+        return builder.maximumSize(config.getMaximumSize())
+                .expireAfter(new NearCacheExpiry())
+                .build();
+    }
+
+    /**
+     * 本地缓存的过期时间取 近端缓存配置的过期时间 与 Redis 过期时间 中较小的一个
+     */
+    private NearCacheEntry newEntry(String cacheName, CacheEntry entry, Duration redisExpire) {
+        Duration expire = this.getConfig(cacheName).getExpire();
+        if (redisExpire != null && !redisExpire.isZero() && redisExpire.compareTo(expire) < 0) {
+            expire = redisExpire;
+        }
+        return new NearCacheEntry(entry, expire.toNanos());
+    }
+
+    private static int weigh(Object value) {
+        int weight = 1;
+        if (value instanceof Collection) {
+            weight = ((Collection<?>) value).size();
+        } else if (value instanceof Map) {
+            weight = ((Map<?, ?>) value).size();
+        } else if (value != null && value.getClass().isArray()) {
+            weight = Array.getLength(value);
+        }
+        return Math.max(weight, 1);
+    }
+
+    public String getInstanceId() {
+        return instanceId;
+    }
+
+    public NearCacheConfig getDefaultConfig() {
+        return defaultConfig;
+    }
+
+    public void setDefaultConfig(NearCacheConfig defaultConfig) {
+        this.defaultConfig = defaultConfig;
+    }
+
+    public Map<String, NearCacheConfig> getCacheConfigs() {
+        return cacheConfigs;
+    }
+
+    public void setCacheConfigs(Map<String, NearCacheConfig> cacheConfigs) {
+        this.cacheConfigs = cacheConfigs;
+    }
+
+    private static class NearCacheEntry {
+        private final CacheEntry entry;
+        private final long expireNanos;
+
+        private NearCacheEntry(CacheEntry entry, long expireNanos) {
+            this.entry = entry;
+            this.expireNanos = expireNanos;
+        }
+    }
+
+    private static class NearCacheExpiry implements Expiry<String, NearCacheEntry> {
+        @Override
+        public long expireAfterCreate(String key, NearCacheEntry entry, long currentTime) {
+            return entry.expireNanos;
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, NearCacheEntry entry, long currentTime, long currentDuration) {
+            return entry.expireNanos;
+        }
+
+        @Override
+        public long expireAfterRead(String key, NearCacheEntry entry, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
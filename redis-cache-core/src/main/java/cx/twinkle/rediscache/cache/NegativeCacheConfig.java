@@ -0,0 +1,36 @@
+package cx.twinkle.rediscache.cache;
+
+import java.time.Duration;
+
+/**
+ * 负缓存的配置：方法返回 null、空字符串、空集合、空Map 时，也写入一个占位数据，防止缓存穿透
+ *
+ * @author twinkle
+ * @version 2026/10/18 21:20
+ */
+public class NegativeCacheConfig {
+    /**
+     * 是否开启，默认关闭
+     */
+    private boolean enabled = false;
+    /**
+     * 占位数据的过期时间，通常远小于正常数据的过期时间
+     */
+    private Duration ttl = Duration.ofMinutes(1L);
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public Duration getTtl() {
+        return ttl;
+    }
+
+    public void setTtl(Duration ttl) {
+        this.ttl = ttl;
+    }
+}
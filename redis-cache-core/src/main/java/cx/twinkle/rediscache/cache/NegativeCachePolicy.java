@@ -0,0 +1,65 @@
+package cx.twinkle.rediscache.cache;
+
+import cx.twinkle.rediscache.dto.MethodCacheInfo;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * 负缓存策略
+ *
+ * @author twinkle
+ * @version 2026/10/18 21:20
+ */
+public class NegativeCachePolicy {
+    /**
+     * 默认的配置
+     */
+    private NegativeCacheConfig defaultConfig = new NegativeCacheConfig();
+    /**
+     * 按缓存名称单独指定的配置
+     */
+    private Map<String, NegativeCacheConfig> cacheConfigs = Collections.emptyMap();
+
+    /**
+     * 判断该缓存是否开启了负缓存
+     *
+     * @param cacheName 缓存名称
+     * @return true OR false
+     */
+    public boolean isEnabled(String cacheName) {
+        return this.getConfig(cacheName).isEnabled();
+    }
+
+    /**
+     * 占位数据使用单独的过期时间
+     *
+     * @param cacheInfo 方法的缓存信息
+     * @return 过期时间为占位数据过期时间的缓存信息
+     */
+    public MethodCacheInfo withNegativeTtl(MethodCacheInfo cacheInfo) {
+        return new MethodCacheInfo(cacheInfo.getMethodName(), cacheInfo.getCacheName(), cacheInfo.getCacheKey(),
+                this.getConfig(cacheInfo.getCacheName()).getTtl(), cacheInfo.getCodec());
+    }
+
+    private NegativeCacheConfig getConfig(String cacheName) {
+        NegativeCacheConfig config = cacheName == null ? null : cacheConfigs.get(cacheName);
+        return config == null ? defaultConfig : config;
+    }
+
+    public NegativeCacheConfig getDefaultConfig() {
+        return defaultConfig;
+    }
+
+    public void setDefaultConfig(NegativeCacheConfig defaultConfig) {
+        this.defaultConfig = defaultConfig;
+    }
+
+    public Map<String, NegativeCacheConfig> getCacheConfigs() {
+        return cacheConfigs;
+    }
+
+    public void setCacheConfigs(Map<String, NegativeCacheConfig> cacheConfigs) {
+        this.cacheConfigs = cacheConfigs;
+    }
+}
@@ -0,0 +1,86 @@
+package cx.twinkle.rediscache.cache;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.util.Assert;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 缓存组件共用的线程池，由自动配置创建，应用关闭时关闭
+ * <p>
+ * worker：并行访问 Redis 节点（Cluster 的各个节点、各个分片）以及对冲读取，线程数有上限，不排队；
+ * 线程都在忙时（或者已经关闭时）由调用方线程执行，任务不会被丢弃。
+ * scheduler：单线程，执行读取超时、租约续期等延时任务，任务必须很快结束
+ *
+ * @author twinkle
+ * @version 2026/10/19 02:25
+ */
+public class RedisCacheExecutors {
+    private static final Logger log = LoggerFactory.getLogger(RedisCacheExecutors.class);
+
+    private final LongAdder callerRunsCount = new LongAdder();
+    private final ThreadPoolExecutor worker;
+    private final ScheduledThreadPoolExecutor scheduler;
+
+    public RedisCacheExecutors(ExecutorConfig config) {
+        Assert.isTrue(config.getMaxThreads() > 0, "maxThreads 必须大于 0！");
+        this.worker = new ThreadPoolExecutor(0, config.getMaxThreads(), config.getKeepAlive().toMillis(),
+                TimeUnit.MILLISECONDS, new SynchronousQueue<>(), threadFactory("redis-cache-worker-"), (task, pool) -> {
+            callerRunsCount.increment();
+            task.run();
+        });
+        // 关闭之后提交的延时任务直接丢弃：读取不再超时、租约不再续期，不影响调用方
+        this.scheduler = new ScheduledThreadPoolExecutor(1, threadFactory("redis-cache-scheduler-"),
+                new ThreadPoolExecutor.DiscardPolicy());
+        // 大部分读取都会在超时之前完成，取消的检查任务立即从队列中移除
+        this.scheduler.setRemoveOnCancelPolicy(true);
+    }
+
+    private static ThreadFactory threadFactory(String prefix) {
+        AtomicInteger threadNumber = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    /**
+     * 执行并行任务的线程池
+     */
+    public Executor getWorker() {
+        return worker;
+    }
+
+    /**
+     * 执行延时任务的线程池
+     */
+    public ScheduledExecutorService getScheduler() {
+        return scheduler;
+    }
+
+    /**
+     * 线程都在忙，由调用方线程执行的任务个数
+     */
+    public long getCallerRunsCount() {
+        return callerRunsCount.sum();
+    }
+
+    /**
+     * 关闭线程池：不再接受新的延时任务，正在执行的任务继续执行完
+     */
+    public void shutdown() {
+        scheduler.shutdownNow();
+        worker.shutdown();
+        log.info("Redis缓存线程池已关闭！");
+    }
+}
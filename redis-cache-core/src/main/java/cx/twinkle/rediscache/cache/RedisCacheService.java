@@ -1,6 +1,14 @@
 package cx.twinkle.rediscache.cache;
 
+import cx.twinkle.rediscache.dto.CacheEntry;
+import cx.twinkle.rediscache.dto.CacheWrite;
+import cx.twinkle.rediscache.dto.MethodCacheInfo;
+
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 
 /**
  * @author twinkle
@@ -15,6 +23,63 @@ public interface RedisCacheService {
      */
     Object getFromRedis(String key);
 
+    /**
+     * 根据方法的缓存信息，读取缓存数据；实现类可以借助 缓存名称、过期时间 等信息做额外处理
+     *
+     * @param cacheInfo 方法的缓存信息
+     * @return 得到的反序列化后的对象
+     */
+    default Object getFromRedis(MethodCacheInfo cacheInfo) {
+        return this.getFromRedis(cacheInfo.getCacheKey());
+    }
+
+    /**
+     * 读取缓存数据以及元数据（写入时间、执行耗时）；没有记录元数据的数据，返回的元数据为空
+     *
+     * @param cacheInfo 方法的缓存信息
+     * @return 带有元数据的缓存数据；缓存不存在时返回 null
+     */
+    default CacheEntry getEntry(MethodCacheInfo cacheInfo) {
+        Object value = this.getFromRedis(cacheInfo);
+        return value == null ? null : CacheEntry.of(value);
+    }
+
+    /**
+     * 异步读取缓存数据，默认在线程池中调用 getFromRedis；实现类可以通过非阻塞的连接读取，等待 Redis 响应时不占用线程
+     *
+     * @param cacheInfo 方法的缓存信息
+     * @param executor  执行阻塞读取、反序列化的线程池
+     * @return 得到的反序列化后的对象
+     */
+    default CompletableFuture<Object> getFromRedisAsync(MethodCacheInfo cacheInfo, Executor executor) {
+        return CompletableFuture.supplyAsync(() -> this.getFromRedis(cacheInfo), executor);
+    }
+
+    /**
+     * 异步读取缓存数据以及元数据，默认在线程池中调用 getEntry；实现类可以通过非阻塞的连接读取，等待 Redis 响应时不占用线程
+     *
+     * @param cacheInfo 方法的缓存信息
+     * @param executor  执行阻塞读取、反序列化的线程池
+     * @return 带有元数据的缓存数据；缓存不存在时为 null
+     */
+    default CompletableFuture<CacheEntry> getEntryAsync(MethodCacheInfo cacheInfo, Executor executor) {
+        return CompletableFuture.supplyAsync(() -> this.getEntry(cacheInfo), executor);
+    }
+
+    /**
+     * 批量读取缓存数据以及元数据，默认逐条读取；实现类可以通过 MGET 一次读取
+     *
+     * @param cacheInfos 方法的缓存信息
+     * @return 与 cacheInfos 一一对应的缓存数据，缓存不存在的位置为 null
+     */
+    default List<CacheEntry> getEntries(List<MethodCacheInfo> cacheInfos) {
+        List<CacheEntry> entries = new ArrayList<>(cacheInfos.size());
+        for (MethodCacheInfo cacheInfo : cacheInfos) {
+            entries.add(this.getEntry(cacheInfo));
+        }
+        return entries;
+    }
+
     /**
      * 将数据写入Redis，并且额外记录下key值
      *
@@ -25,17 +90,50 @@ public interface RedisCacheService {
      */
     void insert2Redis(String key, Object value, Duration duration, String cacheName);
 
+    /**
+     * 根据方法的缓存信息，将数据写入Redis
+     *
+     * @param cacheInfo 方法的缓存信息
+     * @param value     需要序列化后的写入Redis的数据
+     */
+    default void insert2Redis(MethodCacheInfo cacheInfo, Object value) {
+        this.insert2Redis(cacheInfo.getCacheKey(), value, cacheInfo.getExpireTime(), cacheInfo.getCacheName());
+    }
+
+    /**
+     * 将缓存数据连同元数据一起写入Redis
+     *
+     * @param cacheInfo 方法的缓存信息
+     * @param entry     带有元数据的缓存数据
+     */
+    default void insertEntry(MethodCacheInfo cacheInfo, CacheEntry entry) {
+        this.insert2Redis(cacheInfo, entry.getValue());
+    }
+
+    /**
+     * 批量写入缓存数据，默认逐条写入；实现类可以通过 pipeline 一次写入
+     *
+     * @param writes 待写入的缓存数据
+     */
+    default void insertEntries(List<CacheWrite> writes) {
+        for (CacheWrite write : writes) {
+            this.insertEntry(write.getCacheInfo(), write.getEntry());
+        }
+    }
+
     /**
      * 根据Key,删除Key对应的缓存
      *
      * @param keys 需要删除的key，可变参数
+     * @return 实际删除的缓存数据的个数
      */
-    void deleteByKey(String... keys);
+    long deleteByKey(String... keys);
 
     /**
      * 根据缓存名称，删除该缓存下所有的key
      *
      * @param cacheName 缓存名称
+     * @return 实际删除的缓存数据的个数
      */
-    void deleteByCacheName(String cacheName);
+    long deleteByCacheName(String cacheName);
 }
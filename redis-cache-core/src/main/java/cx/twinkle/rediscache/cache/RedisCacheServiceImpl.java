@@ -1,14 +1,34 @@
 package cx.twinkle.rediscache.cache;
 
+import cx.twinkle.rediscache.dto.CacheEntry;
+import cx.twinkle.rediscache.dto.CacheWrite;
+import cx.twinkle.rediscache.dto.MethodCacheInfo;
+import cx.twinkle.rediscache.metrics.CacheMetrics;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.connection.ReturnType;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.data.redis.core.StringRedisTemplate;
-import org.springframework.util.CollectionUtils;
-import org.springframework.util.StringUtils;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
 
+import java.nio.charset.StandardCharsets;
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.TimeUnit;
+import java.util.function.BiFunction;
+import java.util.function.ToIntFunction;
 
 /**
  * @author twinkle
@@ -18,17 +38,99 @@ public class RedisCacheServiceImpl implements RedisCacheService {
     private static final Logger log = LoggerFactory.getLogger(RedisCacheServiceImpl.class);
 
     private StringRedisTemplate redisTemplate;
+    /**
+     * 用于直接读写二进制的缓存数据
+     */
+    private RedisTemplate<byte[], byte[]> binaryTemplate;
     private SerializeService serializeService;
+    /**
+     * 批量删除时，每一批 key 的个数
+     */
+    private int deleteBatchSize = 500;
+    /**
+     * 缓存代数管理，为空时表示没有缓存开启代数模式
+     */
+    private CacheGenerationManager generationManager;
+    /**
+     * 监控指标，默认不记录
+     */
+    private CacheMetrics cacheMetrics = CacheMetrics.NOOP;
+    /**
+     * 缓存数据、索引的 key 布局，默认为单机模式
+     */
+    private CacheKeyLayout keyLayout = CacheKeyLayout.STANDALONE;
+    /**
+     * 批量读取、写入、删除时，按照 slot 分组执行
+     */
+    private SlotBatchExecutor batchExecutor;
+    /**
+     * 从副本读取缓存数据，为空时读取主节点；只用于单机模式，写入、删除始终发送到主节点
+     */
+    private ReplicaReader replicaReader;
 
     public RedisCacheServiceImpl(StringRedisTemplate redisTemplate) {
+        this(redisTemplate, createBinaryTemplate(redisTemplate.getRequiredConnectionFactory()), new SerializeServiceImpl());
+    }
+
+    public RedisCacheServiceImpl(StringRedisTemplate redisTemplate, RedisTemplate<byte[], byte[]> binaryTemplate,
+                                 SerializeService serializeService) {
         this.redisTemplate = redisTemplate;
-        this.serializeService = new SerializeServiceImpl();
+        this.binaryTemplate = binaryTemplate;
+        this.serializeService = serializeService;
+        this.batchExecutor = new SlotBatchExecutor(binaryTemplate, false);
+        this.loadScripts();
+    }
+
+    /**
+     * 写入缓存数据、记录 key 的 Lua 脚本
+     */
+    private static final RedisScript<Long> INSERT_SCRIPT = loadScript("insert2redis.lua");
+    /**
+     * 删除缓存数据、清理记录的 Lua 脚本
+     */
+    private static final RedisScript<Long> DELETE_SCRIPT = loadScript("delete_keys.lua");
+
+    private static RedisScript<Long> loadScript(String name) {
+        DefaultRedisScript<Long> script = new DefaultRedisScript<>();
+        script.setLocation(new ClassPathResource("cx/twinkle/rediscache/lua/" + name));
+        script.setResultType(Long.class);
+        return script;
+    }
+
+    /**
+     * 启动时将 Lua 脚本加载到 Redis 中，之后通过 EVALSHA 执行；
+     * 加载失败、或者 Redis 重启导致脚本丢失时，执行脚本会自动退化为 EVAL
+     */
+    public void loadScripts() {
+        try {
+            for (RedisScript<Long> script : Arrays.asList(INSERT_SCRIPT, DELETE_SCRIPT)) {
+                byte[] scriptBytes = script.getScriptAsString().getBytes(StandardCharsets.UTF_8);
+                String sha = binaryTemplate.execute((RedisCallback<String>) connection -> connection.scriptLoad(scriptBytes));
+                log.info("缓存Lua脚本加载成功！sha = {}", sha);
+            }
+        } catch (Exception e) {
+            log.warn("缓存Lua脚本加载失败！首次写入、删除缓存时将重新加载。", e);
+        }
+    }
+
+    /**
+     * 创建一个不做任何序列化处理的 RedisTemplate，key、value 都直接使用 byte[]
+     *
+     * @param connectionFactory Redis连接工厂
+     * @return 创建好的 RedisTemplate
+     */
+    public static RedisTemplate<byte[], byte[]> createBinaryTemplate(RedisConnectionFactory connectionFactory) {
+        RedisTemplate<byte[], byte[]> template = new RedisTemplate<>();
+        template.setConnectionFactory(connectionFactory);
+        template.setEnableDefaultSerializer(false);
+        template.afterPropertiesSet();
+        return template;
     }
 
     /**
      * 用于存储每个Cache的key
      */
-    private static final String CACHE_KEY_SET_PREFIX = "REDIS_CACHE_KEYS_OF_";
+    public static final String CACHE_KEY_SET_PREFIX = "REDIS_CACHE_KEYS_OF_";
     /**
      * 用于存储每个CacheKey 对应的 CacheName，使用一个Hash存储，下面就是Hash的key
      */
@@ -36,53 +138,533 @@ public class RedisCacheServiceImpl implements RedisCacheService {
 
     @Override
     public Object getFromRedis(String key) {
-        String resultStr = redisTemplate.opsForValue().get(key);
-        return serializeService.deserialize(resultStr);
+        byte[] resultBytes = this.get(key, CacheMetrics.ALL_CACHES);
+        long start = System.nanoTime();
+        Object result = serializeService.deserializeFromBytes(resultBytes);
+        this.recordDeserialize(CacheMetrics.ALL_CACHES, resultBytes, start);
+        return result;
+    }
+
+    @Override
+    public Object getFromRedis(MethodCacheInfo cacheInfo) {
+        String cacheName = cacheInfo.getCacheName();
+        return this.deserializeValue(this.get(cacheInfo.getCacheKey(), cacheName), cacheName);
+    }
+
+    @Override
+    public CacheEntry getEntry(MethodCacheInfo cacheInfo) {
+        String cacheName = cacheInfo.getCacheName();
+        return this.deserializeEntry(this.get(cacheInfo.getCacheKey(), cacheName), cacheName);
+    }
+
+    /**
+     * 通过一次 MGET 读取所有的 key；Cluster 模式下每个 slot 一次 MGET，按节点 pipeline 并行执行
+     */
+    @Override
+    public List<CacheEntry> getEntries(List<MethodCacheInfo> cacheInfos) {
+        if (cacheInfos.isEmpty()) {
+            return Collections.emptyList();
+        }
+        String cacheName = cacheInfos.get(0).getCacheName();
+        List<String> keys = new ArrayList<>(cacheInfos.size());
+        for (MethodCacheInfo cacheInfo : cacheInfos) {
+            keys.add(cacheInfo.getCacheKey());
+        }
+        List<byte[]> results = this.multiGet(keys, cacheName);
+        List<CacheEntry> entries = new ArrayList<>(cacheInfos.size());
+        for (int i = 0; i < cacheInfos.size(); i++) {
+            entries.add(this.deserializeEntry(results == null ? null : results.get(i), cacheInfos.get(i).getCacheName()));
+        }
+        return entries;
+    }
+
+    /**
+     * 批量读取缓存数据，并记录 MGET 的耗时
+     */
+    private List<byte[]> multiGet(List<String> keys, String cacheName) {
+        long start = System.nanoTime();
+        try {
+            if (replicaReader != null) {
+                byte[][] rawKeys = keys.stream().map(this::rawDataKey).toArray(byte[][]::new);
+                return replicaReader.read(template -> template.execute((RedisCallback<List<byte[]>>) connection ->
+                        connection.mGet(rawKeys)));
+            }
+            return this.multiGet(keys);
+        } catch (RuntimeException e) {
+            cacheMetrics.recordError(cacheName, CacheMetrics.OP_GET);
+            throw e;
+        } finally {
+            cacheMetrics.recordRedisLatency(cacheName, CacheMetrics.OP_GET, System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * 从主节点批量读取缓存数据：同一个分片的 key 位于同一个 slot，可以通过一次 MGET 读取
+     *
+     * @return 与 keys 一一对应的缓存数据，缓存不存在的位置为 null
+     */
+    protected List<byte[]> multiGet(List<String> keys) {
+        List<Map.Entry<Integer, List<Integer>>> groups = this.groupByBucket(keys);
+        List<Object> groupResults = batchExecutor.executePipelined(groups, group -> keyLayout.slotOf(group.getKey()),
+                (connection, group) -> connection.mGet(this.rawDataKeys(keys, group)));
+        byte[][] results = new byte[keys.size()][];
+        for (int i = 0; i < groups.size(); i++) {
+            @SuppressWarnings("unchecked")
+            List<byte[]> values = (List<byte[]>) groupResults.get(i);
+            List<Integer> indexes = groups.get(i).getValue();
+            for (int j = 0; values != null && j < indexes.size(); j++) {
+                results[indexes.get(j)] = values.get(j);
+            }
+        }
+        return Arrays.asList(results);
+    }
+
+    /**
+     * 按照分片分组，保留每个 key 的下标
+     *
+     * @return 分片 -> 这个分片中的 key 的下标
+     */
+    protected List<Map.Entry<Integer, List<Integer>>> groupByBucket(List<String> keys) {
+        Map<Integer, List<Integer>> indexesOfBucket = new LinkedHashMap<>();
+        for (int i = 0; i < keys.size(); i++) {
+            indexesOfBucket.computeIfAbsent(keyLayout.bucketOf(keys.get(i)), k -> new ArrayList<>()).add(i);
+        }
+        return new ArrayList<>(indexesOfBucket.entrySet());
+    }
+
+    /**
+     * 一个分片中的 key 在 Redis 中的 key
+     */
+    protected byte[][] rawDataKeys(List<String> keys, Map.Entry<Integer, List<Integer>> group) {
+        byte[][] rawKeys = new byte[group.getValue().size()][];
+        for (int i = 0; i < rawKeys.length; i++) {
+            rawKeys[i] = rawKey(keyLayout.withTag(keys.get(group.getValue().get(i)), group.getKey()));
+        }
+        return rawKeys;
+    }
+
+    /**
+     * 读取缓存数据，并记录 GET 的耗时
+     */
+    private byte[] get(String key, String cacheName) {
+        long start = System.nanoTime();
+        try {
+            byte[] rawKey = this.rawDataKey(key);
+            if (replicaReader != null) {
+                return replicaReader.read(template -> template.opsForValue().get(rawKey));
+            }
+            return binaryTemplate.opsForValue().get(rawKey);
+        } catch (RuntimeException e) {
+            cacheMetrics.recordError(cacheName, CacheMetrics.OP_GET);
+            throw e;
+        } finally {
+            cacheMetrics.recordRedisLatency(cacheName, CacheMetrics.OP_GET, System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * 缓存数据在 Redis 中的 key
+     */
+    protected byte[] rawDataKey(String key) {
+        return rawKey(keyLayout.dataKey(key));
+    }
+
+    /**
+     * 反序列化缓存数据，并记录反序列化的耗时
+     */
+    protected Object deserializeValue(byte[] bytes, String cacheName) {
+        long start = System.nanoTime();
+        Object result = serializeService.deserializeFromBytes(bytes, cacheName);
+        this.recordDeserialize(cacheName, bytes, start);
+        return result;
+    }
+
+    /**
+     * 反序列化带有元数据的缓存数据，并记录反序列化的耗时
+     */
+    protected CacheEntry deserializeEntry(byte[] bytes, String cacheName) {
+        long start = System.nanoTime();
+        CacheEntry entry = serializeService.deserializeEntry(bytes, cacheName);
+        this.recordDeserialize(cacheName, bytes, start);
+        return entry;
+    }
+
+    private void recordDeserialize(String cacheName, byte[] bytes, long start) {
+        if (bytes != null) {
+            cacheMetrics.recordDeserialize(cacheName, System.nanoTime() - start, bytes.length);
+        }
+    }
+
+    /**
+     * 序列化缓存数据，并记录序列化的耗时、结果的大小
+     */
+    private byte[] serialize(CacheEntry entry, String cacheName, String codec) {
+        long start = System.nanoTime();
+        byte[] serializedBytes = serializeService.serializeEntry(entry, cacheName, codec);
+        cacheMetrics.recordSerialize(cacheName, System.nanoTime() - start, serializedBytes.length);
+        return serializedBytes;
     }
 
     @Override
     public void insert2Redis(String key, Object value, Duration duration, String cacheName) {
-        String serializedStr = serializeService.serialize(value);
-        // 如果序列化结果是空字符串，则不写入Redis
-        if (StringUtils.isEmpty(serializedStr)) {
+        this.insert2Redis(key, value, duration, cacheName, null);
+    }
+
+    @Override
+    public void insert2Redis(MethodCacheInfo cacheInfo, Object value) {
+        this.insert2Redis(cacheInfo.getCacheKey(), value, cacheInfo.getExpireTime(), cacheInfo.getCacheName(),
+                cacheInfo.getCodec());
+    }
+
+    @Override
+    public void insertEntry(MethodCacheInfo cacheInfo, CacheEntry entry) {
+        String key = cacheInfo.getCacheKey(), cacheName = cacheInfo.getCacheName();
+        byte[] serializedBytes = this.serialize(entry, cacheName, cacheInfo.getCodec());
+        this.write(key, serializedBytes, entry.getValue(), cacheInfo.getExpireTime(), cacheName);
+    }
+
+    private void insert2Redis(String key, Object value, Duration duration, String cacheName, String codec) {
+        long start = System.nanoTime();
+        byte[] serializedBytes = serializeService.serializeToBytes(value, cacheName, codec);
+        cacheMetrics.recordSerialize(cacheName, System.nanoTime() - start, serializedBytes.length);
+        this.write(key, serializedBytes, value, duration, cacheName);
+    }
+
+    private void write(String key, byte[] serializedBytes, Object value, Duration duration, String cacheName) {
+        // 如果序列化结果为空，则不写入Redis
+        if (serializedBytes.length == 0) {
             log.info("缓存key = {} 序列化的结果为空！不写入Redis。value = {}", key, value);
             return;
         }
-        if (Duration.ZERO == duration) {
-            redisTemplate.opsForValue().set(key, serializedStr);
-        } else {
-            redisTemplate.opsForValue().set(key, serializedStr, duration.getSeconds(), TimeUnit.SECONDS);
+        long start = System.nanoTime();
+        try {
+            this.writeToRedis(key, serializedBytes, duration, cacheName);
+        } catch (RuntimeException e) {
+            cacheMetrics.recordError(cacheName, CacheMetrics.OP_SET);
+            throw e;
+        } finally {
+            cacheMetrics.recordRedisLatency(cacheName, CacheMetrics.OP_SET, System.nanoTime() - start);
         }
-        /* 记录 key */
-        String keySetKey = CACHE_KEY_SET_PREFIX + cacheName;
-        redisTemplate.opsForSet().add(keySetKey, key);
-        redisTemplate.opsForHash().put(CACHE_NAME_OF_KEY_HASH_KEY, key, cacheName);
+    }
+
+    private void writeToRedis(String key, byte[] serializedBytes, Duration duration, String cacheName) {
+        int bucket = keyLayout.bucketOf(key);
+        String dataKey = keyLayout.withTag(key, bucket);
+        if (generationManager != null && generationManager.isEnabled(cacheName)) {
+            // 代数模式下不需要记录 key，失效时直接增加代数，旧数据等待自然过期
+            Duration expire = Duration.ZERO == duration ? generationManager.getDefaultExpire() : duration;
+            binaryTemplate.opsForValue().set(rawKey(dataKey), serializedBytes, expire.getSeconds(), TimeUnit.SECONDS);
+            return;
+        }
+        String keySetKey = keyLayout.withTag(CACHE_KEY_SET_PREFIX + cacheName, bucket);
+        List<byte[]> scriptKeys = Arrays.asList(rawKey(dataKey), rawKey(keySetKey),
+                rawKey(keyLayout.withTag(CACHE_NAME_OF_KEY_HASH_KEY, bucket)));
+        long expireSeconds = Duration.ZERO == duration ? 0L : duration.getSeconds();
+        binaryTemplate.execute(INSERT_SCRIPT, scriptKeys, serializedBytes,
+                rawKey(String.valueOf(expireSeconds)), rawKey(String.valueOf(cacheName)));
         // 记录一下这个Key
         CacheHolder.add(keySetKey);
     }
 
+    /**
+     * 批量写入：先序列化所有数据，再通过一次 pipeline 执行所有的写入脚本（Cluster 模式下按节点 pipeline 并行执行）；
+     * Redis 重启导致脚本丢失时，重新加载脚本后再整体重试一次（写入脚本是幂等的）
+     */
+    @Override
+    public void insertEntries(List<CacheWrite> writes) {
+        List<PreparedWrite> prepared = new ArrayList<>(writes.size());
+        for (CacheWrite write : writes) {
+            MethodCacheInfo cacheInfo = write.getCacheInfo();
+            String key = cacheInfo.getCacheKey(), cacheName = cacheInfo.getCacheName();
+            byte[] serializedBytes = this.serialize(write.getEntry(), cacheName, cacheInfo.getCodec());
+            if (serializedBytes.length == 0) {
+                log.info("缓存key = {} 序列化的结果为空！不写入Redis。value = {}", key, write.getEntry().getValue());
+                continue;
+            }
+            prepared.add(new PreparedWrite(key, cacheName, serializedBytes, cacheInfo.getExpireTime()));
+        }
+        if (prepared.isEmpty()) {
+            return;
+        }
+        String sha = INSERT_SCRIPT.getSha1();
+        long start = System.nanoTime();
+        try {
+            this.executeScripts(prepared, write -> keyLayout.slotOf(write.bucket), (connection, write) -> {
+                byte[] rawKey = rawKey(keyLayout.withTag(write.key, write.bucket));
+                if (write.generation) {
+                    connection.setEx(rawKey, write.expireSeconds, write.bytes);
+                    return null;
+                }
+                return SlotBatchExecutor.evalSha(connection, sha, ReturnType.INTEGER, 3, rawKey,
+                        rawKey(keyLayout.withTag(CACHE_KEY_SET_PREFIX + write.cacheName, write.bucket)),
+                        rawKey(keyLayout.withTag(CACHE_NAME_OF_KEY_HASH_KEY, write.bucket)), write.bytes,
+                        rawKey(String.valueOf(write.expireSeconds)), rawKey(String.valueOf(write.cacheName)));
+            });
+        } catch (RuntimeException e) {
+            cacheMetrics.recordError(CacheMetrics.ALL_CACHES, CacheMetrics.OP_SET);
+            throw e;
+        } finally {
+            cacheMetrics.recordRedisLatency(CacheMetrics.ALL_CACHES, CacheMetrics.OP_SET, System.nanoTime() - start);
+        }
+        for (PreparedWrite write : prepared) {
+            if (!write.generation) {
+                CacheHolder.add(keyLayout.withTag(CACHE_KEY_SET_PREFIX + write.cacheName, write.bucket));
+            }
+        }
+    }
+
+    /**
+     * 按照 slot 分组批量执行 Lua 脚本；Redis 重启导致脚本丢失时，重新加载脚本后再整体重试一次，因此脚本必须是幂等的
+     */
+    private <T> List<Object> executeScripts(List<T> items, ToIntFunction<T> slotFunction,
+                                            BiFunction<RedisConnection, T, Object> command) {
+        try {
+            return batchExecutor.executePipelined(items, slotFunction, command);
+        } catch (RuntimeException e) {
+            if (!isNoScript(e)) {
+                throw e;
+            }
+            log.warn("缓存Lua脚本不存在！重新加载后再次批量执行。");
+            this.loadScripts();
+            return batchExecutor.executePipelined(items, slotFunction, command);
+        }
+    }
+
+    private static boolean isNoScript(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause.getMessage() != null && cause.getMessage().contains("NOSCRIPT")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 按照分片分组，每个分片的一批 key 通过一次删除脚本删除；所有的脚本按节点 pipeline 执行
+     */
     @Override
-    @SuppressWarnings("ConfusingArgumentToVarargsMethod")
-    public void deleteByKey(String... keys) {
+    public long deleteByKey(String... keys) {
+        long start = System.currentTimeMillis();
+        Map<Integer, List<String>> keysOfBucket = new LinkedHashMap<>();
         for (String key : keys) {
-            redisTemplate.delete(key);
-            Object cacheName = redisTemplate.opsForHash().get(CACHE_NAME_OF_KEY_HASH_KEY, key);
-            String keySetKey = CACHE_KEY_SET_PREFIX + cacheName;
-            redisTemplate.opsForSet().remove(keySetKey, key);
+            keysOfBucket.computeIfAbsent(keyLayout.bucketOf(key), k -> new ArrayList<>()).add(key);
+        }
+        List<DeleteBatch> batches = new ArrayList<>();
+        keysOfBucket.forEach((bucket, bucketKeys) -> {
+            for (int from = 0; from < bucketKeys.size(); from += deleteBatchSize) {
+                List<String> batch = bucketKeys.subList(from, Math.min(from + deleteBatchSize, bucketKeys.size()));
+                batches.add(new DeleteBatch(bucket, batch.stream().map(key -> rawKey(keyLayout.withTag(key, bucket)))
+                        .toArray(byte[][]::new), null));
+            }
+        });
+        long deleted = 0L;
+        try {
+            deleted = this.deleteBatches(this.resolveKeySets(batches));
+        } catch (RuntimeException e) {
+            cacheMetrics.recordError(CacheMetrics.ALL_CACHES, CacheMetrics.OP_DEL);
+            throw e;
+        } finally {
+            cacheMetrics.recordRedisLatency(CacheMetrics.ALL_CACHES, CacheMetrics.OP_DEL,
+                    TimeUnit.MILLISECONDS.toNanos(System.currentTimeMillis() - start));
         }
-        redisTemplate.opsForHash().delete(CACHE_NAME_OF_KEY_HASH_KEY, keys);
+        log.info("共删除 {} 个缓存Key，耗时 {} ms！", deleted, System.currentTimeMillis() - start);
+        return deleted;
     }
 
+    /**
+     * 删除脚本访问的 KeySet 必须通过 KEYS 传入：先通过 HMGET 查询每批 key 所属的缓存名称，得到这批 key 所属的 KeySet
+     */
+    private List<DeleteBatch> resolveKeySets(List<DeleteBatch> batches) {
+        List<Object> results = batchExecutor.executePipelined(batches, batch -> keyLayout.slotOf(batch.bucket), (connection, batch) ->
+                connection.hMGet(rawKey(keyLayout.withTag(CACHE_NAME_OF_KEY_HASH_KEY, batch.bucket)), batch.rawKeys));
+        List<DeleteBatch> resolved = new ArrayList<>(batches.size());
+        for (int i = 0; i < batches.size(); i++) {
+            DeleteBatch batch = batches.get(i);
+            Set<String> keySets = new LinkedHashSet<>();
+            List<?> cacheNames = (List<?>) results.get(i);
+            if (cacheNames != null) {
+                for (Object cacheName : cacheNames) {
+                    if (cacheName != null) {
+                        keySets.add(keyLayout.withTag(CACHE_KEY_SET_PREFIX + new String((byte[]) cacheName, StandardCharsets.UTF_8),
+                                batch.bucket));
+                    }
+                }
+            }
+            resolved.add(new DeleteBatch(batch.bucket, batch.rawKeys,
+                    keySets.stream().map(RedisCacheServiceImpl::rawKey).toArray(byte[][]::new)));
+        }
+        return resolved;
+    }
+
+    /**
+     * 执行删除脚本：UNLINK 缓存数据，并从 KeySet、CacheNameHash 中移除
+     *
+     * @return 删除的缓存数据个数
+     */
+    private long deleteBatches(List<DeleteBatch> batches) {
+        String sha = DELETE_SCRIPT.getSha1();
+        List<Object> results = this.executeScripts(batches, batch -> keyLayout.slotOf(batch.bucket), (connection, batch) -> {
+            int numKeys = 1 + batch.rawKeySets.length + batch.rawKeys.length;
+            byte[][] keysAndArgs = new byte[numKeys + 2][];
+            keysAndArgs[0] = rawKey(keyLayout.withTag(CACHE_NAME_OF_KEY_HASH_KEY, batch.bucket));
+            System.arraycopy(batch.rawKeySets, 0, keysAndArgs, 1, batch.rawKeySets.length);
+            System.arraycopy(batch.rawKeys, 0, keysAndArgs, 1 + batch.rawKeySets.length, batch.rawKeys.length);
+            keysAndArgs[numKeys] = rawKey(String.valueOf(batch.rawKeySets.length));
+            keysAndArgs[numKeys + 1] = rawKey(keyLayout.withTag(CACHE_KEY_SET_PREFIX, batch.bucket));
+            return SlotBatchExecutor.evalSha(connection, sha, ReturnType.INTEGER, numKeys, keysAndArgs);
+        });
+        long deleted = 0L;
+        for (Object result : results) {
+            deleted += result == null ? 0L : (Long) result;
+        }
+        return deleted;
+    }
+
+    /**
+     * 每一轮先通过 SRANDMEMBER 读取所有还有数据的分片中 KeySet 的一批成员，再通过删除脚本 UNLINK 缓存数据之后才从 KeySet 中移除，
+     * 中途失败时成员仍然保留在 KeySet 中，不会遗留无法删除的缓存数据；所有的命令按节点 pipeline 执行，直到所有分片的 KeySet 都被删空
+     */
     @Override
-    public void deleteByCacheName(String cacheName) {
-        String keySetKey = CACHE_KEY_SET_PREFIX + cacheName;
-        Set<String> keySet = redisTemplate.opsForSet().members(keySetKey);
-        if (CollectionUtils.isEmpty(keySet)) {
+    public long deleteByCacheName(String cacheName) {
+        if (generationManager != null && generationManager.isEnabled(cacheName)) {
+            generationManager.nextGeneration(cacheName);
+            return 0L;
+        }
+        long start = System.currentTimeMillis();
+        List<Integer> buckets = new ArrayList<>(keyLayout.getBuckets());
+        for (int bucket = 0; bucket < keyLayout.getBuckets(); bucket++) {
+            buckets.add(bucket);
+        }
+        long deleted = 0L;
+        while (!buckets.isEmpty()) {
+            List<Object> results = batchExecutor.executePipelined(buckets, keyLayout::slotOf, (connection, bucket) ->
+                    connection.sRandMember(rawKey(keyLayout.withTag(CACHE_KEY_SET_PREFIX + cacheName, bucket)), deleteBatchSize));
+            List<DeleteBatch> batches = new ArrayList<>();
+            List<Integer> remaining = new ArrayList<>();
+            for (int i = 0; i < buckets.size(); i++) {
+                int bucket = buckets.get(i);
+                List<?> members = (List<?>) results.get(i);
+                if (members == null || members.isEmpty()) {
+                    continue;
+                }
+                batches.add(new DeleteBatch(bucket, members.toArray(new byte[0][]),
+                        new byte[][]{rawKey(keyLayout.withTag(CACHE_KEY_SET_PREFIX + cacheName, bucket))}));
+                // 本批取满时，KeySet 中可能还有剩余的成员
+                if (members.size() >= deleteBatchSize) {
+                    remaining.add(bucket);
+                }
+            }
+            deleted += this.deleteBatches(batches);
+            buckets = remaining;
+        }
+        cacheMetrics.recordRedisLatency(cacheName, CacheMetrics.OP_DEL,
+                TimeUnit.MILLISECONDS.toNanos(System.currentTimeMillis() - start));
+        if (deleted == 0L) {
             log.info("缓存名 {} 下没有任何缓存Key！没有任何缓存被删除！", cacheName);
-            return;
+        } else {
+            log.info("缓存名 {} 下共删除 {} 个缓存Key，耗时 {} ms！", cacheName, deleted, System.currentTimeMillis() - start);
+        }
+        return deleted;
+    }
+
+    /**
+     * 与 StringRedisTemplate 保持一致，key 使用 UTF-8 编码
+     */
+    private static byte[] rawKey(String key) {
+        return key.getBytes(StandardCharsets.UTF_8);
+    }
+
+    public int getDeleteBatchSize() {
+        return deleteBatchSize;
+    }
+
+    public void setDeleteBatchSize(int deleteBatchSize) {
+        this.deleteBatchSize = deleteBatchSize;
+    }
+
+    public CacheGenerationManager getGenerationManager() {
+        return generationManager;
+    }
+
+    public void setGenerationManager(CacheGenerationManager generationManager) {
+        this.generationManager = generationManager;
+    }
+
+    public CacheKeyLayout getKeyLayout() {
+        return keyLayout;
+    }
+
+    public void setKeyLayout(CacheKeyLayout keyLayout) {
+        this.keyLayout = keyLayout;
+    }
+
+    public SlotBatchExecutor getBatchExecutor() {
+        return batchExecutor;
+    }
+
+    public void setBatchExecutor(SlotBatchExecutor batchExecutor) {
+        this.batchExecutor = batchExecutor;
+    }
+
+    public ReplicaReader getReplicaReader() {
+        return replicaReader;
+    }
+
+    public void setReplicaReader(ReplicaReader replicaReader) {
+        this.replicaReader = replicaReader;
+    }
+
+    public CacheMetrics getCacheMetrics() {
+        return cacheMetrics;
+    }
+
+    public void setCacheMetrics(CacheMetrics cacheMetrics) {
+        this.cacheMetrics = cacheMetrics;
+    }
+
+    /**
+     * 序列化完成、等待批量写入的数据
+     */
+    private class PreparedWrite {
+        private final String key;
+        private final int bucket;
+        private final String cacheName;
+        private final byte[] bytes;
+        /**
+         * 缓存是否开启了代数模式，代数模式下直接 SET，不需要记录 key
+         */
+        private final boolean generation;
+        private final long expireSeconds;
+
+        private PreparedWrite(String key, String cacheName, byte[] bytes, Duration duration) {
+            this.key = key;
+            this.bucket = keyLayout.bucketOf(key);
+            this.cacheName = cacheName;
+            this.bytes = bytes;
+            this.generation = generationManager != null && generationManager.isEnabled(cacheName);
+            if (generation) {
+                this.expireSeconds = (Duration.ZERO == duration ? generationManager.getDefaultExpire() : duration).getSeconds();
+            } else {
+                this.expireSeconds = Duration.ZERO == duration ? 0L : duration.getSeconds();
+            }
+        }
+    }
+
+    /**
+     * 同一个分片中需要删除的一批 key
+     */
+    private static class DeleteBatch {
+        private final int bucket;
+        private final byte[][] rawKeys;
+        /**
+         * 这批 key 所属的 KeySet
+         */
+        private final byte[][] rawKeySets;
+
+        private DeleteBatch(int bucket, byte[][] rawKeys, byte[][] rawKeySets) {
+            this.bucket = bucket;
+            this.rawKeys = rawKeys;
+            this.rawKeySets = rawKeySets;
         }
-        keySet.forEach(k -> redisTemplate.delete(k));
-        redisTemplate.delete(keySetKey);
-        redisTemplate.opsForHash().delete(CACHE_NAME_OF_KEY_HASH_KEY, keySet.toArray(new Object[0]));
     }
 }
@@ -0,0 +1,334 @@
+package cx.twinkle.rediscache.cache;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.util.Assert;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * 读取缓存的熔断器
+ * <p>
+ * 每次读取都有延迟预算：异步读取超过预算时不再等待 Redis，同步读取由 Redis 客户端的命令超时限制，超过预算的都按照失败处理。
+ * 关闭状态下统计最近若干次读取的失败率、慢调用率，
+ * 任意一个达到阈值时打开熔断器；打开状态下不读取 Redis，由调用方直接执行方法。打开一段时间后进入半开状态，
+ * 放行少量读取探测 Redis：失败率、慢调用率都低于阈值时关闭熔断器，否则重新打开
+ *
+ * @author twinkle
+ * @version 2026/10/19 01:10
+ */
+public class RedisCircuitBreaker {
+    private static final Logger log = LoggerFactory.getLogger(RedisCircuitBreaker.class);
+
+    /**
+     * 熔断器的状态
+     */
+    public enum State {
+        /**
+         * 关闭：正常读取 Redis
+         */
+        CLOSED,
+        /**
+         * 打开：不读取 Redis
+         */
+        OPEN,
+        /**
+         * 半开：放行少量读取，探测 Redis 是否恢复
+         */
+        HALF_OPEN
+    }
+
+    /**
+     * 窗口中每次读取的结果：成功、失败、慢调用，失败与慢调用可以同时存在；0 表示还没有记录
+     */
+    private static final int OUTCOME_SUCCESS = 1;
+    private static final int OUTCOME_FAILED = 2;
+    private static final int OUTCOME_SLOW = 4;
+
+    private CircuitBreakerConfig config = new CircuitBreakerConfig();
+    /**
+     * 当前阶段；状态切换时整体替换，读取的结果只记录到读取开始时所在的阶段
+     */
+    private final AtomicReference<Phase> phase = new AtomicReference<>(new Phase(State.CLOSED, config.getWindowSize()));
+    private final LongAdder successCount = new LongAdder();
+    private final LongAdder failureCount = new LongAdder();
+    private final LongAdder timeoutCount = new LongAdder();
+    private final LongAdder notPermittedCount = new LongAdder();
+    private final LongAdder openCount = new LongAdder();
+    /**
+     * 异步读取超过延迟预算时结束读取；为空时异步读取不检查延迟预算
+     */
+    private ScheduledExecutorService timeoutScheduler;
+
+    /**
+     * 是否允许读取 Redis；返回 true 时，必须通过 call 或者 callAsync 执行读取，记录读取的结果
+     */
+    public boolean tryAcquire() {
+        Phase current = phase.get();
+        if (current.state == State.CLOSED) {
+            return true;
+        }
+        if (current.state == State.OPEN) {
+            if (System.nanoTime() - current.startedAt < config.getOpenDuration().toNanos()) {
+                notPermittedCount.increment();
+                return false;
+            }
+            this.transition(current, State.HALF_OPEN);
+            current = phase.get();
+            if (current.state == State.CLOSED) {
+                return true;
+            } else if (current.state == State.OPEN) {
+                notPermittedCount.increment();
+                return false;
+            }
+        }
+        if (current.permitted.incrementAndGet() > config.getHalfOpenCalls()) {
+            notPermittedCount.increment();
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * 在当前线程中同步读取，并记录读取的结果。同步读取不切换线程，耗时由 Redis 客户端的命令超时（spring.redis.timeout）限制；
+     * 超过延迟预算的读取仍然返回结果，但是按照失败记录
+     *
+     * @param read 在当前线程中读取
+     * @return 读取的结果
+     */
+    public <T> T call(Supplier<T> read) {
+        Phase current = phase.get();
+        long start = System.nanoTime();
+        T result;
+        try {
+            result = read.get();
+        } catch (RuntimeException e) {
+            this.record(current, true, System.nanoTime() - start);
+            throw e;
+        }
+        long nanos = System.nanoTime() - start;
+        long timeout = this.getReadTimeoutNanos();
+        boolean timedOut = timeout > 0 && nanos > timeout;
+        if (timedOut) {
+            timeoutCount.increment();
+        }
+        this.record(current, timedOut, nanos);
+        return result;
+    }
+
+    /**
+     * 在延迟预算内异步读取，并记录读取的结果；超过延迟预算时以 QueryTimeoutException 结束，
+     * 没有设置 timeoutScheduler 时不检查延迟预算
+     *
+     * @param asyncRead 异步读取
+     * @return 读取的结果
+     */
+    public <T> CompletableFuture<T> callAsync(Supplier<CompletableFuture<T>> asyncRead) {
+        Phase current = phase.get();
+        long start = System.nanoTime();
+        CompletableFuture<T> result = new CompletableFuture<>();
+        try {
+            asyncRead.get().whenComplete((value, error) -> {
+                if (error == null) {
+                    result.complete(value);
+                } else {
+                    result.completeExceptionally(error instanceof CompletionException && error.getCause() != null
+                            ? error.getCause() : error);
+                }
+            });
+        } catch (RuntimeException e) {
+            result.completeExceptionally(e);
+        }
+        long timeout = this.getReadTimeoutNanos();
+        ScheduledFuture<?> timeoutFuture = timeout <= 0 || timeoutScheduler == null || result.isDone() ? null : timeoutScheduler.schedule(
+                () -> result.completeExceptionally(new ReadTimeoutException(timeout)), timeout, TimeUnit.NANOSECONDS);
+        return result.whenComplete((value, error) -> {
+            if (timeoutFuture != null) {
+                timeoutFuture.cancel(false);
+            }
+            // 在调用方看到结果之前计数，保证调用方拿到超时异常后读取的统计数据已经包含本次超时
+            if (error instanceof ReadTimeoutException) {
+                timeoutCount.increment();
+            }
+            this.record(current, error != null, System.nanoTime() - start);
+        });
+    }
+
+    /**
+     * 记录读取的结果，不加锁；只有状态切换时才通过 CAS 替换阶段
+     */
+    private void record(Phase recorded, boolean failed, long nanos) {
+        if (failed) {
+            failureCount.increment();
+        } else {
+            successCount.increment();
+        }
+        if (recorded != phase.get() || recorded.state == State.OPEN) {
+            // 读取期间状态已经切换，或者打开之前放行的读取，结果不再统计
+            return;
+        }
+        boolean slow = nanos >= config.getSlowCallDuration().toNanos();
+        int outcome = (failed ? OUTCOME_FAILED : OUTCOME_SUCCESS) | (slow ? OUTCOME_SLOW : 0);
+        int calls = recorded.add(outcome);
+        if (recorded.state == State.HALF_OPEN) {
+            if (calls == config.getHalfOpenCalls()) {
+                this.transition(recorded, this.isOverThreshold(recorded, calls) ? State.OPEN : State.CLOSED);
+            }
+        } else if (calls >= config.getMinimumCalls() && this.isOverThreshold(recorded, calls)) {
+            this.transition(recorded, State.OPEN);
+        }
+    }
+
+    private boolean isOverThreshold(Phase recorded, int calls) {
+        return recorded.failed.get() * 100D / calls >= config.getFailureRateThreshold()
+                || recorded.slow.get() * 100D / calls >= config.getSlowCallRateThreshold();
+    }
+
+    /**
+     * 从指定的阶段切换到新的状态；其他线程已经切换过时什么也不做
+     */
+    private void transition(Phase from, State newState) {
+        int windowSize = newState == State.HALF_OPEN ? config.getHalfOpenCalls() : config.getWindowSize();
+        if (!phase.compareAndSet(from, new Phase(newState, windowSize))) {
+            return;
+        }
+        if (newState == State.OPEN) {
+            log.warn("Redis 读取的失败率或慢调用率超过阈值，熔断器打开！{} 内直接执行方法。失败：{}，慢调用：{}，共：{}",
+                    config.getOpenDuration(), from.failed.get(), from.slow.get(), from.calls());
+            openCount.increment();
+        } else if (newState == State.CLOSED) {
+            log.info("Redis 已经恢复，熔断器关闭！");
+        }
+    }
+
+    private long getReadTimeoutNanos() {
+        Duration readTimeout = config.getReadTimeout();
+        return readTimeout == null ? 0L : readTimeout.toNanos();
+    }
+
+    /**
+     * 当前状态
+     */
+    public State getState() {
+        return phase.get().state;
+    }
+
+    /**
+     * 读取成功的次数
+     */
+    public long getSuccessCount() {
+        return successCount.sum();
+    }
+
+    /**
+     * 读取失败的次数，包括超过延迟预算的次数
+     */
+    public long getFailureCount() {
+        return failureCount.sum();
+    }
+
+    /**
+     * 读取超过延迟预算的次数
+     */
+    public long getTimeoutCount() {
+        return timeoutCount.sum();
+    }
+
+    /**
+     * 熔断器打开、没有读取 Redis 的次数
+     */
+    public long getNotPermittedCount() {
+        return notPermittedCount.sum();
+    }
+
+    /**
+     * 熔断器打开的次数
+     */
+    public long getOpenCount() {
+        return openCount.sum();
+    }
+
+    public CircuitBreakerConfig getConfig() {
+        return config;
+    }
+
+    public void setConfig(CircuitBreakerConfig config) {
+        Assert.isTrue(config.getWindowSize() > 0, "熔断器的滑动窗口大小必须大于0！");
+        Assert.isTrue(config.getHalfOpenCalls() > 0, "熔断器半开状态下放行的读取次数必须大于0！");
+        this.config = config;
+        this.phase.set(new Phase(State.CLOSED, config.getWindowSize()));
+    }
+
+    public void setTimeoutScheduler(ScheduledExecutorService timeoutScheduler) {
+        this.timeoutScheduler = timeoutScheduler;
+    }
+
+    /**
+     * 异步读取超过延迟预算，与 Redis 客户端抛出的超时异常区分开
+     */
+    private static final class ReadTimeoutException extends QueryTimeoutException {
+        private ReadTimeoutException(long timeout) {
+            super("读取缓存超过延迟预算！timeout = " + TimeUnit.NANOSECONDS.toMillis(timeout) + "ms");
+        }
+    }
+
+    /**
+     * 一个状态下的统计：关闭状态下是最近若干次读取的滑动窗口，半开状态下是放行的读取。
+     * 每次读取通过 getAndIncrement 占用环形数组中的一个位置，替换掉的旧结果从计数中减去，全程没有锁
+     */
+    private static final class Phase {
+        private final State state;
+        /**
+         * 进入该状态的时间，System.nanoTime()
+         */
+        private final long startedAt = System.nanoTime();
+        private final AtomicIntegerArray outcomes;
+        private final AtomicLong index = new AtomicLong();
+        private final AtomicInteger failed = new AtomicInteger();
+        private final AtomicInteger slow = new AtomicInteger();
+        /**
+         * 半开状态下已经放行的读取次数
+         */
+        private final AtomicInteger permitted = new AtomicInteger();
+
+        private Phase(State state, int windowSize) {
+            this.state = state;
+            this.outcomes = new AtomicIntegerArray(windowSize);
+        }
+
+        /**
+         * 记录一次读取的结果
+         *
+         * @return 窗口中的读取次数
+         */
+        private int add(int outcome) {
+            long next = index.getAndIncrement();
+            int old = outcomes.getAndSet((int) (next % outcomes.length()), outcome);
+            int failedDelta = ((outcome & OUTCOME_FAILED) != 0 ? 1 : 0) - ((old & OUTCOME_FAILED) != 0 ? 1 : 0);
+            int slowDelta = ((outcome & OUTCOME_SLOW) != 0 ? 1 : 0) - ((old & OUTCOME_SLOW) != 0 ? 1 : 0);
+            if (failedDelta != 0) {
+                failed.addAndGet(failedDelta);
+            }
+            if (slowDelta != 0) {
+                slow.addAndGet(slowDelta);
+            }
+            return (int) Math.min(next + 1, outcomes.length());
+        }
+
+        private int calls() {
+            return (int) Math.min(index.get(), outcomes.length());
+        }
+    }
+}
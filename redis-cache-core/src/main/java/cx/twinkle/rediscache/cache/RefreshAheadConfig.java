@@ -0,0 +1,61 @@
+package cx.twinkle.rediscache.cache;
+
+/**
+ * 提前刷新的配置
+ * <p>
+ * 开启后，缓存数据中会额外记录写入时间、方法的执行耗时；缓存过期之前在后台重新执行方法并写入缓存，调用方仍然直接使用缓存
+ *
+ * @author twinkle
+ * @version 2026/10/18 20:20
+ */
+public class RefreshAheadConfig {
+    /**
+     * 是否开启提前刷新，默认关闭；只对设置了过期时间的缓存生效
+     */
+    private boolean enabled = false;
+    /**
+     * 缓存存活时间达到过期时间的多少比例后刷新，默认 0.8
+     */
+    private double refreshAfterRatio = 0.8D;
+    /**
+     * 是否使用概率提前过期（XFetch）代替固定比例：执行耗时越长、越接近过期时间，越可能刷新，
+     * 避免大量 key 在同一时刻刷新
+     */
+    private boolean probabilistic = false;
+    /**
+     * XFetch 的系数，大于 1 时更早刷新，小于 1 时更晚刷新
+     */
+    private double beta = 1.0D;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public double getRefreshAfterRatio() {
+        return refreshAfterRatio;
+    }
+
+    public void setRefreshAfterRatio(double refreshAfterRatio) {
+        this.refreshAfterRatio = refreshAfterRatio;
+    }
+
+    public boolean isProbabilistic() {
+        return probabilistic;
+    }
+
+    public void setProbabilistic(boolean probabilistic) {
+        this.probabilistic = probabilistic;
+    }
+
+    public double getBeta() {
+        return beta;
+    }
+
+    public void setBeta(double beta) {
+        this.beta = beta;
+    }
+}
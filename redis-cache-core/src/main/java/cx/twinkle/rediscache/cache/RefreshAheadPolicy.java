@@ -0,0 +1,96 @@
+package cx.twinkle.rediscache.cache;
+
+import cx.twinkle.rediscache.dto.CacheEntry;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 提前刷新策略：根据缓存数据的写入时间、执行耗时，判断是否需要在后台刷新
+ * <p>
+ * 固定比例：存活时间 >= 过期时间 * refreshAfterRatio 时刷新；
+ * XFetch：当前时间 - 执行耗时 * beta * ln(random) >= 过期时刻 时刷新
+ *
+ * @author twinkle
+ * @version 2026/10/18 20:20
+ */
+public class RefreshAheadPolicy {
+    /**
+     * 默认的提前刷新配置
+     */
+    private RefreshAheadConfig defaultConfig = new RefreshAheadConfig();
+    /**
+     * 按缓存名称单独指定的提前刷新配置
+     */
+    private Map<String, RefreshAheadConfig> cacheConfigs = Collections.emptyMap();
+
+    /**
+     * 判断该缓存是否开启了提前刷新
+     *
+     * @param cacheName 缓存名称
+     * @return true OR false
+     */
+    public boolean isEnabled(String cacheName) {
+        return this.getConfig(cacheName).isEnabled();
+    }
+
+    /**
+     * 判断缓存数据是否需要提前刷新；没有记录元数据、没有设置过期时间的数据不会刷新
+     *
+     * @param entry     缓存数据
+     * @param ttl       缓存的过期时间
+     * @param cacheName 缓存名称
+     * @return true OR false
+     */
+    public boolean shouldRefresh(CacheEntry entry, Duration ttl, String cacheName) {
+        // 1 - nextDouble() 的取值范围为 (0, 1]，避免 ln(0)
+        return this.shouldRefresh(entry, ttl, cacheName, System.currentTimeMillis(),
+                1.0D - ThreadLocalRandom.current().nextDouble());
+    }
+
+    /**
+     * 判断缓存数据是否需要提前刷新
+     *
+     * @param entry     缓存数据
+     * @param ttl       缓存的过期时间
+     * @param cacheName 缓存名称
+     * @param now       当前时间，毫秒时间戳
+     * @param random    XFetch 使用的随机数，取值范围为 (0, 1]
+     * @return true OR false
+     */
+    boolean shouldRefresh(CacheEntry entry, Duration ttl, String cacheName, long now, double random) {
+        if (!entry.hasMetadata() || ttl == null || ttl.isZero() || ttl.isNegative()) {
+            return false;
+        }
+        RefreshAheadConfig config = this.getConfig(cacheName);
+        long ttlMillis = ttl.toMillis();
+        if (!config.isProbabilistic()) {
+            return now - entry.getWriteTime() >= ttlMillis * config.getRefreshAfterRatio();
+        }
+        long expireAt = entry.getWriteTime() + ttlMillis;
+        return now - entry.getComputeMillis() * config.getBeta() * Math.log(random) >= expireAt;
+    }
+
+    private RefreshAheadConfig getConfig(String cacheName) {
+        RefreshAheadConfig config = cacheName == null ? null : cacheConfigs.get(cacheName);
+        return config == null ? defaultConfig : config;
+    }
+
+    public RefreshAheadConfig getDefaultConfig() {
+        return defaultConfig;
+    }
+
+    public void setDefaultConfig(RefreshAheadConfig defaultConfig) {
+        this.defaultConfig = defaultConfig;
+    }
+
+    public Map<String, RefreshAheadConfig> getCacheConfigs() {
+        return cacheConfigs;
+    }
+
+    public void setCacheConfigs(Map<String, RefreshAheadConfig> cacheConfigs) {
+        this.cacheConfigs = cacheConfigs;
+    }
+}
@@ -0,0 +1,87 @@
+package cx.twinkle.rediscache.cache;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 从副本读取缓存的配置
+ *
+ * @author twinkle
+ * @version 2026/10/19 00:30
+ */
+public class ReplicaReadConfig {
+    /**
+     * 是否开启，默认关闭；开启后读取缓存数据（GET、MGET）发送到副本，写入、删除仍然发送到主节点。
+     * 副本的复制存在延迟，刚写入的数据可能短暂读取不到；副本读取失败时，改为读取主节点
+     */
+    private boolean enabled = false;
+    /**
+     * 副本节点，格式：redis://[:password@]host:port[/database]
+     */
+    private List<String> nodes = new ArrayList<>();
+    /**
+     * 选择副本的策略：round-robin（轮询）、lowest-latency（观测到的延迟最低）
+     */
+    private String strategy = ReplicaReader.STRATEGY_ROUND_ROBIN;
+    /**
+     * 是否开启对冲读取：第一个副本超过延迟阈值仍未返回时，向第二个副本（只有一个副本时为主节点）再发送一次请求，使用先返回的结果
+     */
+    private boolean hedgeEnabled = false;
+    /**
+     * 对冲读取的延迟阈值，取最近读取延迟的百分位数
+     */
+    private double hedgePercentile = 95.0;
+    /**
+     * 对冲读取延迟阈值的下限，避免延迟普遍很低时发送过多的对冲请求
+     */
+    private Duration hedgeMinDelay = Duration.ofMillis(1L);
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public List<String> getNodes() {
+        return nodes;
+    }
+
+    public void setNodes(List<String> nodes) {
+        this.nodes = nodes;
+    }
+
+    public String getStrategy() {
+        return strategy;
+    }
+
+    public void setStrategy(String strategy) {
+        this.strategy = strategy;
+    }
+
+    public boolean isHedgeEnabled() {
+        return hedgeEnabled;
+    }
+
+    public void setHedgeEnabled(boolean hedgeEnabled) {
+        this.hedgeEnabled = hedgeEnabled;
+    }
+
+    public double getHedgePercentile() {
+        return hedgePercentile;
+    }
+
+    public void setHedgePercentile(double hedgePercentile) {
+        this.hedgePercentile = hedgePercentile;
+    }
+
+    public Duration getHedgeMinDelay() {
+        return hedgeMinDelay;
+    }
+
+    public void setHedgeMinDelay(Duration hedgeMinDelay) {
+        this.hedgeMinDelay = hedgeMinDelay;
+    }
+}
@@ -0,0 +1,269 @@
+package cx.twinkle.rediscache.cache;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.util.Assert;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+/**
+ * 从副本读取缓存数据
+ * <p>
+ * 每次读取按照策略选择一个副本：轮询，或者观测到的延迟（EWMA）最低的副本，并且定期轮询一次，刷新其他副本的延迟。
+ * 只记录成功读取的延迟；读取失败的副本延迟记为无穷大，直到下一次轮询到它并且读取成功，避免快速失败的副本被当作最快的副本。
+ * 开启对冲读取时，第一个副本超过延迟阈值（最近读取延迟的百分位数）仍未返回，就向第二个副本再发送一次请求，使用先成功返回的结果；
+ * 样本不足或者没有设置线程池时不发送对冲请求，在当前线程中读取。副本读取失败时，改为读取主节点
+ *
+ * @author twinkle
+ * @version 2026/10/19 00:30
+ */
+public class ReplicaReader {
+    private static final Logger log = LoggerFactory.getLogger(ReplicaReader.class);
+
+    /**
+     * 轮询
+     */
+    public static final String STRATEGY_ROUND_ROBIN = "round-robin";
+    /**
+     * 观测到的延迟最低
+     */
+    public static final String STRATEGY_LOWEST_LATENCY = "lowest-latency";
+
+    /**
+     * 计算百分位数时保留的最近延迟样本个数
+     */
+    private static final int SAMPLE_SIZE = 1024;
+    /**
+     * 每记录多少个样本，重新计算一次对冲读取的延迟阈值
+     */
+    private static final int RECOMPUTE_INTERVAL = 128;
+    /**
+     * 按照延迟选择副本时，每多少次读取轮询一次，刷新其他副本的延迟
+     */
+    private static final int EXPLORE_INTERVAL = 16;
+    private static final double EWMA_ALPHA = 0.2;
+
+    private final List<Replica> replicas = new ArrayList<>();
+    private final RedisTemplate<byte[], byte[]> primaryTemplate;
+    private ReplicaReadConfig config = new ReplicaReadConfig();
+    private final AtomicLong counter = new AtomicLong();
+    private final long[] samples = new long[SAMPLE_SIZE];
+    private final AtomicLong sampleCount = new AtomicLong();
+    /**
+     * 对冲读取的延迟阈值，单位：纳秒；样本不足时为 Long.MAX_VALUE，不发送对冲请求
+     */
+    private volatile long hedgeDelayNanos = Long.MAX_VALUE;
+    private final LongAdder hedgedCount = new LongAdder();
+    private final LongAdder hedgeWonCount = new LongAdder();
+    private final LongAdder fallbackCount = new LongAdder();
+    /**
+     * 对冲读取时执行读取的线程池，线程都在忙时应当由调用方线程执行；为空时不发送对冲请求
+     */
+    private Executor executor;
+
+    /**
+     * @param replicaTemplates 副本名称（例如 host:port）-> 副本的 RedisTemplate
+     * @param primaryTemplate  主节点的 RedisTemplate
+     */
+    public ReplicaReader(Map<String, RedisTemplate<byte[], byte[]>> replicaTemplates, RedisTemplate<byte[], byte[]> primaryTemplate) {
+        Assert.notEmpty(replicaTemplates, "至少需要一个副本！");
+        replicaTemplates.forEach((name, template) -> replicas.add(new Replica(name, template)));
+        this.primaryTemplate = primaryTemplate;
+    }
+
+    /**
+     * 在副本上执行读取操作
+     *
+     * @param operation 读取操作，可能被执行多次，必须是只读的
+     * @return 读取的结果
+     */
+    public <T> T read(Function<RedisTemplate<byte[], byte[]>, T> operation) {
+        Replica first = this.select(null);
+        long delay = hedgeDelayNanos;
+        try {
+            return config.isHedgeEnabled() && executor != null && delay != Long.MAX_VALUE
+                    ? this.hedgedRead(first, operation, delay) : this.execute(first, operation);
+        } catch (RuntimeException e) {
+            fallbackCount.increment();
+            log.debug("副本 {} 读取失败！改为读取主节点。", first.name, e);
+            return operation.apply(primaryTemplate);
+        }
+    }
+
+    /**
+     * 对冲读取：当前线程需要在延迟阈值到达时发送对冲请求，所以第一个请求也在线程池中执行；
+     * 线程池的线程都在忙时，第一个请求由当前线程执行完，相当于不对冲
+     */
+    private <T> T hedgedRead(Replica first, Function<RedisTemplate<byte[], byte[]>, T> operation, long delay) {
+        CompletableFuture<T> firstFuture = CompletableFuture.supplyAsync(() -> this.execute(first, operation), executor);
+        try {
+            return firstFuture.get(delay, TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            // 超过延迟阈值，发送对冲请求
+        } catch (ExecutionException | CompletionException e) {
+            throw unwrap(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("等待副本读取结果时线程被中断！", e);
+        }
+        hedgedCount.increment();
+        Replica second = this.select(first);
+        CompletableFuture<T> secondFuture = CompletableFuture.supplyAsync(() -> second == null
+                ? operation.apply(primaryTemplate) : this.execute(second, operation), executor);
+        // 使用先成功返回的结果；两个请求都失败时，抛出后失败的异常
+        CompletableFuture<T> winner = new CompletableFuture<>();
+        AtomicInteger remaining = new AtomicInteger(2);
+        BiConsumer<T, Throwable> handler = (value, error) -> {
+            if (error == null) {
+                winner.complete(value);
+            } else if (remaining.decrementAndGet() == 0) {
+                winner.completeExceptionally(error);
+            }
+        };
+        firstFuture.whenComplete(handler);
+        secondFuture.whenComplete(handler);
+        try {
+            T value = winner.join();
+            if (!firstFuture.isDone()) {
+                hedgeWonCount.increment();
+            }
+            return value;
+        } catch (CompletionException e) {
+            throw unwrap(e);
+        }
+    }
+
+    private <T> T execute(Replica replica, Function<RedisTemplate<byte[], byte[]>, T> operation) {
+        long start = System.nanoTime();
+        T result;
+        try {
+            result = operation.apply(replica.template);
+        } catch (RuntimeException e) {
+            // 失败的延迟不计入样本，否则快速失败的副本延迟最低，反而被优先选择
+            replica.ewmaNanos = Double.POSITIVE_INFINITY;
+            throw e;
+        }
+        this.record(replica, System.nanoTime() - start);
+        return result;
+    }
+
+    /**
+     * 选择一个副本
+     *
+     * @param exclude 需要排除的副本，为空时不排除
+     * @return 选择的副本；排除之后没有副本时返回 null
+     */
+    private Replica select(Replica exclude) {
+        int size = replicas.size();
+        if (exclude != null && size == 1) {
+            return null;
+        }
+        long count = counter.getAndIncrement();
+        if (STRATEGY_LOWEST_LATENCY.equals(config.getStrategy()) && count % EXPLORE_INTERVAL != 0) {
+            Replica best = null;
+            for (Replica replica : replicas) {
+                if (replica != exclude && (best == null || replica.ewmaNanos < best.ewmaNanos)) {
+                    best = replica;
+                }
+            }
+            return best;
+        }
+        Replica replica = replicas.get((int) (count % size));
+        return replica == exclude ? replicas.get((int) ((count + 1) % size)) : replica;
+    }
+
+    /**
+     * 记录一次成功读取的延迟；还没有样本或者上一次读取失败时，直接以本次延迟作为副本的延迟
+     */
+    private void record(Replica replica, long nanos) {
+        double ewma = replica.ewmaNanos;
+        replica.ewmaNanos = ewma == 0D || ewma == Double.POSITIVE_INFINITY ? nanos : ewma + EWMA_ALPHA * (nanos - ewma);
+        long index = sampleCount.getAndIncrement();
+        samples[(int) (index % SAMPLE_SIZE)] = nanos;
+        if (config.isHedgeEnabled() && index % RECOMPUTE_INTERVAL == RECOMPUTE_INTERVAL - 1) {
+            this.recomputeHedgeDelay(index + 1);
+        }
+    }
+
+    private void recomputeHedgeDelay(long count) {
+        long[] sorted = Arrays.copyOf(samples, (int) Math.min(count, SAMPLE_SIZE));
+        Arrays.sort(sorted);
+        int index = (int) Math.ceil(config.getHedgePercentile() / 100D * sorted.length) - 1;
+        long percentile = sorted[Math.max(0, Math.min(index, sorted.length - 1))];
+        hedgeDelayNanos = Math.max(percentile, config.getHedgeMinDelay().toNanos());
+    }
+
+    private static RuntimeException unwrap(Exception e) {
+        Throwable cause = e.getCause() == null ? e : e.getCause();
+        return cause instanceof RuntimeException ? (RuntimeException) cause : new IllegalStateException(cause);
+    }
+
+    /**
+     * 发送的对冲请求个数
+     */
+    public long getHedgedCount() {
+        return hedgedCount.sum();
+    }
+
+    /**
+     * 对冲请求先返回的次数
+     */
+    public long getHedgeWonCount() {
+        return hedgeWonCount.sum();
+    }
+
+    /**
+     * 副本读取失败、改为读取主节点的次数
+     */
+    public long getFallbackCount() {
+        return fallbackCount.sum();
+    }
+
+    /**
+     * 当前对冲读取的延迟阈值，单位：纳秒；样本不足时为 Long.MAX_VALUE
+     */
+    public long getHedgeDelayNanos() {
+        return hedgeDelayNanos;
+    }
+
+    public ReplicaReadConfig getConfig() {
+        return config;
+    }
+
+    public void setConfig(ReplicaReadConfig config) {
+        this.config = config;
+    }
+
+    public void setExecutor(Executor executor) {
+        this.executor = executor;
+    }
+
+    private static class Replica {
+        private final String name;
+        private final RedisTemplate<byte[], byte[]> template;
+        /**
+         * 成功读取延迟的指数加权移动平均，单位：纳秒；还没有读取过时为 0，上一次读取失败时为无穷大
+         */
+        private volatile double ewmaNanos;
+
+        private Replica(String name, RedisTemplate<byte[], byte[]> template) {
+            this.name = name;
+            this.template = template;
+        }
+    }
+}
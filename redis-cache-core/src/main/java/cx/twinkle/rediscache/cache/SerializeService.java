@@ -1,5 +1,7 @@
 package cx.twinkle.rediscache.cache;
 
+import cx.twinkle.rediscache.dto.CacheEntry;
+
 /**
  * @author twinkle
  * @version 2019/12/30 18:58
@@ -21,4 +23,69 @@ public interface SerializeService {
      * @return 反序列化得到的对象
      */
     Object deserialize(String str);
+
+    /**
+     * 将对象序列化为二进制数据，数据以格式头开头，格式头中记录了所使用的序列化方式
+     *
+     * @param obj 需要序列化的对象
+     * @return 得到的二进制数据；无法序列化时返回空数组
+     */
+    byte[] serializeToBytes(Object obj);
+
+    /**
+     * 使用指定的序列化方式，将对象序列化为二进制数据，并按照缓存的压缩配置进行压缩；
+     * 序列化方式不存在或者无法序列化该对象时，使用默认的序列化方式
+     *
+     * @param obj       需要序列化的对象
+     * @param cacheName 缓存名称，用于选择压缩配置、记录压缩统计数据；可以为空
+     * @param codecName 序列化方式的名称，为空时使用默认的序列化方式
+     * @return 得到的二进制数据；无法序列化时返回空数组
+     */
+    byte[] serializeToBytes(Object obj, String cacheName, String codecName);
+
+    /**
+     * 反序列化二进制数据；没有格式头的数据按照旧版本的字符串格式反序列化
+     *
+     * @param bytes 需要反序列化的二进制数据
+     * @return 反序列化得到的对象
+     */
+    Object deserializeFromBytes(byte[] bytes);
+
+    /**
+     * 反序列化二进制数据，并将解压的统计数据记录到对应的缓存下
+     *
+     * @param bytes     需要反序列化的二进制数据
+     * @param cacheName 缓存名称；可以为空
+     * @return 反序列化得到的对象
+     */
+    Object deserializeFromBytes(byte[] bytes, String cacheName);
+
+    /**
+     * 将缓存数据连同元数据（写入时间、执行耗时）一起序列化；元数据记录在格式头之后。
+     * 空结果的占位数据（负缓存）序列化为只有几个字节的固定格式
+     *
+     * @param entry     带有元数据的缓存数据
+     * @param cacheName 缓存名称；可以为空
+     * @param codecName 序列化方式的名称，为空时使用默认的序列化方式
+     * @return 得到的二进制数据；无法序列化时返回空数组
+     */
+    default byte[] serializeEntry(CacheEntry entry, String cacheName, String codecName) {
+        if (entry.isNegative()) {
+            // 默认不支持空结果的占位数据，返回空数组表示不写入
+            return new byte[0];
+        }
+        return this.serializeToBytes(entry.getValue(), cacheName, codecName);
+    }
+
+    /**
+     * 反序列化二进制数据，同时读取元数据；没有记录元数据的数据，返回的元数据为空
+     *
+     * @param bytes     需要反序列化的二进制数据
+     * @param cacheName 缓存名称；可以为空
+     * @return 带有元数据的缓存数据；数据不存在时返回 null
+     */
+    default CacheEntry deserializeEntry(byte[] bytes, String cacheName) {
+        Object value = this.deserializeFromBytes(bytes, cacheName);
+        return value == null ? null : CacheEntry.of(value);
+    }
 }
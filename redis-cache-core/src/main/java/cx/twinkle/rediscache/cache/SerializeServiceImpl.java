@@ -1,17 +1,32 @@
 package cx.twinkle.rediscache.cache;
 
+import cx.twinkle.rediscache.codec.CacheCodec;
+import cx.twinkle.rediscache.codec.CacheCompressor;
+import cx.twinkle.rediscache.codec.CodecRegistry;
+import cx.twinkle.rediscache.codec.DeflateCacheCompressor;
+import cx.twinkle.rediscache.codec.JacksonCacheCodec;
+import cx.twinkle.rediscache.codec.JdkCacheCodec;
+import cx.twinkle.rediscache.dto.CacheEntry;
+import cx.twinkle.rediscache.metrics.CacheMetrics;
 import cx.twinkle.rediscache.utils.ReflectionUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
 import org.springframework.data.redis.serializer.JdkSerializationRedisSerializer;
+import org.springframework.util.Assert;
 import org.springframework.util.StringUtils;
 
 import java.io.Serializable;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -35,6 +50,83 @@ public class SerializeServiceImpl implements SerializeService {
      */
     private static final Pattern MAP_BYTE_ARRAY_PATTERN = Pattern.compile("\\[(.*)]");
 
+    /**
+     * 二进制格式头的第一个字节；0xFE 不会出现在 UTF-8 编码的文本中，据此区分旧版本的字符串格式
+     */
+    public static final byte FORMAT_MAGIC = (byte) 0xFE;
+    /**
+     * 二进制格式头的长度：[FORMAT_MAGIC][序列化方式][标志位]
+     */
+    public static final int HEADER_LENGTH = 3;
+    /**
+     * 标志位的低4位记录压缩方式的ID，为 0 表示没有压缩；
+     * 压缩后的数据在格式头后面，先用 4 个字节记录压缩前的长度，再存放压缩后的数据
+     */
+    public static final int COMPRESSOR_MASK = 0x0F;
+    /**
+     * 标志位：格式头后面记录了元数据，依次为 写入时间（8个字节）、执行耗时（4个字节）；
+     * 元数据在压缩前长度之前，不参与压缩
+     */
+    public static final int FLAG_METADATA = 0x10;
+    /**
+     * 标志位：空结果的占位数据（负缓存），格式头后面只有一个字节，记录空结果的类型
+     */
+    public static final int FLAG_NEGATIVE = 0x20;
+    /**
+     * 空结果的类型：null、空字符串、空List、空Set、空Map
+     */
+    private static final byte NEGATIVE_NULL = 0;
+    private static final byte NEGATIVE_EMPTY_STRING = 1;
+    private static final byte NEGATIVE_EMPTY_LIST = 2;
+    private static final byte NEGATIVE_EMPTY_SET = 3;
+    private static final byte NEGATIVE_EMPTY_MAP = 4;
+    /**
+     * 记录压缩前长度所占用的字节数
+     */
+    private static final int ORIGINAL_LENGTH_SIZE = 4;
+    /**
+     * 元数据所占用的字节数
+     */
+    private static final int METADATA_LENGTH = 12;
+
+    private static final byte[] EMPTY_BYTES = new byte[0];
+
+    private CodecRegistry codecRegistry;
+    /**
+     * 默认的序列化方式名称
+     */
+    private String defaultCodec = CodecRegistry.AUTO;
+
+    /**
+     * 是否仍然按照旧版本的字符串格式写入；滚动升级期间，新旧版本同时运行时需要开启。
+     * 旧格式中没有负缓存的标记和元数据，开启时不能写入负缓存
+     */
+    private boolean legacyFormat = false;
+    /**
+     * 默认的压缩配置
+     */
+    private CompressionConfig defaultCompression = new CompressionConfig();
+    /**
+     * 按缓存名称单独指定的压缩配置
+     */
+    private Map<String, CompressionConfig> cacheCompressions = Collections.emptyMap();
+    /**
+     * 每个缓存的压缩统计数据；没有缓存名称时，记录在空字符串下
+     */
+    private final Map<String, CompressionStatistics> compressionStatistics = new ConcurrentHashMap<>();
+    /**
+     * 每个缓存的压缩统计数据创建时注册到监控指标中
+     */
+    private CacheMetrics cacheMetrics = CacheMetrics.NOOP;
+
+    public SerializeServiceImpl() {
+        this(CodecRegistry.withDefaults());
+    }
+
+    public SerializeServiceImpl(CodecRegistry codecRegistry) {
+        this.codecRegistry = codecRegistry;
+    }
+
     @Override
     public String serialize(Object obj) {
         if (obj instanceof Serializable) {
@@ -77,4 +169,323 @@ public class SerializeServiceImpl implements SerializeService {
         }
         return jdkSerializer.deserialize(bytes);
     }
+
+    @Override
+    public byte[] serializeToBytes(Object obj) {
+        return this.serializeToBytes(obj, null, defaultCodec);
+    }
+
+    @Override
+    public byte[] serializeToBytes(Object obj, String cacheName, String codecName) {
+        return this.serializeToBytes(obj, cacheName, codecName, null);
+    }
+
+    @Override
+    public byte[] serializeEntry(CacheEntry entry, String cacheName, String codecName) {
+        if (entry.isNegative()) {
+            Assert.isTrue(!legacyFormat, "按照旧版本的字符串格式写入时，不能写入负缓存！");
+            return new byte[]{FORMAT_MAGIC, 0, FLAG_NEGATIVE, negativeKind(entry.getValue())};
+        }
+        return this.serializeToBytes(entry.getValue(), cacheName, codecName, entry);
+    }
+
+    private static byte negativeKind(Object value) {
+        if (value instanceof String) {
+            return NEGATIVE_EMPTY_STRING;
+        } else if (value instanceof Set) {
+            return NEGATIVE_EMPTY_SET;
+        } else if (value instanceof Collection) {
+            return NEGATIVE_EMPTY_LIST;
+        } else if (value instanceof Map) {
+            return NEGATIVE_EMPTY_MAP;
+        }
+        return NEGATIVE_NULL;
+    }
+
+    private static Object negativeValue(byte kind) {
+        switch (kind) {
+            case NEGATIVE_EMPTY_STRING:
+                return "";
+            case NEGATIVE_EMPTY_LIST:
+                return new ArrayList<>();
+            case NEGATIVE_EMPTY_SET:
+                return new HashSet<>();
+            case NEGATIVE_EMPTY_MAP:
+                return new HashMap<>();
+            default:
+                return null;
+        }
+    }
+
+    private byte[] serializeToBytes(Object obj, String cacheName, String codecName, CacheEntry metadata) {
+        if (legacyFormat) {
+            return this.serialize(obj).getBytes(StandardCharsets.UTF_8);
+        }
+        CacheCodec codec = this.selectCodec(obj, StringUtils.isEmpty(codecName) ? defaultCodec : codecName);
+        if (codec == null) {
+            log.error("存在一个结果无法序列化！resultObj = {}", obj);
+            return EMPTY_BYTES;
+        }
+        try {
+            return this.pack(codec.getId(), codec.encode(obj), cacheName, metadata);
+        } catch (Exception e) {
+            CacheCodec autoCodec = this.selectCodec(obj, CodecRegistry.AUTO);
+            if (autoCodec == null || autoCodec == codec) {
+                log.error("序列化失败！codec = {}，resultObj = {}", codec.getName(), obj, e);
+                return EMPTY_BYTES;
+            }
+            log.warn("使用序列化方式 {} 序列化失败！改用 {} 序列化。resultObj = {}", codec.getName(), autoCodec.getName(), obj, e);
+            return this.pack(autoCodec.getId(), autoCodec.encode(obj), cacheName, metadata);
+        }
+    }
+
+    /**
+     * 选择序列化方式；指定的序列化方式不存在或者无法序列化该对象时，自动选择
+     */
+    private CacheCodec selectCodec(Object obj, String codecName) {
+        if (!CodecRegistry.AUTO.equals(codecName)) {
+            CacheCodec codec = codecRegistry.getByName(codecName);
+            if (codec == null) {
+                log.warn("序列化方式 {} 不存在！自动选择序列化方式。", codecName);
+            } else if (codec.canEncode(obj)) {
+                return codec;
+            } else {
+                log.debug("序列化方式 {} 无法序列化该对象，自动选择序列化方式。obj = {}", codecName, obj);
+            }
+        }
+        CacheCodec jdkCodec = codecRegistry.getById(JdkCacheCodec.ID);
+        if (jdkCodec != null && jdkCodec.canEncode(obj)) {
+            return jdkCodec;
+        }
+        CacheCodec jacksonCodec = codecRegistry.getById(JacksonCacheCodec.ID);
+        if (jacksonCodec != null && jacksonCodec.canEncode(obj)) {
+            return jacksonCodec;
+        }
+        return null;
+    }
+
+    @Override
+    public Object deserializeFromBytes(byte[] bytes) {
+        return this.deserializeFromBytes(bytes, null);
+    }
+
+    @Override
+    public Object deserializeFromBytes(byte[] bytes, String cacheName) {
+        CacheEntry entry = this.deserializeEntry(bytes, cacheName);
+        // 空结果的占位数据只能通过 deserializeEntry 读取
+        return entry == null || entry.isNegative() ? null : entry.getValue();
+    }
+
+    @Override
+    public CacheEntry deserializeEntry(byte[] bytes, String cacheName) {
+        if (bytes == null || bytes.length == 0) {
+            return null;
+        }
+        if (bytes[0] != FORMAT_MAGIC) {
+            // 没有格式头，是旧版本写入的字符串格式
+            Object value = this.deserialize(new String(bytes, StandardCharsets.UTF_8));
+            return value == null ? null : CacheEntry.of(value);
+        }
+        if (bytes.length <= HEADER_LENGTH) {
+            return null;
+        }
+        if ((bytes[2] & FLAG_NEGATIVE) != 0) {
+            return CacheEntry.negative(negativeValue(bytes[HEADER_LENGTH]));
+        }
+        CacheCodec codec = codecRegistry.getById(bytes[1]);
+        if (codec == null) {
+            log.error("未知的序列化方式！codecId = {}", bytes[1]);
+            return null;
+        }
+        int flags = bytes[2], offset = HEADER_LENGTH;
+        long writeTime = 0L, computeMillis = 0L;
+        if ((flags & FLAG_METADATA) != 0) {
+            writeTime = readLong(bytes, offset);
+            computeMillis = readInt(bytes, offset + 8) & 0xFFFFFFFFL;
+            offset += METADATA_LENGTH;
+        }
+        Object value = this.decode(codec, flags & COMPRESSOR_MASK, bytes, offset, cacheName);
+        return value == null ? null : new CacheEntry(value, writeTime, computeMillis);
+    }
+
+    private Object decode(CacheCodec codec, int compressorId, byte[] bytes, int offset, String cacheName) {
+        if (compressorId == 0) {
+            return codec.decode(bytes, offset, bytes.length - offset);
+        }
+        CacheCompressor compressor = codecRegistry.getCompressorById(compressorId);
+        if (compressor == null) {
+            log.error("未知的压缩方式！compressorId = {}", compressorId);
+            return null;
+        }
+        int originalLength = readInt(bytes, offset);
+        offset += ORIGINAL_LENGTH_SIZE;
+        long start = System.nanoTime();
+        byte[] payload = compressor.decompress(bytes, offset, bytes.length - offset, originalLength);
+        this.statisticsOf(cacheName).recordDecompress(System.nanoTime() - start);
+        return codec.decode(payload, 0, payload.length);
+    }
+
+    /**
+     * 按照缓存的压缩配置，对序列化后的数据进行压缩，并且加上格式头；metadata 不为空时，在格式头后面记录元数据
+     */
+    private byte[] pack(byte codecId, byte[] payload, String cacheName, CacheEntry metadata) {
+        if (payload == null || payload.length == 0) {
+            return EMPTY_BYTES;
+        }
+        CompressionConfig config = this.getCompressionConfig(cacheName);
+        if (!config.isEnabled()) {
+            return this.withHeader(codecId, null, payload, payload.length, metadata);
+        }
+        CompressionStatistics statistics = this.statisticsOf(cacheName);
+        if (payload.length < config.getThreshold()) {
+            statistics.recordSkip();
+            return this.withHeader(codecId, null, payload, payload.length, metadata);
+        }
+        CacheCompressor compressor = this.selectCompressor(config.getAlgorithm());
+        long start = System.nanoTime();
+        byte[] compressed = compressor.compress(payload);
+        long nanos = System.nanoTime() - start;
+        if (compressed.length + ORIGINAL_LENGTH_SIZE >= payload.length) {
+            // 压缩后没有变小，不压缩
+            statistics.recordSkip();
+            return this.withHeader(codecId, null, payload, payload.length, metadata);
+        }
+        statistics.recordCompress(payload.length, compressed.length, nanos);
+        if (log.isDebugEnabled()) {
+            log.debug("缓存 {} 的数据已压缩！压缩方式 = {}，{} -> {} 字节，耗时 {} μs", cacheName, compressor.getName(),
+                    payload.length, compressed.length, nanos / 1000);
+        }
+        return this.withHeader(codecId, compressor, compressed, payload.length, metadata);
+    }
+
+    private CacheCompressor selectCompressor(String algorithm) {
+        CacheCompressor compressor = codecRegistry.getCompressorByName(algorithm);
+        if (compressor != null) {
+            return compressor;
+        }
+        log.debug("压缩方式 {} 不存在！使用 {} 压缩。", algorithm, DeflateCacheCompressor.NAME);
+        return codecRegistry.getCompressorById(DeflateCacheCompressor.ID);
+    }
+
+    private CompressionConfig getCompressionConfig(String cacheName) {
+        CompressionConfig config = cacheName == null ? null : cacheCompressions.get(cacheName);
+        return config == null ? defaultCompression : config;
+    }
+
+    private CompressionStatistics statisticsOf(String cacheName) {
+        String key = cacheName == null ? "" : cacheName;
+        CompressionStatistics statistics = compressionStatistics.get(key);
+        return statistics != null ? statistics : compressionStatistics.computeIfAbsent(key, k -> {
+            CompressionStatistics created = new CompressionStatistics();
+            cacheMetrics.bindCompressionStatistics(k, created);
+            return created;
+        });
+    }
+
+    /**
+     * 组装最终写入 Redis 的数据：[格式头][元数据][压缩前长度][数据]，元数据、压缩前长度 只在需要时存在
+     */
+    private byte[] withHeader(byte codecId, CacheCompressor compressor, byte[] payload, int originalLength,
+                              CacheEntry metadata) {
+        int length = HEADER_LENGTH + payload.length;
+        int flags = 0;
+        if (metadata != null) {
+            length += METADATA_LENGTH;
+            flags |= FLAG_METADATA;
+        }
+        if (compressor != null) {
+            length += ORIGINAL_LENGTH_SIZE;
+            flags |= compressor.getId() & COMPRESSOR_MASK;
+        }
+        byte[] bytes = new byte[length];
+        bytes[0] = FORMAT_MAGIC;
+        bytes[1] = codecId;
+        bytes[2] = (byte) flags;
+        int offset = HEADER_LENGTH;
+        if (metadata != null) {
+            writeLong(bytes, offset, metadata.getWriteTime());
+            writeInt(bytes, offset + 8, (int) Math.min(metadata.getComputeMillis(), 0xFFFFFFFFL));
+            offset += METADATA_LENGTH;
+        }
+        if (compressor != null) {
+            writeInt(bytes, offset, originalLength);
+            offset += ORIGINAL_LENGTH_SIZE;
+        }
+        System.arraycopy(payload, 0, bytes, offset, payload.length);
+        return bytes;
+    }
+
+    private static void writeInt(byte[] bytes, int offset, int value) {
+        bytes[offset] = (byte) (value >>> 24);
+        bytes[offset + 1] = (byte) (value >>> 16);
+        bytes[offset + 2] = (byte) (value >>> 8);
+        bytes[offset + 3] = (byte) value;
+    }
+
+    private static void writeLong(byte[] bytes, int offset, long value) {
+        writeInt(bytes, offset, (int) (value >>> 32));
+        writeInt(bytes, offset + 4, (int) value);
+    }
+
+    private static int readInt(byte[] bytes, int offset) {
+        return ((bytes[offset] & 0xFF) << 24) | ((bytes[offset + 1] & 0xFF) << 16)
+                | ((bytes[offset + 2] & 0xFF) << 8) | (bytes[offset + 3] & 0xFF);
+    }
+
+    private static long readLong(byte[] bytes, int offset) {
+        return ((long) readInt(bytes, offset) << 32) | (readInt(bytes, offset + 4) & 0xFFFFFFFFL);
+    }
+
+    /**
+     * 获取每个缓存的压缩统计数据，key 为缓存名称
+     *
+     * @return 压缩统计数据
+     */
+    public Map<String, CompressionStatistics> getCompressionStatistics() {
+        return Collections.unmodifiableMap(compressionStatistics);
+    }
+
+    public CodecRegistry getCodecRegistry() {
+        return codecRegistry;
+    }
+
+    public String getDefaultCodec() {
+        return defaultCodec;
+    }
+
+    public void setDefaultCodec(String defaultCodec) {
+        this.defaultCodec = defaultCodec;
+    }
+
+    public boolean isLegacyFormat() {
+        return legacyFormat;
+    }
+
+    public void setLegacyFormat(boolean legacyFormat) {
+        this.legacyFormat = legacyFormat;
+    }
+
+    public CompressionConfig getDefaultCompression() {
+        return defaultCompression;
+    }
+
+    public void setDefaultCompression(CompressionConfig defaultCompression) {
+        this.defaultCompression = defaultCompression;
+    }
+
+    public Map<String, CompressionConfig> getCacheCompressions() {
+        return cacheCompressions;
+    }
+
+    public void setCacheCompressions(Map<String, CompressionConfig> cacheCompressions) {
+        this.cacheCompressions = cacheCompressions;
+    }
+
+    public CacheMetrics getCacheMetrics() {
+        return cacheMetrics;
+    }
+
+    public void setCacheMetrics(CacheMetrics cacheMetrics) {
+        this.cacheMetrics = cacheMetrics;
+    }
 }
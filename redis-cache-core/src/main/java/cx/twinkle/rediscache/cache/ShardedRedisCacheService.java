@@ -0,0 +1,219 @@
+package cx.twinkle.rediscache.cache;
+
+import cx.twinkle.rediscache.dto.CacheEntry;
+import cx.twinkle.rediscache.dto.CacheWrite;
+import cx.twinkle.rediscache.dto.MethodCacheInfo;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * 客户端一致性哈希分片的 RedisCacheService
+ * <p>
+ * 每个分片是一个独立 Redis 上的 RedisCacheService，缓存 key 通过带虚拟节点的一致性哈希路由到分片；
+ * 缓存数据和记录它的 KeySet、CacheNameHash 位于同一个分片，每个分片维护自己的索引。
+ * 批量读取、写入、删除按照分片分组后并行执行，deleteByCacheName 在所有的分片上并行执行
+ *
+ * @author twinkle
+ * @version 2026/10/19 00:10
+ */
+public class ShardedRedisCacheService implements RedisCacheService {
+    private static final Logger log = LoggerFactory.getLogger(ShardedRedisCacheService.class);
+
+    private final ConsistentHashRing<RedisCacheService> ring;
+    /**
+     * 缓存代数管理；代数模式的缓存失效时只需要增加一次代数，不需要在每个分片上执行
+     */
+    private CacheGenerationManager generationManager;
+    /**
+     * 并行访问各个分片的线程池；默认在当前线程中依次执行
+     */
+    private Executor executor = Runnable::run;
+
+    /**
+     * @param shards       分片名称（例如 host:port）-> 分片
+     * @param virtualNodes 每个分片的虚拟节点个数
+     */
+    public ShardedRedisCacheService(Map<String, RedisCacheService> shards, int virtualNodes) {
+        this.ring = new ConsistentHashRing<>(shards, virtualNodes);
+        log.info("Redis缓存分片初始化成功！shards = {}，virtualNodes = {}", shards.keySet(), virtualNodes);
+    }
+
+    /**
+     * 获取缓存 key 所在的分片
+     */
+    public RedisCacheService getShard(String key) {
+        return ring.get(key);
+    }
+
+    public Map<String, RedisCacheService> getShards() {
+        return ring.getNodeMap();
+    }
+
+    @Override
+    public Object getFromRedis(String key) {
+        return ring.get(key).getFromRedis(key);
+    }
+
+    @Override
+    public Object getFromRedis(MethodCacheInfo cacheInfo) {
+        return ring.get(cacheInfo.getCacheKey()).getFromRedis(cacheInfo);
+    }
+
+    @Override
+    public CacheEntry getEntry(MethodCacheInfo cacheInfo) {
+        return ring.get(cacheInfo.getCacheKey()).getEntry(cacheInfo);
+    }
+
+    @Override
+    public CompletableFuture<Object> getFromRedisAsync(MethodCacheInfo cacheInfo, Executor executor) {
+        return ring.get(cacheInfo.getCacheKey()).getFromRedisAsync(cacheInfo, executor);
+    }
+
+    @Override
+    public CompletableFuture<CacheEntry> getEntryAsync(MethodCacheInfo cacheInfo, Executor executor) {
+        return ring.get(cacheInfo.getCacheKey()).getEntryAsync(cacheInfo, executor);
+    }
+
+    @Override
+    public List<CacheEntry> getEntries(List<MethodCacheInfo> cacheInfos) {
+        Map<RedisCacheService, List<Integer>> indexesOfShard = this.groupByShard(cacheInfos, MethodCacheInfo::getCacheKey);
+        CacheEntry[] entries = new CacheEntry[cacheInfos.size()];
+        List<Supplier<Void>> tasks = new ArrayList<>(indexesOfShard.size());
+        indexesOfShard.forEach((shard, indexes) -> tasks.add(() -> {
+            List<MethodCacheInfo> shardInfos = new ArrayList<>(indexes.size());
+            for (Integer index : indexes) {
+                shardInfos.add(cacheInfos.get(index));
+            }
+            List<CacheEntry> shardEntries = shard.getEntries(shardInfos);
+            for (int i = 0; i < indexes.size(); i++) {
+                entries[indexes.get(i)] = shardEntries.get(i);
+            }
+            return null;
+        }));
+        this.fanOut(tasks);
+        return Arrays.asList(entries);
+    }
+
+    @Override
+    public void insert2Redis(String key, Object value, Duration duration, String cacheName) {
+        ring.get(key).insert2Redis(key, value, duration, cacheName);
+    }
+
+    @Override
+    public void insert2Redis(MethodCacheInfo cacheInfo, Object value) {
+        ring.get(cacheInfo.getCacheKey()).insert2Redis(cacheInfo, value);
+    }
+
+    @Override
+    public void insertEntry(MethodCacheInfo cacheInfo, CacheEntry entry) {
+        ring.get(cacheInfo.getCacheKey()).insertEntry(cacheInfo, entry);
+    }
+
+    @Override
+    public void insertEntries(List<CacheWrite> writes) {
+        Map<RedisCacheService, List<Integer>> indexesOfShard = this.groupByShard(writes,
+                write -> write.getCacheInfo().getCacheKey());
+        List<Supplier<Void>> tasks = new ArrayList<>(indexesOfShard.size());
+        indexesOfShard.forEach((shard, indexes) -> tasks.add(() -> {
+            List<CacheWrite> shardWrites = new ArrayList<>(indexes.size());
+            for (Integer index : indexes) {
+                shardWrites.add(writes.get(index));
+            }
+            shard.insertEntries(shardWrites);
+            return null;
+        }));
+        this.fanOut(tasks);
+    }
+
+    @Override
+    public long deleteByKey(String... keys) {
+        List<String> keyList = Arrays.asList(keys);
+        Map<RedisCacheService, List<Integer>> indexesOfShard = this.groupByShard(keyList, Function.identity());
+        List<Supplier<Long>> tasks = new ArrayList<>(indexesOfShard.size());
+        indexesOfShard.forEach((shard, indexes) -> tasks.add(() -> {
+            String[] shardKeys = new String[indexes.size()];
+            for (int i = 0; i < shardKeys.length; i++) {
+                shardKeys[i] = keyList.get(indexes.get(i));
+            }
+            return shard.deleteByKey(shardKeys);
+        }));
+        return this.fanOut(tasks).stream().mapToLong(Long::longValue).sum();
+    }
+
+    @Override
+    public long deleteByCacheName(String cacheName) {
+        if (generationManager != null && generationManager.isEnabled(cacheName)) {
+            generationManager.nextGeneration(cacheName);
+            return 0L;
+        }
+        List<Supplier<Long>> tasks = new ArrayList<>();
+        for (RedisCacheService shard : ring.getNodes()) {
+            tasks.add(() -> shard.deleteByCacheName(cacheName));
+        }
+        return this.fanOut(tasks).stream().mapToLong(Long::longValue).sum();
+    }
+
+    /**
+     * 按照分片分组，保留每个元素的下标
+     */
+    private <T> Map<RedisCacheService, List<Integer>> groupByShard(List<T> items, Function<T, String> keyFunction) {
+        Map<RedisCacheService, List<Integer>> indexesOfShard = new IdentityHashMap<>();
+        for (int i = 0; i < items.size(); i++) {
+            indexesOfShard.computeIfAbsent(ring.get(keyFunction.apply(items.get(i))), k -> new ArrayList<>()).add(i);
+        }
+        return indexesOfShard;
+    }
+
+    /**
+     * 并行执行各个分片的任务；第一个任务在当前线程中执行，少一次线程切换
+     *
+     * @return 与 tasks 一一对应的结果
+     */
+    private <T> List<T> fanOut(List<Supplier<T>> tasks) {
+        if (tasks.isEmpty()) {
+            return Collections.emptyList();
+        }
+        if (tasks.size() == 1) {
+            return Collections.singletonList(tasks.get(0).get());
+        }
+        List<CompletableFuture<T>> futures = new ArrayList<>(tasks.size());
+        for (int i = 1; i < tasks.size(); i++) {
+            futures.add(CompletableFuture.supplyAsync(tasks.get(i), executor));
+        }
+        List<T> results = new ArrayList<>(tasks.size());
+        results.add(tasks.get(0).get());
+        try {
+            for (CompletableFuture<T> future : futures) {
+                results.add(future.join());
+            }
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : e;
+        }
+        return results;
+    }
+
+    public CacheGenerationManager getGenerationManager() {
+        return generationManager;
+    }
+
+    public void setGenerationManager(CacheGenerationManager generationManager) {
+        this.generationManager = generationManager;
+    }
+
+    public void setExecutor(Executor executor) {
+        this.executor = executor;
+    }
+}
@@ -0,0 +1,51 @@
+package cx.twinkle.rediscache.cache;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 客户端一致性哈希分片的配置
+ *
+ * @author twinkle
+ * @version 2026/10/19 00:10
+ */
+public class ShardingConfig {
+    /**
+     * 是否开启分片，默认关闭；开启后缓存数据、KeySet、CacheNameHash 按照缓存 key 分布在 nodes 中的多个独立 Redis 上，
+     * 分布式锁、缓存代数、布隆过滤器、近端缓存的失效通知仍然使用应用默认的 Redis
+     */
+    private boolean enabled = false;
+    /**
+     * 分片节点，格式：redis://[:password@]host:port[/database]；节点的 host:port 决定它在哈希环上的位置，
+     * 增加、移除一个节点时，只有约 1/N 的 key 需要重新映射
+     */
+    private List<String> nodes = new ArrayList<>();
+    /**
+     * 每个节点在哈希环上的虚拟节点个数，越大 key 分布越均匀
+     */
+    private int virtualNodes = 160;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public List<String> getNodes() {
+        return nodes;
+    }
+
+    public void setNodes(List<String> nodes) {
+        this.nodes = nodes;
+    }
+
+    public int getVirtualNodes() {
+        return virtualNodes;
+    }
+
+    public void setVirtualNodes(int virtualNodes) {
+        this.virtualNodes = virtualNodes;
+    }
+}
@@ -0,0 +1,334 @@
+package cx.twinkle.rediscache.cache;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * 缓存击穿保护：缓存未命中时，同一个 key 同时只有一个线程（分布式模式下为一个节点）执行方法，其他调用方等待它的结果
+ * <p>
+ * JVM 内通过 CompletableFuture 合并同一个 key 的请求；分布式模式下，获得本地执行权的线程还需要获取 Redis 中的租约，
+ * 没有获取到租约的节点轮询 Redis，直到其他节点写入结果。等待超时后，调用方自己执行方法，保证不会无限等待
+ * <p>
+ * 注意：同一个 JVM 中合并的调用方拿到的是同一个结果对象，调用方不能修改结果。分布式模式下，持有租约的节点同步写入 Redis
+ * 之后才释放租约，执行期间由看门狗定期续期；结果没有写入缓存时（例如结果为空并且没有开启负缓存、执行失败），
+ * 写入一个短暂的完成标记，等待的节点看到标记后直接执行方法，不再依次获取租约
+ *
+ * @author twinkle
+ * @version 2026/10/18 19:40
+ */
+public class SingleFlight {
+    private static final Logger log = LoggerFactory.getLogger(SingleFlight.class);
+
+    /**
+     * 分布式租约的 key 前缀
+     */
+    private static final String LEASE_KEY_PREFIX = "C7264226X_CACHE_LOAD_LEASE::";
+
+    /**
+     * 结果没有写入缓存时的完成标记的 key 前缀
+     */
+    private static final String DONE_KEY_PREFIX = "C7264226X_CACHE_LOAD_DONE::";
+
+    private static final RedisScript<Long> RELEASE_LEASE_SCRIPT = loadScript("release_lease.lua");
+    private static final RedisScript<Long> RENEW_LEASE_SCRIPT = loadScript("renew_lease.lua");
+
+    private static RedisScript<Long> loadScript(String name) {
+        DefaultRedisScript<Long> script = new DefaultRedisScript<>();
+        script.setLocation(new ClassPathResource("cx/twinkle/rediscache/lua/" + name));
+        script.setResultType(Long.class);
+        return script;
+    }
+
+    private StringRedisTemplate redisTemplate;
+    /**
+     * 用于异步写入缓存；写入完成之前，同一个 key 的新请求仍然会合并到本次执行结果上
+     */
+    private Executor executor;
+    private SingleFlightConfig config = new SingleFlightConfig();
+    /**
+     * 当前实例的ID，作为租约令牌的前缀
+     */
+    private final String instanceId = UUID.randomUUID().toString();
+    private final AtomicLong tokenSequence = new AtomicLong();
+    /**
+     * 正在执行中的 key
+     */
+    private final ConcurrentMap<String, Flight> inFlight = new ConcurrentHashMap<>();
+    /**
+     * 续期分布式租约的看门狗；为空时不续期，方法执行时间超过租约有效期后其他节点可能同时执行
+     */
+    private ScheduledExecutorService watchdog;
+
+    public SingleFlight(StringRedisTemplate redisTemplate, Executor executor) {
+        this.redisTemplate = redisTemplate;
+        this.executor = executor;
+    }
+
+    /**
+     * 执行方法并写入缓存，同一个 key 的并发调用只会执行一次
+     *
+     * @param key    缓存key
+     * @param loader 执行方法，获取结果
+     * @param reader 从 Redis 中读取缓存，用于分布式模式下等待其他节点的结果
+     * @param writer 将结果写入缓存，返回是否写入了缓存；分布式模式下必须同步写入 Redis，不能只放入异步写入队列
+     * @return 方法的执行结果
+     * @throws Throwable 方法执行时抛出的异常
+     */
+    public Object execute(String key, Loader loader, Supplier<Object> reader, Predicate<Object> writer) throws Throwable {
+        long waitTimeout = config.getWaitTimeout().toNanos();
+        Flight flight = new Flight();
+        CompletableFuture<Object> future = flight.future;
+        // 分布式模式下，先等待租约，再执行方法，两个阶段各自最多 waitTimeout
+        flight.deadline = System.nanoTime() + (config.isDistributed() ? waitTimeout * 2 : waitTimeout);
+        Flight existing = inFlight.putIfAbsent(key, flight);
+        if (existing != null) {
+            return this.await(key, existing, loader);
+        }
+        boolean writeAsync = false;
+        try {
+            if (config.isDistributed()) {
+                Object result = this.executeWithLease(key, () -> {
+                    // 开始执行方法，等待的线程最多再等待 waitTimeout
+                    flight.deadline = System.nanoTime() + waitTimeout;
+                    return loader.load();
+                }, reader, writer);
+                future.complete(result);
+                return result;
+            }
+            Object result = loader.load();
+            future.complete(result);
+            // 写入完成后才移除，避免写入期间到达的请求再次执行方法
+            try {
+                executor.execute(() -> {
+                    try {
+                        writer.test(result);
+                    } finally {
+                        inFlight.remove(key, flight);
+                    }
+                });
+                writeAsync = true;
+            } catch (RejectedExecutionException e) {
+                log.warn("缓存写入任务被线程池拒绝！当前线程直接写入，key = {}", key);
+                writer.test(result);
+            }
+            return result;
+        } catch (Throwable e) {
+            future.completeExceptionally(e);
+            throw e;
+        } finally {
+            if (!writeAsync) {
+                inFlight.remove(key, flight);
+            }
+        }
+    }
+
+    /**
+     * 等待同一个 JVM 中其他线程的执行结果；超时后自己执行方法，但不写入缓存，由正在执行的线程负责写入。
+     * 分布式模式下，执行的线程等待租约的时间不计入方法的执行时间，等待的线程不会与它同时超时、各自执行方法
+     */
+    private Object await(String key, Flight flight, Loader loader) throws Throwable {
+        try {
+            return flight.future.get(Math.max(0L, flight.deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (ExecutionException e) {
+            throw e.getCause();
+        } catch (TimeoutException e) {
+            log.warn("等待缓存 key = {} 的执行结果超时！当前线程直接执行方法。", key);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.warn("等待缓存 key = {} 的执行结果时被中断！当前线程直接执行方法。", key);
+        }
+        return loader.load();
+    }
+
+    /**
+     * 分布式模式：获取到租约的节点执行方法并同步写入缓存，之后释放租约；其他节点轮询 Redis 等待结果
+     */
+    private Object executeWithLease(String key, Loader loader, Supplier<Object> reader, Predicate<Object> writer) throws Throwable {
+        String leaseKey = LEASE_KEY_PREFIX + key;
+        String token = instanceId + ":" + tokenSequence.incrementAndGet();
+        long deadline = System.nanoTime() + config.getWaitTimeout().toNanos();
+        long pollMillis = Math.max(1L, config.getPollInterval().toMillis());
+        while (true) {
+            Boolean acquired;
+            try {
+                acquired = redisTemplate.opsForValue().setIfAbsent(leaseKey, token, config.getLeaseTime());
+            } catch (Exception e) {
+                log.warn("获取缓存 key = {} 的加载租约失败！当前节点直接执行方法。", key, e);
+                return this.loadAndWrite(loader, writer);
+            }
+            if (Boolean.TRUE.equals(acquired)) {
+                return this.loadWithLease(key, leaseKey, token, loader, reader, writer);
+            }
+            if (System.nanoTime() - deadline >= 0) {
+                log.warn("等待其他节点写入缓存 key = {} 超时！当前节点直接执行方法。", key);
+                return this.loadAndWrite(loader, writer);
+            }
+            try {
+                Thread.sleep(pollMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return this.loadAndWrite(loader, writer);
+            }
+            Object cached = reader.get();
+            if (cached != null) {
+                return cached;
+            }
+            if (this.isDone(key)) {
+                log.debug("持有租约的节点没有写入缓存 key = {}，当前节点直接执行方法。", key);
+                return this.loadAndWrite(loader, writer);
+            }
+        }
+    }
+
+    /**
+     * 持有租约时执行方法并同步写入缓存，执行期间看门狗定期续期租约；结果没有写入缓存时写入完成标记
+     */
+    private Object loadWithLease(String key, String leaseKey, String token, Loader loader, Supplier<Object> reader,
+                                 Predicate<Object> writer) throws Throwable {
+        ScheduledFuture<?> renewal = this.startRenewal(leaseKey, token);
+        boolean written = false;
+        try {
+            // 获取租约之前，其他节点可能刚刚写入了结果
+            Object cached = reader.get();
+            if (cached != null) {
+                written = true;
+                return cached;
+            }
+            Object result = loader.load();
+            written = writer.test(result);
+            return result;
+        } finally {
+            if (renewal != null) {
+                renewal.cancel(false);
+            }
+            if (!written) {
+                this.markDone(key);
+            }
+            this.releaseLease(leaseKey, token);
+        }
+    }
+
+    private Object loadAndWrite(Loader loader, Predicate<Object> writer) throws Throwable {
+        Object result = loader.load();
+        writer.test(result);
+        return result;
+    }
+
+    /**
+     * 每隔租约有效期的三分之一续期一次，方法执行时间超过租约有效期时，其他节点也不会获取到租约；
+     * 租约已经不属于当前节点时（例如 Redis 停顿导致租约过期）停止续期
+     *
+     * @return 续期任务，没有看门狗时返回 null
+     */
+    private ScheduledFuture<?> startRenewal(String leaseKey, String token) {
+        if (watchdog == null) {
+            return null;
+        }
+        long leaseMillis = config.getLeaseTime().toMillis();
+        long period = Math.max(1L, leaseMillis / 3);
+        AtomicReference<ScheduledFuture<?>> self = new AtomicReference<>();
+        self.set(watchdog.scheduleAtFixedRate(() -> {
+            try {
+                Long renewed = redisTemplate.execute(RENEW_LEASE_SCRIPT, Collections.singletonList(leaseKey), token,
+                        String.valueOf(leaseMillis));
+                if (renewed == null || renewed == 0L) {
+                    log.warn("缓存加载租约已经不属于当前节点，停止续期！leaseKey = {}", leaseKey);
+                    ScheduledFuture<?> renewal = self.get();
+                    if (renewal != null) {
+                        renewal.cancel(false);
+                    }
+                }
+            } catch (Exception e) {
+                log.warn("缓存加载租约续期失败！leaseKey = {}", leaseKey, e);
+            }
+        }, period, period, TimeUnit.MILLISECONDS));
+        return self.get();
+    }
+
+    /**
+     * 写入完成标记，有效期为两个轮询间隔，保证所有等待的节点都能看到
+     */
+    private void markDone(String key) {
+        try {
+            redisTemplate.opsForValue().set(DONE_KEY_PREFIX + key, "1",
+                    Duration.ofMillis(Math.max(100L, config.getPollInterval().toMillis() * 2)));
+        } catch (Exception e) {
+            log.warn("写入缓存 key = {} 的完成标记失败！等待的节点将在超时后执行方法。", key, e);
+        }
+    }
+
+    private boolean isDone(String key) {
+        try {
+            return Boolean.TRUE.equals(redisTemplate.hasKey(DONE_KEY_PREFIX + key));
+        } catch (Exception e) {
+            return false;
+        }
+    }
+
+    private void releaseLease(String leaseKey, String token) {
+        try {
+            redisTemplate.execute(RELEASE_LEASE_SCRIPT, Collections.singletonList(leaseKey), token);
+        } catch (Exception e) {
+            log.warn("释放缓存加载租约失败！租约将在到期后自动释放。leaseKey = {}", leaseKey, e);
+        }
+    }
+
+    public SingleFlightConfig getConfig() {
+        return config;
+    }
+
+    public void setConfig(SingleFlightConfig config) {
+        this.config = config;
+    }
+
+    public void setWatchdog(ScheduledExecutorService watchdog) {
+        this.watchdog = watchdog;
+    }
+
+    /**
+     * 一个 key 正在进行的执行
+     */
+    private static final class Flight {
+        private final CompletableFuture<Object> future = new CompletableFuture<>();
+        /**
+         * 等待的线程最晚等待到的时间，System.nanoTime()；开始执行方法时更新
+         */
+        private volatile long deadline;
+    }
+
+    /**
+     * 执行方法获取结果
+     */
+    @FunctionalInterface
+    public interface Loader {
+        /**
+         * 执行方法
+         *
+         * @return 方法的执行结果
+         * @throws Throwable 方法执行时抛出的异常
+         */
+        Object load() throws Throwable;
+    }
+}
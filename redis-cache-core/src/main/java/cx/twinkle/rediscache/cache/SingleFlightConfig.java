@@ -0,0 +1,75 @@
+package cx.twinkle.rediscache.cache;
+
+import java.time.Duration;
+
+/**
+ * 缓存击穿保护（single-flight）的配置
+ *
+ * @author twinkle
+ * @version 2026/10/18 19:40
+ */
+public class SingleFlightConfig {
+    /**
+     * 是否开启，默认关闭；开启后同一个 JVM 中，同一个 key 同时只有一个线程执行方法，其他线程等待它的结果。
+     * 这些线程拿到的是同一个结果对象，方法的调用方不能修改结果，否则会互相影响
+     */
+    private boolean enabled = false;
+    /**
+     * 是否开启分布式模式，默认关闭：通过 Redis 中的租约（SET NX PX），整个集群同一个 key 同时只有一个节点执行方法，
+     * 其他节点轮询 Redis 等待结果
+     */
+    private boolean distributed = false;
+    /**
+     * 等待其他线程、节点执行结果的最长时间，超时后自己执行方法；分布式模式下，同一个 JVM 中等待的线程
+     * 从执行的线程获取到租约（或者等待租约超时）开始计时，最多等待两倍的 waitTimeout
+     */
+    private Duration waitTimeout = Duration.ofSeconds(3L);
+    /**
+     * 分布式租约的有效期；方法执行期间每隔三分之一的有效期续期一次，持有租约的节点宕机时，租约到期后其他节点可以重新获取
+     */
+    private Duration leaseTime = Duration.ofSeconds(10L);
+    /**
+     * 分布式模式下，轮询 Redis 的间隔
+     */
+    private Duration pollInterval = Duration.ofMillis(50L);
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public boolean isDistributed() {
+        return distributed;
+    }
+
+    public void setDistributed(boolean distributed) {
+        this.distributed = distributed;
+    }
+
+    public Duration getWaitTimeout() {
+        return waitTimeout;
+    }
+
+    public void setWaitTimeout(Duration waitTimeout) {
+        this.waitTimeout = waitTimeout;
+    }
+
+    public Duration getLeaseTime() {
+        return leaseTime;
+    }
+
+    public void setLeaseTime(Duration leaseTime) {
+        this.leaseTime = leaseTime;
+    }
+
+    public Duration getPollInterval() {
+        return pollInterval;
+    }
+
+    public void setPollInterval(Duration pollInterval) {
+        this.pollInterval = pollInterval;
+    }
+}
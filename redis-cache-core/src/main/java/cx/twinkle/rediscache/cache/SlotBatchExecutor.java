@@ -0,0 +1,216 @@
+package cx.twinkle.rediscache.cache;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.connection.RedisClusterConnection;
+import org.springframework.data.redis.connection.RedisClusterNode;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.ReturnType;
+import org.springframework.data.redis.connection.jedis.JedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import redis.clients.jedis.Jedis;
+import redis.clients.jedis.JedisCluster;
+import redis.clients.jedis.JedisPool;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.function.BiFunction;
+import java.util.function.ToIntFunction;
+
+/**
+ * 按照 slot 分组的批量执行器
+ * <p>
+ * 单机模式下所有的命令通过一个 pipeline 执行；Cluster 模式下按照 slot 所在的节点分组，每个节点的命令通过一个 pipeline 执行，
+ * 不同节点之间并行执行。Spring Data Redis 的 Cluster 连接不支持 pipeline，这里直接从 Jedis 的连接池中获取节点的连接；
+ * 某个节点的 pipeline 执行失败时（例如槽位迁移导致的 MOVED），这个节点的命令退化为逐条通过 Cluster 连接执行，由客户端处理重定向，
+ * 因此命令必须是幂等的
+ *
+ * @author twinkle
+ * @version 2026/10/18 23:55
+ */
+public class SlotBatchExecutor {
+    private static final Logger log = LoggerFactory.getLogger(SlotBatchExecutor.class);
+
+    private final RedisTemplate<byte[], byte[]> binaryTemplate;
+    private final boolean cluster;
+    /**
+     * 并行执行各个节点的 pipeline的线程池；默认在当前线程中依次执行
+     */
+    private Executor executor = Runnable::run;
+    /**
+     * 每个 slot 所在的节点（host:port）；为空时在下一次执行时重新加载
+     */
+    private volatile String[] slotOwners;
+
+    public SlotBatchExecutor(RedisTemplate<byte[], byte[]> binaryTemplate, boolean cluster) {
+        this.binaryTemplate = binaryTemplate;
+        this.cluster = cluster;
+    }
+
+    /**
+     * 批量执行命令，每个元素对应一条命令
+     *
+     * @param items         需要执行命令的元素
+     * @param slotFunction  元素的命令访问的 slot；单机模式下忽略
+     * @param command       在连接上执行元素的命令，并返回连接方法的返回值（pipeline 中为 null）
+     * @return 与 items 一一对应的命令结果
+     */
+    public <T> List<Object> executePipelined(List<T> items, ToIntFunction<T> slotFunction,
+                                             BiFunction<RedisConnection, T, Object> command) {
+        if (items.isEmpty()) {
+            return Collections.emptyList();
+        }
+        if (!cluster) {
+            return this.executeInPipeline(items, command);
+        }
+        RedisClusterConnection connection = binaryTemplate.getRequiredConnectionFactory().getClusterConnection();
+        try {
+            return this.executeOnNodes(connection, items, slotFunction, command);
+        } finally {
+            connection.close();
+        }
+    }
+
+    /**
+     * 通过连接工厂的一个 pipeline 执行所有的命令
+     */
+    protected <T> List<Object> executeInPipeline(List<T> items, BiFunction<RedisConnection, T, Object> command) {
+        return binaryTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            for (T item : items) {
+                command.apply(connection, item);
+            }
+            return null;
+        });
+    }
+
+    /**
+     * 在连接上执行 EVALSHA；Spring Data Redis 的 Jedis 连接不支持在 pipeline 中执行脚本，Jedis 的 pipeline 中通过原始命令执行
+     *
+     * @return 脚本的结果，pipeline 中为 null
+     */
+    public static Object evalSha(RedisConnection connection, String sha, ReturnType returnType, int numKeys,
+                                 byte[]... keysAndArgs) {
+        // RedisTemplate 传入的连接可能是代理，通过原生连接判断是否为 Jedis
+        if (!connection.isPipelined() || !(connection.getNativeConnection() instanceof Jedis)) {
+            return connection.evalSha(sha, returnType, numKeys, keysAndArgs);
+        }
+        byte[][] args = new byte[keysAndArgs.length + 2][];
+        args[0] = sha.getBytes(StandardCharsets.UTF_8);
+        args[1] = String.valueOf(numKeys).getBytes(StandardCharsets.UTF_8);
+        System.arraycopy(keysAndArgs, 0, args, 2, keysAndArgs.length);
+        return connection.execute("EVALSHA", args);
+    }
+
+    private <T> List<Object> executeOnNodes(RedisClusterConnection connection, List<T> items, ToIntFunction<T> slotFunction,
+                                            BiFunction<RedisConnection, T, Object> command) {
+        String[] owners = this.getSlotOwners(connection);
+        Map<String, List<Integer>> indexesOfNode = new LinkedHashMap<>();
+        for (int i = 0; i < items.size(); i++) {
+            String node = owners[slotFunction.applyAsInt(items.get(i))];
+            indexesOfNode.computeIfAbsent(node, k -> new ArrayList<>()).add(i);
+        }
+        Object[] results = new Object[items.size()];
+        List<CompletableFuture<Void>> futures = new ArrayList<>(indexesOfNode.size());
+        Map.Entry<String, List<Integer>> local = null;
+        for (Map.Entry<String, List<Integer>> entry : indexesOfNode.entrySet()) {
+            if (local == null) {
+                // 第一个节点在当前线程中执行，少一次线程切换
+                local = entry;
+                continue;
+            }
+            futures.add(CompletableFuture.runAsync(() -> this.executeOnNode(connection, entry.getKey(), entry.getValue(),
+                    items, command, results), executor));
+        }
+        this.executeOnNode(connection, local.getKey(), local.getValue(), items, command, results);
+        try {
+            CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : e;
+        }
+        return Arrays.asList(results);
+    }
+
+    private <T> void executeOnNode(RedisClusterConnection connection, String node, List<Integer> indexes, List<T> items,
+                                   BiFunction<RedisConnection, T, Object> command, Object[] results) {
+        List<T> nodeItems = new ArrayList<>(indexes.size());
+        for (Integer index : indexes) {
+            nodeItems.add(items.get(index));
+        }
+        List<Object> nodeResults = null;
+        try {
+            nodeResults = this.pipelineOnNode(connection, node, nodeItems, command);
+        } catch (RuntimeException e) {
+            log.info("节点 {} 的 pipeline 执行失败！逐条重新执行。原因：{}", node, e.getMessage());
+            slotOwners = null;
+        }
+        for (int i = 0; i < indexes.size(); i++) {
+            results[indexes.get(i)] = nodeResults != null ? nodeResults.get(i) : command.apply(connection, nodeItems.get(i));
+        }
+    }
+
+    /**
+     * 通过一个 pipeline，在节点上执行一组命令
+     *
+     * @param connection Cluster 连接
+     * @param node       节点（host:port），slot 没有分配节点时为空
+     * @param nodeItems  需要在节点上执行命令的元素
+     * @param command    在连接上执行元素的命令
+     * @return 与 nodeItems 一一对应的命令结果；不支持 pipeline 时返回 null，由 Cluster 连接逐条执行
+     */
+    protected <T> List<Object> pipelineOnNode(RedisClusterConnection connection, String node, List<T> nodeItems,
+                                              BiFunction<RedisConnection, T, Object> command) {
+        Object nativeConnection = connection.getNativeConnection();
+        if (node == null || !(nativeConnection instanceof JedisCluster)) {
+            return null;
+        }
+        JedisPool pool = ((JedisCluster) nativeConnection).getClusterNodes().get(node);
+        if (pool == null) {
+            return null;
+        }
+        // 指定连接池后，关闭连接时会把 Jedis 归还到节点的连接池中
+        JedisConnection nodeConnection = new JedisConnection(pool.getResource(), pool, 0);
+        try {
+            nodeConnection.openPipeline();
+            for (T item : nodeItems) {
+                command.apply(nodeConnection, item);
+            }
+            return nodeConnection.closePipeline();
+        } finally {
+            nodeConnection.close();
+        }
+    }
+
+    private String[] getSlotOwners(RedisClusterConnection connection) {
+        String[] owners = slotOwners;
+        if (owners != null) {
+            return owners;
+        }
+        owners = new String[CacheKeyLayout.SLOT_COUNT];
+        for (RedisClusterNode node : connection.clusterGetNodes()) {
+            if (node.isMaster()) {
+                for (int slot : node.getSlotRange().getSlotsArray()) {
+                    owners[slot] = node.asString();
+                }
+            }
+        }
+        slotOwners = owners;
+        return owners;
+    }
+
+    public boolean isCluster() {
+        return cluster;
+    }
+
+    public void setExecutor(Executor executor) {
+        this.executor = executor;
+    }
+}
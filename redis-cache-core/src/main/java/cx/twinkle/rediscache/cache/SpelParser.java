@@ -1,38 +1,141 @@
 package cx.twinkle.rediscache.cache;
 
 import org.springframework.beans.factory.BeanFactory;
+import org.springframework.beans.factory.config.ConfigurableBeanFactory;
 import org.springframework.context.expression.BeanFactoryResolver;
+import org.springframework.context.expression.MethodBasedEvaluationContext;
+import org.springframework.core.DefaultParameterNameDiscoverer;
+import org.springframework.core.ParameterNameDiscoverer;
 import org.springframework.expression.Expression;
 import org.springframework.expression.ParserContext;
+import org.springframework.expression.common.LiteralExpression;
+import org.springframework.expression.spel.SpelCompilerMode;
+import org.springframework.expression.spel.SpelParserConfiguration;
 import org.springframework.expression.spel.standard.SpelExpressionParser;
-import org.springframework.expression.spel.support.StandardEvaluationContext;
 
 import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
+ * SPEL表达式解析，表达式使用模板格式：#{...}，不包含 #{} 的表达式按照普通字符串处理
+ * <p>
+ * 解析后的表达式按照 方法 + 表达式 缓存，并且开启了 SPEL 编译（MIXED 模式），多次执行后会编译为字节码；
+ * 方法参数 p0、a0、参数名 等变量在第一次使用时才会绑定
+ *
  * @author twinkle
  * @version 2019/12/28 11:25
  */
 public class SpelParser {
     private SpelExpressionParser spelExpressionParser;
-    private BeanFactory beanFactory;
+    private BeanFactoryResolver beanFactoryResolver;
+    private ParameterNameDiscoverer parameterNameDiscoverer = new DefaultParameterNameDiscoverer();
+    /**
+     * 解析后的表达式
+     */
+    private final Map<ExpressionKey, Expression> expressions = new ConcurrentHashMap<>();
 
     public SpelParser(BeanFactory beanFactory) {
-        this.beanFactory = beanFactory;
-        this.spelExpressionParser = new SpelExpressionParser();
+        this(beanFactory, SpelCompilerMode.MIXED);
+    }
+
+    public SpelParser(BeanFactory beanFactory, SpelCompilerMode compilerMode) {
+        this.beanFactoryResolver = new BeanFactoryResolver(beanFactory);
+        ClassLoader classLoader = beanFactory instanceof ConfigurableBeanFactory
+                ? ((ConfigurableBeanFactory) beanFactory).getBeanClassLoader()
+                : SpelParser.class.getClassLoader();
+        this.spelExpressionParser = new SpelExpressionParser(new SpelParserConfiguration(compilerMode, classLoader));
     }
 
     public <T> T parse(String expression, Method method, Class<T> cls, Object... args) {
-        StandardEvaluationContext context = new StandardEvaluationContext();
-        context.setBeanResolver(new BeanFactoryResolver(beanFactory));
+        return this.getValue(this.getExpression(method, expression), method, cls, args);
+    }
+
+    /**
+     * 获取解析后的表达式，同一个方法上的同一个表达式只会解析一次
+     *
+     * @param method     表达式所在的方法
+     * @param expression 表达式字符串
+     * @return 解析后的表达式
+     */
+    public Expression getExpression(Method method, String expression) {
+        ExpressionKey key = new ExpressionKey(method, expression);
+        Expression exp = expressions.get(key);
+        if (exp == null) {
+            exp = expressions.computeIfAbsent(key,
+                    k -> spelExpressionParser.parseExpression(expression, ParserContext.TEMPLATE_EXPRESSION));
+        }
+        return exp;
+    }
+
+    /**
+     * 判断表达式是否只是一个普通字符串，普通字符串不需要创建上下文就可以直接使用
+     *
+     * @param expression 解析后的表达式
+     * @return true OR false
+     */
+    public static boolean isLiteral(Expression expression) {
+        return expression instanceof LiteralExpression;
+    }
+
+    public <T> T getValue(Expression expression, Method method, Class<T> cls, Object... args) {
+        if (isLiteral(expression)) {
+            return expression.getValue(cls);
+        }
+        MethodBasedEvaluationContext context = new MethodBasedEvaluationContext(null, method, args, parameterNameDiscoverer);
+        context.setBeanResolver(beanFactoryResolver);
         context.setVariable("method", method);
         context.setVariable("args", args);
-        if (args != null && args.length > 0) {
-            for (int i = 0, len = args.length; i < len; i++) {
-                context.setVariable("p" + i, args[i]);
+        return expression.getValue(context, cls);
+    }
+
+    /**
+     * 执行表达式，并额外绑定方法的结果 result，如：#{#result.id}
+     *
+     * @param expression 解析后的表达式
+     * @param method     表达式所在的方法
+     * @param cls        结果类型
+     * @param result     方法的结果，或者结果中的单个元素
+     * @param args       方法的参数
+     * @return 表达式的结果
+     */
+    public <T> T getResultValue(Expression expression, Method method, Class<T> cls, Object result, Object[] args) {
+        if (isLiteral(expression)) {
+            return expression.getValue(cls);
+        }
+        MethodBasedEvaluationContext context = new MethodBasedEvaluationContext(null, method, args, parameterNameDiscoverer);
+        context.setBeanResolver(beanFactoryResolver);
+        context.setVariable("method", method);
+        context.setVariable("args", args);
+        context.setVariable("result", result);
+        return expression.getValue(context, cls);
+    }
+
+    private static final class ExpressionKey {
+        private final Method method;
+        private final String expression;
+
+        private ExpressionKey(Method method, String expression) {
+            this.method = method;
+            this.expression = expression;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof ExpressionKey)) {
+                return false;
             }
+            ExpressionKey that = (ExpressionKey) o;
+            return method.equals(that.method) && expression.equals(that.expression);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(method, expression);
         }
-        Expression exp = spelExpressionParser.parseExpression(expression, ParserContext.TEMPLATE_EXPRESSION);
-        return exp.getValue(context, cls);
     }
 }
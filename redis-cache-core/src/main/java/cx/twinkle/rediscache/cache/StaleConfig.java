@@ -0,0 +1,64 @@
+package cx.twinkle.rediscache.cache;
+
+import java.time.Duration;
+
+/**
+ * 过期数据（stale）的使用配置
+ * <p>
+ * 开启后，缓存的过期时间作为软过期时间，数据在 Redis 中实际保留到 软过期时间 + grace（硬过期时间）；
+ * 两者之间的数据为过期数据，可以在后台刷新期间、或者方法执行失败时继续使用
+ *
+ * @author twinkle
+ * @version 2026/10/18 20:50
+ */
+public class StaleConfig {
+    /**
+     * 是否开启，默认关闭；只对设置了过期时间的缓存生效
+     */
+    private boolean enabled = false;
+    /**
+     * 软过期之后，数据继续保留的时间
+     */
+    private Duration grace = Duration.ofMinutes(5L);
+    /**
+     * 读取到过期数据时，是否直接返回过期数据，并在后台重新执行方法（stale-while-revalidate），默认开启；
+     * 关闭后同步执行方法
+     */
+    private boolean staleWhileRevalidate = true;
+    /**
+     * 同步执行方法抛出异常（包括调用下游超时）时，是否返回过期数据（stale-if-error），默认开启
+     */
+    private boolean staleIfError = true;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public Duration getGrace() {
+        return grace;
+    }
+
+    public void setGrace(Duration grace) {
+        this.grace = grace;
+    }
+
+    public boolean isStaleWhileRevalidate() {
+        return staleWhileRevalidate;
+    }
+
+    public void setStaleWhileRevalidate(boolean staleWhileRevalidate) {
+        this.staleWhileRevalidate = staleWhileRevalidate;
+    }
+
+    public boolean isStaleIfError() {
+        return staleIfError;
+    }
+
+    public void setStaleIfError(boolean staleIfError) {
+        this.staleIfError = staleIfError;
+    }
+}
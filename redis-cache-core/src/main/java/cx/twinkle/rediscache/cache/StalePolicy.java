@@ -0,0 +1,98 @@
+package cx.twinkle.rediscache.cache;
+
+import cx.twinkle.rediscache.dto.CacheEntry;
+import cx.twinkle.rediscache.dto.MethodCacheInfo;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * 过期数据（stale）的使用策略：判断数据是否已经软过期，以及计算写入 Redis 时的硬过期时间
+ *
+ * @author twinkle
+ * @version 2026/10/18 20:50
+ */
+public class StalePolicy {
+    /**
+     * 默认的配置
+     */
+    private StaleConfig defaultConfig = new StaleConfig();
+    /**
+     * 按缓存名称单独指定的配置
+     */
+    private Map<String, StaleConfig> cacheConfigs = Collections.emptyMap();
+
+    /**
+     * 判断该缓存是否开启了过期数据的使用
+     *
+     * @param cacheName 缓存名称
+     * @return true OR false
+     */
+    public boolean isEnabled(String cacheName) {
+        return this.getConfig(cacheName).isEnabled();
+    }
+
+    /**
+     * 判断数据是否已经软过期；没有记录元数据、没有设置过期时间的数据不会过期
+     *
+     * @param entry   缓存数据
+     * @param softTtl 软过期时间，即缓存的过期时间
+     * @return true OR false
+     */
+    public boolean isStale(CacheEntry entry, Duration softTtl) {
+        return this.isStale(entry, softTtl, System.currentTimeMillis());
+    }
+
+    /**
+     * 判断数据在指定时间是否已经软过期
+     *
+     * @param entry   缓存数据
+     * @param softTtl 软过期时间，即缓存的过期时间
+     * @param now     当前时间，毫秒时间戳
+     * @return true OR false
+     */
+    boolean isStale(CacheEntry entry, Duration softTtl, long now) {
+        if (!entry.hasMetadata() || softTtl == null || softTtl.isZero() || softTtl.isNegative()) {
+            return false;
+        }
+        return now - entry.getWriteTime() >= softTtl.toMillis();
+    }
+
+    /**
+     * 写入 Redis 时使用硬过期时间：软过期时间 + grace；没有设置过期时间的缓存不变
+     *
+     * @param cacheInfo 方法的缓存信息
+     * @return 过期时间为硬过期时间的缓存信息
+     */
+    public MethodCacheInfo withHardTtl(MethodCacheInfo cacheInfo) {
+        Duration softTtl = cacheInfo.getExpireTime();
+        if (softTtl == null || softTtl.isZero() || softTtl.isNegative()) {
+            return cacheInfo;
+        }
+        Duration hardTtl = softTtl.plus(this.getConfig(cacheInfo.getCacheName()).getGrace());
+        return new MethodCacheInfo(cacheInfo.getMethodName(), cacheInfo.getCacheName(), cacheInfo.getCacheKey(), hardTtl,
+                cacheInfo.getCodec());
+    }
+
+    public StaleConfig getConfig(String cacheName) {
+        StaleConfig config = cacheName == null ? null : cacheConfigs.get(cacheName);
+        return config == null ? defaultConfig : config;
+    }
+
+    public StaleConfig getDefaultConfig() {
+        return defaultConfig;
+    }
+
+    public void setDefaultConfig(StaleConfig defaultConfig) {
+        this.defaultConfig = defaultConfig;
+    }
+
+    public Map<String, StaleConfig> getCacheConfigs() {
+        return cacheConfigs;
+    }
+
+    public void setCacheConfigs(Map<String, StaleConfig> cacheConfigs) {
+        this.cacheConfigs = cacheConfigs;
+    }
+}
@@ -0,0 +1,134 @@
+package cx.twinkle.rediscache.cache;
+
+import java.time.Duration;
+
+/**
+ * 异步写入队列（write-behind）的配置
+ *
+ * @author twinkle
+ * @version 2026/10/18 22:10
+ */
+public class WriteBehindConfig {
+    /**
+     * 队列已满时，丢弃新写入的数据
+     */
+    public static final String OVERFLOW_DISCARD = "discard";
+    /**
+     * 队列已满时，丢弃最早写入的数据，为新数据腾出位置
+     */
+    public static final String OVERFLOW_DISCARD_OLDEST = "discard-oldest";
+    /**
+     * 队列已满时，由调用方线程同步写入 Redis
+     */
+    public static final String OVERFLOW_CALLER_RUNS = "caller-runs";
+
+    /**
+     * 是否开启，默认关闭，通过线程池逐条异步写入；开启后同一个 key 的多次写入会合并，
+     * 队列已满时可能按照 overflowPolicy 丢弃数据，进程崩溃时队列中还没有写入的数据会丢失
+     */
+    private boolean enabled = false;
+    /**
+     * 队列的容量，同一个 key 的多次写入只占用一个位置
+     */
+    private int capacity = 10000;
+    /**
+     * 每一批写入的最大数量，一批数据通过一次 pipeline 写入 Redis
+     */
+    private int batchSize = 200;
+    /**
+     * 凑齐一批数据的最长等待时间；为 0 时有数据就立即写入
+     */
+    private Duration flushInterval = Duration.ofMillis(5L);
+    /**
+     * 队列已满时，调用方等待队列空出位置的最长时间；超时后按照 overflowPolicy 处理
+     */
+    private Duration offerTimeout = Duration.ZERO;
+    /**
+     * 队列已满时的处理策略：discard、discard-oldest、caller-runs
+     */
+    private String overflowPolicy = OVERFLOW_DISCARD;
+    /**
+     * 一批数据写入失败时的重试次数；重试之后仍然失败的数据被丢弃，下一次读取时重新执行方法
+     */
+    private int maxRetries = 2;
+    /**
+     * 重试的间隔，第 n 次重试等待 n 倍的间隔
+     */
+    private Duration retryBackoff = Duration.ofMillis(100L);
+    /**
+     * 应用关闭时，等待队列中剩余数据写入完成的最长时间
+     */
+    private Duration shutdownTimeout = Duration.ofSeconds(10L);
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public void setCapacity(int capacity) {
+        this.capacity = capacity;
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    public Duration getFlushInterval() {
+        return flushInterval;
+    }
+
+    public void setFlushInterval(Duration flushInterval) {
+        this.flushInterval = flushInterval;
+    }
+
+    public Duration getOfferTimeout() {
+        return offerTimeout;
+    }
+
+    public void setOfferTimeout(Duration offerTimeout) {
+        this.offerTimeout = offerTimeout;
+    }
+
+    public String getOverflowPolicy() {
+        return overflowPolicy;
+    }
+
+    public void setOverflowPolicy(String overflowPolicy) {
+        this.overflowPolicy = overflowPolicy;
+    }
+
+    public int getMaxRetries() {
+        return maxRetries;
+    }
+
+    public void setMaxRetries(int maxRetries) {
+        this.maxRetries = maxRetries;
+    }
+
+    public Duration getRetryBackoff() {
+        return retryBackoff;
+    }
+
+    public void setRetryBackoff(Duration retryBackoff) {
+        this.retryBackoff = retryBackoff;
+    }
+
+    public Duration getShutdownTimeout() {
+        return shutdownTimeout;
+    }
+
+    public void setShutdownTimeout(Duration shutdownTimeout) {
+        this.shutdownTimeout = shutdownTimeout;
+    }
+}
@@ -0,0 +1,355 @@
+package cx.twinkle.rediscache.cache;
+
+import cx.twinkle.rediscache.dto.CacheWrite;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Predicate;
+
+/**
+ * 有界的异步写入队列（write-behind）
+ * <p>
+ * 方法的执行结果先放入队列，由后台线程批量取出，通过一次 pipeline 写入 Redis。队列按照缓存key合并，
+ * 同一个 key 在写入之前的多次写入只保留最新的一次；队列已满时，调用方最多等待 offerTimeout，之后按照配置丢弃数据
+ * 或者由调用方同步写入，保证 Redis 变慢时内存占用是有上限的
+ * <p>
+ * 删除缓存时，除了删除队列中还没有写入的数据，还会等待正在写入、包含这些 key 的批次完成，保证删除发生在写入之后。
+ * 写入失败时按照 maxRetries 重试，仍然失败的数据被丢弃（计入失败条数），下一次读取时重新执行方法
+ *
+ * @author twinkle
+ * @version 2026/10/18 22:10
+ */
+public class WriteBehindQueue {
+    private static final Logger log = LoggerFactory.getLogger(WriteBehindQueue.class);
+
+    private RedisCacheService cacheService;
+    private WriteBehindConfig config = new WriteBehindConfig();
+    private final WriteBehindStatistics statistics = new WriteBehindStatistics();
+    /**
+     * 等待写入的数据，按照缓存key合并，保持放入的顺序
+     */
+    private final LinkedHashMap<String, CacheWrite> pending = new LinkedHashMap<>();
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notEmpty = lock.newCondition();
+    private final Condition notFull = lock.newCondition();
+    /**
+     * 正在写入 Redis 的批次，包括后台线程和调用方线程同步写入的批次
+     */
+    private final Set<List<CacheWrite>> inFlight = Collections.newSetFromMap(new IdentityHashMap<>());
+    private final Condition flushed = lock.newCondition();
+    private volatile boolean running;
+    private Thread flusher;
+
+    public WriteBehindQueue(RedisCacheService cacheService) {
+        this.cacheService = cacheService;
+    }
+
+    /**
+     * 启动后台写入线程
+     */
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        flusher = new Thread(this::runFlusher, "redis-cache-write-behind");
+        flusher.setDaemon(true);
+        flusher.start();
+        log.info("缓存异步写入队列已启动！容量：{}，每批数量：{}", config.getCapacity(), config.getBatchSize());
+    }
+
+    /**
+     * 将数据放入队列；队列中已经有同一个 key 的数据时，替换为最新的数据
+     *
+     * @param write 待写入的缓存数据
+     */
+    public void offer(CacheWrite write) {
+        if (!running) {
+            // 没有启动、或者已经关闭时，直接同步写入
+            this.flush(Collections.singletonList(write));
+            return;
+        }
+        String key = write.getCacheInfo().getCacheKey();
+        lock.lock();
+        try {
+            if (pending.containsKey(key)) {
+                pending.put(key, write);
+                statistics.recordCoalesce();
+                return;
+            }
+            if (pending.size() >= config.getCapacity() && !this.awaitNotFull()) {
+                switch (config.getOverflowPolicy()) {
+                    case WriteBehindConfig.OVERFLOW_CALLER_RUNS:
+                        break;
+                    case WriteBehindConfig.OVERFLOW_DISCARD_OLDEST:
+                        Iterator<CacheWrite> iterator = pending.values().iterator();
+                        CacheWrite oldest = iterator.next();
+                        iterator.remove();
+                        statistics.recordDrop();
+                        log.debug("缓存异步写入队列已满！丢弃最早的数据，cacheKey = {}", oldest.getCacheInfo().getCacheKey());
+                        this.enqueue(key, write);
+                        return;
+                    default:
+                        statistics.recordDrop();
+                        log.debug("缓存异步写入队列已满！丢弃数据，cacheKey = {}", key);
+                        return;
+                }
+            } else {
+                this.enqueue(key, write);
+                return;
+            }
+        } finally {
+            lock.unlock();
+        }
+        // 队列已满，由调用方线程同步写入
+        statistics.recordCallerRuns();
+        this.flush(Collections.singletonList(write));
+    }
+
+    private void enqueue(String key, CacheWrite write) {
+        if (pending.put(key, write) == null) {
+            statistics.recordEnqueue();
+        } else {
+            statistics.recordCoalesce();
+        }
+        notEmpty.signal();
+    }
+
+    /**
+     * 等待队列空出位置，最多等待 offerTimeout；调用时必须持有锁
+     */
+    private boolean awaitNotFull() {
+        long nanos = config.getOfferTimeout().toNanos();
+        try {
+            while (pending.size() >= config.getCapacity()) {
+                if (nanos <= 0L) {
+                    return false;
+                }
+                nanos = notFull.awaitNanos(nanos);
+            }
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    /**
+     * 删除队列中还没有写入的数据，并等待正在写入这些 key 的批次完成；删除缓存之前调用，防止删除之后又写入旧数据
+     *
+     * @param keys 缓存key
+     */
+    public void cancel(String... keys) {
+        Set<String> keySet = new HashSet<>(Arrays.asList(keys));
+        this.cancel(write -> keySet.contains(write.getCacheInfo().getCacheKey()));
+    }
+
+    /**
+     * 删除队列中该缓存下所有还没有写入的数据，并等待正在写入该缓存的批次完成
+     *
+     * @param cacheName 缓存名称
+     */
+    public void cancelCache(String cacheName) {
+        this.cancel(write -> cacheName.equals(write.getCacheInfo().getCacheName()));
+    }
+
+    private void cancel(Predicate<CacheWrite> filter) {
+        lock.lock();
+        try {
+            pending.values().removeIf(filter);
+            notFull.signalAll();
+            while (inFlight.stream().anyMatch(batch -> batch.stream().anyMatch(filter))) {
+                flushed.await();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void runFlusher() {
+        int batchSize = Math.max(1, config.getBatchSize());
+        List<CacheWrite> batch = new ArrayList<>(batchSize);
+        while (true) {
+            lock.lock();
+            try {
+                while (pending.isEmpty()) {
+                    if (!running) {
+                        return;
+                    }
+                    notEmpty.await();
+                }
+                // 数据不足一批时，最多等待 flushInterval 凑齐一批
+                long lingerNanos = config.getFlushInterval().toNanos();
+                while (running && pending.size() < batchSize && lingerNanos > 0L) {
+                    lingerNanos = notEmpty.awaitNanos(lingerNanos);
+                }
+                Iterator<Map.Entry<String, CacheWrite>> iterator = pending.entrySet().iterator();
+                while (iterator.hasNext() && batch.size() < batchSize) {
+                    batch.add(iterator.next().getValue());
+                    iterator.remove();
+                }
+                // 取出的同时登记为正在写入，删除缓存时不会漏掉已经离开队列、还没有写入的数据
+                if (!batch.isEmpty()) {
+                    inFlight.add(batch);
+                }
+                notFull.signalAll();
+            } catch (InterruptedException e) {
+                // 被中断时不再等待，写完队列中剩余的数据后退出
+                running = false;
+            } finally {
+                lock.unlock();
+            }
+            if (!batch.isEmpty()) {
+                this.flush(batch);
+                batch.clear();
+            }
+        }
+    }
+
+    /**
+     * 写入一批数据，失败时按照 maxRetries 重试；写入期间这一批数据登记为正在写入，删除缓存时会等待写入完成，
+     * 写入完成后取消登记
+     */
+    private void flush(List<CacheWrite> batch) {
+        lock.lock();
+        try {
+            inFlight.add(batch);
+        } finally {
+            lock.unlock();
+        }
+        long start = System.nanoTime();
+        boolean success = false;
+        try {
+            for (int attempt = 0; ; attempt++) {
+                try {
+                    cacheService.insertEntries(batch);
+                    success = true;
+                    return;
+                } catch (Exception e) {
+                    if (attempt >= config.getMaxRetries() || !this.backoff(attempt + 1)) {
+                        log.error("缓存批量写入Redis失败！丢弃 {} 条数据，第一条 cacheKey = {}", batch.size(),
+                                batch.get(0).getCacheInfo().getCacheKey(), e);
+                        return;
+                    }
+                    statistics.recordRetry();
+                    log.warn("缓存批量写入Redis失败！第 {} 次重试，共 {} 条数据。原因：{}", attempt + 1, batch.size(), e.toString());
+                }
+            }
+        } finally {
+            statistics.recordFlush(batch.size(), success, System.nanoTime() - start);
+            lock.lock();
+            try {
+                inFlight.remove(batch);
+                flushed.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * 重试之前等待
+     *
+     * @return 被中断时返回 false，不再重试
+     */
+    private boolean backoff(int retry) {
+        try {
+            TimeUnit.NANOSECONDS.sleep(config.getRetryBackoff().toNanos() * retry);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    /**
+     * 停止接收新数据，并等待队列中剩余的数据写入完成；之后放入的数据直接同步写入
+     */
+    public void shutdown() {
+        Thread thread;
+        synchronized (this) {
+            if (!running) {
+                return;
+            }
+            running = false;
+            thread = flusher;
+        }
+        lock.lock();
+        try {
+            notEmpty.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        try {
+            thread.join(config.getShutdownTimeout().toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (!thread.isAlive()) {
+            // 关闭期间放入队列的数据，由当前线程写入
+            List<CacheWrite> rest;
+            lock.lock();
+            try {
+                rest = new ArrayList<>(pending.values());
+                pending.clear();
+                if (!rest.isEmpty()) {
+                    inFlight.add(rest);
+                }
+            } finally {
+                lock.unlock();
+            }
+            if (!rest.isEmpty()) {
+                this.flush(rest);
+            }
+        }
+        int remaining = this.getQueueSize();
+        if (thread.isAlive() || remaining > 0) {
+            log.warn("缓存异步写入队列关闭超时！还有 {} 条数据没有写入。", remaining);
+        } else {
+            log.info("缓存异步写入队列已关闭！统计数据：{}", statistics);
+        }
+    }
+
+    /**
+     * 当前队列中等待写入的数据条数
+     */
+    public int getQueueSize() {
+        lock.lock();
+        try {
+            return pending.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public boolean isRunning() {
+        return running;
+    }
+
+    public WriteBehindStatistics getStatistics() {
+        return statistics;
+    }
+
+    public WriteBehindConfig getConfig() {
+        return config;
+    }
+
+    public void setConfig(WriteBehindConfig config) {
+        this.config = config;
+    }
+}
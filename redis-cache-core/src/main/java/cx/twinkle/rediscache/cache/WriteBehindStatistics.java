@@ -0,0 +1,140 @@
+package cx.twinkle.rediscache.cache;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 异步写入队列的统计数据
+ *
+ * @author twinkle
+ * @version 2026/10/18 22:10
+ */
+public class WriteBehindStatistics {
+    /**
+     * 放入队列的次数
+     */
+    private final LongAdder enqueueCount = new LongAdder();
+    /**
+     * 与队列中同一个 key 的数据合并的次数
+     */
+    private final LongAdder coalesceCount = new LongAdder();
+    /**
+     * 因为队列已满而丢弃的次数
+     */
+    private final LongAdder dropCount = new LongAdder();
+    /**
+     * 队列已满时，由调用方同步写入的次数
+     */
+    private final LongAdder callerRunsCount = new LongAdder();
+    /**
+     * 写入 Redis 成功的数据条数
+     */
+    private final LongAdder writeCount = new LongAdder();
+    /**
+     * 写入 Redis 失败的数据条数
+     */
+    private final LongAdder failCount = new LongAdder();
+    /**
+     * 批量写入失败后重试的次数
+     */
+    private final LongAdder retryCount = new LongAdder();
+    /**
+     * 批量写入的次数
+     */
+    private final LongAdder flushCount = new LongAdder();
+    /**
+     * 批量写入总耗时，单位：纳秒
+     */
+    private final LongAdder flushNanos = new LongAdder();
+    /**
+     * 单次批量写入的最大耗时，单位：纳秒
+     */
+    private final AtomicLong maxFlushNanos = new AtomicLong();
+
+    void recordEnqueue() {
+        enqueueCount.increment();
+    }
+
+    void recordCoalesce() {
+        coalesceCount.increment();
+    }
+
+    void recordDrop() {
+        dropCount.increment();
+    }
+
+    void recordCallerRuns() {
+        callerRunsCount.increment();
+    }
+
+    void recordRetry() {
+        retryCount.increment();
+    }
+
+    void recordFlush(int size, boolean success, long nanos) {
+        flushCount.increment();
+        flushNanos.add(nanos);
+        maxFlushNanos.accumulateAndGet(nanos, Math::max);
+        if (success) {
+            writeCount.add(size);
+        } else {
+            failCount.add(size);
+        }
+    }
+
+    public long getEnqueueCount() {
+        return enqueueCount.sum();
+    }
+
+    public long getCoalesceCount() {
+        return coalesceCount.sum();
+    }
+
+    public long getDropCount() {
+        return dropCount.sum();
+    }
+
+    public long getCallerRunsCount() {
+        return callerRunsCount.sum();
+    }
+
+    public long getWriteCount() {
+        return writeCount.sum();
+    }
+
+    public long getFailCount() {
+        return failCount.sum();
+    }
+
+    public long getRetryCount() {
+        return retryCount.sum();
+    }
+
+    public long getFlushCount() {
+        return flushCount.sum();
+    }
+
+    public long getFlushNanos() {
+        return flushNanos.sum();
+    }
+
+    public long getMaxFlushNanos() {
+        return maxFlushNanos.get();
+    }
+
+    @Override
+    public String toString() {
+        long flush = this.getFlushCount();
+        return "{入队次数：" + this.getEnqueueCount()
+                + "，合并次数：" + this.getCoalesceCount()
+                + "，丢弃次数：" + this.getDropCount()
+                + "，同步写入次数：" + this.getCallerRunsCount()
+                + "，写入条数：" + this.getWriteCount()
+                + "，失败条数：" + this.getFailCount()
+                + "，重试次数：" + this.getRetryCount()
+                + "，批量写入次数：" + flush
+                + "，平均写入耗时(μs)：" + (flush == 0 ? 0 : this.getFlushNanos() / flush / 1000)
+                + "，最大写入耗时(μs)：" + this.getMaxFlushNanos() / 1000
+                + "}";
+    }
+}
@@ -0,0 +1,52 @@
+package cx.twinkle.rediscache.codec;
+
+/**
+ * 缓存数据的序列化方式
+ * <p>
+ * 每个写入 Redis 的数据都会在格式头中记录所使用的序列化方式的ID，读取时根据该ID选择对应的序列化方式，
+ * 所以切换序列化方式后，不需要清理已有的缓存
+ *
+ * @author twinkle
+ * @version 2026/10/18 14:05
+ */
+public interface CacheCodec {
+    /**
+     * 序列化方式的ID，写入数据的格式头中；取值范围 1~127，一经使用不能修改
+     *
+     * @return 序列化方式的ID
+     */
+    byte getId();
+
+    /**
+     * 序列化方式的名称，用于在注解、配置文件中指定序列化方式
+     *
+     * @return 序列化方式的名称
+     */
+    String getName();
+
+    /**
+     * 判断是否可以序列化该对象
+     *
+     * @param obj 需要序列化的对象
+     * @return true OR false
+     */
+    boolean canEncode(Object obj);
+
+    /**
+     * 序列化
+     *
+     * @param obj 需要序列化的对象
+     * @return 序列化得到的二进制数据
+     */
+    byte[] encode(Object obj);
+
+    /**
+     * 反序列化
+     *
+     * @param bytes  需要反序列化的二进制数据
+     * @param offset 数据在数组中的起始位置
+     * @param length 数据的长度
+     * @return 反序列化得到的对象
+     */
+    Object decode(byte[] bytes, int offset, int length);
+}
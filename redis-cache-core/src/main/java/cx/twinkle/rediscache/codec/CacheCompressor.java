@@ -0,0 +1,44 @@
+package cx.twinkle.rediscache.codec;
+
+/**
+ * 缓存数据的压缩方式
+ * <p>
+ * 压缩方式的ID 记录在数据格式头的标志位中，读取时根据该ID选择对应的压缩方式解压
+ *
+ * @author twinkle
+ * @version 2026/10/18 15:40
+ */
+public interface CacheCompressor {
+    /**
+     * 压缩方式的ID，取值范围 1~15，一经使用不能修改
+     *
+     * @return 压缩方式的ID
+     */
+    byte getId();
+
+    /**
+     * 压缩方式的名称，用于在配置文件中指定压缩方式
+     *
+     * @return 压缩方式的名称
+     */
+    String getName();
+
+    /**
+     * 压缩
+     *
+     * @param src 需要压缩的数据
+     * @return 压缩后的数据
+     */
+    byte[] compress(byte[] src);
+
+    /**
+     * 解压
+     *
+     * @param src            需要解压的数据
+     * @param offset         数据在数组中的起始位置
+     * @param length         数据的长度
+     * @param originalLength 压缩前数据的长度
+     * @return 解压后的数据
+     */
+    byte[] decompress(byte[] src, int offset, int length, int originalLength);
+}
@@ -0,0 +1,109 @@
+package cx.twinkle.rediscache.codec;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.util.ClassUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 序列化方式、压缩方式 的注册中心，按照 ID、名称 查找序列化方式、压缩方式
+ *
+ * @author twinkle
+ * @version 2026/10/18 14:30
+ */
+public class CodecRegistry {
+    private static final Logger log = LoggerFactory.getLogger(CodecRegistry.class);
+
+    /**
+     * 自动选择序列化方式：实现了 Serializable 的对象使用 JDK 序列化，否则使用 Jackson 序列化
+     */
+    public static final String AUTO = "auto";
+
+    private final CacheCodec[] codecsById = new CacheCodec[128];
+    private final Map<String, CacheCodec> codecsByName = new ConcurrentHashMap<>();
+    private final CacheCompressor[] compressorsById = new CacheCompressor[16];
+    private final Map<String, CacheCompressor> compressorsByName = new ConcurrentHashMap<>();
+
+    /**
+     * 创建一个注册了内置序列化方式（jdk、jackson、kryo）、内置压缩方式（deflate，以及存在 lz4-java 时的 lz4）的注册中心
+     *
+     * @return 注册中心
+     */
+    public static CodecRegistry withDefaults() {
+        CodecRegistry registry = new CodecRegistry();
+        registry.register(new JdkCacheCodec());
+        registry.register(new JacksonCacheCodec());
+        registry.register(new KryoCacheCodec());
+        registry.register(new DeflateCacheCompressor());
+        if (ClassUtils.isPresent(Lz4CacheCompressor.LZ4_FACTORY_CLASS, CodecRegistry.class.getClassLoader())) {
+            registry.register(new Lz4CacheCompressor());
+        }
+        return registry;
+    }
+
+    /**
+     * 注册序列化方式，ID、名称 都不能与已注册的序列化方式重复
+     *
+     * @param codec 序列化方式
+     */
+    public synchronized void register(CacheCodec codec) {
+        byte id = codec.getId();
+        String name = codec.getName();
+        if (id <= 0) {
+            throw new IllegalArgumentException("序列化方式的ID必须在 1~127 之间！codec = " + name);
+        }
+        if (AUTO.equals(name)) {
+            throw new IllegalArgumentException("序列化方式的名称不能为 " + AUTO + "！");
+        }
+        CacheCodec existing = codecsById[id];
+        if (existing != null || codecsByName.containsKey(name)) {
+            throw new IllegalStateException("序列化方式重复注册！id = " + id + "，name = " + name);
+        }
+        codecsById[id] = codec;
+        codecsByName.put(name, codec);
+        log.info("序列化方式注册成功！id = {}，name = {}", id, name);
+    }
+
+    /**
+     * 注册压缩方式，ID、名称 都不能与已注册的压缩方式重复
+     *
+     * @param compressor 压缩方式
+     */
+    public synchronized void register(CacheCompressor compressor) {
+        byte id = compressor.getId();
+        String name = compressor.getName();
+        if (id <= 0 || id >= compressorsById.length) {
+            throw new IllegalArgumentException("压缩方式的ID必须在 1~15 之间！compressor = " + name);
+        }
+        if (compressorsById[id] != null || compressorsByName.containsKey(name)) {
+            throw new IllegalStateException("压缩方式重复注册！id = " + id + "，name = " + name);
+        }
+        compressorsById[id] = compressor;
+        compressorsByName.put(name, compressor);
+        log.info("压缩方式注册成功！id = {}，name = {}", id, name);
+    }
+
+    public CacheCompressor getCompressorById(int id) {
+        return (id <= 0 || id >= compressorsById.length) ? null : compressorsById[id];
+    }
+
+    public CacheCompressor getCompressorByName(String name) {
+        return name == null ? null : compressorsByName.get(name);
+    }
+
+    public CacheCodec getById(byte id) {
+        return id <= 0 ? null : codecsById[id];
+    }
+
+    public CacheCodec getByName(String name) {
+        return name == null ? null : codecsByName.get(name);
+    }
+
+    public List<CacheCodec> getCodecs() {
+        return new ArrayList<>(codecsByName.values());
+    }
+}
@@ -0,0 +1,84 @@
+package cx.twinkle.rediscache.codec;
+
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.io.ByteArrayOutputStream;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * 基于 JDK Deflater 的压缩方式，不依赖任何第三方库
+ *
+ * @author twinkle
+ * @version 2026/10/18 15:45
+ */
+public class DeflateCacheCompressor implements CacheCompressor {
+    public static final byte ID = 1;
+    public static final String NAME = "deflate";
+
+    /**
+     * 压缩级别，默认优先压缩速度
+     */
+    private int level = Deflater.BEST_SPEED;
+
+    public DeflateCacheCompressor() {
+    }
+
+    public DeflateCacheCompressor(int level) {
+        this.level = level;
+    }
+
+    @Override
+    public byte getId() {
+        return ID;
+    }
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public byte[] compress(byte[] src) {
+        Deflater deflater = new Deflater(level, true);
+        try {
+            deflater.setInput(src);
+            deflater.finish();
+            ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(src.length / 2, 64));
+            byte[] buffer = new byte[4096];
+            while (!deflater.finished()) {
+                int len = deflater.deflate(buffer);
+                out.write(buffer, 0, len);
+            }
+            return out.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    @Override
+    public byte[] decompress(byte[] src, int offset, int length, int originalLength) {
+        Inflater inflater = new Inflater(true);
+        try {
+            inflater.setInput(src, offset, length);
+            byte[] result = new byte[originalLength];
+            int total = 0;
+            while (total < originalLength && !inflater.finished()) {
+                int len = inflater.inflate(result, total, originalLength - total);
+                if (len == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    break;
+                }
+                total += len;
+            }
+            if (total != originalLength) {
+                throw new SerializationException("Deflate解压失败！解压后的长度与原始长度不一致：" + total + " != " + originalLength);
+            }
+            return result;
+        } catch (DataFormatException e) {
+            throw new SerializationException("Deflate解压失败！", e);
+        } finally {
+            inflater.end();
+        }
+    }
+}
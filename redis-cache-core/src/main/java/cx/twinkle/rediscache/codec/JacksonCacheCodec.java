@@ -0,0 +1,55 @@
+package cx.twinkle.rediscache.codec;
+
+import cx.twinkle.rediscache.utils.ReflectionUtils;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Jackson 序列化，只能序列化有默认构造方法的对象
+ *
+ * @author twinkle
+ * @version 2026/10/18 14:12
+ */
+public class JacksonCacheCodec implements CacheCodec {
+    public static final byte ID = 2;
+    public static final String NAME = "jackson";
+
+    /**
+     * java.util.HashMap 的内部内 KetSet 类的 class对象，该类访问权限为 default
+     */
+    private static final Class<?> KEY_SET_CLASS = new HashMap<>(1).keySet().getClass();
+
+    private GenericJackson2JsonRedisSerializer jacksonSerializer = new GenericJackson2JsonRedisSerializer();
+
+    @Override
+    public byte getId() {
+        return ID;
+    }
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public boolean canEncode(Object obj) {
+        return ReflectionUtils.hasDefaultConstructor(obj) || KEY_SET_CLASS.isInstance(obj);
+    }
+
+    @Override
+    public byte[] encode(Object obj) {
+        if (KEY_SET_CLASS.isInstance(obj)) {
+            obj = new HashSet<>((Set<?>) obj);
+        }
+        return jacksonSerializer.serialize(obj);
+    }
+
+    @Override
+    public Object decode(byte[] bytes, int offset, int length) {
+        return jacksonSerializer.deserialize(Arrays.copyOfRange(bytes, offset, offset + length));
+    }
+}
@@ -0,0 +1,52 @@
+package cx.twinkle.rediscache.codec;
+
+import org.springframework.core.serializer.DefaultDeserializer;
+import org.springframework.data.redis.serializer.JdkSerializationRedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.Serializable;
+
+/**
+ * JDK 序列化
+ *
+ * @author twinkle
+ * @version 2026/10/18 14:10
+ */
+public class JdkCacheCodec implements CacheCodec {
+    public static final byte ID = 1;
+    public static final String NAME = "jdk";
+
+    private JdkSerializationRedisSerializer jdkSerializer = new JdkSerializationRedisSerializer();
+    private DefaultDeserializer deserializer = new DefaultDeserializer();
+
+    @Override
+    public byte getId() {
+        return ID;
+    }
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public boolean canEncode(Object obj) {
+        return obj instanceof Serializable;
+    }
+
+    @Override
+    public byte[] encode(Object obj) {
+        return jdkSerializer.serialize(obj);
+    }
+
+    @Override
+    public Object decode(byte[] bytes, int offset, int length) {
+        try {
+            return deserializer.deserialize(new ByteArrayInputStream(bytes, offset, length));
+        } catch (IOException e) {
+            throw new SerializationException("JDK反序列化失败！", e);
+        }
+    }
+}
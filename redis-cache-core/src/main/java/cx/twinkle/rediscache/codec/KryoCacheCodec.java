@@ -0,0 +1,75 @@
+package cx.twinkle.rediscache.codec;
+
+import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.io.Output;
+import org.objenesis.strategy.StdInstantiatorStrategy;
+
+/**
+ * 基于 Kryo 的紧凑二进制序列化，不要求对象实现 Serializable，也不要求有默认构造方法
+ * <p>
+ * Kryo 不是线程安全的，每个线程持有一个 Kryo 实例及输出缓冲区
+ *
+ * @author twinkle
+ * @version 2026/10/18 14:20
+ */
+public class KryoCacheCodec implements CacheCodec {
+    public static final byte ID = 3;
+    public static final String NAME = "kryo";
+
+    /**
+     * 每个线程复用的输出缓冲区的初始大小
+     */
+    private static final int BUFFER_SIZE = 4096;
+    /**
+     * 输出缓冲区扩容超过该大小后不再复用，避免每个线程长期持有过大的缓冲区
+     */
+    private static final int MAX_RETAINED_BUFFER_SIZE = 1024 * 1024;
+
+    private static final ThreadLocal<Kryo> KRYO = ThreadLocal.withInitial(() -> {
+        Kryo kryo = new Kryo();
+        kryo.setRegistrationRequired(false);
+        kryo.setReferences(true);
+        kryo.setInstantiatorStrategy(new Kryo.DefaultInstantiatorStrategy(new StdInstantiatorStrategy()));
+        return kryo;
+    });
+
+    private static final ThreadLocal<Output> OUTPUT = ThreadLocal.withInitial(() -> new Output(BUFFER_SIZE, -1));
+
+    @Override
+    public byte getId() {
+        return ID;
+    }
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public boolean canEncode(Object obj) {
+        return obj != null;
+    }
+
+    @Override
+    public byte[] encode(Object obj) {
+        Output output = OUTPUT.get();
+        output.clear();
+        KRYO.get().writeClassAndObject(output, obj);
+        byte[] bytes = output.toBytes();
+        if (output.getBuffer().length > MAX_RETAINED_BUFFER_SIZE) {
+            OUTPUT.remove();
+        }
+        return bytes;
+    }
+
+    @Override
+    public Object decode(byte[] bytes, int offset, int length) {
+        Kryo kryo = KRYO.get();
+        ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
+        if (classLoader != null && classLoader != kryo.getClassLoader()) {
+            kryo.setClassLoader(classLoader);
+        }
+        return kryo.readClassAndObject(new Input(bytes, offset, length));
+    }
+}
@@ -0,0 +1,55 @@
+package cx.twinkle.rediscache.codec;
+
+import net.jpountz.lz4.LZ4Compressor;
+import net.jpountz.lz4.LZ4Factory;
+import net.jpountz.lz4.LZ4FastDecompressor;
+
+import java.util.Arrays;
+
+/**
+ * 基于 lz4-java 的快速压缩方式，需要引入 org.lz4:lz4-java
+ *
+ * @author twinkle
+ * @version 2026/10/18 15:50
+ */
+public class Lz4CacheCompressor implements CacheCompressor {
+    public static final byte ID = 2;
+    public static final String NAME = "lz4";
+    /**
+     * 用于判断 lz4-java 是否存在
+     */
+    public static final String LZ4_FACTORY_CLASS = "net.jpountz.lz4.LZ4Factory";
+
+    private final LZ4Compressor compressor;
+    private final LZ4FastDecompressor decompressor;
+
+    public Lz4CacheCompressor() {
+        LZ4Factory factory = LZ4Factory.fastestInstance();
+        this.compressor = factory.fastCompressor();
+        this.decompressor = factory.fastDecompressor();
+    }
+
+    @Override
+    public byte getId() {
+        return ID;
+    }
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public byte[] compress(byte[] src) {
+        byte[] dest = new byte[compressor.maxCompressedLength(src.length)];
+        int len = compressor.compress(src, 0, src.length, dest, 0, dest.length);
+        return Arrays.copyOf(dest, len);
+    }
+
+    @Override
+    public byte[] decompress(byte[] src, int offset, int length, int originalLength) {
+        byte[] result = new byte[originalLength];
+        decompressor.decompress(src, offset, result, 0, originalLength);
+        return result;
+    }
+}
@@ -0,0 +1,82 @@
+package cx.twinkle.rediscache.dto;
+
+/**
+ * 带有元数据的缓存数据：写入时间、方法的执行耗时，用于提前刷新等功能
+ *
+ * @author twinkle
+ * @version 2026/10/18 20:10
+ */
+public class CacheEntry {
+    /**
+     * 缓存的数据
+     */
+    private final Object value;
+    /**
+     * 写入时间，毫秒时间戳；为 0 时表示没有记录元数据
+     */
+    private final long writeTime;
+    /**
+     * 方法的执行耗时，单位：毫秒
+     */
+    private final long computeMillis;
+    /**
+     * 是否为空结果的占位数据（负缓存），此时 value 为 null 或者 空字符串、空集合、空Map
+     */
+    private final boolean negative;
+
+    public CacheEntry(Object value, long writeTime, long computeMillis) {
+        this(value, writeTime, computeMillis, false);
+    }
+
+    private CacheEntry(Object value, long writeTime, long computeMillis, boolean negative) {
+        this.value = value;
+        this.writeTime = writeTime;
+        this.computeMillis = computeMillis;
+        this.negative = negative;
+    }
+
+    /**
+     * 没有元数据的缓存数据
+     *
+     * @param value 缓存的数据
+     * @return 缓存数据
+     */
+    public static CacheEntry of(Object value) {
+        return new CacheEntry(value, 0L, 0L);
+    }
+
+    /**
+     * 空结果的占位数据
+     *
+     * @param emptyValue 空结果：null、空字符串、空集合、空Map
+     * @return 缓存数据
+     */
+    public static CacheEntry negative(Object emptyValue) {
+        return new CacheEntry(emptyValue, 0L, 0L, true);
+    }
+
+    /**
+     * 是否记录了元数据
+     *
+     * @return true OR false
+     */
+    public boolean hasMetadata() {
+        return writeTime > 0L;
+    }
+
+    public boolean isNegative() {
+        return negative;
+    }
+
+    public Object getValue() {
+        return value;
+    }
+
+    public long getWriteTime() {
+        return writeTime;
+    }
+
+    public long getComputeMillis() {
+        return computeMillis;
+    }
+}
@@ -0,0 +1,25 @@
+package cx.twinkle.rediscache.dto;
+
+/**
+ * 一次待写入的缓存数据：写入位置（key、过期时间、序列化方式） 和 缓存数据
+ *
+ * @author twinkle
+ * @version 2026/10/18 22:10
+ */
+public class CacheWrite {
+    private final MethodCacheInfo cacheInfo;
+    private final CacheEntry entry;
+
+    public CacheWrite(MethodCacheInfo cacheInfo, CacheEntry entry) {
+        this.cacheInfo = cacheInfo;
+        this.entry = entry;
+    }
+
+    public MethodCacheInfo getCacheInfo() {
+        return cacheInfo;
+    }
+
+    public CacheEntry getEntry() {
+        return entry;
+    }
+}
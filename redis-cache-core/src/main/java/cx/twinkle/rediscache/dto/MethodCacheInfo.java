@@ -23,6 +23,10 @@ public class MethodCacheInfo {
      * 过期时间
      */
     private Duration expireTime;
+    /**
+     * 序列化方式的名称，为空时使用默认的序列化方式
+     */
+    private String codec;
 
     public MethodCacheInfo(String methodName, String cacheName, String cacheKey) {
         this.methodName = methodName;
@@ -37,6 +41,14 @@ public class MethodCacheInfo {
         this.expireTime = expireTime;
     }
 
+    public MethodCacheInfo(String methodName, String cacheName, String cacheKey, Duration expireTime, String codec) {
+        this.methodName = methodName;
+        this.cacheName = cacheName;
+        this.cacheKey = cacheKey;
+        this.expireTime = expireTime;
+        this.codec = codec;
+    }
+
     public String getMethodName() {
         return methodName;
     }
@@ -52,4 +64,8 @@ public class MethodCacheInfo {
     public Duration getExpireTime() {
         return expireTime;
     }
+
+    public String getCodec() {
+        return codec;
+    }
 }
@@ -0,0 +1,205 @@
+package cx.twinkle.rediscache.key;
+
+import cx.twinkle.rediscache.utils.MurmurHash3;
+
+import java.lang.reflect.Array;
+import java.util.Collection;
+import java.util.Date;
+import java.util.Map;
+
+/**
+ * v2_0 格式的缓存key生成策略，通过 ct.cache.key-format=v2_0 开启
+ * <p>
+ * Key 的格式为：缓存名::方法名-v2_0-参数的128位哈希（32位十六进制）
+ * <p>
+ * 参数按照类型直接写入线程复用的缓冲区（类型标记 + 值），字符串按字符写入，不需要 toString、编码；
+ * 之后使用 MurmurHash3 计算哈希，生成的 key 长度固定，不受参数个数、长度影响
+ *
+ * @author twinkle
+ * @version 2026/10/18 19:00
+ */
+public class HashKeyGenerator implements KeyGenerator {
+    public static final String VERSION = "v2_0";
+
+    private static final byte TYPE_NULL = 0;
+    private static final byte TYPE_STRING = 1;
+    private static final byte TYPE_INT = 2;
+    private static final byte TYPE_LONG = 3;
+    private static final byte TYPE_SHORT = 4;
+    private static final byte TYPE_BYTE = 5;
+    private static final byte TYPE_CHAR = 6;
+    private static final byte TYPE_BOOLEAN = 7;
+    private static final byte TYPE_FLOAT = 8;
+    private static final byte TYPE_DOUBLE = 9;
+    private static final byte TYPE_ENUM = 10;
+    private static final byte TYPE_DATE = 11;
+    private static final byte TYPE_COLLECTION = 12;
+    private static final byte TYPE_MAP = 13;
+    private static final byte TYPE_ARRAY = 14;
+    private static final byte TYPE_OBJECT = 15;
+
+    /**
+     * 哈希种子，修改后所有 key 都会变化，不能修改
+     */
+    private static final long SEED = 0x7264226L;
+    /**
+     * 缓冲区的初始大小，以及复用时允许保留的最大大小，防止个别超大参数长期占用内存
+     */
+    private static final int INITIAL_BUFFER_SIZE = 256;
+    private static final int MAX_RETAINED_BUFFER_SIZE = 64 * 1024;
+
+    private static final ThreadLocal<KeyBuffer> BUFFER = ThreadLocal.withInitial(KeyBuffer::new);
+
+    @Override
+    public String generate(String cacheName, String methodName, Object... params) {
+        if (params == null || params.length <= 0) {
+            return new StringBuilder(cacheName.length() + methodName.length() + 7)
+                    .append(cacheName).append("::").append(methodName).append('-').append(VERSION).toString();
+        }
+        KeyBuffer buffer = BUFFER.get();
+        String hash;
+        try {
+            buffer.writeInt(params.length);
+            for (Object param : params) {
+                buffer.writeValue(param);
+            }
+            hash = MurmurHash3.hash128Hex(buffer.bytes, 0, buffer.position, SEED);
+        } finally {
+            buffer.reset();
+        }
+        return new StringBuilder(cacheName.length() + methodName.length() + 40)
+                .append(cacheName).append("::").append(methodName).append('-').append(VERSION).append('-')
+                .append(hash).toString();
+    }
+
+    @Override
+    public String getVersion() {
+        return VERSION;
+    }
+
+    private static class KeyBuffer {
+        private byte[] bytes = new byte[INITIAL_BUFFER_SIZE];
+        private int position;
+
+        private void writeValue(Object value) {
+            if (value == null) {
+                this.writeByte(TYPE_NULL);
+            } else if (value instanceof String) {
+                this.writeByte(TYPE_STRING);
+                this.writeString((String) value);
+            } else if (value instanceof Integer) {
+                this.writeByte(TYPE_INT);
+                this.writeInt((Integer) value);
+            } else if (value instanceof Long) {
+                this.writeByte(TYPE_LONG);
+                this.writeLong((Long) value);
+            } else if (value instanceof Short) {
+                this.writeByte(TYPE_SHORT);
+                this.writeInt((Short) value);
+            } else if (value instanceof Byte) {
+                this.writeByte(TYPE_BYTE);
+                this.writeByte((Byte) value);
+            } else if (value instanceof Character) {
+                this.writeByte(TYPE_CHAR);
+                this.writeInt((Character) value);
+            } else if (value instanceof Boolean) {
+                this.writeByte(TYPE_BOOLEAN);
+                this.writeByte((Boolean) value ? (byte) 1 : (byte) 0);
+            } else if (value instanceof Float) {
+                this.writeByte(TYPE_FLOAT);
+                this.writeInt(Float.floatToIntBits((Float) value));
+            } else if (value instanceof Double) {
+                this.writeByte(TYPE_DOUBLE);
+                this.writeLong(Double.doubleToLongBits((Double) value));
+            } else if (value instanceof Enum) {
+                this.writeByte(TYPE_ENUM);
+                this.writeString(((Enum<?>) value).name());
+            } else if (value instanceof Date) {
+                this.writeByte(TYPE_DATE);
+                this.writeLong(((Date) value).getTime());
+            } else if (value instanceof Collection) {
+                Collection<?> collection = (Collection<?>) value;
+                this.writeByte(TYPE_COLLECTION);
+                this.writeInt(collection.size());
+                for (Object element : collection) {
+                    this.writeValue(element);
+                }
+            } else if (value instanceof Map) {
+                Map<?, ?> map = (Map<?, ?>) value;
+                this.writeByte(TYPE_MAP);
+                this.writeInt(map.size());
+                for (Map.Entry<?, ?> entry : map.entrySet()) {
+                    this.writeValue(entry.getKey());
+                    this.writeValue(entry.getValue());
+                }
+            } else if (value.getClass().isArray()) {
+                int length = Array.getLength(value);
+                this.writeByte(TYPE_ARRAY);
+                this.writeInt(length);
+                if (value instanceof byte[]) {
+                    this.writeBytes((byte[]) value);
+                } else {
+                    for (int i = 0; i < length; i++) {
+                        this.writeValue(Array.get(value, i));
+                    }
+                }
+            } else {
+                // 其他类型的对象没有统一的二进制表示，与 v1_0 一样使用 toString()
+                this.writeByte(TYPE_OBJECT);
+                this.writeString(value.toString());
+            }
+        }
+
+        private void writeString(String value) {
+            int length = value.length();
+            this.writeInt(length);
+            this.ensureCapacity(length << 1);
+            for (int i = 0; i < length; i++) {
+                char c = value.charAt(i);
+                bytes[position++] = (byte) c;
+                bytes[position++] = (byte) (c >>> 8);
+            }
+        }
+
+        private void writeBytes(byte[] value) {
+            this.ensureCapacity(value.length);
+            System.arraycopy(value, 0, bytes, position, value.length);
+            position += value.length;
+        }
+
+        private void writeByte(byte value) {
+            this.ensureCapacity(1);
+            bytes[position++] = value;
+        }
+
+        private void writeInt(int value) {
+            this.ensureCapacity(4);
+            bytes[position++] = (byte) value;
+            bytes[position++] = (byte) (value >>> 8);
+            bytes[position++] = (byte) (value >>> 16);
+            bytes[position++] = (byte) (value >>> 24);
+        }
+
+        private void writeLong(long value) {
+            this.writeInt((int) value);
+            this.writeInt((int) (value >>> 32));
+        }
+
+        private void ensureCapacity(int required) {
+            if (position + required <= bytes.length) {
+                return;
+            }
+            int newLength = Math.max(bytes.length << 1, position + required);
+            byte[] newBytes = new byte[newLength];
+            System.arraycopy(bytes, 0, newBytes, 0, position);
+            bytes = newBytes;
+        }
+
+        private void reset() {
+            position = 0;
+            if (bytes.length > MAX_RETAINED_BUFFER_SIZE) {
+                bytes = new byte[INITIAL_BUFFER_SIZE];
+            }
+        }
+    }
+}
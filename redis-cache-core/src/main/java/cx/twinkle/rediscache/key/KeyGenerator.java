@@ -0,0 +1,29 @@
+package cx.twinkle.rediscache.key;
+
+/**
+ * 缓存key的生成策略，用于注解中没有指定 key 的方法
+ * <p>
+ * 生成的 key 中带有格式版本，如：缓存名::方法名-v2_0-...；不同版本生成的 key 不会冲突，
+ * 切换生成策略后，旧格式的 key 不会再被读取，等待自然过期或者随整个缓存一起删除即可
+ *
+ * @author twinkle
+ * @version 2026/10/18 19:00
+ */
+public interface KeyGenerator {
+    /**
+     * 生成缓存key
+     *
+     * @param cacheName  缓存名
+     * @param methodName 方法名
+     * @param params     方法的参数
+     * @return 缓存key
+     */
+    String generate(String cacheName, String methodName, Object... params);
+
+    /**
+     * key 的格式版本，如：v1_0
+     *
+     * @return 格式版本
+     */
+    String getVersion();
+}
@@ -0,0 +1,78 @@
+package cx.twinkle.rediscache.key;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.util.DigestUtils;
+
+import java.util.Arrays;
+import java.util.Map;
+
+/**
+ * v1_0 格式的缓存key生成策略，默认使用
+ * <p>
+ * Key 的格式为：缓存名::方法名-v1_0-参数toString()
+ * 如果参数个数大于5，或者参数包含集合对象，则使用MD5算法对 参数的toString() 进行处理
+ *
+ * @author twinkle
+ * @version 2026/10/18 19:00
+ */
+public class LegacyKeyGenerator implements KeyGenerator {
+    private static final Logger log = LoggerFactory.getLogger(LegacyKeyGenerator.class);
+
+    public static final String VERSION = "v1_0";
+
+    private Integer maxParamNum = 5;
+
+    @Override
+    public String generate(String cacheName, String methodName, Object... params) {
+        StringBuilder keyBuilder = new StringBuilder(cacheName).append("::").append(methodName).append("-").append(VERSION);
+        if (params == null || params.length <= 0) {
+            log.debug("获取缓存key，方法 {} 的参数体为空！", methodName);
+            return keyBuilder.toString();
+        }
+        keyBuilder.append("-");
+        if (this.paramsTooLong(params, this.maxParamNum)) {
+            log.info("获取缓存key，方法 {} 的参数个数大于【{}】个 或存在集合，采用MD5摘要~", methodName, this.maxParamNum);
+            String paramMd5 = DigestUtils.md5DigestAsHex(Arrays.toString(params).getBytes());
+            keyBuilder.append(paramMd5);
+            return keyBuilder.toString();
+        }
+        for (Object param : params) {
+            String paramStr = String.valueOf(param);
+            keyBuilder.append(paramStr.replace(":", "-")).append("_");
+        }
+        return keyBuilder.toString();
+    }
+
+    /**
+     * 如果方法参数个数大于 指定个数，或者 参数类型是 集合、数组，则对参数进行MD5摘要
+     *
+     * @param params      参数数组
+     * @param maxParamNum 最大参数个数，默认为 5
+     * @return 是否对参数MD5摘要
+     */
+    private boolean paramsTooLong(Object[] params, Integer maxParamNum) {
+        if (params.length > maxParamNum) {
+            return true;
+        }
+        for (Object param : params) {
+            if (param instanceof Iterable || param instanceof Map || (param != null && param.getClass().isArray())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public String getVersion() {
+        return VERSION;
+    }
+
+    public Integer getMaxParamNum() {
+        return maxParamNum;
+    }
+
+    public void setMaxParamNum(Integer maxParamNum) {
+        this.maxParamNum = maxParamNum;
+    }
+}
@@ -0,0 +1,119 @@
+package cx.twinkle.rediscache.metrics;
+
+import cx.twinkle.rediscache.cache.CompressionStatistics;
+import cx.twinkle.rediscache.cache.RedisCircuitBreaker;
+import cx.twinkle.rediscache.cache.WriteBehindQueue;
+
+/**
+ * 缓存的监控指标，所有方法默认不做任何处理
+ * <p>
+ * 这些方法都在缓存的读写路径上调用，实现类不能阻塞，并且应当避免创建对象
+ *
+ * @author twinkle
+ * @version 2026/10/18 22:40
+ */
+public interface CacheMetrics {
+    /**
+     * 不记录任何指标
+     */
+    CacheMetrics NOOP = new CacheMetrics() {
+    };
+
+    /**
+     * 一次操作涉及多个缓存时（如批量写入、按 key 删除），使用的缓存名称
+     */
+    String ALL_CACHES = "*";
+
+    /**
+     * Redis 操作：读取
+     */
+    String OP_GET = "get";
+    /**
+     * Redis 操作：写入
+     */
+    String OP_SET = "set";
+    /**
+     * Redis 操作：删除
+     */
+    String OP_DEL = "del";
+
+    /**
+     * 缓存命中
+     *
+     * @param cacheName 缓存名称
+     */
+    default void recordHit(String cacheName) {
+    }
+
+    /**
+     * 缓存未命中
+     *
+     * @param cacheName 缓存名称
+     */
+    default void recordMiss(String cacheName) {
+    }
+
+    /**
+     * 缓存操作失败
+     *
+     * @param cacheName 缓存名称
+     * @param operation 失败的操作，如：get、set、del、refresh
+     */
+    default void recordError(String cacheName, String operation) {
+    }
+
+    /**
+     * 一次 Redis 操作的耗时
+     *
+     * @param cacheName 缓存名称
+     * @param operation Redis 操作：get、set、del
+     * @param nanos     耗时，单位：纳秒
+     */
+    default void recordRedisLatency(String cacheName, String operation, long nanos) {
+    }
+
+    /**
+     * 一次序列化的耗时和序列化结果的大小
+     *
+     * @param cacheName 缓存名称
+     * @param nanos     耗时，单位：纳秒
+     * @param bytes     序列化后的字节数
+     */
+    default void recordSerialize(String cacheName, long nanos, int bytes) {
+    }
+
+    /**
+     * 一次反序列化的耗时和数据的大小
+     *
+     * @param cacheName 缓存名称
+     * @param nanos     耗时，单位：纳秒
+     * @param bytes     反序列化前的字节数
+     */
+    default void recordDeserialize(String cacheName, long nanos, int bytes) {
+    }
+
+    /**
+     * 注册异步写入队列的指标：队列长度、丢弃次数、批量写入耗时等
+     *
+     * @param writeBehindQueue 异步写入队列
+     */
+    default void bindWriteBehindQueue(WriteBehindQueue writeBehindQueue) {
+    }
+
+    /**
+     * 注册熔断器的指标：当前状态、熔断次数、超过延迟预算的次数等
+     *
+     * @param circuitBreaker 读取缓存的熔断器
+     */
+    default void bindCircuitBreaker(RedisCircuitBreaker circuitBreaker) {
+    }
+
+    /**
+     * 注册一个缓存的压缩指标：压缩率、压缩与解压的耗时等；每个缓存只在第一次压缩、解压时注册一次
+     *
+     * @param cacheName  缓存名称
+     * @param statistics 缓存的压缩统计数据
+     */
+    default void bindCompressionStatistics(String cacheName, CompressionStatistics statistics) {
+    }
+}
@@ -0,0 +1,262 @@
+package cx.twinkle.rediscache.metrics;
+
+import cx.twinkle.rediscache.cache.CompressionStatistics;
+import cx.twinkle.rediscache.cache.RedisCircuitBreaker;
+import cx.twinkle.rediscache.cache.WriteBehindQueue;
+import cx.twinkle.rediscache.cache.WriteBehindStatistics;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 基于 Micrometer 的缓存监控指标，所有指标都带有 cache 标签
+ * <p>
+ * 每个缓存的 Counter、Timer 只在第一次使用时注册，之后直接从 Map 中取出，记录指标时不会创建对象
+ *
+ * @author twinkle
+ * @version 2026/10/18 22:40
+ */
+public class MicrometerCacheMetrics implements CacheMetrics {
+    private static final String TAG_CACHE = "cache";
+    private static final String TAG_OPERATION = "operation";
+    private static final String TAG_RESULT = "result";
+
+    private final MeterRegistry registry;
+    /**
+     * 指标名称的前缀
+     */
+    private final String prefix;
+    private final ConcurrentMap<String, CacheMeters> meters = new ConcurrentHashMap<>();
+
+    public MicrometerCacheMetrics(MeterRegistry registry) {
+        this(registry, "redis.cache");
+    }
+
+    public MicrometerCacheMetrics(MeterRegistry registry, String prefix) {
+        this.registry = registry;
+        this.prefix = prefix;
+    }
+
+    @Override
+    public void recordHit(String cacheName) {
+        this.metersOf(cacheName).hit.increment();
+    }
+
+    @Override
+    public void recordMiss(String cacheName) {
+        this.metersOf(cacheName).miss.increment();
+    }
+
+    @Override
+    public void recordError(String cacheName, String operation) {
+        this.metersOf(cacheName).errors.computeIfAbsent(operation, op -> Counter.builder(prefix + ".errors")
+                .description("缓存操作失败的次数")
+                .tag(TAG_CACHE, tagValue(cacheName))
+                .tag(TAG_OPERATION, op)
+                .register(registry)).increment();
+    }
+
+    @Override
+    public void recordRedisLatency(String cacheName, String operation, long nanos) {
+        CacheMeters cacheMeters = this.metersOf(cacheName);
+        Timer timer;
+        switch (operation) {
+            case OP_GET:
+                timer = cacheMeters.get;
+                break;
+            case OP_SET:
+                timer = cacheMeters.set;
+                break;
+            case OP_DEL:
+                timer = cacheMeters.del;
+                break;
+            default:
+                return;
+        }
+        timer.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public void recordSerialize(String cacheName, long nanos, int bytes) {
+        CacheMeters cacheMeters = this.metersOf(cacheName);
+        cacheMeters.serialize.record(nanos, TimeUnit.NANOSECONDS);
+        cacheMeters.writeSize.record(bytes);
+    }
+
+    @Override
+    public void recordDeserialize(String cacheName, long nanos, int bytes) {
+        CacheMeters cacheMeters = this.metersOf(cacheName);
+        cacheMeters.deserialize.record(nanos, TimeUnit.NANOSECONDS);
+        cacheMeters.readSize.record(bytes);
+    }
+
+    @Override
+    public void bindWriteBehindQueue(WriteBehindQueue writeBehindQueue) {
+        WriteBehindStatistics statistics = writeBehindQueue.getStatistics();
+        String name = prefix + ".write.behind";
+        Gauge.builder(name + ".queue.size", writeBehindQueue, WriteBehindQueue::getQueueSize)
+                .description("异步写入队列中等待写入的数据条数")
+                .register(registry);
+        FunctionCounter.builder(name + ".enqueued", statistics, WriteBehindStatistics::getEnqueueCount)
+                .description("放入异步写入队列的次数")
+                .register(registry);
+        FunctionCounter.builder(name + ".coalesced", statistics, WriteBehindStatistics::getCoalesceCount)
+                .description("与队列中同一个 key 的数据合并的次数")
+                .register(registry);
+        FunctionCounter.builder(name + ".dropped", statistics, WriteBehindStatistics::getDropCount)
+                .description("因为队列已满而丢弃的次数")
+                .register(registry);
+        FunctionCounter.builder(name + ".caller.runs", statistics, WriteBehindStatistics::getCallerRunsCount)
+                .description("队列已满时由调用方同步写入的次数")
+                .register(registry);
+        FunctionCounter.builder(name + ".written", statistics, WriteBehindStatistics::getWriteCount)
+                .description("写入 Redis 成功的数据条数")
+                .register(registry);
+        FunctionCounter.builder(name + ".failed", statistics, WriteBehindStatistics::getFailCount)
+                .description("写入 Redis 失败的数据条数")
+                .register(registry);
+        FunctionCounter.builder(name + ".retries", statistics, WriteBehindStatistics::getRetryCount)
+                .description("批量写入失败后重试的次数")
+                .register(registry);
+        FunctionTimer.builder(name + ".flush", statistics, WriteBehindStatistics::getFlushCount,
+                WriteBehindStatistics::getFlushNanos, TimeUnit.NANOSECONDS)
+                .description("批量写入 Redis 的耗时")
+                .register(registry);
+    }
+
+    @Override
+    public void bindCircuitBreaker(RedisCircuitBreaker circuitBreaker) {
+        String name = prefix + ".circuit.breaker";
+        for (RedisCircuitBreaker.State state : RedisCircuitBreaker.State.values()) {
+            Gauge.builder(name + ".state", circuitBreaker, breaker -> breaker.getState() == state ? 1 : 0)
+                    .description("熔断器的状态，当前状态为 1，其他状态为 0")
+                    .tag("state", state.name().toLowerCase(Locale.ROOT).replace('_', '-'))
+                    .register(registry);
+        }
+        FunctionCounter.builder(name + ".calls", circuitBreaker, RedisCircuitBreaker::getSuccessCount)
+                .description("经过熔断器读取 Redis 的次数")
+                .tag(TAG_RESULT, "success")
+                .register(registry);
+        FunctionCounter.builder(name + ".calls", circuitBreaker, RedisCircuitBreaker::getFailureCount)
+                .description("经过熔断器读取 Redis 的次数")
+                .tag(TAG_RESULT, "failure")
+                .register(registry);
+        FunctionCounter.builder(name + ".timeouts", circuitBreaker, RedisCircuitBreaker::getTimeoutCount)
+                .description("读取超过延迟预算的次数")
+                .register(registry);
+        FunctionCounter.builder(name + ".not.permitted", circuitBreaker, RedisCircuitBreaker::getNotPermittedCount)
+                .description("熔断器打开、直接执行方法的次数")
+                .register(registry);
+        FunctionCounter.builder(name + ".opened", circuitBreaker, RedisCircuitBreaker::getOpenCount)
+                .description("熔断器打开的次数")
+                .register(registry);
+    }
+
+    @Override
+    public void bindCompressionStatistics(String cacheName, CompressionStatistics statistics) {
+        String name = prefix + ".compression";
+        String cache = tagValue(cacheName);
+        Gauge.builder(name + ".ratio", statistics, CompressionStatistics::getCompressionRatio)
+                .description("压缩率：压缩后的总字节数 / 压缩前的总字节数")
+                .tag(TAG_CACHE, cache)
+                .register(registry);
+        FunctionTimer.builder(name + ".compress", statistics, CompressionStatistics::getCompressCount,
+                CompressionStatistics::getCompressNanos, TimeUnit.NANOSECONDS)
+                .description("压缩的耗时")
+                .tag(TAG_CACHE, cache)
+                .register(registry);
+        FunctionTimer.builder(name + ".decompress", statistics, CompressionStatistics::getDecompressCount,
+                CompressionStatistics::getDecompressNanos, TimeUnit.NANOSECONDS)
+                .description("解压的耗时")
+                .tag(TAG_CACHE, cache)
+                .register(registry);
+        FunctionCounter.builder(name + ".skipped", statistics, CompressionStatistics::getSkipCount)
+                .description("因为小于阈值、或者压缩后没有变小，而没有压缩的次数")
+                .tag(TAG_CACHE, cache)
+                .register(registry);
+    }
+
+    /**
+     * 先 get 再 computeIfAbsent，避免 JDK8 中 computeIfAbsent 在命中时也加锁
+     */
+    private CacheMeters metersOf(String cacheName) {
+        String key = tagValue(cacheName);
+        CacheMeters cacheMeters = meters.get(key);
+        return cacheMeters != null ? cacheMeters : meters.computeIfAbsent(key, CacheMeters::new);
+    }
+
+    private static String tagValue(String cacheName) {
+        return cacheName == null ? "" : cacheName;
+    }
+
+    /**
+     * 一个缓存的所有指标
+     */
+    private class CacheMeters {
+        private final Counter hit;
+        private final Counter miss;
+        private final Timer get;
+        private final Timer set;
+        private final Timer del;
+        private final Timer serialize;
+        private final Timer deserialize;
+        private final DistributionSummary writeSize;
+        private final DistributionSummary readSize;
+        private final Map<String, Counter> errors = new ConcurrentHashMap<>();
+
+        private CacheMeters(String cacheName) {
+            this.hit = this.requests(cacheName, "hit");
+            this.miss = this.requests(cacheName, "miss");
+            this.get = this.redisTimer(cacheName, OP_GET);
+            this.set = this.redisTimer(cacheName, OP_SET);
+            this.del = this.redisTimer(cacheName, OP_DEL);
+            this.serialize = this.serializeTimer(cacheName, "serialize");
+            this.deserialize = this.serializeTimer(cacheName, "deserialize");
+            this.writeSize = this.payloadSize(cacheName, "write");
+            this.readSize = this.payloadSize(cacheName, "read");
+        }
+
+        private Counter requests(String cacheName, String result) {
+            return Counter.builder(prefix + ".requests")
+                    .description("缓存的读取次数，按照是否命中区分")
+                    .tag(TAG_CACHE, cacheName)
+                    .tag(TAG_RESULT, result)
+                    .register(registry);
+        }
+
+        private Timer redisTimer(String cacheName, String operation) {
+            return Timer.builder(prefix + ".redis")
+                    .description("Redis 操作的耗时")
+                    .tag(TAG_CACHE, cacheName)
+                    .tag(TAG_OPERATION, operation)
+                    .register(registry);
+        }
+
+        private Timer serializeTimer(String cacheName, String operation) {
+            return Timer.builder(prefix + ".serialization")
+                    .description("序列化、反序列化的耗时")
+                    .tag(TAG_CACHE, cacheName)
+                    .tag(TAG_OPERATION, operation)
+                    .register(registry);
+        }
+
+        private DistributionSummary payloadSize(String cacheName, String operation) {
+            return DistributionSummary.builder(prefix + ".payload.size")
+                    .description("序列化后的缓存数据大小")
+                    .baseUnit("bytes")
+                    .tag(TAG_CACHE, cacheName)
+                    .tag(TAG_OPERATION, operation)
+                    .register(registry);
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package cx.twinkle.rediscache.task;
 
 import cx.twinkle.rediscache.cache.CacheHolder;
+import cx.twinkle.rediscache.cache.CacheKeyLayout;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.data.redis.core.StringRedisTemplate;
@@ -14,8 +15,11 @@ import java.util.Set;
 import static cx.twinkle.rediscache.cache.RedisCacheServiceImpl.CACHE_NAME_OF_KEY_HASH_KEY;
 
 /**
+ * 每天一次性删除所有的 KeySet、CacheNameHash；只在关闭 CacheIndexSweeper 增量清理时使用
+ *
  * @author twinkle
  * @version 2019/12/30 19:08
+ * @see CacheIndexSweeper
  */
 public class CacheCleanTask {
     private static final Logger log = LoggerFactory.getLogger(CacheCleanTask.class);
@@ -23,6 +27,10 @@ public class CacheCleanTask {
     private TaskScheduler taskScheduler;
     private StringRedisTemplate stringRedisTemplate;
     private String cron = "0 10 0 * * ?";
+    /**
+     * 缓存数据、索引的 key 布局，需要与 RedisCacheServiceImpl 保持一致
+     */
+    private CacheKeyLayout keyLayout = CacheKeyLayout.STANDALONE;
 
     public CacheCleanTask(TaskScheduler taskScheduler, StringRedisTemplate stringRedisTemplate) {
         this.taskScheduler = taskScheduler;
@@ -43,7 +51,9 @@ public class CacheCleanTask {
                 stringRedisTemplate.delete(cacheNameKey);
             }
         }
-        stringRedisTemplate.delete(CACHE_NAME_OF_KEY_HASH_KEY);
+        for (int bucket = 0; bucket < keyLayout.getBuckets(); bucket++) {
+            stringRedisTemplate.delete(keyLayout.withTag(CACHE_NAME_OF_KEY_HASH_KEY, bucket));
+        }
         log.info("Redis缓存 KeySet、CacheNameHash清理 定时任务执行完毕！相关缓存清理成功！");
     }
 
@@ -54,4 +64,12 @@ public class CacheCleanTask {
     public void setCron(String cron) {
         this.cron = cron;
     }
+
+    public CacheKeyLayout getKeyLayout() {
+        return keyLayout;
+    }
+
+    public void setKeyLayout(CacheKeyLayout keyLayout) {
+        this.keyLayout = keyLayout;
+    }
 }
@@ -0,0 +1,367 @@
+package cx.twinkle.rediscache.task;
+
+import cx.twinkle.rediscache.cache.CacheHolder;
+import cx.twinkle.rediscache.cache.CacheKeyLayout;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.scheduling.TaskScheduler;
+
+import javax.annotation.PostConstruct;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import static cx.twinkle.rediscache.cache.RedisCacheServiceImpl.CACHE_KEY_SET_PREFIX;
+import static cx.twinkle.rediscache.cache.RedisCacheServiceImpl.CACHE_NAME_OF_KEY_HASH_KEY;
+
+/**
+ * 索引（KeySet、CacheNameHash）的增量清理，代替每天一次性删除所有索引的 CacheCleanTask
+ * <p>
+ * 在后台持续运行：每一步先 HSCAN、SSCAN 一批成员，再把这批成员作为 KEYS 传给清理脚本，只移除缓存数据已经过期的成员，
+ * 仍然有效的索引不受影响；
+ * 每一步之后按照 opsPerSecond 计算下一步的延迟，控制对 Redis 的压力。
+ * <p>
+ * 一轮清理先 SCAN 整个 keyspace 发现所有的 KeySet，再扫描 CacheNameHash，最后按名称顺序扫描所有的 KeySet。
+ * 扫描进度（目标、游标）记录在 Redis 中，同一时间只有持有租约的节点执行清理，其他节点接手时从检查点继续，不会重复清理。
+ * <p>
+ * Cluster 模式下 SCAN 只能覆盖一个节点，因此跳过 keyspace 的扫描；每个分片依次扫描自己的 CacheNameHash、KeySet，
+ * 分片的 KeySet 记录在带有相同 hash tag 的 Set 中，清理脚本只访问同一个 slot 中的 key
+ *
+ * @author twinkle
+ * @version 2026/10/18 23:50
+ */
+public class CacheIndexSweeper {
+    private static final Logger log = LoggerFactory.getLogger(CacheIndexSweeper.class);
+
+    /**
+     * 清理租约的 key
+     */
+    private static final String LEASE_KEY = "C7264226X_INDEX_SWEEP_LEASE";
+    /**
+     * 扫描进度的 Hash
+     */
+    private static final String CHECKPOINT_KEY = "C7264226X_INDEX_SWEEP_CHECKPOINT";
+    /**
+     * 记录所有 KeySet 的 Set
+     */
+    private static final String KEY_SETS_KEY = "C7264226X_INDEX_SWEEP_KEY_SETS";
+
+    private static final String FIELD_TARGET = "target";
+    private static final String FIELD_BUCKET = "bucket";
+    private static final String FIELD_CURSOR = "cursor";
+    private static final String FIELD_NEXT_ROUND = "nextRound";
+    private static final String FIELD_ROUND_REMOVED = "roundRemoved";
+
+    private static final String INITIAL_CURSOR = "0";
+    /**
+     * 检查点中表示 SCAN 整个 keyspace、发现 KeySet 的目标
+     */
+    private static final String KEYSPACE_TARGET = "*";
+
+    @SuppressWarnings("rawtypes")
+    private static final RedisScript<List> SCAN_INDEX_SCRIPT = loadScript("scan_index.lua", List.class);
+    private static final RedisScript<Long> SWEEP_SCRIPT = loadScript("sweep_index.lua", Long.class);
+    @SuppressWarnings("rawtypes")
+    private static final RedisScript<List> SCAN_KEY_SETS_SCRIPT = loadScript("scan_key_sets.lua", List.class);
+    private static final RedisScript<Long> RENEW_LEASE_SCRIPT = loadScript("renew_lease.lua", Long.class);
+    private static final RedisScript<Long> RELEASE_LEASE_SCRIPT = loadScript("release_lease.lua", Long.class);
+
+    private static <T> RedisScript<T> loadScript(String name, Class<T> resultType) {
+        DefaultRedisScript<T> script = new DefaultRedisScript<>();
+        script.setLocation(new ClassPathResource("cx/twinkle/rediscache/lua/" + name));
+        script.setResultType(resultType);
+        return script;
+    }
+
+    private TaskScheduler taskScheduler;
+    private StringRedisTemplate redisTemplate;
+    private IndexSweepConfig config = new IndexSweepConfig();
+    /**
+     * 缓存数据、索引的 key 布局，需要与 RedisCacheServiceImpl 保持一致
+     */
+    private CacheKeyLayout keyLayout = CacheKeyLayout.STANDALONE;
+    /**
+     * 租约令牌，每个实例不同
+     */
+    private final String token = UUID.randomUUID().toString();
+    private volatile boolean running;
+    private volatile boolean leaseHeld;
+    /**
+     * 当前实例检查、移除的 key 个数
+     */
+    private final LongAdder checkedCount = new LongAdder();
+    private final LongAdder removedCount = new LongAdder();
+
+    public CacheIndexSweeper(TaskScheduler taskScheduler, StringRedisTemplate redisTemplate) {
+        this.taskScheduler = taskScheduler;
+        this.redisTemplate = redisTemplate;
+    }
+
+    @PostConstruct
+    public void start() {
+        running = true;
+        this.scheduleNext(config.getLeaseTime().toMillis() / 2);
+        log.info("Redis缓存 KeySet、CacheNameHash 增量清理任务启动成功！opsPerSecond = {}", config.getOpsPerSecond());
+    }
+
+    /**
+     * 停止清理，并释放租约，其他节点可以立即接手
+     */
+    public void shutdown() {
+        running = false;
+        if (!leaseHeld) {
+            return;
+        }
+        leaseHeld = false;
+        try {
+            redisTemplate.execute(RELEASE_LEASE_SCRIPT, Collections.singletonList(LEASE_KEY), token);
+        } catch (Exception e) {
+            log.warn("释放索引清理租约失败！", e);
+        }
+    }
+
+    private void scheduleNext(long delayMillis) {
+        if (running) {
+            taskScheduler.schedule(this::sweepStep, new Date(System.currentTimeMillis() + delayMillis));
+        }
+    }
+
+    private void sweepStep() {
+        if (!running) {
+            return;
+        }
+        long leaseMillis = config.getLeaseTime().toMillis();
+        long delay;
+        try {
+            delay = this.holdLease() ? this.sweepBatch() : leaseMillis / 2;
+        } catch (Exception e) {
+            log.warn("索引清理失败！稍后重试！", e);
+            delay = leaseMillis / 2;
+        }
+        // 持有租约时，等待的时间不能超过租约的有效期，否则租约会被其他节点获取
+        this.scheduleNext(leaseHeld ? Math.min(delay, leaseMillis / 2) : delay);
+    }
+
+    /**
+     * 获取或者续期租约
+     *
+     * @return 当前实例是否持有租约
+     */
+    private boolean holdLease() {
+        String leaseMillis = String.valueOf(config.getLeaseTime().toMillis());
+        if (leaseHeld) {
+            Long renewed = redisTemplate.execute(RENEW_LEASE_SCRIPT, Collections.singletonList(LEASE_KEY), token, leaseMillis);
+            leaseHeld = renewed != null && renewed > 0L;
+            if (!leaseHeld) {
+                log.info("索引清理租约已经被其他节点获取，当前节点停止清理！");
+            }
+            return leaseHeld;
+        }
+        Boolean acquired = redisTemplate.opsForValue().setIfAbsent(LEASE_KEY, token, config.getLeaseTime());
+        leaseHeld = Boolean.TRUE.equals(acquired);
+        if (leaseHeld) {
+            log.info("获取到索引清理租约，从检查点继续清理！");
+        }
+        return leaseHeld;
+    }
+
+    /**
+     * 执行一步清理，并保存检查点
+     *
+     * @return 到下一步的延迟，单位：毫秒
+     */
+    private long sweepBatch() {
+        Map<Object, Object> checkpoint = redisTemplate.opsForHash().entries(CHECKPOINT_KEY);
+        String target = (String) checkpoint.get(FIELD_TARGET);
+        String cursor = (String) checkpoint.get(FIELD_CURSOR);
+        int bucket = (int) this.parseLong(checkpoint.get(FIELD_BUCKET));
+        if (target == null || bucket >= keyLayout.getBuckets()) {
+            long nextRound = this.parseLong(checkpoint.get(FIELD_NEXT_ROUND));
+            long now = System.currentTimeMillis();
+            if (target == null && now < nextRound) {
+                return nextRound - now;
+            }
+            bucket = 0;
+            if (keyLayout.isCluster()) {
+                target = keyLayout.withTag(CACHE_NAME_OF_KEY_HASH_KEY, bucket);
+            } else {
+                this.registerLocalKeySets();
+                target = KEYSPACE_TARGET;
+            }
+            cursor = INITIAL_CURSOR;
+            log.info("******* 开始新一轮 KeySet、CacheNameHash 增量清理~ *******");
+        }
+        String count = String.valueOf(config.getBatchSize());
+        String keySetsKey = keyLayout.withTag(KEY_SETS_KEY, bucket);
+        String keySetPrefix = keyLayout.withTag(CACHE_KEY_SET_PREFIX, bucket);
+        String nextCursor;
+        long checked, removed;
+        if (KEYSPACE_TARGET.equals(target)) {
+            List<?> result = redisTemplate.execute(SCAN_KEY_SETS_SCRIPT, Collections.singletonList(keySetsKey), cursor, count,
+                    keySetPrefix);
+            nextCursor = String.valueOf(result.get(0));
+            checked = ((Number) result.get(1)).longValue();
+            removed = 0L;
+        } else {
+            String hashKey = keyLayout.withTag(CACHE_NAME_OF_KEY_HASH_KEY, bucket);
+            boolean isHash = hashKey.equals(target);
+            List<?> result = redisTemplate.execute(SCAN_INDEX_SCRIPT, Collections.singletonList(target), cursor, count,
+                    isHash ? "hash" : "set");
+            nextCursor = String.valueOf(result.get(0));
+            List<?> members = (List<?>) result.get(1);
+            checked = isHash ? members.size() / 2 : members.size();
+            removed = this.sweepMembers(target, hashKey, keySetsKey, keySetPrefix, members, isHash);
+        }
+        checkedCount.add(checked);
+        removedCount.add(removed);
+        if (removed > 0L) {
+            redisTemplate.opsForHash().increment(CHECKPOINT_KEY, FIELD_ROUND_REMOVED, removed);
+        }
+        if (INITIAL_CURSOR.equals(nextCursor)) {
+            this.finishTarget(target, bucket);
+        } else {
+            this.saveCheckpoint(target, nextCursor, bucket);
+        }
+        return Math.max(1L, TimeUnit.SECONDS.toMillis(checked + 1L) / Math.max(1, config.getOpsPerSecond()));
+    }
+
+    /**
+     * 移除一批成员中缓存数据已经不存在的成员；清理脚本访问的 KeySet、缓存数据都通过 KEYS 传入
+     *
+     * @param members 扫描到的成员，扫描 Hash 时为 key、缓存名称交替排列
+     * @return 移除的 key 个数
+     */
+    private long sweepMembers(String target, String hashKey, String keySetsKey, String keySetPrefix, List<?> members,
+                              boolean isHash) {
+        if (members.isEmpty()) {
+            return 0L;
+        }
+        Set<String> keySets = new TreeSet<>();
+        List<String> cacheKeys = new ArrayList<>(members.size());
+        for (int i = 0; i < members.size(); i += isHash ? 2 : 1) {
+            cacheKeys.add((String) members.get(i));
+            if (isHash) {
+                keySets.add(keySetPrefix + members.get(i + 1));
+            }
+        }
+        List<String> keys = new ArrayList<>(3 + keySets.size() + cacheKeys.size());
+        keys.add(target);
+        keys.add(hashKey);
+        keys.add(keySetsKey);
+        keys.addAll(keySets);
+        keys.addAll(cacheKeys);
+        Long removed = redisTemplate.execute(SWEEP_SCRIPT, keys, String.valueOf(keySets.size()), keySetPrefix);
+        return removed == null ? 0L : removed;
+    }
+
+    private void saveCheckpoint(String target, String cursor, int bucket) {
+        Map<String, String> next = new HashMap<>(4);
+        next.put(FIELD_TARGET, target);
+        next.put(FIELD_CURSOR, cursor);
+        next.put(FIELD_BUCKET, String.valueOf(bucket));
+        redisTemplate.opsForHash().putAll(CHECKPOINT_KEY, next);
+    }
+
+    /**
+     * 一个目标扫描完成后，切换到下一个目标：keyspace -> 每个分片的 CacheNameHash -> 分片中按名称顺序的 KeySet；
+     * 所有分片的 KeySet 都扫描完成后，结束本轮清理
+     */
+    private void finishTarget(String target, int bucket) {
+        String hashKey = keyLayout.withTag(CACHE_NAME_OF_KEY_HASH_KEY, bucket);
+        String nextTarget;
+        if (KEYSPACE_TARGET.equals(target)) {
+            nextTarget = hashKey;
+        } else if (hashKey.equals(target)) {
+            nextTarget = this.nextKeySet(bucket, null);
+        } else {
+            if (!Boolean.TRUE.equals(redisTemplate.hasKey(target))) {
+                // KeySet 中所有的成员都已经移除，Redis 会自动删除空的 Set
+                redisTemplate.opsForSet().remove(keyLayout.withTag(KEY_SETS_KEY, bucket), target);
+            }
+            nextTarget = this.nextKeySet(bucket, target);
+        }
+        if (nextTarget == null && bucket + 1 < keyLayout.getBuckets()) {
+            bucket++;
+            nextTarget = keyLayout.withTag(CACHE_NAME_OF_KEY_HASH_KEY, bucket);
+        }
+        if (nextTarget != null) {
+            this.saveCheckpoint(nextTarget, INITIAL_CURSOR, bucket);
+            return;
+        }
+        Object roundRemoved = redisTemplate.opsForHash().get(CHECKPOINT_KEY, FIELD_ROUND_REMOVED);
+        redisTemplate.opsForHash().delete(CHECKPOINT_KEY, FIELD_TARGET, FIELD_CURSOR, FIELD_BUCKET, FIELD_ROUND_REMOVED);
+        redisTemplate.opsForHash().put(CHECKPOINT_KEY, FIELD_NEXT_ROUND,
+                String.valueOf(System.currentTimeMillis() + config.getRoundInterval().toMillis()));
+        log.info("Redis缓存 KeySet、CacheNameHash 本轮增量清理完毕！共移除 {} 个过期的 key。", this.parseLong(roundRemoved));
+    }
+
+    /**
+     * 按名称顺序，获取分片中下一个需要扫描的 KeySet
+     *
+     * @param bucket  分片
+     * @param current 当前的 KeySet，为空时返回第一个
+     * @return 下一个 KeySet；没有时返回 null
+     */
+    private String nextKeySet(int bucket, String current) {
+        Set<String> keySets = redisTemplate.opsForSet().members(keyLayout.withTag(KEY_SETS_KEY, bucket));
+        if (keySets == null || keySets.isEmpty()) {
+            return null;
+        }
+        TreeSet<String> sorted = new TreeSet<>(keySets);
+        return current == null ? sorted.first() : sorted.higher(current);
+    }
+
+    /**
+     * 当前实例写入过的 KeySet 也加入扫描范围，覆盖 CacheNameHash 中已经没有记录的 KeySet；只在单机模式下使用
+     */
+    private void registerLocalKeySets() {
+        Set<String> localKeySets = CacheHolder.getAndClear();
+        if (!localKeySets.isEmpty()) {
+            redisTemplate.opsForSet().add(KEY_SETS_KEY, localKeySets.toArray(new String[0]));
+        }
+    }
+
+    private long parseLong(Object value) {
+        return value == null ? 0L : Long.parseLong(value.toString());
+    }
+
+    public long getCheckedCount() {
+        return checkedCount.sum();
+    }
+
+    public long getRemovedCount() {
+        return removedCount.sum();
+    }
+
+    public boolean isLeaseHeld() {
+        return leaseHeld;
+    }
+
+    public CacheKeyLayout getKeyLayout() {
+        return keyLayout;
+    }
+
+    public void setKeyLayout(CacheKeyLayout keyLayout) {
+        this.keyLayout = keyLayout;
+    }
+
+    public IndexSweepConfig getConfig() {
+        return config;
+    }
+
+    public void setConfig(IndexSweepConfig config) {
+        this.config = config;
+    }
+}
@@ -0,0 +1,32 @@
+package cx.twinkle.rediscache.task;
+
+import javax.annotation.PostConstruct;
+import java.util.List;
+
+/**
+ * 一组 CacheIndexSweeper：开启分片时，每个分片的 Redis 上都有自己的索引，分别由一个 CacheIndexSweeper 增量清理，
+ * 租约、检查点也分别保存在各自的 Redis 上
+ *
+ * @author twinkle
+ * @version 2026/10/19 00:10
+ */
+public class CacheIndexSweeperGroup {
+    private final List<CacheIndexSweeper> sweepers;
+
+    public CacheIndexSweeperGroup(List<CacheIndexSweeper> sweepers) {
+        this.sweepers = sweepers;
+    }
+
+    @PostConstruct
+    public void start() {
+        sweepers.forEach(CacheIndexSweeper::start);
+    }
+
+    public void shutdown() {
+        sweepers.forEach(CacheIndexSweeper::shutdown);
+    }
+
+    public List<CacheIndexSweeper> getSweepers() {
+        return sweepers;
+    }
+}
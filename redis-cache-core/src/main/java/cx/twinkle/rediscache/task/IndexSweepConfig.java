@@ -0,0 +1,73 @@
+package cx.twinkle.rediscache.task;
+
+import java.time.Duration;
+
+/**
+ * 索引（KeySet、CacheNameHash）增量清理的配置
+ *
+ * @author twinkle
+ * @version 2026/10/18 23:50
+ */
+public class IndexSweepConfig {
+    /**
+     * 是否开启，默认关闭，使用旧的每日清理任务（cleanTaskCron），一次性删除所有的 KeySet、CacheNameHash；
+     * 开启后在后台持续扫描所有的索引，只移除已经过期的 key
+     */
+    private boolean enabled = false;
+    /**
+     * 每批扫描的个数，作为 SSCAN、HSCAN 的 COUNT 参数；每一批在 Redis 中原子执行，不宜过大
+     */
+    private int batchSize = 100;
+    /**
+     * 每秒操作数的上限，每检查一个 key 计为一次操作，每次扫描额外计为一次操作
+     */
+    private int opsPerSecond = 1000;
+    /**
+     * 完成一轮清理后，到下一轮开始之前的间隔
+     */
+    private Duration roundInterval = Duration.ofMinutes(10L);
+    /**
+     * 清理租约的有效期；同一时间只有持有租约的节点执行清理，节点宕机后租约到期，其他节点从检查点继续
+     */
+    private Duration leaseTime = Duration.ofSeconds(30L);
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    public int getOpsPerSecond() {
+        return opsPerSecond;
+    }
+
+    public void setOpsPerSecond(int opsPerSecond) {
+        this.opsPerSecond = opsPerSecond;
+    }
+
+    public Duration getRoundInterval() {
+        return roundInterval;
+    }
+
+    public void setRoundInterval(Duration roundInterval) {
+        this.roundInterval = roundInterval;
+    }
+
+    public Duration getLeaseTime() {
+        return leaseTime;
+    }
+
+    public void setLeaseTime(Duration leaseTime) {
+        this.leaseTime = leaseTime;
+    }
+}
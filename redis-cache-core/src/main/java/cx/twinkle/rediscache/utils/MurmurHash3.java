@@ -0,0 +1,151 @@
+package cx.twinkle.rediscache.utils;
+
+/**
+ * MurmurHash3 x64 128位 哈希算法，非加密哈希，速度远快于 MD5，用于生成定长的缓存key
+ *
+ * @author twinkle
+ * @version 2026/10/18 19:10
+ */
+public final class MurmurHash3 {
+    private static final long C1 = 0x87c37b91114253d5L;
+    private static final long C2 = 0x4cf5ad432745937fL;
+    private static final char[] HEX_CHARS = "0123456789abcdef".toCharArray();
+
+    private MurmurHash3() {
+    }
+
+    /**
+     * 计算 128位 哈希，并以 32位 十六进制字符串返回
+     *
+     * @param data   数据
+     * @param offset 起始位置
+     * @param length 长度
+     * @param seed   种子
+     * @return 32位 十六进制字符串
+     */
+    public static String hash128Hex(byte[] data, int offset, int length, long seed) {
+        long[] hash = hash128(data, offset, length, seed);
+        char[] chars = new char[32];
+        toHex(hash[0], chars, 0);
+        toHex(hash[1], chars, 16);
+        return new String(chars);
+    }
+
+    /**
+     * 计算 128位 哈希
+     *
+     * @param data   数据
+     * @param offset 起始位置
+     * @param length 长度
+     * @param seed   种子
+     * @return 长度为 2 的数组，依次为哈希的高64位、低64位
+     */
+    public static long[] hash128(byte[] data, int offset, int length, long seed) {
+        long h1 = seed, h2 = seed;
+        int blocks = length >> 4;
+        for (int i = 0; i < blocks; i++) {
+            int index = offset + (i << 4);
+            long k1 = getLong(data, index);
+            long k2 = getLong(data, index + 8);
+
+            k1 *= C1;
+            k1 = Long.rotateLeft(k1, 31);
+            k1 *= C2;
+            h1 ^= k1;
+            h1 = Long.rotateLeft(h1, 27);
+            h1 += h2;
+            h1 = h1 * 5 + 0x52dce729;
+
+            k2 *= C2;
+            k2 = Long.rotateLeft(k2, 33);
+            k2 *= C1;
+            h2 ^= k2;
+            h2 = Long.rotateLeft(h2, 31);
+            h2 += h1;
+            h2 = h2 * 5 + 0x38495ab5;
+        }
+        int tail = offset + (blocks << 4);
+        long k1 = 0L, k2 = 0L;
+        switch (length & 15) {
+            case 15:
+                k2 ^= (long) (data[tail + 14] & 0xff) << 48;
+            case 14:
+                k2 ^= (long) (data[tail + 13] & 0xff) << 40;
+            case 13:
+                k2 ^= (long) (data[tail + 12] & 0xff) << 32;
+            case 12:
+                k2 ^= (long) (data[tail + 11] & 0xff) << 24;
+            case 11:
+                k2 ^= (long) (data[tail + 10] & 0xff) << 16;
+            case 10:
+                k2 ^= (long) (data[tail + 9] & 0xff) << 8;
+            case 9:
+                k2 ^= data[tail + 8] & 0xff;
+                k2 *= C2;
+                k2 = Long.rotateLeft(k2, 33);
+                k2 *= C1;
+                h2 ^= k2;
+            case 8:
+                k1 ^= (long) (data[tail + 7] & 0xff) << 56;
+            case 7:
+                k1 ^= (long) (data[tail + 6] & 0xff) << 48;
+            case 6:
+                k1 ^= (long) (data[tail + 5] & 0xff) << 40;
+            case 5:
+                k1 ^= (long) (data[tail + 4] & 0xff) << 32;
+            case 4:
+                k1 ^= (long) (data[tail + 3] & 0xff) << 24;
+            case 3:
+                k1 ^= (long) (data[tail + 2] & 0xff) << 16;
+            case 2:
+                k1 ^= (long) (data[tail + 1] & 0xff) << 8;
+            case 1:
+                k1 ^= data[tail] & 0xff;
+                k1 *= C1;
+                k1 = Long.rotateLeft(k1, 31);
+                k1 *= C2;
+                h1 ^= k1;
+            default:
+                break;
+        }
+        h1 ^= length;
+        h2 ^= length;
+        h1 += h2;
+        h2 += h1;
+        h1 = fmix64(h1);
+        h2 = fmix64(h2);
+        h1 += h2;
+        h2 += h1;
+        return new long[]{h1, h2};
+    }
+
+    /**
+     * 小端序读取 8 个字节
+     */
+    private static long getLong(byte[] data, int index) {
+        return (data[index] & 0xffL)
+                | (data[index + 1] & 0xffL) << 8
+                | (data[index + 2] & 0xffL) << 16
+                | (data[index + 3] & 0xffL) << 24
+                | (data[index + 4] & 0xffL) << 32
+                | (data[index + 5] & 0xffL) << 40
+                | (data[index + 6] & 0xffL) << 48
+                | (data[index + 7] & 0xffL) << 56;
+    }
+
+    private static long fmix64(long k) {
+        k ^= k >>> 33;
+        k *= 0xff51afd7ed558ccdL;
+        k ^= k >>> 33;
+        k *= 0xc4ceb9fe1a85ec53L;
+        k ^= k >>> 33;
+        return k;
+    }
+
+    private static void toHex(long value, char[] chars, int offset) {
+        for (int i = 15; i >= 0; i--) {
+            chars[offset + i] = HEX_CHARS[(int) (value & 0xF)];
+            value >>>= 4;
+        }
+    }
+}
@@ -0,0 +1,30 @@
+-- 删除一批缓存数据，并从 KeySet、CacheNameHash 中移除；脚本访问的所有 key 都通过 KEYS 传入，
+-- Cluster 模式下一批 key 位于同一个 slot，整个脚本原子执行
+-- KEYS[1]：记录每个 key 对应缓存名称的 Hash
+-- KEYS[2...ARGV[1]+1]：这批 key 所属的 KeySet
+-- KEYS[ARGV[1]+2...]：需要删除的缓存key
+-- ARGV[1]：KeySet 的个数
+-- ARGV[2]：KeySet 的前缀
+-- 返回：删除的缓存数据个数
+local keySetCount = tonumber(ARGV[1])
+local keySets = {}
+for i = 2, keySetCount + 1 do
+    keySets[KEYS[i]] = true
+end
+local deleted = 0
+for i = keySetCount + 2, #KEYS do
+    local key = KEYS[i]
+    deleted = deleted + redis.call('UNLINK', key)
+    local cacheName = redis.call('HGET', KEYS[1], key)
+    local keySet = cacheName and ARGV[2] .. cacheName
+    if keySet and keySets[keySet] then
+        redis.call('HDEL', KEYS[1], key)
+        redis.call('SREM', keySet, key)
+    else
+        -- 记录的缓存名称不在传入的 KeySet 中（例如并发写入了其他缓存），只从传入的 KeySet 中移除，剩余的索引由清理任务处理
+        for j = 2, keySetCount + 1 do
+            redis.call('SREM', KEYS[j], key)
+        end
+    end
+end
+return deleted
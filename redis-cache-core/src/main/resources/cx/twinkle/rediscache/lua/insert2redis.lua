@@ -0,0 +1,16 @@
+-- 写入缓存数据，并且记录 key 所属的缓存名称；整个脚本在 Redis 中原子执行，只需要一次网络往返
+-- KEYS[1]：缓存key
+-- KEYS[2]：记录该缓存下所有 key 的 Set
+-- KEYS[3]：记录每个 key 对应缓存名称的 Hash
+-- ARGV[1]：序列化后的缓存数据
+-- ARGV[2]：过期时间，单位：秒；为 0 时表示不过期
+-- ARGV[3]：缓存名称
+local expire = tonumber(ARGV[2])
+if expire > 0 then
+    redis.call('SET', KEYS[1], ARGV[1], 'EX', expire)
+else
+    redis.call('SET', KEYS[1], ARGV[1])
+end
+redis.call('SADD', KEYS[2], KEYS[1])
+redis.call('HSET', KEYS[3], KEYS[1], ARGV[3])
+return 1
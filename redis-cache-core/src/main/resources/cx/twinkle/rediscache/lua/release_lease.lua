@@ -0,0 +1,7 @@
+-- 释放缓存加载租约：只有租约仍然属于自己时才删除，防止删除其他节点在租约过期后获取的新租约
+-- KEYS[1]：租约的 key
+-- ARGV[1]：获取租约时写入的令牌
+if redis.call('GET', KEYS[1]) == ARGV[1] then
+    return redis.call('DEL', KEYS[1])
+end
+return 0
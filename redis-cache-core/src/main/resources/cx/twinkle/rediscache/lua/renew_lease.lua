@@ -0,0 +1,8 @@
+-- 续期租约：只有租约仍然属于自己时才延长有效期
+-- KEYS[1]：租约的 key
+-- ARGV[1]：获取租约时写入的令牌
+-- ARGV[2]：新的有效期，单位：毫秒
+if redis.call('GET', KEYS[1]) == ARGV[1] then
+    return redis.call('PEXPIRE', KEYS[1], ARGV[2])
+end
+return 0
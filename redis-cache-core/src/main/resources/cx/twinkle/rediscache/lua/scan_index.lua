@@ -0,0 +1,10 @@
+-- 扫描一批 KeySet 或 CacheNameHash 的成员，只读取、不修改
+-- KEYS[1]：需要扫描的 KeySet 或 CacheNameHash
+-- ARGV[1]：游标
+-- ARGV[2]：每批扫描的个数（COUNT）
+-- ARGV[3]：KEYS[1] 为 CacheNameHash 时为 hash，否则为 set
+-- 返回：{下一个游标, 成员}；扫描 Hash 时成员为 key、缓存名称交替排列
+if ARGV[3] == 'hash' then
+    return redis.call('HSCAN', KEYS[1], ARGV[1], 'COUNT', ARGV[2])
+end
+return redis.call('SSCAN', KEYS[1], ARGV[1], 'COUNT', ARGV[2])
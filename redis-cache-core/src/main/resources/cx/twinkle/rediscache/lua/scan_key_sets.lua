@@ -0,0 +1,13 @@
+-- 增量发现 KeySet：SCAN 一批 key，把匹配 KeySet 前缀的 key 加入记录所有 KeySet 的 Set，
+-- 用于发现 CacheNameHash 中已经没有记录的 KeySet（如旧版本的每日清理删除了整个 Hash）
+-- KEYS[1]：记录所有 KeySet 的 Set
+-- ARGV[1]：游标
+-- ARGV[2]：每批扫描的个数（COUNT）
+-- ARGV[3]：KeySet 的前缀
+-- 返回：{下一个游标, 扫描的 key 个数（近似为 COUNT）, 0}
+redis.replicate_commands()
+local result = redis.call('SCAN', ARGV[1], 'MATCH', ARGV[3] .. '*', 'COUNT', ARGV[2])
+for _, keySet in ipairs(result[2]) do
+    redis.call('SADD', KEYS[1], keySet)
+end
+return {result[1], tonumber(ARGV[2]), 0}
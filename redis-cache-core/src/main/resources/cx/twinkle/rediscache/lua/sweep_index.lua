@@ -0,0 +1,36 @@
+-- 增量清理索引：检查一批 KeySet 或 CacheNameHash 的成员，只移除缓存数据已经不存在的成员；
+-- 检查、移除在同一个脚本中原子执行，不会误删并发写入的 key。脚本访问的所有 key 都通过 KEYS 传入
+-- KEYS[1]：正在扫描的 KeySet 或 CacheNameHash
+-- KEYS[2]：记录每个 key 对应缓存名称的 Hash
+-- KEYS[3]：记录所有 KeySet 的 Set，扫描 Hash 时把这批成员所属的 KeySet 加入其中
+-- KEYS[4...ARGV[1]+3]：这批成员所属的 KeySet
+-- KEYS[ARGV[1]+4...]：需要检查的缓存key
+-- ARGV[1]：KeySet 的个数
+-- ARGV[2]：KeySet 的前缀
+-- 返回：移除的 key 个数
+local keySetCount = tonumber(ARGV[1])
+local isHash = KEYS[1] == KEYS[2]
+local keySets = {}
+for i = 4, keySetCount + 3 do
+    keySets[KEYS[i]] = true
+    if isHash then
+        redis.call('SADD', KEYS[3], KEYS[i])
+    end
+end
+local removed = 0
+for i = keySetCount + 4, #KEYS do
+    local key = KEYS[i]
+    if redis.call('EXISTS', key) == 0 then
+        local cacheName = redis.call('HGET', KEYS[2], key)
+        local keySet = cacheName and ARGV[2] .. cacheName
+        redis.call('HDEL', KEYS[2], key)
+        if not isHash then
+            redis.call('SREM', KEYS[1], key)
+        end
+        if keySet and keySet ~= KEYS[1] and keySets[keySet] then
+            redis.call('SREM', keySet, key)
+        end
+        removed = removed + 1
+    end
+end
+return removed
@@ -0,0 +1,225 @@
+package cx.twinkle.rediscache.aspect;
+
+import cx.twinkle.rediscache.annotation.Cacheable;
+import cx.twinkle.rediscache.cache.InMemoryRedisCacheService;
+import cx.twinkle.rediscache.cache.NegativeCacheConfig;
+import cx.twinkle.rediscache.cache.NegativeCachePolicy;
+import cx.twinkle.rediscache.dto.CacheEntry;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 批量模式：只用未命中的元素调用方法，按照参数的顺序合并结果，批量写入新的元素以及负缓存
+ *
+ * @author twinkle
+ * @version 2026/10/19 02:55
+ */
+class RedisCacheAspectBulkTest {
+    private final InMemoryRedisCacheService cacheService = new InMemoryRedisCacheService();
+    private final CacheInfoOperator operator = new CacheInfoOperator(new DefaultListableBeanFactory());
+    private final RedisCacheAspect aspect = new RedisCacheAspect(operator, cacheService);
+    private final UserRepository repository = new UserRepository();
+
+    @Test
+    void partialHitLoadsOnlyMisses() throws Throwable {
+        cacheService.put("user::1", CacheEntry.of("cached-1"), "user");
+
+        Object result = this.invoke("findNames", 3L, 1L, 2L);
+
+        assertEquals(Collections.singletonList(Arrays.asList(3L, 2L)), repository.calls);
+        assertEquals(Arrays.asList(3L, 1L, 2L), new ArrayList<>(((Map<?, ?>) result).keySet()), "按照参数的顺序");
+        assertEquals(Arrays.asList("name-3", "cached-1", "name-2"), new ArrayList<>(((Map<?, ?>) result).values()));
+        this.awaitStored("user::2", "user::3");
+        assertEquals("name-2", cacheService.getStore().get("user::2").getValue());
+    }
+
+    @Test
+    void allHitsSkipMethod() throws Throwable {
+        cacheService.put("user::1", CacheEntry.of("cached-1"), "user");
+        cacheService.put("user::2", CacheEntry.of("cached-2"), "user");
+
+        Object result = this.invoke("findNames", 2L, 1L);
+
+        assertTrue(repository.calls.isEmpty());
+        assertEquals(Arrays.asList("cached-2", "cached-1"), new ArrayList<>(((Map<?, ?>) result).values()));
+    }
+
+    @Test
+    void duplicateElementsAreLoadedOnce() throws Throwable {
+        Object names = this.invoke("findNames", 1L, 2L, 1L);
+        Object users = this.invoke("findUsers", 4L, 4L);
+
+        assertEquals(Arrays.asList(Arrays.asList(1L, 2L), Collections.singletonList(4L)), repository.calls);
+        assertEquals(2, ((Map<?, ?>) names).size());
+        assertEquals(1, ((List<?>) users).size());
+    }
+
+    @Test
+    void listResultIsMatchedByBulkId() throws Throwable {
+        User cached = new User(2L);
+        cacheService.put("user::2", CacheEntry.of(cached), "user");
+
+        List<?> result = (List<?>) this.invoke("findUsers", 3L, 2L, 1L);
+
+        assertEquals(Collections.singletonList(Arrays.asList(3L, 1L)), repository.calls);
+        assertEquals(3, result.size());
+        assertEquals(3L, ((User) result.get(0)).id);
+        assertSame(cached, result.get(1));
+        assertEquals(1L, ((User) result.get(2)).id);
+        this.awaitStored("user::1", "user::3");
+        assertEquals(3L, ((User) cacheService.getStore().get("user::3").getValue()).id);
+    }
+
+    @Test
+    void missingElementsAreOmittedAndNotCached() throws Throwable {
+        Map<?, ?> result = (Map<?, ?>) this.invoke("findNames", 1L, UserRepository.MISSING);
+
+        assertEquals(Collections.singletonList(1L), new ArrayList<>(result.keySet()));
+        this.awaitStored("user::1");
+        assertFalse(cacheService.getStore().containsKey("user::" + UserRepository.MISSING));
+    }
+
+    @Test
+    void negativeEntriesAreWrittenAndServed() throws Throwable {
+        NegativeCacheConfig config = new NegativeCacheConfig();
+        config.setEnabled(true);
+        NegativeCachePolicy negativeCachePolicy = new NegativeCachePolicy();
+        negativeCachePolicy.setDefaultConfig(config);
+        aspect.setNegativeCachePolicy(negativeCachePolicy);
+        cacheService.put("user::5", CacheEntry.negative(null), "user");
+
+        Map<?, ?> first = (Map<?, ?>) this.invoke("findNames", 1L, UserRepository.MISSING, 5L);
+        this.awaitStored("user::1", "user::" + UserRepository.MISSING);
+        Map<?, ?> second = (Map<?, ?>) this.invoke("findNames", 1L, UserRepository.MISSING, 5L);
+
+        assertEquals(Collections.singletonList(Arrays.asList(1L, UserRepository.MISSING)), repository.calls,
+                "负缓存按照命中处理，不再调用方法");
+        assertTrue(cacheService.getStore().get("user::" + UserRepository.MISSING).isNegative());
+        assertEquals(Collections.singletonList(1L), new ArrayList<>(first.keySet()));
+        assertEquals(Collections.singletonList(1L), new ArrayList<>(second.keySet()));
+    }
+
+    @Test
+    void bulkResultsAreKeyedByBulkId() throws Exception {
+        Method findUsers = UserRepository.class.getDeclaredMethod("findUsers", List.class);
+        Object[] params = {Arrays.asList(1L, 2L)};
+        User first = new User(1L);
+        User second = new User(2L);
+
+        Map<Object, Object> results = operator.getBulkResults(findUsers, params, Arrays.asList(first, null, second));
+
+        assertEquals(2, results.size());
+        assertSame(first, results.get(1L));
+        assertSame(second, results.get(2L));
+        assertTrue(operator.getBulkResults(findUsers, params, null).isEmpty());
+        Map<Object, Object> map = Collections.singletonMap(1L, "name-1");
+        assertSame(map, operator.getBulkResults(UserRepository.class.getDeclaredMethod("findNames", List.class), params, map));
+    }
+
+    /**
+     * 通过切面调用 UserRepository 的批量方法
+     */
+    private Object invoke(String methodName, Long... ids) throws Throwable {
+        Method method = UserRepository.class.getDeclaredMethod(methodName, List.class);
+        Object[] args = {new ArrayList<>(Arrays.asList(ids))};
+        MethodSignature signature = proxy(MethodSignature.class, (proxy, m, a) ->
+                "getMethod".equals(m.getName()) ? method : null);
+        ProceedingJoinPoint pjp = proxy(ProceedingJoinPoint.class, (proxy, m, a) -> {
+            switch (m.getName()) {
+                case "getArgs":
+                    return args.clone();
+                case "getSignature":
+                    return signature;
+                case "proceed":
+                    try {
+                        return method.invoke(repository, a == null ? args : (Object[]) a[0]);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                default:
+                    return null;
+            }
+        });
+        return aspect.cacheable(pjp);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, InvocationHandler handler) {
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, handler);
+    }
+
+    /**
+     * 批量写入在线程池中异步执行，等待写入完成
+     */
+    private void awaitStored(String... keys) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5L);
+        while (!cacheService.getStore().keySet().containsAll(Arrays.asList(keys))) {
+            assertTrue(System.nanoTime() < deadline, "等待写入缓存超时：" + Arrays.toString(keys));
+            TimeUnit.MILLISECONDS.sleep(5L);
+        }
+    }
+
+    static class UserRepository {
+        /**
+         * 不存在的用户
+         */
+        static final Long MISSING = 404L;
+
+        private final List<List<Long>> calls = new ArrayList<>();
+
+        @Cacheable(cache = "user", key = "user::#{#p0}", bulk = true)
+        public Map<Long, String> findNames(List<Long> ids) {
+            calls.add(new ArrayList<>(ids));
+            Map<Long, String> names = new LinkedHashMap<>();
+            for (Long id : ids) {
+                if (!MISSING.equals(id)) {
+                    names.put(id, "name-" + id);
+                }
+            }
+            return names;
+        }
+
+        @Cacheable(cache = "user", key = "user::#{#p0}", bulk = true, bulkId = "#{#result.id}")
+        public List<User> findUsers(List<Long> ids) {
+            calls.add(new ArrayList<>(ids));
+            List<User> users = new ArrayList<>();
+            for (Long id : ids) {
+                if (!MISSING.equals(id)) {
+                    users.add(new User(id));
+                }
+            }
+            return users;
+        }
+    }
+
+    public static class User {
+        private final Long id;
+
+        User(Long id) {
+            this.id = id;
+        }
+
+        public Long getId() {
+            return id;
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package cx.twinkle.rediscache.bloom;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.RedisTemplate;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 布隆过滤器的管理：预热之前、读取失败时按照 key 存在处理，默认使用 Redis 中的位图
+ *
+ * @author twinkle
+ * @version 2026/10/19 02:45
+ */
+class BloomFilterManagerTest {
+    /**
+     * 没有连接工厂，所有 Redis 操作都会失败
+     */
+    private final BloomFilterManager manager = new BloomFilterManager(new RedisTemplate<>());
+
+    @Test
+    void defaultsToSharedRedisBitmap() {
+        assertEquals(BloomFilterConfig.MODE_REDIS, new BloomFilterConfig().getMode());
+    }
+
+    @Test
+    void failsOpenUntilWarmed() {
+        manager.setCacheConfigs(Collections.singletonMap("user", config(BloomFilterConfig.MODE_LOCAL)));
+        manager.put("user", "user::1");
+
+        assertTrue(manager.mightContain("user", "user::2"), "预热之前不拦截");
+
+        manager.markWarmed("user");
+        assertTrue(manager.mightContain("user", "user::1"));
+        assertFalse(manager.mightContain("user", "user::2"));
+    }
+
+    @Test
+    void putAllWarmsFilter() {
+        manager.setCacheConfigs(Collections.singletonMap("user", config(BloomFilterConfig.MODE_LOCAL)));
+
+        manager.putAll("user", Arrays.asList("user::1", "user::2"));
+
+        assertTrue(manager.mightContain("user", "user::1"));
+        assertTrue(manager.mightContain("user", "user::2"));
+        assertFalse(manager.mightContain("user", "user::3"));
+    }
+
+    @Test
+    void disabledCacheAlwaysMightContain() {
+        manager.setCacheConfigs(Collections.singletonMap("user", config(BloomFilterConfig.MODE_LOCAL)));
+        manager.markWarmed("user");
+
+        assertFalse(manager.isEnabled("order"));
+        assertTrue(manager.mightContain("order", "order::1"));
+    }
+
+    @Test
+    void redisFailureFailsOpen() {
+        BloomFilterConfig config = new BloomFilterConfig();
+        config.setEnabled(true);
+        manager.setDefaultConfig(config);
+
+        manager.put("user", "user::1");
+
+        assertTrue(manager.mightContain("user", "user::2"), "读取 Redis 失败时按照 key 存在处理");
+    }
+
+    private static BloomFilterConfig config(String mode) {
+        BloomFilterConfig config = new BloomFilterConfig();
+        config.setEnabled(true);
+        config.setMode(mode);
+        config.setExpectedInsertions(1000L);
+        return config;
+    }
+}
@@ -0,0 +1,78 @@
+package cx.twinkle.rediscache.bloom;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 布隆过滤器：位数组的大小、哈希函数的个数、key 对应的位置，以及实际的误判率
+ *
+ * @author twinkle
+ * @version 2026/10/19 02:40
+ */
+class LocalBloomFilterTest {
+
+    @Test
+    void sizesFromExpectedInsertionsAndProbability() {
+        LocalBloomFilter filter = new LocalBloomFilter(1_000_000L, 0.01D);
+
+        // m = -n * ln(p) / (ln2)^2，k = m / n * ln2
+        assertEquals(9_585_059L, filter.getNumBits());
+        assertEquals(7, filter.getNumHashes());
+    }
+
+    @Test
+    void sizeIsClamped() {
+        assertEquals(64L, new LocalBloomFilter(1L, 0.01D).getNumBits(), "位数组至少 64 位");
+        assertEquals(AbstractBloomFilter.MAX_BITS, new RedisBloomFilter(null, "c", 10_000_000_000L, 0.000_001D).getNumBits(),
+                "位数组不超过 Redis 位图的最大长度");
+        assertEquals(new LocalBloomFilter(1000L, 0.5D).getNumBits(), new LocalBloomFilter(1000L, 0.9D).getNumBits(),
+                "误判率最大按照 0.5 计算");
+        assertEquals(new LocalBloomFilter(1L, 0.01D).getNumBits(), new LocalBloomFilter(0L, 0.01D).getNumBits());
+    }
+
+    @Test
+    void positionsAreStableAndInRange() {
+        LocalBloomFilter filter = new LocalBloomFilter(10_000L, 0.01D);
+        LocalBloomFilter other = new LocalBloomFilter(10_000L, 0.01D);
+
+        long[] positions = filter.positions("user::getUser-v2_0-1");
+
+        assertEquals(filter.getNumHashes(), positions.length);
+        assertArrayEquals(positions, other.positions("user::getUser-v2_0-1"), "同样的参数，位置相同，本地与 Redis 的位置一致");
+        for (long position : positions) {
+            assertTrue(position >= 0 && position < filter.getNumBits());
+        }
+        Set<Long> distinct = new HashSet<>();
+        Arrays.stream(positions).forEach(distinct::add);
+        assertTrue(distinct.size() > 1);
+        assertFalse(Arrays.equals(positions, filter.positions("user::getUser-v2_0-2")));
+    }
+
+    @Test
+    void falsePositiveRateIsNearConfigured() {
+        LocalBloomFilter filter = new LocalBloomFilter(10_000L, 0.01D);
+        for (int i = 0; i < 10_000; i++) {
+            filter.put("user::getUser-v2_0-" + i);
+        }
+
+        for (int i = 0; i < 10_000; i++) {
+            assertTrue(filter.mightContain("user::getUser-v2_0-" + i), "添加过的 key 一定存在");
+        }
+        int falsePositives = 0;
+        for (int i = 10_000; i < 110_000; i++) {
+            if (filter.mightContain("user::getUser-v2_0-" + i)) {
+                falsePositives++;
+            }
+        }
+        double rate = falsePositives / 100_000D;
+        assertTrue(rate > 0.005D && rate < 0.015D, "误判率：" + rate);
+    }
+}
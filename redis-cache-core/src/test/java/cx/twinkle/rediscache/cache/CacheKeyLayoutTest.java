@@ -0,0 +1,93 @@
+package cx.twinkle.rediscache.cache;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.ClusterSlotHashUtil;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 缓存 key 的布局：Cluster 模式下缓存数据与它的索引位于同一个 slot，单机模式下 key 保持原样
+ *
+ * @author twinkle
+ * @version 2026/10/19 02:10
+ */
+class CacheKeyLayoutTest {
+    private static final String KEY_SET = RedisCacheServiceImpl.CACHE_KEY_SET_PREFIX + "user";
+
+    @Test
+    void standaloneKeepsKeys() {
+        CacheKeyLayout layout = CacheKeyLayout.STANDALONE;
+
+        assertFalse(layout.isCluster());
+        assertEquals(1, layout.getBuckets());
+        assertEquals(0, layout.bucketOf("user::getUser-v2_0-1"));
+        assertEquals(0, layout.slotOf(0));
+        assertEquals("user::getUser-v2_0-1", layout.dataKey("user::getUser-v2_0-1"));
+        assertEquals(KEY_SET, layout.withTag(KEY_SET, 0));
+    }
+
+    @Test
+    void tagsHashToEvenlySpacedSlots() {
+        CacheKeyLayout layout = CacheKeyLayout.cluster(16);
+
+        assertTrue(layout.isCluster());
+        assertEquals(16, layout.getBuckets());
+        for (int bucket = 0; bucket < 16; bucket++) {
+            assertEquals(bucket * 1024, layout.slotOf(bucket));
+            assertEquals(layout.slotOf(bucket), ClusterSlotHashUtil.calculateSlot(layout.withTag(KEY_SET, bucket)));
+        }
+    }
+
+    @Test
+    void dataKeySharesSlotWithItsIndex() {
+        CacheKeyLayout layout = CacheKeyLayout.cluster(64);
+
+        for (int i = 0; i < 10_000; i++) {
+            String cacheKey = "user::getUser-v2_0-" + i;
+            int bucket = layout.bucketOf(cacheKey);
+            String dataKey = layout.dataKey(cacheKey);
+
+            assertEquals(bucket, layout.bucketOf(cacheKey), "同一个 key 总是属于同一个分片");
+            assertTrue(dataKey.endsWith(cacheKey));
+            assertEquals(layout.slotOf(bucket), ClusterSlotHashUtil.calculateSlot(dataKey));
+            assertEquals(ClusterSlotHashUtil.calculateSlot(dataKey),
+                    ClusterSlotHashUtil.calculateSlot(layout.withTag(KEY_SET, bucket)));
+        }
+    }
+
+    @Test
+    void keysSpreadOverBuckets() {
+        CacheKeyLayout layout = CacheKeyLayout.cluster(16);
+        int[] counts = new int[16];
+        for (int i = 0; i < 16_000; i++) {
+            counts[layout.bucketOf("user::getUser-v2_0-" + i)]++;
+        }
+
+        for (int count : counts) {
+            assertTrue(count > 700 && count < 1300, "分片中的 key 个数：" + count);
+        }
+    }
+
+    @Test
+    void everySlotCanBeABucket() {
+        CacheKeyLayout layout = CacheKeyLayout.cluster(CacheKeyLayout.SLOT_COUNT);
+        Set<Integer> slots = new HashSet<>();
+        for (int bucket = 0; bucket < layout.getBuckets(); bucket++) {
+            slots.add(ClusterSlotHashUtil.calculateSlot(layout.withTag("", bucket)));
+        }
+
+        assertEquals(CacheKeyLayout.SLOT_COUNT, slots.size());
+    }
+
+    @Test
+    void rejectsInvalidBuckets() {
+        assertThrows(IllegalArgumentException.class, () -> CacheKeyLayout.cluster(0));
+        assertThrows(IllegalArgumentException.class, () -> CacheKeyLayout.cluster(CacheKeyLayout.SLOT_COUNT + 1));
+    }
+}
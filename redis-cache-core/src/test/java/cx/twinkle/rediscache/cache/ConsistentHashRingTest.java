@@ -0,0 +1,109 @@
+package cx.twinkle.rediscache.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 一致性哈希环：增加、移除一个节点时只有约 1/N 的 key 重新映射，并且只在相关的节点之间移动
+ *
+ * @author twinkle
+ * @version 2026/10/19 02:00
+ */
+class ConsistentHashRingTest {
+    private static final int VIRTUAL_NODES = 160;
+    private static final int KEYS = 100_000;
+
+    @Test
+    void addingNodeRemapsAboutOneNth() {
+        ConsistentHashRing<String> before = ring(4);
+        ConsistentHashRing<String> after = ring(5);
+
+        int moved = 0;
+        for (int i = 0; i < KEYS; i++) {
+            String key = "user::getUser-v2_0-" + i;
+            String from = before.get(key);
+            String to = after.get(key);
+            if (!from.equals(to)) {
+                moved++;
+                assertEquals("node-4", to, "key 只能移动到新增的节点");
+            }
+        }
+        double fraction = moved / (double) KEYS;
+        assertTrue(fraction > 0.15 && fraction < 0.25, "重新映射的比例：" + fraction);
+    }
+
+    @Test
+    void removingNodeOnlyRemapsItsKeys() {
+        ConsistentHashRing<String> before = ring(5);
+        Map<String, String> nodes = nodes(5);
+        nodes.remove("node-2");
+        ConsistentHashRing<String> after = new ConsistentHashRing<>(nodes, VIRTUAL_NODES);
+
+        int moved = 0;
+        for (int i = 0; i < KEYS; i++) {
+            String key = "user::getUser-v2_0-" + i;
+            String from = before.get(key);
+            String to = after.get(key);
+            if (!from.equals(to)) {
+                moved++;
+                assertEquals("node-2", from, "只有被移除节点上的 key 需要移动");
+            }
+        }
+        double fraction = moved / (double) KEYS;
+        assertTrue(fraction > 0.15 && fraction < 0.25, "重新映射的比例：" + fraction);
+    }
+
+    @Test
+    void keysAreSpreadEvenly() {
+        ConsistentHashRing<String> ring = ring(4);
+        Map<String, Integer> counts = new HashMap<>();
+        for (int i = 0; i < KEYS; i++) {
+            counts.merge(ring.get("key-" + i), 1, Integer::sum);
+        }
+
+        assertEquals(4, counts.size());
+        for (Map.Entry<String, Integer> count : counts.entrySet()) {
+            double share = count.getValue() / (double) KEYS;
+            assertTrue(share > 0.18 && share < 0.32, count.getKey() + " 的比例：" + share);
+        }
+    }
+
+    @Test
+    void routingDependsOnlyOnNodeNames() {
+        Map<String, String> reversed = new LinkedHashMap<>();
+        for (int i = 3; i >= 0; i--) {
+            reversed.put("node-" + i, "node-" + i);
+        }
+        ConsistentHashRing<String> ring = ring(4);
+        ConsistentHashRing<String> reversedRing = new ConsistentHashRing<>(reversed, VIRTUAL_NODES);
+
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(ring.get("key-" + i), reversedRing.get("key-" + i));
+        }
+    }
+
+    @Test
+    void rejectsEmptyRing() {
+        assertThrows(IllegalArgumentException.class, () -> new ConsistentHashRing<>(new HashMap<String, String>(), 1));
+        assertThrows(IllegalArgumentException.class, () -> new ConsistentHashRing<>(nodes(1), 0));
+    }
+
+    private static ConsistentHashRing<String> ring(int size) {
+        return new ConsistentHashRing<>(nodes(size), VIRTUAL_NODES);
+    }
+
+    private static Map<String, String> nodes(int size) {
+        Map<String, String> nodes = new LinkedHashMap<>();
+        for (int i = 0; i < size; i++) {
+            nodes.put("node-" + i, "node-" + i);
+        }
+        return nodes;
+    }
+}
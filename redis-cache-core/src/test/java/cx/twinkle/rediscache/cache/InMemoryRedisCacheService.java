@@ -0,0 +1,100 @@
+package cx.twinkle.rediscache.cache;
+
+import cx.twinkle.rediscache.dto.CacheEntry;
+import cx.twinkle.rediscache.dto.MethodCacheInfo;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 测试用的 RedisCacheService：数据直接保存在内存中，记录读取次数；读取时可以执行一段回调，模拟读取期间发生的事件
+ *
+ * @author twinkle
+ * @version 2026/10/19 02:20
+ */
+public class InMemoryRedisCacheService implements RedisCacheService {
+    private final ConcurrentMap<String, CacheEntry> store = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, String> cacheNames = new ConcurrentHashMap<>();
+    private final AtomicInteger reads = new AtomicInteger();
+    private volatile Runnable onRead;
+
+    @Override
+    public Object getFromRedis(String key) {
+        CacheEntry entry = this.read(key);
+        return entry == null || entry.isNegative() ? null : entry.getValue();
+    }
+
+    @Override
+    public CacheEntry getEntry(MethodCacheInfo cacheInfo) {
+        return this.read(cacheInfo.getCacheKey());
+    }
+
+    private CacheEntry read(String key) {
+        reads.incrementAndGet();
+        CacheEntry entry = store.get(key);
+        Runnable callback = onRead;
+        if (callback != null) {
+            callback.run();
+        }
+        return entry;
+    }
+
+    @Override
+    public void insert2Redis(String key, Object value, Duration duration, String cacheName) {
+        this.put(key, CacheEntry.of(value), cacheName);
+    }
+
+    @Override
+    public void insertEntry(MethodCacheInfo cacheInfo, CacheEntry entry) {
+        this.put(cacheInfo.getCacheKey(), entry, cacheInfo.getCacheName());
+    }
+
+    public void put(String key, CacheEntry entry, String cacheName) {
+        store.put(key, entry);
+        cacheNames.put(key, cacheName);
+    }
+
+    @Override
+    public long deleteByKey(String... keys) {
+        long deleted = 0L;
+        for (String key : keys) {
+            cacheNames.remove(key);
+            if (store.remove(key) != null) {
+                deleted++;
+            }
+        }
+        return deleted;
+    }
+
+    @Override
+    public long deleteByCacheName(String cacheName) {
+        long deleted = 0L;
+        for (Map.Entry<String, String> entry : cacheNames.entrySet()) {
+            if (entry.getValue().equals(cacheName)) {
+                deleted += this.deleteByKey(entry.getKey());
+            }
+        }
+        return deleted;
+    }
+
+    /**
+     * 读取 Redis 的次数
+     */
+    public int getReads() {
+        return reads.get();
+    }
+
+    public Map<String, CacheEntry> getStore() {
+        return store;
+    }
+
+    /**
+     * 每次读取数据之后、返回之前执行的回调
+     */
+    public void setOnRead(Runnable onRead) {
+        this.onRead = onRead;
+    }
+}
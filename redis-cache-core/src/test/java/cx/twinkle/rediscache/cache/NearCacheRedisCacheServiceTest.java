@@ -0,0 +1,178 @@
+package cx.twinkle.rediscache.cache;
+
+import cx.twinkle.rediscache.dto.CacheEntry;
+import cx.twinkle.rediscache.dto.MethodCacheInfo;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * 近端缓存：失效消息的编码，删除时的广播，收到失效消息时删除本地缓存，以及与失效并发的读取不写入本地缓存
+ *
+ * @author twinkle
+ * @version 2026/10/19 02:15
+ */
+class NearCacheRedisCacheServiceTest {
+    private static final String INSTANCE_ID = "0b6c2a1e-4f5d-4c8a-9e21-7d3f6b5a4c10";
+    private static final MethodCacheInfo USER_1 = new MethodCacheInfo("getUser", "user", "user::getUser-v2_0-1");
+
+    private final InMemoryRedisCacheService delegate = new InMemoryRedisCacheService();
+    private final CapturingRedisTemplate redisTemplate = new CapturingRedisTemplate();
+    private final NearCacheRedisCacheService nearCacheService = new NearCacheRedisCacheService(delegate, redisTemplate);
+
+    NearCacheRedisCacheServiceTest() {
+        NearCacheConfig config = new NearCacheConfig();
+        config.setEnabled(true);
+        nearCacheService.setDefaultConfig(config);
+    }
+
+    @Test
+    void encodedMessageRoundTrip() {
+        String message = NearCacheRedisCacheService.encode(INSTANCE_ID, "K", "user",
+                "user::getUser-v2_0-1", "key\nwith\nnewlines", "12:34", "");
+
+        assertEquals(Arrays.asList(INSTANCE_ID, "K", "user", "user::getUser-v2_0-1", "key\nwith\nnewlines", "12:34", ""),
+                NearCacheRedisCacheService.decode(message));
+    }
+
+    @Test
+    void encodesLengthPrefixedFields() {
+        assertEquals("36:" + INSTANCE_ID + "1:C4:user", NearCacheRedisCacheService.encode(INSTANCE_ID, "C", "user"));
+    }
+
+    @Test
+    void decodesLegacyNewlineFormat() {
+        assertEquals(Arrays.asList(INSTANCE_ID, "K", "user", "user::a", "user::b"),
+                NearCacheRedisCacheService.decode(INSTANCE_ID + "\nK\nuser\nuser::a\nuser::b"));
+    }
+
+    @Test
+    void ignoresMalformedMessage() {
+        assertEquals(Collections.emptyList(), NearCacheRedisCacheService.decode("36:" + INSTANCE_ID + "1:K99:user"));
+        assertEquals(Collections.emptyList(), NearCacheRedisCacheService.decode("36:" + INSTANCE_ID + "x:K"));
+    }
+
+    @Test
+    void deletePublishesWithoutLocalCache() {
+        // 当前实例从来没有读取过任何缓存，本地缓存还没有创建
+        nearCacheService.deleteByKey(USER_1.getCacheKey());
+        nearCacheService.deleteByCacheName("user");
+
+        assertEquals(Arrays.asList(
+                Arrays.asList(nearCacheService.getInstanceId(), "K", "", USER_1.getCacheKey()),
+                Arrays.asList(nearCacheService.getInstanceId(), "C", "user")), redisTemplate.decodedMessages());
+    }
+
+    @Test
+    void readsAreServedFromLocalCache() {
+        delegate.put(USER_1.getCacheKey(), CacheEntry.of("v1"), "user");
+
+        assertEquals("v1", nearCacheService.getFromRedis(USER_1));
+        assertEquals("v1", nearCacheService.getFromRedis(USER_1));
+
+        assertEquals(1, delegate.getReads());
+    }
+
+    @Test
+    void receivedKeyMessageInvalidatesLocalCache() {
+        delegate.put(USER_1.getCacheKey(), CacheEntry.of("v1"), "user");
+        nearCacheService.getFromRedis(USER_1);
+        delegate.put(USER_1.getCacheKey(), CacheEntry.of("v2"), "user");
+
+        this.receive(NearCacheRedisCacheService.encode(nearCacheService.getInstanceId(), "K", "user", USER_1.getCacheKey()));
+        assertEquals("v1", nearCacheService.getFromRedis(USER_1), "忽略自己发出的失效消息");
+
+        this.receive(NearCacheRedisCacheService.encode(INSTANCE_ID, "K", "", USER_1.getCacheKey()));
+        assertEquals("v2", nearCacheService.getFromRedis(USER_1));
+        assertEquals(2, delegate.getReads());
+    }
+
+    @Test
+    void receivedCacheMessageInvalidatesLocalCache() {
+        delegate.put(USER_1.getCacheKey(), CacheEntry.of("v1"), "user");
+        nearCacheService.getFromRedis(USER_1);
+        delegate.put(USER_1.getCacheKey(), CacheEntry.of("v2"), "user");
+
+        this.receive(NearCacheRedisCacheService.encode(INSTANCE_ID, "C", "user"));
+
+        assertEquals("v2", nearCacheService.getFromRedis(USER_1));
+    }
+
+    @Test
+    void fillRacingWithInvalidationIsDropped() {
+        delegate.put(USER_1.getCacheKey(), CacheEntry.of("v1"), "user");
+        // 读取 Redis 得到 v1 之后、写入本地缓存之前，其他实例更新了数据并发出失效消息
+        delegate.setOnRead(() -> {
+            delegate.setOnRead(null);
+            delegate.put(USER_1.getCacheKey(), CacheEntry.of("v2"), "user");
+            this.receive(NearCacheRedisCacheService.encode(INSTANCE_ID, "K", "user", USER_1.getCacheKey()));
+        });
+
+        assertEquals("v1", nearCacheService.getFromRedis(USER_1), "本次读取仍然返回读到的数据");
+        assertEquals("v2", nearCacheService.getFromRedis(USER_1), "读到的旧数据没有写入本地缓存");
+        assertEquals(2, delegate.getReads());
+    }
+
+    @Test
+    void fillRacingWithCacheInvalidationIsDropped() {
+        delegate.put(USER_1.getCacheKey(), CacheEntry.of("v1"), "user");
+        delegate.setOnRead(() -> {
+            delegate.setOnRead(null);
+            delegate.put(USER_1.getCacheKey(), CacheEntry.of("v2"), "user");
+            this.receive(NearCacheRedisCacheService.encode(INSTANCE_ID, "C", "user"));
+        });
+
+        nearCacheService.getFromRedis(USER_1);
+
+        assertEquals("v2", nearCacheService.getFromRedis(USER_1));
+    }
+
+    @Test
+    void localWritePublishesAndUpdatesLocalCache() {
+        nearCacheService.insertEntry(USER_1, CacheEntry.of("v1"));
+
+        assertEquals("v1", nearCacheService.getFromRedis(USER_1));
+        assertEquals(0, delegate.getReads());
+        assertEquals(Collections.singletonList(Arrays.asList(nearCacheService.getInstanceId(), "K", "user", USER_1.getCacheKey())),
+                redisTemplate.decodedMessages());
+
+        nearCacheService.deleteByKey(USER_1.getCacheKey());
+        assertNull(nearCacheService.getFromRedis(USER_1));
+    }
+
+    private void receive(String body) {
+        nearCacheService.onMessage(new DefaultMessage(
+                NearCacheRedisCacheService.NEAR_CACHE_INVALIDATE_CHANNEL.getBytes(StandardCharsets.UTF_8),
+                body.getBytes(StandardCharsets.UTF_8)), null);
+    }
+
+    /**
+     * 记录发送的失效消息，不连接 Redis
+     */
+    private static class CapturingRedisTemplate extends StringRedisTemplate {
+        private final List<String> messages = new ArrayList<>();
+
+        @Override
+        public void convertAndSend(String channel, Object message) {
+            assertEquals(NearCacheRedisCacheService.NEAR_CACHE_INVALIDATE_CHANNEL, channel);
+            messages.add((String) message);
+        }
+
+        private List<List<String>> decodedMessages() {
+            List<List<String>> decoded = new ArrayList<>();
+            for (String message : messages) {
+                decoded.add(NearCacheRedisCacheService.decode(message));
+            }
+            return decoded;
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package cx.twinkle.rediscache.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 共用线程池：线程数达到上限或者已经关闭时由调用方线程执行，关闭之后的延时任务直接丢弃
+ *
+ * @author twinkle
+ * @version 2026/10/19 02:35
+ */
+class RedisCacheExecutorsTest {
+
+    @Test
+    void saturatedWorkerRunsOnCaller() throws InterruptedException {
+        ExecutorConfig config = new ExecutorConfig();
+        config.setMaxThreads(1);
+        RedisCacheExecutors executors = new RedisCacheExecutors(config);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        try {
+            executors.getWorker().execute(() -> {
+                started.countDown();
+                await(release);
+            });
+            assertTrue(started.await(5L, TimeUnit.SECONDS));
+
+            AtomicReference<Thread> thread = new AtomicReference<>();
+            executors.getWorker().execute(() -> thread.set(Thread.currentThread()));
+
+            assertSame(Thread.currentThread(), thread.get());
+            assertEquals(1L, executors.getCallerRunsCount());
+        } finally {
+            release.countDown();
+            executors.shutdown();
+        }
+    }
+
+    @Test
+    void tasksAfterShutdownStillRun() {
+        RedisCacheExecutors executors = new RedisCacheExecutors(new ExecutorConfig());
+        executors.shutdown();
+
+        AtomicReference<Thread> thread = new AtomicReference<>();
+        executors.getWorker().execute(() -> thread.set(Thread.currentThread()));
+        ScheduledFuture<?> timeout = executors.getScheduler().schedule(() -> { }, 1L, TimeUnit.MILLISECONDS);
+
+        assertSame(Thread.currentThread(), thread.get());
+        assertFalse(timeout.isDone(), "关闭之后的延时任务直接丢弃，不抛出异常");
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5L, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
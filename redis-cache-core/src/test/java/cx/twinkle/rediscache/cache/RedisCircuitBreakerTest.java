@@ -0,0 +1,195 @@
+package cx.twinkle.rediscache.cache;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.QueryTimeoutException;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 熔断器的状态切换：关闭 -> 打开 -> 半开 -> 关闭 / 重新打开，以及延迟预算
+ *
+ * @author twinkle
+ * @version 2026/10/19 02:05
+ */
+class RedisCircuitBreakerTest {
+    private final RedisCircuitBreaker circuitBreaker = new RedisCircuitBreaker();
+
+    private static CircuitBreakerConfig config() {
+        CircuitBreakerConfig config = new CircuitBreakerConfig();
+        config.setEnabled(true);
+        config.setReadTimeout(Duration.ZERO);
+        config.setWindowSize(10);
+        config.setMinimumCalls(5);
+        config.setFailureRateThreshold(50.0);
+        config.setSlowCallDuration(Duration.ofSeconds(10L));
+        config.setSlowCallRateThreshold(50.0);
+        config.setOpenDuration(Duration.ofMillis(50L));
+        config.setHalfOpenCalls(3);
+        return config;
+    }
+
+    @Test
+    void opensAfterFailuresAndClosesAfterSuccessfulProbes() throws InterruptedException {
+        circuitBreaker.setConfig(config());
+
+        for (int i = 0; i < 4; i++) {
+            this.fail();
+        }
+        assertEquals(RedisCircuitBreaker.State.CLOSED, circuitBreaker.getState(), "读取次数不足 minimumCalls");
+        this.fail();
+        assertEquals(RedisCircuitBreaker.State.OPEN, circuitBreaker.getState());
+        assertEquals(1L, circuitBreaker.getOpenCount());
+
+        assertFalse(circuitBreaker.tryAcquire());
+        assertEquals(1L, circuitBreaker.getNotPermittedCount());
+
+        TimeUnit.MILLISECONDS.sleep(60L);
+        for (int i = 0; i < 3; i++) {
+            assertTrue(circuitBreaker.tryAcquire());
+            assertEquals(RedisCircuitBreaker.State.HALF_OPEN, circuitBreaker.getState());
+            assertEquals("v", circuitBreaker.call(() -> "v"));
+        }
+        assertEquals(RedisCircuitBreaker.State.CLOSED, circuitBreaker.getState());
+        assertEquals(3L, circuitBreaker.getSuccessCount());
+        assertEquals(5L, circuitBreaker.getFailureCount());
+    }
+
+    @Test
+    void reopensWhenProbesFail() throws InterruptedException {
+        circuitBreaker.setConfig(config());
+        for (int i = 0; i < 5; i++) {
+            this.fail();
+        }
+        TimeUnit.MILLISECONDS.sleep(60L);
+
+        assertTrue(circuitBreaker.tryAcquire());
+        assertTrue(circuitBreaker.tryAcquire());
+        assertTrue(circuitBreaker.tryAcquire());
+        assertFalse(circuitBreaker.tryAcquire(), "半开状态下只放行 halfOpenCalls 次读取");
+        circuitBreaker.call(() -> "v");
+        this.fail();
+        assertEquals(RedisCircuitBreaker.State.HALF_OPEN, circuitBreaker.getState());
+        this.fail();
+
+        assertEquals(RedisCircuitBreaker.State.OPEN, circuitBreaker.getState());
+        assertEquals(2L, circuitBreaker.getOpenCount());
+        assertFalse(circuitBreaker.tryAcquire());
+    }
+
+    @Test
+    void onlyRecentCallsCount() {
+        circuitBreaker.setConfig(config());
+        for (int i = 0; i < 10; i++) {
+            circuitBreaker.call(() -> "v");
+        }
+        for (int i = 0; i < 4; i++) {
+            this.fail();
+        }
+        assertEquals(RedisCircuitBreaker.State.CLOSED, circuitBreaker.getState(), "窗口中 4/10 失败");
+
+        this.fail();
+
+        assertEquals(RedisCircuitBreaker.State.OPEN, circuitBreaker.getState(), "窗口中 5/10 失败，更早的读取已经移出窗口");
+    }
+
+    @Test
+    void opensOnSlowCalls() {
+        CircuitBreakerConfig config = config();
+        config.setSlowCallDuration(Duration.ofMillis(5L));
+        circuitBreaker.setConfig(config);
+
+        for (int i = 0; i < 5; i++) {
+            assertEquals("v", circuitBreaker.call(() -> {
+                sleep(10L);
+                return "v";
+            }));
+        }
+
+        assertEquals(RedisCircuitBreaker.State.OPEN, circuitBreaker.getState());
+        assertEquals(0L, circuitBreaker.getFailureCount());
+    }
+
+    @Test
+    void syncReadOverBudgetReturnsResultButCountsAsFailure() {
+        CircuitBreakerConfig config = config();
+        config.setReadTimeout(Duration.ofMillis(5L));
+        circuitBreaker.setConfig(config);
+
+        assertEquals("v", circuitBreaker.call(() -> {
+            sleep(20L);
+            return "v";
+        }));
+
+        assertEquals(1L, circuitBreaker.getTimeoutCount());
+        assertEquals(1L, circuitBreaker.getFailureCount());
+        assertEquals(0L, circuitBreaker.getSuccessCount());
+    }
+
+    @Test
+    void asyncReadOverBudgetTimesOut() {
+        CircuitBreakerConfig config = config();
+        config.setReadTimeout(Duration.ofMillis(20L));
+        circuitBreaker.setConfig(config);
+        ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+        circuitBreaker.setTimeoutScheduler(scheduler);
+        try {
+            CompletableFuture<Object> result = circuitBreaker.callAsync(CompletableFuture::new);
+
+            ExecutionException e = assertThrows(ExecutionException.class, () -> result.get(5L, TimeUnit.SECONDS));
+            assertTrue(e.getCause() instanceof QueryTimeoutException);
+            assertEquals(1L, circuitBreaker.getTimeoutCount());
+            assertEquals(1L, circuitBreaker.getFailureCount());
+            assertEquals("v", circuitBreaker.callAsync(() -> CompletableFuture.completedFuture("v")).join());
+        } finally {
+            scheduler.shutdownNow();
+        }
+    }
+
+    @Test
+    void asyncReadWithoutSchedulerIsNotTimedOut() {
+        CircuitBreakerConfig config = config();
+        config.setReadTimeout(Duration.ofMillis(1L));
+        circuitBreaker.setConfig(config);
+        CompletableFuture<Object> read = new CompletableFuture<>();
+
+        CompletableFuture<Object> result = circuitBreaker.callAsync(() -> read);
+        sleep(20L);
+        assertFalse(result.isDone());
+        read.complete("v");
+
+        assertEquals("v", result.join());
+        assertEquals(0L, circuitBreaker.getTimeoutCount());
+    }
+
+    @Test
+    void rejectsInvalidConfig() {
+        CircuitBreakerConfig config = config();
+        config.setWindowSize(0);
+
+        assertThrows(IllegalArgumentException.class, () -> circuitBreaker.setConfig(config));
+    }
+
+    private void fail() {
+        assertThrows(IllegalStateException.class, () -> circuitBreaker.call(() -> {
+            throw new IllegalStateException("redis down");
+        }));
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package cx.twinkle.rediscache.cache;
+
+import cx.twinkle.rediscache.dto.CacheEntry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 提前刷新：固定比例与 XFetch 在固定的写入时间、执行耗时、随机数下的判断结果
+ *
+ * @author twinkle
+ * @version 2026/10/19 03:00
+ */
+class RefreshAheadPolicyTest {
+    private static final long WRITE_TIME = 1_000_000L;
+    private static final Duration TTL = Duration.ofSeconds(60L);
+    private static final long EXPIRE_AT = WRITE_TIME + TTL.toMillis();
+
+    private final RefreshAheadPolicy policy = new RefreshAheadPolicy();
+
+    @Test
+    void fixedRatioRefreshesAfterRatioOfTtl() {
+        CacheEntry entry = new CacheEntry("v", WRITE_TIME, 0L);
+
+        assertFalse(policy.shouldRefresh(entry, TTL, "user", WRITE_TIME + 47_999L, 1.0D));
+        assertTrue(policy.shouldRefresh(entry, TTL, "user", WRITE_TIME + 48_000L, 1.0D), "默认比例 0.8");
+    }
+
+    @Test
+    void cacheConfigOverridesDefault() {
+        RefreshAheadConfig config = new RefreshAheadConfig();
+        config.setRefreshAfterRatio(0.5D);
+        policy.setCacheConfigs(Collections.singletonMap("user", config));
+        CacheEntry entry = new CacheEntry("v", WRITE_TIME, 0L);
+
+        assertTrue(policy.shouldRefresh(entry, TTL, "user", WRITE_TIME + 30_000L, 1.0D));
+        assertFalse(policy.shouldRefresh(entry, TTL, "order", WRITE_TIME + 30_000L, 1.0D));
+    }
+
+    @Test
+    void entriesWithoutMetadataOrTtlAreNeverRefreshed() {
+        long now = EXPIRE_AT + 1L;
+
+        assertFalse(policy.shouldRefresh(CacheEntry.of("v"), TTL, "user", now, 1.0D));
+        assertFalse(policy.shouldRefresh(new CacheEntry("v", WRITE_TIME, 0L), null, "user", now, 1.0D));
+        assertFalse(policy.shouldRefresh(new CacheEntry("v", WRITE_TIME, 0L), Duration.ZERO, "user", now, 1.0D));
+        assertFalse(policy.shouldRefresh(new CacheEntry("v", WRITE_TIME, 0L), Duration.ofSeconds(-1L), "user", now, 1.0D));
+    }
+
+    @Test
+    void xfetchWithoutComputeTimeRefreshesAtExpiry() {
+        policy.setDefaultConfig(xfetch(1.0D));
+        CacheEntry entry = new CacheEntry("v", WRITE_TIME, 0L);
+
+        // 执行耗时为 0 时，即使随机数取到最小值也不会提前刷新
+        assertFalse(policy.shouldRefresh(entry, TTL, "user", EXPIRE_AT - 1L, Double.MIN_VALUE));
+        assertTrue(policy.shouldRefresh(entry, TTL, "user", EXPIRE_AT, 1.0D));
+    }
+
+    @Test
+    void xfetchRefreshesEarlierForLongComputeTime() {
+        policy.setDefaultConfig(xfetch(1.0D));
+        CacheEntry entry = new CacheEntry("v", WRITE_TIME, 10_000L);
+        // -ln(e^-2) = 2，提前 10_000 * 1 * 2 = 20_000 ms
+        double random = Math.exp(-2.0D);
+
+        assertFalse(policy.shouldRefresh(entry, TTL, "user", EXPIRE_AT - 20_001L, random));
+        assertTrue(policy.shouldRefresh(entry, TTL, "user", EXPIRE_AT - 19_999L, random));
+        assertFalse(policy.shouldRefresh(entry, TTL, "user", EXPIRE_AT - 1L, 1.0D), "随机数为 1 时不会提前刷新");
+    }
+
+    @Test
+    void xfetchEarliestRefreshIsBounded() {
+        policy.setDefaultConfig(xfetch(1.0D));
+        CacheEntry entry = new CacheEntry("v", WRITE_TIME, 10L);
+
+        // -ln(Double.MIN_VALUE) ≈ 744.4，最多提前 10 * 744.4 ≈ 7_444 ms
+        assertFalse(policy.shouldRefresh(entry, TTL, "user", EXPIRE_AT - 7_450L, Double.MIN_VALUE));
+        assertTrue(policy.shouldRefresh(entry, TTL, "user", EXPIRE_AT - 7_440L, Double.MIN_VALUE));
+    }
+
+    @Test
+    void betaScalesHowEarlyToRefresh() {
+        CacheEntry entry = new CacheEntry("v", WRITE_TIME, 10_000L);
+        double random = Math.exp(-1.0D);
+        long now = EXPIRE_AT - 15_000L;
+
+        policy.setDefaultConfig(xfetch(0.0D));
+        assertFalse(policy.shouldRefresh(entry, TTL, "user", EXPIRE_AT - 1L, Double.MIN_VALUE), "beta 为 0 时不会提前刷新");
+        assertTrue(policy.shouldRefresh(entry, TTL, "user", EXPIRE_AT, Double.MIN_VALUE));
+
+        policy.setDefaultConfig(xfetch(1.0D));
+        assertFalse(policy.shouldRefresh(entry, TTL, "user", now, random), "提前 10_000 ms");
+
+        policy.setDefaultConfig(xfetch(2.0D));
+        assertTrue(policy.shouldRefresh(entry, TTL, "user", now, random), "提前 20_000 ms");
+    }
+
+    @Test
+    void usesCurrentTime() {
+        policy.setDefaultConfig(xfetch(1.0D));
+        long now = System.currentTimeMillis();
+
+        assertFalse(policy.shouldRefresh(new CacheEntry("v", now, 0L), TTL, "user"));
+        assertTrue(policy.shouldRefresh(new CacheEntry("v", now - TTL.toMillis(), 0L), TTL, "user"));
+    }
+
+    private static RefreshAheadConfig xfetch(double beta) {
+        RefreshAheadConfig config = new RefreshAheadConfig();
+        config.setEnabled(true);
+        config.setProbabilistic(true);
+        config.setBeta(beta);
+        return config;
+    }
+}
@@ -0,0 +1,230 @@
+package cx.twinkle.rediscache.cache;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.RedisTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 副本读取：选择副本的策略，读取失败的副本不被优先选择，失败时改为读取主节点，以及对冲读取
+ *
+ * @author twinkle
+ * @version 2026/10/19 02:30
+ */
+class ReplicaReaderTest {
+    private final RedisTemplate<byte[], byte[]> primary = new RedisTemplate<>();
+    private final RedisTemplate<byte[], byte[]> replicaA = new RedisTemplate<>();
+    private final RedisTemplate<byte[], byte[]> replicaB = new RedisTemplate<>();
+    /**
+     * 副本 a 的行为，默认立即返回
+     */
+    private volatile Runnable behaviourA = () -> { };
+    /**
+     * 副本 b 的行为，默认立即返回
+     */
+    private volatile Runnable behaviourB = () -> { };
+    /**
+     * 返回读取的节点名称
+     */
+    private final Function<RedisTemplate<byte[], byte[]>, String> operation = template -> {
+        if (template == replicaA) {
+            behaviourA.run();
+            return "a";
+        }
+        if (template == replicaB) {
+            behaviourB.run();
+            return "b";
+        }
+        return "primary";
+    };
+
+    @Test
+    void roundRobinAlternatesReplicas() {
+        ReplicaReader reader = this.reader(config(ReplicaReader.STRATEGY_ROUND_ROBIN), true);
+
+        assertEquals(Arrays.asList("a", "b", "a", "b"), this.read(reader, 4));
+    }
+
+    @Test
+    void lowestLatencyPrefersFasterReplica() {
+        ReplicaReader reader = this.reader(config(ReplicaReader.STRATEGY_LOWEST_LATENCY), true);
+        behaviourA = () -> sleep(5L);
+
+        List<String> results = this.read(reader, 32);
+
+        // 每 16 次读取轮询一次，刷新其他副本的延迟
+        assertEquals(2L, count(results, "a"));
+        assertEquals(30L, count(results, "b"));
+    }
+
+    @Test
+    void failingReplicaIsNotFavoured() {
+        ReplicaReader reader = this.reader(config(ReplicaReader.STRATEGY_LOWEST_LATENCY), true);
+        behaviourA = () -> {
+            throw new IllegalStateException("replica down");
+        };
+        behaviourB = () -> sleep(1L);
+
+        List<String> results = this.read(reader, 32);
+
+        // 快速失败的副本只在轮询时被选择
+        assertEquals(2L, count(results, "primary"));
+        assertEquals(30L, count(results, "b"));
+        assertEquals(2L, reader.getFallbackCount());
+    }
+
+    @Test
+    void failedReplicaIsSelectedAgainAfterSuccessfulProbe() {
+        ReplicaReader reader = this.reader(config(ReplicaReader.STRATEGY_LOWEST_LATENCY), true);
+        behaviourA = () -> {
+            throw new IllegalStateException("replica down");
+        };
+        behaviourB = () -> sleep(1L);
+        this.read(reader, 16);
+        behaviourA = () -> { };
+
+        assertEquals(Arrays.asList("a", "a"), this.read(reader, 2), "轮询到的读取成功后，按照新的延迟选择");
+    }
+
+    @Test
+    void fallsBackToPrimary() {
+        ReplicaReader reader = this.reader(config(ReplicaReader.STRATEGY_ROUND_ROBIN), false);
+        behaviourA = () -> {
+            throw new IllegalStateException("replica down");
+        };
+
+        assertEquals("primary", reader.read(operation));
+        assertEquals(1L, reader.getFallbackCount());
+    }
+
+    @Test
+    void readsOnCallerThreadUntilHedgeDelayIsKnown() {
+        RedisCacheExecutors executors = new RedisCacheExecutors(new ExecutorConfig());
+        try {
+            ReplicaReader reader = this.reader(hedgeConfig(), true);
+            reader.setExecutor(executors.getWorker());
+            Thread caller = Thread.currentThread();
+            List<Thread> threads = new ArrayList<>();
+            behaviourA = () -> threads.add(Thread.currentThread());
+            behaviourB = () -> threads.add(Thread.currentThread());
+
+            this.read(reader, 127);
+
+            assertEquals(Long.MAX_VALUE, reader.getHedgeDelayNanos());
+            assertTrue(threads.stream().allMatch(thread -> thread == caller));
+        } finally {
+            executors.shutdown();
+        }
+    }
+
+    @Test
+    void failuresDoNotFeedHedgeDelay() {
+        ReplicaReader reader = this.reader(hedgeConfig(), false);
+        behaviourA = () -> {
+            throw new IllegalStateException("replica down");
+        };
+
+        this.read(reader, 256);
+
+        assertEquals(Long.MAX_VALUE, reader.getHedgeDelayNanos());
+        assertEquals(256L, reader.getFallbackCount());
+    }
+
+    @Test
+    void slowReadIsHedgedToPrimary() {
+        RedisCacheExecutors executors = new RedisCacheExecutors(new ExecutorConfig());
+        try {
+            ReplicaReader reader = this.reader(hedgeConfig(), false);
+            reader.setExecutor(executors.getWorker());
+            this.read(reader, 128);
+            assertEquals(TimeUnit.MILLISECONDS.toNanos(1L), reader.getHedgeDelayNanos(), "读取延迟低于下限时使用下限");
+
+            behaviourA = () -> sleep(500L);
+            long start = System.nanoTime();
+            String result = reader.read(operation);
+
+            assertEquals("primary", result);
+            assertTrue(System.nanoTime() - start < TimeUnit.MILLISECONDS.toNanos(400L));
+            assertEquals(1L, reader.getHedgedCount());
+            assertEquals(1L, reader.getHedgeWonCount());
+            assertEquals(0L, reader.getFallbackCount());
+        } finally {
+            executors.shutdown();
+        }
+    }
+
+    @Test
+    void hedgeGoesToAnotherReplica() {
+        RedisCacheExecutors executors = new RedisCacheExecutors(new ExecutorConfig());
+        try {
+            ReplicaReader reader = this.reader(hedgeConfig(), true);
+            reader.setExecutor(executors.getWorker());
+            this.read(reader, 128);
+            // 轮询：下一次读取先选择副本 a
+            behaviourA = () -> sleep(500L);
+
+            assertEquals("b", reader.read(operation));
+            assertEquals(1L, reader.getHedgedCount());
+        } finally {
+            executors.shutdown();
+        }
+    }
+
+    private ReplicaReader reader(ReplicaReadConfig config, boolean twoReplicas) {
+        Map<String, RedisTemplate<byte[], byte[]>> replicas = new LinkedHashMap<>();
+        replicas.put("a", replicaA);
+        if (twoReplicas) {
+            replicas.put("b", replicaB);
+        }
+        ReplicaReader reader = new ReplicaReader(replicas, primary);
+        reader.setConfig(config);
+        assertSame(config, reader.getConfig());
+        return reader;
+    }
+
+    private List<String> read(ReplicaReader reader, int times) {
+        List<String> results = new ArrayList<>();
+        for (int i = 0; i < times; i++) {
+            results.add(reader.read(operation));
+        }
+        return results;
+    }
+
+    private static ReplicaReadConfig config(String strategy) {
+        ReplicaReadConfig config = new ReplicaReadConfig();
+        config.setEnabled(true);
+        config.setStrategy(strategy);
+        return config;
+    }
+
+    private static ReplicaReadConfig hedgeConfig() {
+        ReplicaReadConfig config = config(ReplicaReader.STRATEGY_ROUND_ROBIN);
+        config.setHedgeEnabled(true);
+        config.setHedgePercentile(50.0);
+        config.setHedgeMinDelay(Duration.ofMillis(1L));
+        return config;
+    }
+
+    private static long count(List<String> results, String node) {
+        return results.stream().filter(node::equals).count();
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
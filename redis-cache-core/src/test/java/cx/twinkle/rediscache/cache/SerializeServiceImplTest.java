@@ -0,0 +1,173 @@
+package cx.twinkle.rediscache.cache;
+
+import cx.twinkle.rediscache.codec.DeflateCacheCompressor;
+import cx.twinkle.rediscache.codec.JacksonCacheCodec;
+import cx.twinkle.rediscache.codec.JdkCacheCodec;
+import cx.twinkle.rediscache.codec.KryoCacheCodec;
+import cx.twinkle.rediscache.codec.Lz4CacheCompressor;
+import cx.twinkle.rediscache.dto.CacheEntry;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 缓存数据的二进制格式：格式头、压缩、元数据、空结果占位数据，以及旧版本字符串格式的读取
+ *
+ * @author twinkle
+ * @version 2026/10/19 01:40
+ */
+class SerializeServiceImplTest {
+    private final SerializeServiceImpl serializeService = new SerializeServiceImpl();
+
+    @Test
+    void writesHeaderWithCodecId() {
+        List<String> list = new ArrayList<>(Arrays.asList("a", "b"));
+        byte[] jdk = serializeService.serializeToBytes("hello", "c", JdkCacheCodec.NAME);
+        byte[] jackson = serializeService.serializeToBytes(list, "c", JacksonCacheCodec.NAME);
+        byte[] kryo = serializeService.serializeToBytes(list, "c", KryoCacheCodec.NAME);
+
+        assertEquals(SerializeServiceImpl.FORMAT_MAGIC, jdk[0]);
+        assertEquals(JdkCacheCodec.ID, jdk[1]);
+        assertEquals(JacksonCacheCodec.ID, jackson[1]);
+        assertEquals(KryoCacheCodec.ID, kryo[1]);
+        assertEquals("hello", serializeService.deserializeFromBytes(jdk, "c"));
+        assertEquals(list, serializeService.deserializeFromBytes(jackson, "c"));
+        assertEquals(list, serializeService.deserializeFromBytes(kryo, "c"));
+    }
+
+    @Test
+    void unknownCodecFallsBackToAuto() {
+        byte[] bytes = serializeService.serializeToBytes("hello", "c", "unknown");
+
+        assertEquals(JdkCacheCodec.ID, bytes[1]);
+        assertEquals("hello", serializeService.deserializeFromBytes(bytes, "c"));
+    }
+
+    @Test
+    void compressesAboveThreshold() {
+        for (String algorithm : Arrays.asList(DeflateCacheCompressor.NAME, Lz4CacheCompressor.NAME)) {
+            CompressionConfig config = new CompressionConfig();
+            config.setEnabled(true);
+            config.setThreshold(64);
+            config.setAlgorithm(algorithm);
+            serializeService.setDefaultCompression(config);
+            String value = String.join("", Collections.nCopies(200, "redis-cache"));
+
+            byte[] compressed = serializeService.serializeToBytes(value, "c", JdkCacheCodec.NAME);
+            byte[] small = serializeService.serializeToBytes("tiny", "c", JdkCacheCodec.NAME);
+
+            assertNotEquals(0, compressed[2] & SerializeServiceImpl.COMPRESSOR_MASK, algorithm);
+            assertTrue(compressed.length < value.length(), algorithm);
+            assertEquals(value, serializeService.deserializeFromBytes(compressed, "c"), algorithm);
+            assertEquals(0, small[2] & SerializeServiceImpl.COMPRESSOR_MASK, algorithm);
+            assertEquals("tiny", serializeService.deserializeFromBytes(small, "c"), algorithm);
+        }
+    }
+
+    @Test
+    void perCacheCompressionOverridesDefault() {
+        CompressionConfig config = new CompressionConfig();
+        config.setEnabled(true);
+        config.setThreshold(0);
+        config.setAlgorithm(DeflateCacheCompressor.NAME);
+        serializeService.setCacheCompressions(Collections.singletonMap("big", config));
+        String value = String.join("", Collections.nCopies(200, "x"));
+
+        byte[] plain = serializeService.serializeToBytes(value, "other", JdkCacheCodec.NAME);
+        byte[] compressed = serializeService.serializeToBytes(value, "big", JdkCacheCodec.NAME);
+
+        assertEquals(0, plain[2] & SerializeServiceImpl.COMPRESSOR_MASK);
+        assertEquals(DeflateCacheCompressor.ID, compressed[2] & SerializeServiceImpl.COMPRESSOR_MASK);
+        assertEquals(1L, serializeService.getCompressionStatistics().get("big").getCompressCount());
+    }
+
+    @Test
+    void metadataRoundTrip() {
+        CompressionConfig config = new CompressionConfig();
+        config.setEnabled(true);
+        config.setThreshold(0);
+        serializeService.setDefaultCompression(config);
+        String value = String.join("", Collections.nCopies(100, "value"));
+
+        for (String codec : Arrays.asList(JdkCacheCodec.NAME, JacksonCacheCodec.NAME, KryoCacheCodec.NAME)) {
+            byte[] bytes = serializeService.serializeEntry(new CacheEntry(value, 1_700_000_000_123L, 4_000_000_000L), "c", codec);
+            CacheEntry entry = serializeService.deserializeEntry(bytes, "c");
+
+            assertNotEquals(0, bytes[2] & SerializeServiceImpl.FLAG_METADATA, codec);
+            assertEquals(value, entry.getValue(), codec);
+            assertEquals(1_700_000_000_123L, entry.getWriteTime(), codec);
+            assertEquals(4_000_000_000L, entry.getComputeMillis(), codec);
+            assertTrue(entry.hasMetadata(), codec);
+            assertFalse(entry.isNegative(), codec);
+        }
+    }
+
+    @Test
+    void negativeSentinelRoundTrip() {
+        Object[] emptyValues = {null, "", new ArrayList<>(), new HashSet<>(), new HashMap<>()};
+        for (Object emptyValue : emptyValues) {
+            byte[] bytes = serializeService.serializeEntry(CacheEntry.negative(emptyValue), "c", JdkCacheCodec.NAME);
+            CacheEntry entry = serializeService.deserializeEntry(bytes, "c");
+
+            assertEquals(4, bytes.length);
+            assertTrue(entry.isNegative());
+            assertEquals(emptyValue, entry.getValue());
+            assertNull(serializeService.deserializeFromBytes(bytes, "c"), "占位数据不能作为普通数据读取");
+        }
+        CacheEntry list = serializeService.deserializeEntry(
+                serializeService.serializeEntry(CacheEntry.negative(new ArrayList<>()), "c", JdkCacheCodec.NAME), "c");
+        assertTrue(list.getValue() instanceof List);
+        CacheEntry map = serializeService.deserializeEntry(
+                serializeService.serializeEntry(CacheEntry.negative(new HashMap<>()), "c", JdkCacheCodec.NAME), "c");
+        assertTrue(map.getValue() instanceof Map);
+    }
+
+    @Test
+    void readsLegacyStringFormat() {
+        Map<String, Integer> map = new HashMap<>();
+        map.put("a", 1);
+        byte[] serializable = serializeService.serialize("legacy").getBytes(StandardCharsets.UTF_8);
+        byte[] mapBytes = serializeService.serialize(map).getBytes(StandardCharsets.UTF_8);
+
+        assertNotEquals(SerializeServiceImpl.FORMAT_MAGIC, serializable[0]);
+        assertEquals("legacy", serializeService.deserializeFromBytes(serializable, "c"));
+        assertEquals(map, serializeService.deserializeFromBytes(mapBytes, "c"));
+        CacheEntry entry = serializeService.deserializeEntry(serializable, "c");
+        assertFalse(entry.hasMetadata());
+        assertFalse(entry.isNegative());
+    }
+
+    @Test
+    void legacyFormatWritesPlainStringAndRejectsNegative() {
+        serializeService.setLegacyFormat(true);
+
+        byte[] bytes = serializeService.serializeEntry(new CacheEntry("v", 1L, 1L), "c", JdkCacheCodec.NAME);
+
+        assertArrayEquals(serializeService.serialize("v").getBytes(StandardCharsets.UTF_8), bytes);
+        assertEquals("v", serializeService.deserializeFromBytes(bytes, "c"));
+        assertThrows(IllegalArgumentException.class,
+                () -> serializeService.serializeEntry(CacheEntry.negative(null), "c", JdkCacheCodec.NAME));
+    }
+
+    @Test
+    void emptyOrTruncatedBytesReadAsMiss() {
+        assertNull(serializeService.deserializeEntry(null, "c"));
+        assertNull(serializeService.deserializeEntry(new byte[0], "c"));
+        assertNull(serializeService.deserializeEntry(new byte[]{SerializeServiceImpl.FORMAT_MAGIC, 1, 0}, "c"));
+    }
+}
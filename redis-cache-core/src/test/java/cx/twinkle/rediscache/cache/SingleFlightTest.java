@@ -0,0 +1,231 @@
+package cx.twinkle.rediscache.cache;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+
+import java.lang.reflect.Proxy;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * JVM 内的缓存击穿保护：同一个 key 只执行一次方法，等待超时后调用方自己执行
+ *
+ * @author twinkle
+ * @version 2026/10/19 01:50
+ */
+class SingleFlightTest {
+    /**
+     * 缓存写入任务先保存下来，由测试决定何时执行；执行之前 key 一直处于执行中
+     */
+    private final List<Runnable> pendingWrites = new ArrayList<>();
+    private final SingleFlight singleFlight = new SingleFlight(null, this::addPendingWrite);
+
+    private synchronized void addPendingWrite(Runnable write) {
+        pendingWrites.add(write);
+    }
+
+    private synchronized void runPendingWrites() {
+        pendingWrites.forEach(Runnable::run);
+        pendingWrites.clear();
+    }
+
+    @Test
+    void waitersShareLeaderResult() throws Exception {
+        AtomicInteger loads = new AtomicInteger();
+        AtomicInteger writes = new AtomicInteger();
+        CountDownLatch entered = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Object value = new Object();
+        ExecutorService threads = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<Object>> results = new ArrayList<>();
+            results.add(this.submit(threads, "k", () -> {
+                loads.incrementAndGet();
+                entered.countDown();
+                release.await();
+                return value;
+            }, writes));
+            assertTrue(entered.await(5L, TimeUnit.SECONDS));
+            for (int i = 0; i < 7; i++) {
+                results.add(this.submit(threads, "k", () -> {
+                    loads.incrementAndGet();
+                    return new Object();
+                }, writes));
+            }
+            release.countDown();
+
+            for (Future<Object> result : results) {
+                assertSame(value, result.get(5L, TimeUnit.SECONDS));
+            }
+            assertEquals(1, loads.get());
+            assertEquals(0, writes.get(), "写入任务还没有执行");
+            runPendingWrites();
+            assertEquals(1, writes.get(), "只有执行方法的线程写入缓存");
+        } finally {
+            threads.shutdownNow();
+        }
+    }
+
+    @Test
+    void keyIsReleasedAfterWrite() throws Throwable {
+        AtomicInteger loads = new AtomicInteger();
+        AtomicInteger writes = new AtomicInteger();
+
+        this.execute("k", loads::incrementAndGet, writes);
+        assertEquals(1, this.execute("k", loads::incrementAndGet, writes), "写入完成之前合并到上一次的结果");
+        runPendingWrites();
+
+        assertEquals(2, this.execute("k", loads::incrementAndGet, writes));
+        assertEquals(3, this.execute("other", loads::incrementAndGet, writes), "不同的 key 互不影响");
+    }
+
+    @Test
+    void waiterLoadsItselfAfterTimeout() throws Throwable {
+        SingleFlightConfig config = new SingleFlightConfig();
+        config.setWaitTimeout(Duration.ofMillis(50L));
+        singleFlight.setConfig(config);
+        AtomicInteger writes = new AtomicInteger();
+        CountDownLatch entered = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService threads = Executors.newSingleThreadExecutor();
+        try {
+            Future<Object> leader = this.submit(threads, "k", () -> {
+                entered.countDown();
+                release.await();
+                return "leader";
+            }, writes);
+            assertTrue(entered.await(5L, TimeUnit.SECONDS));
+
+            long start = System.nanoTime();
+            assertEquals("waiter", this.execute("k", () -> "waiter", writes));
+            assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(50L));
+
+            release.countDown();
+            assertEquals("leader", leader.get(5L, TimeUnit.SECONDS));
+            runPendingWrites();
+            assertEquals(1, writes.get(), "等待超时的线程不写入缓存");
+        } finally {
+            threads.shutdownNow();
+        }
+    }
+
+    @Test
+    void failureIsNotCached() throws Throwable {
+        AtomicInteger writes = new AtomicInteger();
+
+        assertThrows(IllegalStateException.class, () -> this.execute("k", () -> {
+            throw new IllegalStateException("load failed");
+        }, writes));
+
+        assertEquals("retry", this.execute("k", () -> "retry", writes));
+        runPendingWrites();
+        assertEquals(1, writes.get());
+    }
+
+    @Test
+    void writesInlineWhenExecutorRejects() throws Throwable {
+        SingleFlight rejecting = new SingleFlight(null, task -> {
+            throw new RejectedExecutionException();
+        });
+        AtomicInteger writes = new AtomicInteger();
+
+        assertEquals("v", rejecting.execute("k", () -> "v", () -> null, result -> writes.incrementAndGet() > 0));
+        assertEquals(1, writes.get());
+        assertEquals("v2", rejecting.execute("k", () -> "v2", () -> null, result -> writes.incrementAndGet() > 0));
+    }
+
+    @Test
+    void localWaitersOutwaitLeaseAndLoad() throws Exception {
+        SingleFlightConfig config = new SingleFlightConfig();
+        config.setDistributed(true);
+        config.setWaitTimeout(Duration.ofMillis(100L));
+        config.setPollInterval(Duration.ofMillis(10L));
+        LeaseHeldElsewhereTemplate redisTemplate = new LeaseHeldElsewhereTemplate();
+        SingleFlight distributed = new SingleFlight(redisTemplate, Runnable::run);
+        distributed.setConfig(config);
+        AtomicInteger loads = new AtomicInteger();
+        ExecutorService threads = Executors.newFixedThreadPool(5);
+        try {
+            // 租约一直被其他节点持有：执行的线程等待租约超时后才执行方法，执行时间又接近 waitTimeout
+            List<Future<Object>> results = new ArrayList<>();
+            results.add(threads.submit(() -> this.executeDistributed(distributed, loads)));
+            assertTrue(redisTemplate.polled.await(5L, TimeUnit.SECONDS));
+            for (int i = 0; i < 4; i++) {
+                results.add(threads.submit(() -> this.executeDistributed(distributed, loads)));
+            }
+
+            for (Future<Object> result : results) {
+                assertEquals("leader", result.get(5L, TimeUnit.SECONDS));
+            }
+            assertEquals(1, loads.get(), "等待的线程没有与执行的线程同时超时");
+        } finally {
+            threads.shutdownNow();
+        }
+    }
+
+    private Object executeDistributed(SingleFlight distributed, AtomicInteger loads) {
+        try {
+            return distributed.execute("k", () -> {
+                loads.incrementAndGet();
+                Thread.sleep(80L);
+                return "leader";
+            }, () -> null, result -> true);
+        } catch (Throwable e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private Future<Object> submit(ExecutorService threads, String key, SingleFlight.Loader loader, AtomicInteger writes) {
+        return threads.submit(() -> {
+            try {
+                return this.execute(key, loader, writes);
+            } catch (Throwable e) {
+                throw new IllegalStateException(e);
+            }
+        });
+    }
+
+    private Object execute(String key, SingleFlight.Loader loader, AtomicInteger writes) throws Throwable {
+        return singleFlight.execute(key, loader, () -> null, result -> writes.incrementAndGet() > 0);
+    }
+
+    /**
+     * 租约一直被其他节点持有，不连接 Redis
+     */
+    @SuppressWarnings("unchecked")
+    private static class LeaseHeldElsewhereTemplate extends StringRedisTemplate {
+        private final CountDownLatch polled = new CountDownLatch(1);
+        private final ValueOperations<String, String> valueOperations = (ValueOperations<String, String>) Proxy.newProxyInstance(
+                ValueOperations.class.getClassLoader(), new Class<?>[]{ValueOperations.class}, (proxy, method, args) -> {
+                    if ("setIfAbsent".equals(method.getName())) {
+                        polled.countDown();
+                        return Boolean.FALSE;
+                    }
+                    return null;
+                });
+
+        @Override
+        public ValueOperations<String, String> opsForValue() {
+            return valueOperations;
+        }
+
+        @Override
+        public Boolean hasKey(String key) {
+            return Boolean.FALSE;
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package cx.twinkle.rediscache.cache;
+
+import cx.twinkle.rediscache.dto.CacheEntry;
+import cx.twinkle.rediscache.dto.MethodCacheInfo;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 过期数据：固定写入时间下的软过期判断，以及写入 Redis 时的硬过期时间
+ *
+ * @author twinkle
+ * @version 2026/10/19 03:05
+ */
+class StalePolicyTest {
+    private static final long WRITE_TIME = 1_000_000L;
+    private static final Duration SOFT_TTL = Duration.ofSeconds(60L);
+
+    private final StalePolicy policy = new StalePolicy();
+
+    @Test
+    void staleFromSoftExpiry() {
+        CacheEntry entry = new CacheEntry("v", WRITE_TIME, 500L);
+
+        assertFalse(policy.isStale(entry, SOFT_TTL, WRITE_TIME));
+        assertFalse(policy.isStale(entry, SOFT_TTL, WRITE_TIME + 59_999L));
+        assertTrue(policy.isStale(entry, SOFT_TTL, WRITE_TIME + 60_000L), "执行耗时不影响软过期时间");
+        assertTrue(policy.isStale(entry, SOFT_TTL, WRITE_TIME + 600_000L));
+    }
+
+    @Test
+    void entriesWithoutMetadataOrTtlAreNeverStale() {
+        long now = WRITE_TIME + 600_000L;
+
+        assertFalse(policy.isStale(CacheEntry.of("v"), SOFT_TTL, now));
+        assertFalse(policy.isStale(CacheEntry.negative(null), SOFT_TTL, now));
+        assertFalse(policy.isStale(new CacheEntry("v", WRITE_TIME, 0L), null, now));
+        assertFalse(policy.isStale(new CacheEntry("v", WRITE_TIME, 0L), Duration.ZERO, now));
+        assertFalse(policy.isStale(new CacheEntry("v", WRITE_TIME, 0L), Duration.ofSeconds(-1L), now));
+    }
+
+    @Test
+    void usesCurrentTime() {
+        long now = System.currentTimeMillis();
+
+        assertFalse(policy.isStale(new CacheEntry("v", now, 0L), SOFT_TTL));
+        assertTrue(policy.isStale(new CacheEntry("v", now - SOFT_TTL.toMillis(), 0L), SOFT_TTL));
+    }
+
+    @Test
+    void hardTtlAddsGrace() {
+        MethodCacheInfo cacheInfo = new MethodCacheInfo("getUser", "user", "user::getUser-v2_0-1", SOFT_TTL, "json");
+
+        MethodCacheInfo hard = policy.withHardTtl(cacheInfo);
+
+        assertEquals(Duration.ofMinutes(6L), hard.getExpireTime(), "默认 grace 为 5 分钟");
+        assertEquals(cacheInfo.getMethodName(), hard.getMethodName());
+        assertEquals(cacheInfo.getCacheName(), hard.getCacheName());
+        assertEquals(cacheInfo.getCacheKey(), hard.getCacheKey());
+        assertEquals(cacheInfo.getCodec(), hard.getCodec());
+        assertEquals(SOFT_TTL, cacheInfo.getExpireTime(), "原来的缓存信息不变");
+    }
+
+    @Test
+    void hardTtlUsesCacheGrace() {
+        StaleConfig config = new StaleConfig();
+        config.setGrace(Duration.ofSeconds(30L));
+        policy.setCacheConfigs(Collections.singletonMap("user", config));
+
+        assertEquals(Duration.ofSeconds(90L),
+                policy.withHardTtl(new MethodCacheInfo("getUser", "user", "user::1", SOFT_TTL)).getExpireTime());
+        assertEquals(Duration.ofSeconds(360L),
+                policy.withHardTtl(new MethodCacheInfo("getOrder", "order", "order::1", SOFT_TTL)).getExpireTime());
+    }
+
+    @Test
+    void hardTtlKeepsCacheWithoutTtl() {
+        MethodCacheInfo noExpire = new MethodCacheInfo("getUser", "user", "user::1");
+        MethodCacheInfo zero = new MethodCacheInfo("getUser", "user", "user::1", Duration.ZERO);
+        MethodCacheInfo negative = new MethodCacheInfo("getUser", "user", "user::1", Duration.ofSeconds(-1L));
+
+        assertSame(noExpire, policy.withHardTtl(noExpire));
+        assertSame(zero, policy.withHardTtl(zero));
+        assertSame(negative, policy.withHardTtl(negative), "与 isStale 一致，负数视为没有设置过期时间");
+    }
+}
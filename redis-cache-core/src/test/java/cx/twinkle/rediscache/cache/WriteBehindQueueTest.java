@@ -0,0 +1,278 @@
+package cx.twinkle.rediscache.cache;
+
+import cx.twinkle.rediscache.dto.CacheEntry;
+import cx.twinkle.rediscache.dto.CacheWrite;
+import cx.twinkle.rediscache.dto.MethodCacheInfo;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 异步写入队列：按照 key 合并、队列已满时的处理、删除缓存时取消写入、关闭时写完剩余数据
+ *
+ * @author twinkle
+ * @version 2026/10/19 01:55
+ */
+class WriteBehindQueueTest {
+    private final RecordingCacheService cacheService = new RecordingCacheService();
+    private final WriteBehindQueue queue = new WriteBehindQueue(cacheService);
+
+    @AfterEach
+    void tearDown() {
+        cacheService.release.countDown();
+        queue.shutdown();
+    }
+
+    @Test
+    void coalescesWritesOfSameKey() {
+        WriteBehindConfig config = new WriteBehindConfig();
+        config.setBatchSize(100);
+        config.setFlushInterval(Duration.ofSeconds(10L));
+        queue.setConfig(config);
+        queue.start();
+
+        queue.offer(write("c", "a", 1));
+        queue.offer(write("c", "b", 1));
+        queue.offer(write("c", "a", 2));
+
+        assertEquals(2, queue.getQueueSize());
+        assertEquals(1L, queue.getStatistics().getCoalesceCount());
+        queue.shutdown();
+        assertEquals(Arrays.asList("a=2", "b=1"), cacheService.written());
+        assertEquals(1, cacheService.batches.get(), "合并后的数据通过一次 pipeline 写入");
+        assertEquals(2L, queue.getStatistics().getWriteCount());
+    }
+
+    @Test
+    void discardsNewWriteWhenFull() throws Exception {
+        this.fillQueue(WriteBehindConfig.OVERFLOW_DISCARD);
+
+        queue.offer(write("c", "d", 1));
+
+        assertEquals(1L, queue.getStatistics().getDropCount());
+        cacheService.release.countDown();
+        queue.shutdown();
+        assertEquals(Arrays.asList("a=1", "b=1", "c=1"), cacheService.written());
+    }
+
+    @Test
+    void discardsOldestWriteWhenFull() throws Exception {
+        this.fillQueue(WriteBehindConfig.OVERFLOW_DISCARD_OLDEST);
+
+        queue.offer(write("c", "d", 1));
+
+        assertEquals(1L, queue.getStatistics().getDropCount());
+        cacheService.release.countDown();
+        queue.shutdown();
+        assertEquals(Arrays.asList("a=1", "c=1", "d=1"), cacheService.written());
+    }
+
+    @Test
+    void callerWritesWhenFull() throws Exception {
+        this.fillQueue(WriteBehindConfig.OVERFLOW_CALLER_RUNS);
+
+        queue.offer(write("c", "d", 1));
+
+        assertEquals(1L, queue.getStatistics().getCallerRunsCount());
+        assertEquals(Collections.singletonList("d=1"), cacheService.written(), "调用方线程同步写入，不等待后台线程");
+        cacheService.release.countDown();
+        queue.shutdown();
+        assertEquals(Arrays.asList("d=1", "a=1", "b=1", "c=1"), cacheService.written());
+    }
+
+    @Test
+    void offerWaitsForFreeSlot() throws Exception {
+        this.fillQueue(WriteBehindConfig.OVERFLOW_DISCARD);
+        queue.getConfig().setOfferTimeout(Duration.ofSeconds(5L));
+        new Thread(() -> {
+            sleep(100L);
+            queue.cancel("b");
+        }).start();
+
+        queue.offer(write("c", "d", 1));
+
+        assertEquals(0L, queue.getStatistics().getDropCount());
+        cacheService.release.countDown();
+        queue.shutdown();
+        assertEquals(Arrays.asList("a=1", "c=1", "d=1"), cacheService.written());
+    }
+
+    @Test
+    void cancelRemovesPendingAndWaitsForInFlight() throws Exception {
+        this.fillQueue(WriteBehindConfig.OVERFLOW_DISCARD);
+
+        queue.cancel("b");
+        assertEquals(1, queue.getQueueSize());
+
+        CountDownLatch cancelled = new CountDownLatch(1);
+        new Thread(() -> {
+            queue.cancel("a");
+            cancelled.countDown();
+        }).start();
+        assertFalse(cancelled.await(100L, TimeUnit.MILLISECONDS), "正在写入 a 的批次完成之前，不能返回");
+        cacheService.release.countDown();
+        assertTrue(cancelled.await(5L, TimeUnit.SECONDS));
+        assertEquals("a=1", cacheService.written().get(0), "删除发生在写入之后");
+
+        queue.shutdown();
+        assertEquals(Arrays.asList("a=1", "c=1"), cacheService.written());
+    }
+
+    @Test
+    void cancelCacheRemovesPendingOfCache() throws Exception {
+        this.fillQueue(WriteBehindConfig.OVERFLOW_DISCARD);
+        queue.getConfig().setCapacity(4);
+        queue.offer(write("other", "x", 1));
+        queue.offer(write("other", "y", 1));
+
+        // 正在写入的 a 不属于该缓存，不需要等待
+        queue.cancelCache("other");
+
+        assertEquals(2, queue.getQueueSize());
+        cacheService.release.countDown();
+        queue.shutdown();
+        assertEquals(Arrays.asList("a=1", "b=1", "c=1"), cacheService.written());
+    }
+
+    @Test
+    void shutdownFlushesPendingAndWritesLaterOffersSynchronously() {
+        WriteBehindConfig config = new WriteBehindConfig();
+        config.setBatchSize(2);
+        config.setFlushInterval(Duration.ofSeconds(10L));
+        queue.setConfig(config);
+        queue.start();
+        for (int i = 0; i < 5; i++) {
+            queue.offer(write("c", "k" + i, i));
+        }
+
+        queue.shutdown();
+
+        assertFalse(queue.isRunning());
+        assertEquals(0, queue.getQueueSize());
+        assertEquals(Arrays.asList("k0=0", "k1=1", "k2=2", "k3=3", "k4=4"), cacheService.written());
+        queue.offer(write("c", "late", 1));
+        assertEquals("late=1", cacheService.written().get(5));
+    }
+
+    @Test
+    void retriesFailedFlush() {
+        WriteBehindConfig config = new WriteBehindConfig();
+        config.setMaxRetries(2);
+        config.setRetryBackoff(Duration.ofMillis(1L));
+        queue.setConfig(config);
+
+        cacheService.failures.set(2);
+        queue.offer(write("c", "a", 1));
+        assertEquals(Collections.singletonList("a=1"), cacheService.written());
+        assertEquals(2L, queue.getStatistics().getRetryCount());
+
+        cacheService.failures.set(3);
+        queue.offer(write("c", "b", 1));
+        assertEquals(Collections.singletonList("a=1"), cacheService.written());
+        assertEquals(1L, queue.getStatistics().getFailCount());
+    }
+
+    /**
+     * 容量为 2：后台线程正在写入 a（阻塞到 release），队列中是 b、c
+     */
+    private void fillQueue(String overflowPolicy) throws InterruptedException {
+        WriteBehindConfig config = new WriteBehindConfig();
+        config.setCapacity(2);
+        config.setBatchSize(1);
+        config.setFlushInterval(Duration.ZERO);
+        config.setOverflowPolicy(overflowPolicy);
+        queue.setConfig(config);
+        cacheService.blockedKey = "a";
+        queue.start();
+        queue.offer(write("c", "a", 1));
+        assertTrue(cacheService.entered.await(5L, TimeUnit.SECONDS));
+        queue.offer(write("c", "b", 1));
+        queue.offer(write("c", "c", 1));
+        assertEquals(2, queue.getQueueSize());
+    }
+
+    private static CacheWrite write(String cacheName, String key, Object value) {
+        return new CacheWrite(new MethodCacheInfo("m", cacheName, key), CacheEntry.of(value));
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * 记录写入的数据；写入 blockedKey 时阻塞到 release，failures 大于 0 时写入失败
+     */
+    private static class RecordingCacheService implements RedisCacheService {
+        private final List<String> written = new ArrayList<>();
+        private final AtomicInteger batches = new AtomicInteger();
+        private final AtomicInteger failures = new AtomicInteger();
+        private final CountDownLatch entered = new CountDownLatch(1);
+        private final CountDownLatch release = new CountDownLatch(1);
+        private volatile String blockedKey;
+
+        @Override
+        public void insertEntries(List<CacheWrite> writes) {
+            if (failures.getAndDecrement() > 0) {
+                throw new IllegalStateException("insert failed");
+            }
+            for (CacheWrite write : writes) {
+                if (write.getCacheInfo().getCacheKey().equals(blockedKey)) {
+                    entered.countDown();
+                    try {
+                        release.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+            }
+            batches.incrementAndGet();
+            synchronized (written) {
+                for (CacheWrite write : writes) {
+                    written.add(write.getCacheInfo().getCacheKey() + "=" + write.getEntry().getValue());
+                }
+            }
+        }
+
+        private List<String> written() {
+            synchronized (written) {
+                return new ArrayList<>(written);
+            }
+        }
+
+        @Override
+        public Object getFromRedis(String key) {
+            return null;
+        }
+
+        @Override
+        public void insert2Redis(String key, Object value, Duration duration, String cacheName) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public long deleteByKey(String... keys) {
+            return 0L;
+        }
+
+        @Override
+        public long deleteByCacheName(String cacheName) {
+            return 0L;
+        }
+    }
+}
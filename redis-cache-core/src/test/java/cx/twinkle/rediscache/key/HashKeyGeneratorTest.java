@@ -0,0 +1,88 @@
+package cx.twinkle.rediscache.key;
+
+import cx.twinkle.rediscache.utils.MurmurHash3;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * v2_0 格式的缓存key：已经写入 Redis 的 key 在升级后必须保持不变
+ *
+ * @author twinkle
+ * @version 2026/10/19 01:45
+ */
+class HashKeyGeneratorTest {
+    private final HashKeyGenerator generator = new HashKeyGenerator();
+
+    @Test
+    void murmurHashMatchesReferenceVector() {
+        byte[] data = "The quick brown fox jumps over the lazy dog".getBytes(StandardCharsets.UTF_8);
+
+        assertEquals("e34bbc7bbc071b6c7a433ca9c49a9347", MurmurHash3.hash128Hex(data, 0, data.length, 0L));
+    }
+
+    @Test
+    void keysAreStable() {
+        // 这些值是已经写入 Redis 的 key，修改哈希算法、种子或者参数的写入方式都会使它们失效
+        assertEquals("user::getUser-v2_0-34d2f852df9f051a73337426ffa37a4a",
+                generator.generate("user", "getUser", 1L, "abc"));
+        assertEquals("user::getUser-v2_0-c85765fae21746f9d5a0fa7f6dc6efbb",
+                generator.generate("user", "getUser", new Object[]{null}));
+        assertEquals("user::list-v2_0-5940922bd61bd56a28ab83ea97287577",
+                generator.generate("user", "list", Arrays.asList(1, 2, 3), new int[]{1, 2}, Thread.State.NEW, true));
+    }
+
+    @Test
+    void keyWithoutParams() {
+        assertEquals("user::getUser-v2_0", generator.generate("user", "getUser"));
+        assertEquals("user::getUser-v2_0", generator.generate("user", "getUser", (Object[]) null));
+    }
+
+    @Test
+    void keyHasFixedLength() {
+        String small = generator.generate("user", "getUser", 1);
+        String large = generator.generate("user", "getUser", String.join("", Collections.nCopies(10_000, "x")));
+
+        assertTrue(small.matches("user::getUser-v2_0-[0-9a-f]{32}"), small);
+        assertEquals(small.length(), large.length());
+    }
+
+    @Test
+    void equalParamsGiveEqualKeys() {
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("id", 1);
+        map.put("tags", new ArrayList<>(Arrays.asList("a", "b")));
+
+        assertEquals(generator.generate("c", "m", map, new byte[]{1, 2}),
+                generator.generate("c", "m", new LinkedHashMap<>(map), new byte[]{1, 2}));
+        assertEquals(generator.generate("c", "m", Arrays.asList(1, 2)),
+                generator.generate("c", "m", new ArrayList<>(Arrays.asList(1, 2))));
+    }
+
+    @Test
+    void paramTypesAndBoundariesAreDistinguished() {
+        assertNotEquals(generator.generate("c", "m", "1"), generator.generate("c", "m", 1));
+        assertNotEquals(generator.generate("c", "m", 1), generator.generate("c", "m", 1L));
+        assertNotEquals(generator.generate("c", "m", "ab", "c"), generator.generate("c", "m", "a", "bc"));
+        assertNotEquals(generator.generate("c", "m", (Object) null), generator.generate("c", "m", "null"));
+        assertNotEquals(generator.generate("c", "m", Arrays.asList(1, 2)), generator.generate("c", "m", 1, 2));
+        assertNotEquals(generator.generate("c", "m", 1), generator.generate("c", "n", 1));
+    }
+
+    @Test
+    void bufferIsReusedAfterLargeParams() {
+        String before = generator.generate("c", "m", 1L, "abc");
+        generator.generate("c", "m", new byte[1024 * 1024]);
+
+        assertEquals(before, generator.generate("c", "m", 1L, "abc"));
+    }
+}
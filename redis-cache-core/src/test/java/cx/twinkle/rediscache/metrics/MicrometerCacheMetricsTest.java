@@ -0,0 +1,64 @@
+package cx.twinkle.rediscache.metrics;
+
+import cx.twinkle.rediscache.cache.CompressionConfig;
+import cx.twinkle.rediscache.cache.SerializeServiceImpl;
+import cx.twinkle.rediscache.codec.DeflateCacheCompressor;
+import cx.twinkle.rediscache.codec.JdkCacheCodec;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 压缩统计数据注册为每个缓存的监控指标
+ *
+ * @author twinkle
+ * @version 2026/10/19 02:50
+ */
+class MicrometerCacheMetricsTest {
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final SerializeServiceImpl serializeService = new SerializeServiceImpl();
+
+    MicrometerCacheMetricsTest() {
+        CompressionConfig config = new CompressionConfig();
+        config.setEnabled(true);
+        config.setThreshold(64);
+        config.setAlgorithm(DeflateCacheCompressor.NAME);
+        serializeService.setCacheCompressions(Collections.singletonMap("big", config));
+        serializeService.setCacheMetrics(new MicrometerCacheMetrics(registry));
+    }
+
+    @Test
+    void bindsCompressionStatisticsPerCache() {
+        String value = String.join("", Collections.nCopies(200, "redis-cache"));
+
+        byte[] first = serializeService.serializeToBytes(value, "big", JdkCacheCodec.NAME);
+        serializeService.serializeToBytes(value, "big", JdkCacheCodec.NAME);
+        serializeService.serializeToBytes("tiny", "big", JdkCacheCodec.NAME);
+        serializeService.deserializeFromBytes(first, "big");
+
+        Gauge ratio = registry.find("redis.cache.compression.ratio").tag("cache", "big").gauge();
+        assertTrue(ratio.value() > 0D && ratio.value() < 0.5D, "压缩率：" + ratio.value());
+        FunctionTimer compress = registry.find("redis.cache.compression.compress").tag("cache", "big").functionTimer();
+        assertEquals(2D, compress.count());
+        assertTrue(compress.totalTime(TimeUnit.NANOSECONDS) > 0D);
+        assertEquals(1D, registry.find("redis.cache.compression.decompress").tag("cache", "big").functionTimer().count());
+        FunctionCounter skipped = registry.find("redis.cache.compression.skipped").tag("cache", "big").functionCounter();
+        assertEquals(1D, skipped.count());
+    }
+
+    @Test
+    void uncompressedCacheIsNotBound() {
+        serializeService.serializeToBytes(String.join("", Collections.nCopies(200, "x")), "other", JdkCacheCodec.NAME);
+
+        assertNull(registry.find("redis.cache.compression.ratio").tag("cache", "other").gauge());
+    }
+}
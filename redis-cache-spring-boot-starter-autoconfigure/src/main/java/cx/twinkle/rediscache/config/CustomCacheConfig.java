@@ -1,6 +1,29 @@
 package cx.twinkle.rediscache.config;
 
+import cx.twinkle.rediscache.cache.CircuitBreakerConfig;
+import cx.twinkle.rediscache.cache.ClusterConfig;
+import cx.twinkle.rediscache.cache.CompressionConfig;
+import cx.twinkle.rediscache.cache.ExecutorConfig;
+import cx.twinkle.rediscache.cache.NearCacheConfig;
+import cx.twinkle.rediscache.cache.WriteBehindConfig;
+import cx.twinkle.rediscache.bloom.BloomFilterConfig;
+import cx.twinkle.rediscache.cache.NegativeCacheConfig;
+import cx.twinkle.rediscache.cache.StaleConfig;
+import cx.twinkle.rediscache.cache.RefreshAheadConfig;
+import cx.twinkle.rediscache.cache.ReplicaReadConfig;
+import cx.twinkle.rediscache.cache.ShardingConfig;
+import cx.twinkle.rediscache.cache.SingleFlightConfig;
+import cx.twinkle.rediscache.codec.CodecRegistry;
+import cx.twinkle.rediscache.key.LegacyKeyGenerator;
+import cx.twinkle.rediscache.task.IndexSweepConfig;
 import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.NestedConfigurationProperty;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
 
 /**
  * @author twinkle
@@ -14,9 +37,144 @@ public class CustomCacheConfig {
      */
     private Integer maxParamNum = 5;
     /**
-     * 自定义 清理CacheKeySet CacheNameHash 的任务执行时间，默认：每天00:10
+     * 注解中没有指定 key 时，缓存key的格式：v1_0 为旧版本的 参数toString() 格式（默认），v2_0 为参数的128位哈希；
+     * maxParamNum 仅对 v1_0 格式生效。两种格式的 key 互不冲突，切换到 v2_0 后已有的缓存全部不再命中，
+     * 并且 @CacheEvict 中按照 v1_0 格式拼接的 key 不再匹配，需要改为 v2_0 格式的 key 或者使用 allEntries
+     */
+    private String keyFormat = LegacyKeyGenerator.VERSION;
+    /**
+     * 自定义 清理CacheKeySet CacheNameHash 的任务执行时间，默认：每天00:10；开启 indexSweep 后不再使用
      */
     private String cleanTaskCron = "0 10 0 * * ?";
+    /**
+     * 删除缓存时，每一批 key 的个数；删除整个缓存时也作为 SSCAN 的 COUNT 参数
+     */
+    private Integer deleteBatchSize = 500;
+    /**
+     * 是否在启动时预先解析所有缓存方法的元数据，默认开启；关闭后在方法第一次被调用时解析
+     */
+    private boolean eagerMetadata = true;
+    /**
+     * 是否仍然按照旧版本的字符串格式写入缓存，默认使用带格式头的二进制格式；
+     * 无论是否开启，都可以读取两种格式的数据。滚动升级期间，新旧版本同时运行时需要开启；
+     * 旧格式中没有负缓存的标记和元数据，开启时不能同时开启负缓存、提前刷新、过期后返回旧数据，否则启动失败
+     */
+    private boolean legacyValueFormat = false;
+    /**
+     * 默认的序列化方式，如：jdk、jackson、kryo；默认为 auto：实现了 Serializable 的对象使用 JDK 序列化，否则使用 Jackson 序列化
+     */
+    private String codec = CodecRegistry.AUTO;
+    /**
+     * 按缓存名称指定的序列化方式，key 为缓存名称；注解中指定的序列化方式优先
+     */
+    private Map<String, String> codecs = new HashMap<>();
+    /**
+     * 默认的压缩配置，默认关闭；开启后，序列化后大于阈值的数据会被压缩
+     */
+    @NestedConfigurationProperty
+    private CompressionConfig compression = new CompressionConfig();
+    /**
+     * 按缓存名称单独指定的压缩配置，key 为缓存名称；未指定的缓存名称使用 compression 的配置
+     */
+    private Map<String, CompressionConfig> compressions = new HashMap<>();
+    /**
+     * 开启代数模式的缓存名称；这些缓存使所有 key 失效时只需要一次 INCR，写入时也不再记录 KeySet、CacheNameHash
+     */
+    private Set<String> generationCaches = new HashSet<>();
+    /**
+     * 代数模式下，没有设置过期时间的缓存使用的过期时间，默认 1 天
+     */
+    private Duration generationDefaultExpire = Duration.ofDays(1L);
+    /**
+     * 本地缓存代数的有效期，超过后从 Redis 重新读取，默认 30 秒
+     */
+    private Duration generationRefreshInterval = Duration.ofSeconds(30L);
+    /**
+     * 本地近端缓存（L1）的默认配置，默认关闭
+     */
+    @NestedConfigurationProperty
+    private NearCacheConfig nearCache = new NearCacheConfig();
+    /**
+     * 按缓存名称单独指定的近端缓存配置，key 为缓存名称；未指定的缓存名称使用 nearCache 的配置
+     */
+    private Map<String, NearCacheConfig> nearCaches = new HashMap<>();
+    /**
+     * 缓存击穿保护（single-flight）的配置，默认关闭：开启后合并同一个 key 的并发请求，调用方共享同一个结果对象
+     */
+    @NestedConfigurationProperty
+    private SingleFlightConfig singleFlight = new SingleFlightConfig();
+    /**
+     * 默认的提前刷新配置，默认关闭
+     */
+    @NestedConfigurationProperty
+    private RefreshAheadConfig refreshAhead = new RefreshAheadConfig();
+    /**
+     * 按缓存名称单独指定的提前刷新配置，key 为缓存名称；未指定的缓存名称使用 refreshAhead 的配置
+     */
+    private Map<String, RefreshAheadConfig> refreshAheads = new HashMap<>();
+    /**
+     * 默认的过期数据（stale-while-revalidate、stale-if-error）配置，默认关闭
+     */
+    @NestedConfigurationProperty
+    private StaleConfig stale = new StaleConfig();
+    /**
+     * 按缓存名称单独指定的过期数据配置，key 为缓存名称；未指定的缓存名称使用 stale 的配置
+     */
+    private Map<String, StaleConfig> stales = new HashMap<>();
+    /**
+     * 默认的负缓存配置，默认关闭
+     */
+    @NestedConfigurationProperty
+    private NegativeCacheConfig negativeCache = new NegativeCacheConfig();
+    /**
+     * 按缓存名称单独指定的负缓存配置，key 为缓存名称；未指定的缓存名称使用 negativeCache 的配置
+     */
+    private Map<String, NegativeCacheConfig> negativeCaches = new HashMap<>();
+    /**
+     * 默认的布隆过滤器配置，默认关闭
+     */
+    @NestedConfigurationProperty
+    private BloomFilterConfig bloomFilter = new BloomFilterConfig();
+    /**
+     * 按缓存名称单独指定的布隆过滤器配置，key 为缓存名称；未指定的缓存名称使用 bloomFilter 的配置
+     */
+    private Map<String, BloomFilterConfig> bloomFilters = new HashMap<>();
+    /**
+     * 异步写入队列的配置，默认关闭：开启后方法结果按照 key 合并后批量写入 Redis
+     */
+    @NestedConfigurationProperty
+    private WriteBehindConfig writeBehind = new WriteBehindConfig();
+    /**
+     * KeySet、CacheNameHash 增量清理的配置，默认关闭：开启后只移除已经过期的 key，代替每日一次性删除所有索引；
+     * 清理时会扫描所有的 KeySet、CacheNameHash，已有的部署需要评估 Redis 的负载后再开启
+     */
+    @NestedConfigurationProperty
+    private IndexSweepConfig indexSweep = new IndexSweepConfig();
+    /**
+     * Redis Cluster 模式的配置，默认关闭：开启后缓存数据与索引通过 hash tag 位于同一个 slot，批量操作按节点并行执行
+     */
+    @NestedConfigurationProperty
+    private ClusterConfig cluster = new ClusterConfig();
+    /**
+     * 客户端一致性哈希分片的配置，默认关闭：开启后缓存数据按照 key 分布在多个独立的 Redis 上
+     */
+    @NestedConfigurationProperty
+    private ShardingConfig sharding = new ShardingConfig();
+    /**
+     * 从副本读取缓存的配置，默认关闭：开启后读取缓存数据发送到副本，写入、删除仍然发送到主节点
+     */
+    @NestedConfigurationProperty
+    private ReplicaReadConfig replicaRead = new ReplicaReadConfig();
+    /**
+     * 读取缓存的延迟预算、熔断器的配置，默认关闭：开启后 Redis 变慢或者不可用时，直接执行方法
+     */
+    @NestedConfigurationProperty
+    private CircuitBreakerConfig circuitBreaker = new CircuitBreakerConfig();
+    /**
+     * 缓存组件共用线程池的配置：并行访问 Redis Cluster 的各个节点、各个分片以及对冲读取
+     */
+    @NestedConfigurationProperty
+    private ExecutorConfig executor = new ExecutorConfig();
 
     public Integer getMaxParamNum() {
         return maxParamNum;
@@ -26,6 +184,14 @@ public class CustomCacheConfig {
         this.maxParamNum = maxParamNum;
     }
 
+    public String getKeyFormat() {
+        return keyFormat;
+    }
+
+    public void setKeyFormat(String keyFormat) {
+        this.keyFormat = keyFormat;
+    }
+
     public String getCleanTaskCron() {
         return cleanTaskCron;
     }
@@ -33,4 +199,263 @@ public class CustomCacheConfig {
     public void setCleanTaskCron(String cleanTaskCron) {
         this.cleanTaskCron = cleanTaskCron;
     }
+
+    public Integer getDeleteBatchSize() {
+        return deleteBatchSize;
+    }
+
+    public void setDeleteBatchSize(Integer deleteBatchSize) {
+        this.deleteBatchSize = deleteBatchSize;
+    }
+
+    public boolean isEagerMetadata() {
+        return eagerMetadata;
+    }
+
+    public void setEagerMetadata(boolean eagerMetadata) {
+        this.eagerMetadata = eagerMetadata;
+    }
+
+    public boolean isLegacyValueFormat() {
+        return legacyValueFormat;
+    }
+
+    public void setLegacyValueFormat(boolean legacyValueFormat) {
+        this.legacyValueFormat = legacyValueFormat;
+    }
+
+    public String getCodec() {
+        return codec;
+    }
+
+    public void setCodec(String codec) {
+        this.codec = codec;
+    }
+
+    public Map<String, String> getCodecs() {
+        return codecs;
+    }
+
+    public void setCodecs(Map<String, String> codecs) {
+        this.codecs = codecs;
+    }
+
+    public CompressionConfig getCompression() {
+        return compression;
+    }
+
+    public void setCompression(CompressionConfig compression) {
+        this.compression = compression;
+    }
+
+    public Map<String, CompressionConfig> getCompressions() {
+        return compressions;
+    }
+
+    public void setCompressions(Map<String, CompressionConfig> compressions) {
+        this.compressions = compressions;
+    }
+
+    public Set<String> getGenerationCaches() {
+        return generationCaches;
+    }
+
+    public void setGenerationCaches(Set<String> generationCaches) {
+        this.generationCaches = generationCaches;
+    }
+
+    public Duration getGenerationDefaultExpire() {
+        return generationDefaultExpire;
+    }
+
+    public void setGenerationDefaultExpire(Duration generationDefaultExpire) {
+        this.generationDefaultExpire = generationDefaultExpire;
+    }
+
+    public Duration getGenerationRefreshInterval() {
+        return generationRefreshInterval;
+    }
+
+    public void setGenerationRefreshInterval(Duration generationRefreshInterval) {
+        this.generationRefreshInterval = generationRefreshInterval;
+    }
+
+    public NearCacheConfig getNearCache() {
+        return nearCache;
+    }
+
+    public void setNearCache(NearCacheConfig nearCache) {
+        this.nearCache = nearCache;
+    }
+
+    public Map<String, NearCacheConfig> getNearCaches() {
+        return nearCaches;
+    }
+
+    public void setNearCaches(Map<String, NearCacheConfig> nearCaches) {
+        this.nearCaches = nearCaches;
+    }
+
+    public SingleFlightConfig getSingleFlight() {
+        return singleFlight;
+    }
+
+    public void setSingleFlight(SingleFlightConfig singleFlight) {
+        this.singleFlight = singleFlight;
+    }
+
+    public RefreshAheadConfig getRefreshAhead() {
+        return refreshAhead;
+    }
+
+    public void setRefreshAhead(RefreshAheadConfig refreshAhead) {
+        this.refreshAhead = refreshAhead;
+    }
+
+    public Map<String, RefreshAheadConfig> getRefreshAheads() {
+        return refreshAheads;
+    }
+
+    public void setRefreshAheads(Map<String, RefreshAheadConfig> refreshAheads) {
+        this.refreshAheads = refreshAheads;
+    }
+
+    public StaleConfig getStale() {
+        return stale;
+    }
+
+    public void setStale(StaleConfig stale) {
+        this.stale = stale;
+    }
+
+    public Map<String, StaleConfig> getStales() {
+        return stales;
+    }
+
+    public void setStales(Map<String, StaleConfig> stales) {
+        this.stales = stales;
+    }
+
+    public NegativeCacheConfig getNegativeCache() {
+        return negativeCache;
+    }
+
+    public void setNegativeCache(NegativeCacheConfig negativeCache) {
+        this.negativeCache = negativeCache;
+    }
+
+    public BloomFilterConfig getBloomFilter() {
+        return bloomFilter;
+    }
+
+    public void setBloomFilter(BloomFilterConfig bloomFilter) {
+        this.bloomFilter = bloomFilter;
+    }
+
+    public Map<String, NegativeCacheConfig> getNegativeCaches() {
+        return negativeCaches;
+    }
+
+    public void setNegativeCaches(Map<String, NegativeCacheConfig> negativeCaches) {
+        this.negativeCaches = negativeCaches;
+    }
+
+    public Map<String, BloomFilterConfig> getBloomFilters() {
+        return bloomFilters;
+    }
+
+    public void setBloomFilters(Map<String, BloomFilterConfig> bloomFilters) {
+        this.bloomFilters = bloomFilters;
+    }
+
+    public WriteBehindConfig getWriteBehind() {
+        return writeBehind;
+    }
+
+    public void setWriteBehind(WriteBehindConfig writeBehind) {
+        this.writeBehind = writeBehind;
+    }
+
+    public IndexSweepConfig getIndexSweep() {
+        return indexSweep;
+    }
+
+    public void setIndexSweep(IndexSweepConfig indexSweep) {
+        this.indexSweep = indexSweep;
+    }
+
+    public ClusterConfig getCluster() {
+        return cluster;
+    }
+
+    public void setCluster(ClusterConfig cluster) {
+        this.cluster = cluster;
+    }
+
+    public ShardingConfig getSharding() {
+        return sharding;
+    }
+
+    public void setSharding(ShardingConfig sharding) {
+        this.sharding = sharding;
+    }
+
+    public ReplicaReadConfig getReplicaRead() {
+        return replicaRead;
+    }
+
+    public void setReplicaRead(ReplicaReadConfig replicaRead) {
+        this.replicaRead = replicaRead;
+    }
+
+    public CircuitBreakerConfig getCircuitBreaker() {
+        return circuitBreaker;
+    }
+
+    public void setCircuitBreaker(CircuitBreakerConfig circuitBreaker) {
+        this.circuitBreaker = circuitBreaker;
+    }
+
+    public ExecutorConfig getExecutor() {
+        return executor;
+    }
+
+    public void setExecutor(ExecutorConfig executor) {
+        this.executor = executor;
+    }
+
+    /**
+     * 是否有任意一个缓存开启了近端缓存
+     */
+    public boolean isAnyNearCacheEnabled() {
+        return nearCache.isEnabled() || nearCaches.values().stream().anyMatch(NearCacheConfig::isEnabled);
+    }
+
+    /**
+     * 是否有任意一个缓存开启了提前刷新
+     */
+    public boolean isAnyRefreshAheadEnabled() {
+        return refreshAhead.isEnabled() || refreshAheads.values().stream().anyMatch(RefreshAheadConfig::isEnabled);
+    }
+
+    /**
+     * 是否有任意一个缓存开启了过期数据的使用
+     */
+    public boolean isAnyStaleEnabled() {
+        return stale.isEnabled() || stales.values().stream().anyMatch(StaleConfig::isEnabled);
+    }
+
+    /**
+     * 是否有任意一个缓存开启了负缓存
+     */
+    public boolean isAnyNegativeCacheEnabled() {
+        return negativeCache.isEnabled() || negativeCaches.values().stream().anyMatch(NegativeCacheConfig::isEnabled);
+    }
+
+    /**
+     * 是否有任意一个缓存开启了布隆过滤器
+     */
+    public boolean isAnyBloomFilterEnabled() {
+        return bloomFilter.isEnabled() || bloomFilters.values().stream().anyMatch(BloomFilterConfig::isEnabled);
+    }
 }
@@ -1,12 +1,63 @@
 package cx.twinkle.rediscache.config;
 
+import cx.twinkle.rediscache.aspect.CacheInfoOperator;
+import cx.twinkle.rediscache.aspect.CacheMetadataPreloader;
 import cx.twinkle.rediscache.aspect.RedisCacheAspect;
+import cx.twinkle.rediscache.bloom.BloomFilterManager;
+import cx.twinkle.rediscache.cache.CacheGenerationManager;
+import cx.twinkle.rediscache.cache.CacheKeyLayout;
+import cx.twinkle.rediscache.cache.LettuceRedisCacheService;
+import cx.twinkle.rediscache.cache.LettuceSlotBatchExecutor;
+import cx.twinkle.rediscache.cache.ClusterConfig;
+import cx.twinkle.rediscache.cache.NegativeCachePolicy;
+import cx.twinkle.rediscache.cache.NearCacheRedisCacheService;
+import cx.twinkle.rediscache.cache.RedisCacheService;
+import cx.twinkle.rediscache.cache.RefreshAheadPolicy;
+import cx.twinkle.rediscache.cache.RedisCacheServiceImpl;
+import cx.twinkle.rediscache.cache.RedisCacheExecutors;
+import cx.twinkle.rediscache.cache.RedisCircuitBreaker;
+import cx.twinkle.rediscache.cache.ReplicaReader;
+import cx.twinkle.rediscache.cache.SlotBatchExecutor;
+import cx.twinkle.rediscache.cache.SerializeService;
+import cx.twinkle.rediscache.cache.SerializeServiceImpl;
+import cx.twinkle.rediscache.cache.ShardedRedisCacheService;
+import cx.twinkle.rediscache.cache.SingleFlight;
+import cx.twinkle.rediscache.cache.SingleFlightConfig;
+import cx.twinkle.rediscache.cache.StalePolicy;
+import cx.twinkle.rediscache.cache.WriteBehindQueue;
+import cx.twinkle.rediscache.codec.CacheCodec;
+import cx.twinkle.rediscache.codec.CodecRegistry;
+import cx.twinkle.rediscache.key.HashKeyGenerator;
+import cx.twinkle.rediscache.key.KeyGenerator;
+import cx.twinkle.rediscache.key.LegacyKeyGenerator;
+import cx.twinkle.rediscache.metrics.CacheMetrics;
+import cx.twinkle.rediscache.metrics.MicrometerCacheMetrics;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.BeanFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.data.redis.RedisProperties;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Import;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.util.Assert;
+import org.springframework.util.ClassUtils;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 /**
  * @author twinkle
@@ -16,9 +67,336 @@ import org.springframework.data.redis.core.StringRedisTemplate;
 @Import({TaskSchedulerConfig.class})
 @EnableConfigurationProperties({CustomCacheConfig.class})
 public class RedisCacheBeanAutoconfigure {
+    private static final Logger log = LoggerFactory.getLogger(RedisCacheBeanAutoconfigure.class);
+    private static final boolean LETTUCE_PRESENT = ClassUtils.isPresent("io.lettuce.core.RedisClient",
+            RedisCacheBeanAutoconfigure.class.getClassLoader());
+
+    @Bean
+    public RedisCacheAspect redisCacheAspect(CustomCacheConfig customCacheConfig, CacheInfoOperator cacheInfoOperator,
+                                             RedisCacheService redisCacheService, StringRedisTemplate stringRedisTemplate,
+                                             BloomFilterManager redisCacheBloomFilterManager,
+                                             WriteBehindQueue redisCacheWriteBehindQueue,
+                                             RedisCacheExecutors redisCacheExecutors,
+                                             ObjectProvider<CacheMetrics> redisCacheMetrics,
+                                             ObjectProvider<RedisProperties> redisProperties) {
+        RedisCacheAspect aspect = new RedisCacheAspect(cacheInfoOperator, redisCacheService);
+        CacheMetrics cacheMetrics = redisCacheMetrics.getIfAvailable(() -> CacheMetrics.NOOP);
+        aspect.setCacheMetrics(cacheMetrics);
+        SingleFlightConfig singleFlightConfig = customCacheConfig.getSingleFlight();
+        if (singleFlightConfig.isEnabled()) {
+            SingleFlight singleFlight = new SingleFlight(stringRedisTemplate, cacheInfoOperator::execute);
+            singleFlight.setConfig(singleFlightConfig);
+            singleFlight.setWatchdog(redisCacheExecutors.getScheduler());
+            aspect.setSingleFlight(singleFlight);
+        }
+        if (customCacheConfig.isAnyRefreshAheadEnabled()) {
+            RefreshAheadPolicy refreshAheadPolicy = new RefreshAheadPolicy();
+            refreshAheadPolicy.setDefaultConfig(customCacheConfig.getRefreshAhead());
+            refreshAheadPolicy.setCacheConfigs(customCacheConfig.getRefreshAheads());
+            aspect.setRefreshAheadPolicy(refreshAheadPolicy);
+        }
+        if (customCacheConfig.isAnyStaleEnabled()) {
+            StalePolicy stalePolicy = new StalePolicy();
+            stalePolicy.setDefaultConfig(customCacheConfig.getStale());
+            stalePolicy.setCacheConfigs(customCacheConfig.getStales());
+            aspect.setStalePolicy(stalePolicy);
+        }
+        if (customCacheConfig.isAnyNegativeCacheEnabled()) {
+            NegativeCachePolicy negativeCachePolicy = new NegativeCachePolicy();
+            negativeCachePolicy.setDefaultConfig(customCacheConfig.getNegativeCache());
+            negativeCachePolicy.setCacheConfigs(customCacheConfig.getNegativeCaches());
+            aspect.setNegativeCachePolicy(negativeCachePolicy);
+        }
+        if (customCacheConfig.isAnyBloomFilterEnabled()) {
+            aspect.setBloomFilterManager(redisCacheBloomFilterManager);
+        }
+        if (customCacheConfig.getWriteBehind().isEnabled()) {
+            aspect.setWriteBehindQueue(redisCacheWriteBehindQueue);
+        }
+        if (customCacheConfig.getCircuitBreaker().isEnabled()) {
+            // 同步读取不切换线程，延迟预算依赖 Redis 客户端的命令超时
+            Duration readTimeout = customCacheConfig.getCircuitBreaker().getReadTimeout();
+            RedisProperties properties = redisProperties.getIfAvailable();
+            Duration clientTimeout = properties == null ? null : properties.getTimeout();
+            if (readTimeout != null && !readTimeout.isZero() && (clientTimeout == null || clientTimeout.compareTo(readTimeout) > 0)) {
+                log.warn("spring.redis.timeout（{}）大于读取缓存的延迟预算（{}），同步读取最多等待 spring.redis.timeout！",
+                        clientTimeout, readTimeout);
+            }
+            RedisCircuitBreaker circuitBreaker = new RedisCircuitBreaker();
+            circuitBreaker.setConfig(customCacheConfig.getCircuitBreaker());
+            circuitBreaker.setTimeoutScheduler(redisCacheExecutors.getScheduler());
+            cacheMetrics.bindCircuitBreaker(circuitBreaker);
+            aspect.setCircuitBreaker(circuitBreaker);
+        }
+        return aspect;
+    }
+
+    /**
+     * 缓存组件共用的线程池；应用关闭时在使用它的 Bean 之后关闭
+     */
+    @Bean(destroyMethod = "shutdown")
+    public RedisCacheExecutors redisCacheExecutors(CustomCacheConfig customCacheConfig) {
+        return new RedisCacheExecutors(customCacheConfig.getExecutor());
+    }
+
+    /**
+     * 异步写入队列；应用关闭时，等待队列中剩余的数据写入 Redis
+     */
+    @Bean(destroyMethod = "shutdown")
+    public WriteBehindQueue redisCacheWriteBehindQueue(CustomCacheConfig customCacheConfig, RedisCacheService redisCacheService,
+                                                       ObjectProvider<CacheMetrics> redisCacheMetrics) {
+        WriteBehindQueue writeBehindQueue = new WriteBehindQueue(redisCacheService);
+        writeBehindQueue.setConfig(customCacheConfig.getWriteBehind());
+        if (customCacheConfig.getWriteBehind().isEnabled()) {
+            writeBehindQueue.start();
+            redisCacheMetrics.ifAvailable(cacheMetrics -> cacheMetrics.bindWriteBehindQueue(writeBehindQueue));
+        }
+        return writeBehindQueue;
+    }
+
+    @Bean
+    public CacheInfoOperator cacheInfoOperator(BeanFactory beanFactory, CustomCacheConfig customCacheConfig,
+                                               CacheGenerationManager cacheGenerationManager,
+                                               KeyGenerator redisCacheKeyGenerator) {
+        CacheInfoOperator operator = new CacheInfoOperator(beanFactory);
+        operator.setKeyGenerator(redisCacheKeyGenerator);
+        operator.setCacheCodecs(customCacheConfig.getCodecs());
+        operator.setGenerationManager(cacheGenerationManager);
+        return operator;
+    }
+
+    /**
+     * 每个缓存的布隆过滤器；应用可以注入该 Bean，在启动时预加载所有存在的 key
+     */
+    @Bean
+    public BloomFilterManager redisCacheBloomFilterManager(CustomCacheConfig customCacheConfig,
+                                                           RedisTemplate<byte[], byte[]> redisCacheBinaryTemplate) {
+        BloomFilterManager bloomFilterManager = new BloomFilterManager(redisCacheBinaryTemplate);
+        bloomFilterManager.setDefaultConfig(customCacheConfig.getBloomFilter());
+        bloomFilterManager.setCacheConfigs(customCacheConfig.getBloomFilters());
+        return bloomFilterManager;
+    }
+
+    /**
+     * 缓存key生成策略；容器中已经存在自定义的 KeyGenerator 时使用自定义的
+     */
     @Bean
-    public RedisCacheAspect redisCacheAspect(BeanFactory beanFactory, CustomCacheConfig customCacheConfig, StringRedisTemplate stringRedisTemplate) {
-        Integer maxParamNum = customCacheConfig.getMaxParamNum();
-        return new RedisCacheAspect(maxParamNum, beanFactory, stringRedisTemplate);
+    @ConditionalOnMissingBean(KeyGenerator.class)
+    public KeyGenerator redisCacheKeyGenerator(CustomCacheConfig customCacheConfig) {
+        if (HashKeyGenerator.VERSION.equalsIgnoreCase(customCacheConfig.getKeyFormat())) {
+            return new HashKeyGenerator();
+        }
+        LegacyKeyGenerator keyGenerator = new LegacyKeyGenerator();
+        keyGenerator.setMaxParamNum(customCacheConfig.getMaxParamNum());
+        return keyGenerator;
+    }
+
+    /**
+     * 启动时预先解析所有缓存方法的元数据；可以通过 ct.cache.eager-metadata=false 关闭，关闭后在第一次调用时解析
+     */
+    @Bean
+    @ConditionalOnProperty(prefix = "ct.cache", name = "eager-metadata", havingValue = "true", matchIfMissing = true)
+    public CacheMetadataPreloader cacheMetadataPreloader(ConfigurableListableBeanFactory beanFactory,
+                                                         CacheInfoOperator cacheInfoOperator) {
+        return new CacheMetadataPreloader(beanFactory, cacheInfoOperator);
+    }
+
+    /**
+     * 缓存代数管理；只有配置了开启代数模式的缓存时，才会订阅代数变化消息
+     */
+    @Bean
+    public CacheGenerationManager cacheGenerationManager(CustomCacheConfig customCacheConfig, StringRedisTemplate stringRedisTemplate,
+                                                         RedisMessageListenerContainer redisCacheListenerContainer) {
+        CacheGenerationManager generationManager = new CacheGenerationManager(stringRedisTemplate);
+        generationManager.setCacheNames(customCacheConfig.getGenerationCaches());
+        generationManager.setDefaultExpire(customCacheConfig.getGenerationDefaultExpire());
+        generationManager.setRefreshIntervalMillis(customCacheConfig.getGenerationRefreshInterval().toMillis());
+        if (!customCacheConfig.getGenerationCaches().isEmpty()) {
+            redisCacheListenerContainer.addMessageListener(generationManager,
+                    new ChannelTopic(CacheGenerationManager.GENERATION_CHANNEL));
+        }
+        return generationManager;
+    }
+
+    /**
+     * 用于接收缓存相关的 Redis 发布/订阅 消息，没有注册监听器时不会占用连接
+     */
+    @Bean
+    public RedisMessageListenerContainer redisCacheListenerContainer(RedisConnectionFactory redisConnectionFactory) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(redisConnectionFactory);
+        return container;
+    }
+
+    /**
+     * 用于读写二进制缓存数据的 RedisTemplate，不做任何序列化处理
+     */
+    @Bean
+    public RedisTemplate<byte[], byte[]> redisCacheBinaryTemplate(RedisConnectionFactory redisConnectionFactory) {
+        return RedisCacheServiceImpl.createBinaryTemplate(redisConnectionFactory);
+    }
+
+    /**
+     * 序列化方式的注册中心；除了内置的序列化方式，容器中所有的 CacheCodec 都会被注册
+     */
+    @Bean
+    public CodecRegistry redisCacheCodecRegistry(ObjectProvider<CacheCodec> cacheCodecs) {
+        CodecRegistry registry = CodecRegistry.withDefaults();
+        cacheCodecs.orderedStream().forEach(registry::register);
+        return registry;
+    }
+
+    /**
+     * 旧版本的字符串格式中没有负缓存的标记，也没有写入时间等元数据：旧版本的节点无法读取负缓存，
+     * 负缓存、提前刷新、过期后返回旧数据也都无法生效，因此不能与旧格式同时开启
+     */
+    @Bean
+    public SerializeService redisCacheSerializeService(CustomCacheConfig customCacheConfig, CodecRegistry redisCacheCodecRegistry,
+                                                       ObjectProvider<CacheMetrics> redisCacheMetrics) {
+        if (customCacheConfig.isLegacyValueFormat()) {
+            Assert.isTrue(!customCacheConfig.isAnyNegativeCacheEnabled(),
+                    "ct.cache.legacy-value-format 开启时不能开启负缓存（ct.cache.negative-cache），旧版本的节点无法读取负缓存！");
+            Assert.isTrue(!customCacheConfig.isAnyRefreshAheadEnabled() && !customCacheConfig.isAnyStaleEnabled(),
+                    "ct.cache.legacy-value-format 开启时不能开启提前刷新（ct.cache.refresh-ahead）、过期后返回旧数据（ct.cache.stale），旧格式中没有写入时间等元数据！");
+        }
+        SerializeServiceImpl serializeService = new SerializeServiceImpl(redisCacheCodecRegistry);
+        serializeService.setDefaultCodec(customCacheConfig.getCodec());
+        serializeService.setLegacyFormat(customCacheConfig.isLegacyValueFormat());
+        serializeService.setDefaultCompression(customCacheConfig.getCompression());
+        serializeService.setCacheCompressions(customCacheConfig.getCompressions());
+        redisCacheMetrics.ifAvailable(serializeService::setCacheMetrics);
+        return serializeService;
+    }
+
+    /**
+     * 缓存数据、索引的 key 布局；开启 Cluster 模式时，按照分片给 key 加上 hash tag
+     */
+    @Bean
+    public CacheKeyLayout redisCacheKeyLayout(CustomCacheConfig customCacheConfig) {
+        ClusterConfig clusterConfig = customCacheConfig.getCluster();
+        return clusterConfig.isEnabled() ? CacheKeyLayout.cluster(clusterConfig.getIndexBuckets()) : CacheKeyLayout.STANDALONE;
+    }
+
+    /**
+     * 开启分片时，每个分片节点的连接
+     */
+    @Bean
+    @ConditionalOnProperty(prefix = "ct.cache.sharding", name = "enabled", havingValue = "true")
+    public RedisCacheShards redisCacheShards(CustomCacheConfig customCacheConfig) {
+        return new RedisCacheShards(customCacheConfig.getSharding());
+    }
+
+    /**
+     * 开启副本读取时，每个副本节点的连接
+     */
+    @Bean
+    @ConditionalOnProperty(prefix = "ct.cache.replica-read", name = "enabled", havingValue = "true")
+    public RedisCacheReplicas redisCacheReplicas(CustomCacheConfig customCacheConfig) {
+        return new RedisCacheReplicas(customCacheConfig.getReplicaRead());
+    }
+
+    @Bean
+    public RedisCacheService redisCacheService(CustomCacheConfig customCacheConfig, StringRedisTemplate stringRedisTemplate,
+                                               RedisTemplate<byte[], byte[]> redisCacheBinaryTemplate,
+                                               SerializeService redisCacheSerializeService,
+                                               RedisMessageListenerContainer redisCacheListenerContainer,
+                                               CacheGenerationManager cacheGenerationManager,
+                                               CacheKeyLayout redisCacheKeyLayout,
+                                               RedisCacheExecutors redisCacheExecutors,
+                                               ObjectProvider<RedisCacheShards> redisCacheShards,
+                                               ObjectProvider<RedisCacheReplicas> redisCacheReplicas,
+                                               ObjectProvider<CacheMetrics> redisCacheMetrics) {
+        CacheMetrics cacheMetrics = redisCacheMetrics.getIfAvailable(() -> CacheMetrics.NOOP);
+        RedisCacheShards shards = redisCacheShards.getIfAvailable();
+        RedisCacheReplicas replicas = redisCacheReplicas.getIfAvailable();
+        Assert.isTrue(replicas == null || (shards == null && !redisCacheKeyLayout.isCluster()),
+                "副本读取只支持单机模式，不能与分片、Redis Cluster 同时开启！");
+        RedisCacheService cacheService;
+        if (shards == null) {
+            RedisCacheServiceImpl serviceImpl = this.createCacheService(customCacheConfig, stringRedisTemplate,
+                    redisCacheBinaryTemplate, redisCacheSerializeService, cacheGenerationManager, cacheMetrics,
+                    redisCacheExecutors);
+            serviceImpl.setKeyLayout(redisCacheKeyLayout);
+            if (redisCacheKeyLayout.isCluster()) {
+                SlotBatchExecutor batchExecutor = isLettuce(redisCacheBinaryTemplate.getRequiredConnectionFactory())
+                        ? new LettuceSlotBatchExecutor(redisCacheBinaryTemplate, true)
+                        : new SlotBatchExecutor(redisCacheBinaryTemplate, true);
+                batchExecutor.setExecutor(redisCacheExecutors.getWorker());
+                serviceImpl.setBatchExecutor(batchExecutor);
+            }
+            if (replicas != null) {
+                ReplicaReader replicaReader = new ReplicaReader(replicas.createBinaryTemplates(), redisCacheBinaryTemplate);
+                replicaReader.setConfig(customCacheConfig.getReplicaRead());
+                replicaReader.setExecutor(redisCacheExecutors.getWorker());
+                serviceImpl.setReplicaReader(replicaReader);
+            }
+            cacheService = serviceImpl;
+        } else {
+            // 分片节点都是独立的 Redis，使用单机模式的 key 布局
+            Map<String, RedisCacheService> shardServices = new LinkedHashMap<>();
+            shards.getConnectionFactories().forEach((name, connectionFactory) -> {
+                StringRedisTemplate shardTemplate = new StringRedisTemplate(connectionFactory);
+                shardServices.put(name, this.createCacheService(customCacheConfig, shardTemplate,
+                        RedisCacheServiceImpl.createBinaryTemplate(connectionFactory), redisCacheSerializeService,
+                        cacheGenerationManager, cacheMetrics, redisCacheExecutors));
+            });
+            ShardedRedisCacheService shardedService = new ShardedRedisCacheService(shardServices,
+                    customCacheConfig.getSharding().getVirtualNodes());
+            shardedService.setGenerationManager(cacheGenerationManager);
+            shardedService.setExecutor(redisCacheExecutors.getWorker());
+            cacheService = shardedService;
+        }
+        if (!customCacheConfig.isAnyNearCacheEnabled()) {
+            return cacheService;
+        }
+        NearCacheRedisCacheService nearCacheService = new NearCacheRedisCacheService(cacheService, stringRedisTemplate);
+        nearCacheService.setDefaultConfig(customCacheConfig.getNearCache());
+        nearCacheService.setCacheConfigs(customCacheConfig.getNearCaches());
+        redisCacheListenerContainer.addMessageListener(nearCacheService,
+                new ChannelTopic(NearCacheRedisCacheService.NEAR_CACHE_INVALIDATE_CHANNEL));
+        return nearCacheService;
+    }
+
+    private RedisCacheServiceImpl createCacheService(CustomCacheConfig customCacheConfig, StringRedisTemplate stringRedisTemplate,
+                                                     RedisTemplate<byte[], byte[]> binaryTemplate,
+                                                     SerializeService serializeService,
+                                                     CacheGenerationManager cacheGenerationManager, CacheMetrics cacheMetrics,
+                                                     RedisCacheExecutors redisCacheExecutors) {
+        // 连接工厂使用 Lettuce 时，异步读取通过非阻塞连接执行；否则使用 Jedis 的连接池
+        RedisCacheServiceImpl cacheService;
+        if (isLettuce(binaryTemplate.getRequiredConnectionFactory())) {
+            LettuceRedisCacheService lettuceService = new LettuceRedisCacheService(stringRedisTemplate, binaryTemplate,
+                    serializeService);
+            lettuceService.setTimeoutScheduler(redisCacheExecutors.getScheduler());
+            cacheService = lettuceService;
+        } else {
+            cacheService = new RedisCacheServiceImpl(stringRedisTemplate, binaryTemplate, serializeService);
+        }
+        cacheService.setCacheMetrics(cacheMetrics);
+        cacheService.setDeleteBatchSize(customCacheConfig.getDeleteBatchSize());
+        cacheService.setGenerationManager(cacheGenerationManager);
+        return cacheService;
+    }
+
+    /**
+     * 连接工厂是否为 Lettuce 的连接工厂；classpath 中不存在 Lettuce 时不加载 LettuceConnectionFactory
+     */
+    private static boolean isLettuce(RedisConnectionFactory connectionFactory) {
+        return LETTUCE_PRESENT && connectionFactory instanceof LettuceConnectionFactory;
+    }
+
+    /**
+     * 存在 Micrometer 的 MeterRegistry 时，记录缓存的命中率、Redis 操作耗时、序列化耗时、数据大小等指标；
+     * 容器中已经存在自定义的 CacheMetrics 时使用自定义的
+     */
+    @Configuration
+    @ConditionalOnClass(name = "io.micrometer.core.instrument.MeterRegistry")
+    static class MicrometerMetricsConfiguration {
+        @Bean
+        @ConditionalOnMissingBean(CacheMetrics.class)
+        public CacheMetrics redisCacheMetrics(ObjectProvider<MeterRegistry> meterRegistry) {
+            MeterRegistry registry = meterRegistry.getIfAvailable();
+            return registry == null ? CacheMetrics.NOOP : new MicrometerCacheMetrics(registry);
+        }
     }
 }
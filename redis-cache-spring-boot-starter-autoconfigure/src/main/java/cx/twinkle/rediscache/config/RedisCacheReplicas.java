@@ -0,0 +1,52 @@
+package cx.twinkle.rediscache.config;
+
+import cx.twinkle.rediscache.cache.RedisCacheServiceImpl;
+import cx.twinkle.rediscache.cache.ReplicaReadConfig;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.jedis.JedisConnectionFactory;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.util.Assert;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 副本节点的连接：根据 ReplicaReadConfig 中的节点地址，为每个副本创建独立的连接工厂；应用关闭时释放所有的连接
+ *
+ * @author twinkle
+ * @version 2026/10/19 00:30
+ */
+public class RedisCacheReplicas implements DisposableBean {
+    /**
+     * 副本名称（host:port）-> 连接工厂
+     */
+    private final Map<String, JedisConnectionFactory> connectionFactories = new LinkedHashMap<>();
+
+    public RedisCacheReplicas(ReplicaReadConfig config) {
+        Assert.notEmpty(config.getNodes(), "开启副本读取时，ct.cache.replica-read.nodes 不能为空！");
+        for (String node : config.getNodes()) {
+            RedisStandaloneConfiguration standaloneConfig = RedisCacheShards.parse(node);
+            String name = standaloneConfig.getHostName() + ":" + standaloneConfig.getPort();
+            Assert.isTrue(!connectionFactories.containsKey(name), "副本节点重复！node = " + node);
+            JedisConnectionFactory connectionFactory = new JedisConnectionFactory(standaloneConfig);
+            connectionFactory.afterPropertiesSet();
+            connectionFactories.put(name, connectionFactory);
+        }
+    }
+
+    /**
+     * 为每个副本创建一个读写二进制数据的 RedisTemplate
+     */
+    public Map<String, RedisTemplate<byte[], byte[]>> createBinaryTemplates() {
+        Map<String, RedisTemplate<byte[], byte[]>> templates = new LinkedHashMap<>();
+        connectionFactories.forEach((name, connectionFactory) ->
+                templates.put(name, RedisCacheServiceImpl.createBinaryTemplate(connectionFactory)));
+        return templates;
+    }
+
+    @Override
+    public void destroy() {
+        connectionFactories.values().forEach(JedisConnectionFactory::destroy);
+    }
+}
@@ -0,0 +1,83 @@
+package cx.twinkle.rediscache.config;
+
+import cx.twinkle.rediscache.cache.ShardingConfig;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.data.redis.connection.RedisPassword;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.jedis.JedisConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.util.Assert;
+import org.springframework.util.StringUtils;
+
+import java.net.URI;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 分片节点的连接：根据 ShardingConfig 中的节点地址，为每个节点创建独立的连接工厂；应用关闭时释放所有的连接
+ *
+ * @author twinkle
+ * @version 2026/10/19 00:10
+ */
+public class RedisCacheShards implements DisposableBean {
+    private static final int DEFAULT_PORT = 6379;
+
+    /**
+     * 分片名称（host:port）-> 连接工厂
+     */
+    private final Map<String, JedisConnectionFactory> connectionFactories = new LinkedHashMap<>();
+
+    public RedisCacheShards(ShardingConfig config) {
+        Assert.notEmpty(config.getNodes(), "开启分片时，ct.cache.sharding.nodes 不能为空！");
+        for (String node : config.getNodes()) {
+            RedisStandaloneConfiguration standaloneConfig = parse(node);
+            String name = standaloneConfig.getHostName() + ":" + standaloneConfig.getPort();
+            Assert.isTrue(!connectionFactories.containsKey(name), "分片节点重复！node = " + node);
+            JedisConnectionFactory connectionFactory = new JedisConnectionFactory(standaloneConfig);
+            connectionFactory.afterPropertiesSet();
+            connectionFactories.put(name, connectionFactory);
+        }
+    }
+
+    /**
+     * 解析节点地址，格式：redis://[:password@]host:port[/database]
+     */
+    static RedisStandaloneConfiguration parse(String node) {
+        URI uri = URI.create(node.contains("://") ? node : "redis://" + node);
+        Assert.hasText(uri.getHost(), "节点地址不正确！node = " + node);
+        RedisStandaloneConfiguration standaloneConfig = new RedisStandaloneConfiguration(uri.getHost(),
+                uri.getPort() > 0 ? uri.getPort() : DEFAULT_PORT);
+        String userInfo = uri.getUserInfo();
+        if (StringUtils.hasText(userInfo)) {
+            // 只有密码时，userInfo 为 ":password"
+            standaloneConfig.setPassword(RedisPassword.of(userInfo.substring(userInfo.indexOf(':') + 1)));
+        }
+        String path = uri.getPath();
+        if (StringUtils.hasText(path) && path.length() > 1) {
+            standaloneConfig.setDatabase(Integer.parseInt(path.substring(1)));
+        }
+        return standaloneConfig;
+    }
+
+    /**
+     * 分片名称（host:port）-> 连接工厂
+     */
+    public Map<String, JedisConnectionFactory> getConnectionFactories() {
+        return Collections.unmodifiableMap(connectionFactories);
+    }
+
+    /**
+     * 为每个分片创建一个 StringRedisTemplate
+     */
+    public Map<String, StringRedisTemplate> createTemplates() {
+        Map<String, StringRedisTemplate> templates = new LinkedHashMap<>();
+        connectionFactories.forEach((name, connectionFactory) -> templates.put(name, new StringRedisTemplate(connectionFactory)));
+        return templates;
+    }
+
+    @Override
+    public void destroy() {
+        connectionFactories.values().forEach(JedisConnectionFactory::destroy);
+    }
+}
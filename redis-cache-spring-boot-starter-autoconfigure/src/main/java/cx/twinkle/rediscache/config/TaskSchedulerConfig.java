@@ -1,13 +1,20 @@
 package cx.twinkle.rediscache.config;
 
+import cx.twinkle.rediscache.cache.CacheKeyLayout;
 import cx.twinkle.rediscache.task.CacheCleanTask;
+import cx.twinkle.rediscache.task.CacheIndexSweeper;
+import cx.twinkle.rediscache.task.CacheIndexSweeperGroup;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.data.redis.core.StringRedisTemplate;
 import org.springframework.scheduling.TaskScheduler;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
 
+import java.util.ArrayList;
+import java.util.List;
+
 /**
  * @author twinkle
  * @version 2019/12/28 17:32
@@ -20,11 +27,45 @@ public class TaskSchedulerConfig {
         return new ThreadPoolTaskScheduler();
     }
 
+    @Bean(destroyMethod = "shutdown")
+    @ConditionalOnProperty(prefix = "ct.cache.index-sweep", name = "enabled", havingValue = "true")
+    public CacheIndexSweeper cacheIndexSweeper(CustomCacheConfig customCacheConfig, TaskScheduler taskScheduler,
+                                               StringRedisTemplate stringRedisTemplate, CacheKeyLayout redisCacheKeyLayout) {
+        CacheIndexSweeper sweeper = new CacheIndexSweeper(taskScheduler, stringRedisTemplate);
+        sweeper.setConfig(customCacheConfig.getIndexSweep());
+        sweeper.setKeyLayout(redisCacheKeyLayout);
+        return sweeper;
+    }
+
+    /**
+     * 开启分片时，每个分片上的索引由各自的 CacheIndexSweeper 清理；关闭增量清理时为空
+     */
+    @Bean(destroyMethod = "shutdown")
+    @ConditionalOnProperty(prefix = "ct.cache.sharding", name = "enabled", havingValue = "true")
+    public CacheIndexSweeperGroup cacheShardIndexSweepers(CustomCacheConfig customCacheConfig, TaskScheduler taskScheduler,
+                                                          RedisCacheShards redisCacheShards) {
+        List<CacheIndexSweeper> sweepers = new ArrayList<>();
+        if (customCacheConfig.getIndexSweep().isEnabled()) {
+            redisCacheShards.createTemplates().values().forEach(shardTemplate -> {
+                CacheIndexSweeper sweeper = new CacheIndexSweeper(taskScheduler, shardTemplate);
+                sweeper.setConfig(customCacheConfig.getIndexSweep());
+                sweepers.add(sweeper);
+            });
+        }
+        return new CacheIndexSweeperGroup(sweepers);
+    }
+
+    /**
+     * 默认使用每日清理任务；开启增量清理后不再创建
+     */
     @Bean
-    public CacheCleanTask cacheCleanTask(CustomCacheConfig customCacheConfig, TaskScheduler taskScheduler, StringRedisTemplate stringRedisTemplate) {
+    @ConditionalOnProperty(prefix = "ct.cache.index-sweep", name = "enabled", havingValue = "false", matchIfMissing = true)
+    public CacheCleanTask cacheCleanTask(CustomCacheConfig customCacheConfig, TaskScheduler taskScheduler, StringRedisTemplate stringRedisTemplate,
+                                         CacheKeyLayout redisCacheKeyLayout) {
         CacheCleanTask task = new CacheCleanTask(taskScheduler, stringRedisTemplate);
         String cron = customCacheConfig.getCleanTaskCron();
         task.setCron(cron);
+        task.setKeyLayout(redisCacheKeyLayout);
         return task;
     }
 }